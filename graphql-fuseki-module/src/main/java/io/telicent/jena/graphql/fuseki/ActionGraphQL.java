@@ -17,20 +17,31 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import graphql.ExecutionResult;
+import io.telicent.jena.graphql.execution.AbstractDatasetExecutor;
+import io.telicent.jena.graphql.execution.AdmissionController;
+import io.telicent.jena.graphql.execution.CachePolicy;
 import io.telicent.jena.graphql.execution.GraphQLOverDatasetExecutor;
+import io.telicent.jena.graphql.execution.RequestDeadline;
 import io.telicent.jena.graphql.server.model.GraphQLOverHttp;
 import io.telicent.jena.graphql.server.model.GraphQLRequest;
+import io.telicent.jena.graphql.utils.DatasetGeneration;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Strings;
 import org.apache.jena.atlas.logging.FmtLog;
+import org.apache.jena.fuseki.servlets.ActionErrorException;
 import org.apache.jena.fuseki.servlets.ActionLib;
 import org.apache.jena.fuseki.servlets.ActionService;
 import org.apache.jena.fuseki.servlets.HttpAction;
 import org.apache.jena.fuseki.servlets.ServletOps;
 import org.apache.jena.riot.WebContent;
+import org.apache.jena.riot.web.HttpNames;
 import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.web.HttpSC;
+import org.eclipse.jetty.ee11.servlet.ServletContextRequest;
 
 /**
  * A Fuseki action that evaluates GraphQL Requests using a configured Jena GraphQL {@link GraphQLOverDatasetExecutor}
@@ -62,7 +73,13 @@ public class ActionGraphQL extends ActionService {
         }
     }
 
-    private final GraphQLOverDatasetExecutor executor;
+    private static final String HEADER_RETRY_AFTER = "Retry-After";
+
+    private final Supplier<? extends GraphQLOverDatasetExecutor> executorSupplier;
+    private volatile GraphQLOverDatasetExecutor executor;
+    private volatile AdmissionController admissionController;
+    private volatile long queryTimeout = 0;
+    private volatile QueryLog queryLog = QueryLog.DEFAULT;
 
     /**
      * Creates a new GraphQL Action
@@ -71,6 +88,95 @@ public class ActionGraphQL extends ActionService {
      */
     public ActionGraphQL(GraphQLOverDatasetExecutor executor) {
         this.executor = Objects.requireNonNull(executor, "GraphQL Executor cannot be null");
+        this.executorSupplier = () -> executor;
+    }
+
+    /**
+     * Creates a new GraphQL Action whose executor is obtained from the given supplier when the first request is
+     * received, e.g. from {@link GraphQLExecutorRegistry#lazy(Class)}
+     *
+     * @param executorSupplier Supplier of the GraphQL Executor to use
+     */
+    public ActionGraphQL(Supplier<? extends GraphQLOverDatasetExecutor> executorSupplier) {
+        this.executorSupplier = Objects.requireNonNull(executorSupplier, "GraphQL Executor supplier cannot be null");
+    }
+
+    /**
+     * Gets the executor for this action, obtaining it from the supplier if it has not yet been obtained
+     *
+     * @return GraphQL Executor
+     */
+    public GraphQLOverDatasetExecutor getExecutor() {
+        GraphQLOverDatasetExecutor current = this.executor;
+        if (current == null) {
+            current = Objects.requireNonNull(this.executorSupplier.get(), "GraphQL Executor supplier returned null");
+            this.executor = current;
+        }
+        return current;
+    }
+
+    /**
+     * Gets the query timeout applied to requests received by this action
+     *
+     * @return Query timeout in milliseconds, {@code 0} if no timeout applies
+     */
+    public long getQueryTimeout() {
+        return this.queryTimeout;
+    }
+
+    /**
+     * Sets the query timeout applied to requests received by this action
+     * <p>
+     * This is applied in addition to any timeout configured on the executor itself, so endpoints that share an
+     * executor, see {@link GraphQLExecutorRegistry}, may each apply their own timeout.  Clients may request a shorter
+     * timeout via the {@value RequestDeadline#TIMEOUT_EXTENSION} extension.
+     * </p>
+     *
+     * @param timeoutMs Query timeout in milliseconds, {@code 0} or less for no timeout
+     */
+    public void setQueryTimeout(long timeoutMs) {
+        this.queryTimeout = Math.max(0, timeoutMs);
+    }
+
+    /**
+     * Gets the query log for this action
+     *
+     * @return Query log
+     */
+    public QueryLog getQueryLog() {
+        return this.queryLog;
+    }
+
+    /**
+     * Sets the query log for this action, which logs a sample of the requests received along with their timings
+     *
+     * @param queryLog Query log, {@code null} is treated as {@link QueryLog#DEFAULT}, use {@link QueryLog#DISABLED} to
+     *                 not log requests
+     */
+    public void setQueryLog(QueryLog queryLog) {
+        this.queryLog = queryLog != null ? queryLog : QueryLog.DEFAULT;
+    }
+
+    /**
+     * Gets the admission controller for this action
+     *
+     * @return Admission controller, or {@code null} if requests are always admitted
+     */
+    public AdmissionController getAdmissionController() {
+        return this.admissionController;
+    }
+
+    /**
+     * Sets the admission controller for this action
+     * <p>
+     * Requests that the controller does not admit are rejected with a {@code 503 Service Unavailable} response and a
+     * {@code Retry-After} header.
+     * </p>
+     *
+     * @param admissionController Admission controller, or {@code null} to always admit requests
+     */
+    public void setAdmissionController(AdmissionController admissionController) {
+        this.admissionController = admissionController;
     }
 
     @Override
@@ -112,6 +218,8 @@ public class ActionGraphQL extends ActionService {
 
     @Override
     public final void execute(HttpAction httpAction) {
+        long start = System.nanoTime();
+
         // Parse in the GraphQL Request which may have arrived as either a GET or a POST
         String method = httpAction.getRequestMethod().toUpperCase(Locale.ROOT);
 
@@ -122,25 +230,189 @@ public class ActionGraphQL extends ActionService {
         } catch (Throwable e) {
             ServletOps.errorBadRequest(e.getMessage());
         }
+        // Clients may request a normalised response via the Accept header as well as via an extension
+        request.setExtensions(
+                GraphQLOverHttp.applyAccept(request.getExtensions(), httpAction.getRequestHeader(HttpNames.hAccept)));
 
-        httpAction.beginRead();
+        // The request is logged once it ends whatever the outcome, a request that fails is always logged
+        int status = HttpSC.INTERNAL_SERVER_ERROR_500;
+        int errors = 0;
+        long prepareNanos = -1, executeNanos = -1;
+        Throwable failure = null;
         try {
-            DatasetGraph dsg = httpAction.getActiveDSG();
-            dsg = prepare(httpAction, request, dsg);
+            ExecutionResult result;
+            CachePolicy cachePolicy = CachePolicy.NONE;
+            String etag = null;
 
-            FmtLog.info(httpAction.log, "[%d] GraphQL Query = \n%s", httpAction.id, request.getQuery());
-            ExecutionResult result = this.executor.execute(dsg, request);
+            // Admit the request before starting the read transaction so that waiting requests don't hold one open
+            try (AdmissionController.Permit ignored = admit(httpAction, request)) {
+                GraphQLOverDatasetExecutor executor = getExecutor();
 
+                // Only GET requests over a dataset whose writes are tracked may be revalidated, the generation MUST be
+                // read before the read transaction begins so a write committed meanwhile makes the ETag stale
+                AbstractDatasetExecutor cacheable = null;
+                long generation = 0;
+                if ("GET".equals(method) && executor instanceof AbstractDatasetExecutor datasetExecutor) {
+                    DatasetGeneration datasetGeneration = DatasetGeneration.get(httpAction.getDataset());
+                    if (datasetGeneration != null) {
+                        cacheable = datasetExecutor;
+                        generation = datasetGeneration.current();
+                    }
+                }
+
+                // This is the only read transaction for the request, the executor joins it, and passes it on to the
+                // fetchers via the request context, rather than each of them checking for or starting their own
+                httpAction.beginRead();
+                try {
+                    DatasetGraph dsg = httpAction.getActiveDSG();
+                    dsg = prepare(httpAction, request, dsg);
+
+                    // Computed after preparation since that may add extensions, e.g. credentials, that affect the
+                    // response
+                    if (cacheable != null) {
+                        cachePolicy = cacheable.getCachePolicy(request.getQuery(), request.getOperationName());
+                        etag = cacheable.getETag(generation, request.getQuery(), request.getOperationName(),
+                                                 request.getVariables(), request.getExtensions());
+                        if (GraphQLOverHttp.matchesETag(
+                                httpAction.getRequestHeader(GraphQLOverHttp.HEADER_IF_NONE_MATCH), etag)) {
+                            setCacheHeaders(httpAction, etag, cachePolicy);
+                            httpAction.setResponseStatus(HttpSC.NOT_MODIFIED_304);
+                            status = HttpSC.NOT_MODIFIED_304;
+                            return;
+                        }
+                    }
+
+                    RequestDeadline deadline = applyQueryTimeout(createDeadline(httpAction));
+                    long executing = System.nanoTime();
+                    prepareNanos = executing - start;
+                    result = executor.execute(dsg, request, deadline);
+                    executeNanos = System.nanoTime() - executing;
+                } finally {
+                    httpAction.endRead();
+                }
+            }
+
+            // The result is fully materialised so is written after the read transaction has ended, and the admission
+            // permit released, streaming it straight to the response
+            status = GraphQLOverHttp.selectHttpStatus(result);
+            errors = result.getErrors().size();
             httpAction.setResponseHeader("Content-Type", GraphQLOverHttp.CONTENT_TYPE_GRAPHQL_RESPONSE_JSON);
-            httpAction.setResponseStatus(GraphQLOverHttp.selectHttpStatus(result));
+            if (result.getErrors().isEmpty()) {
+                // Only complete results may be cached, errors such as timeouts may not recur
+                setCacheHeaders(httpAction, etag, cachePolicy);
+            }
+            httpAction.setResponseStatus(status);
             try (OutputStream output = httpAction.getResponseOutputStream()) {
                 GraphQLOverHttp.write(result, output);
             } catch (IOException e) {
                 ServletOps.warning(httpAction, "Failed to serialize GraphQL Results", e);
             }
+        } catch (Throwable e) {
+            failure = e;
+            if (e instanceof ActionErrorException error) {
+                status = error.getRC();
+            }
+            throw e;
         } finally {
-            httpAction.endRead();
+            this.queryLog.log(httpAction.log, httpAction.id, request, status, errors,
+                              timings(System.nanoTime() - start, prepareNanos, executeNanos), failure);
+        }
+    }
+
+    /**
+     * Splits the total time taken by a request into the time taken by each phase it reached
+     *
+     * @param totalNanos   Total time in nanoseconds taken by the request
+     * @param prepareNanos Time in nanoseconds taken to prepare the request, negative if it never finished preparing
+     * @param executeNanos Time in nanoseconds taken to execute the request, negative if it never finished executing
+     * @return Timings
+     */
+    private static QueryLog.Timings timings(long totalNanos, long prepareNanos, long executeNanos) {
+        if (prepareNanos < 0) {
+            return new QueryLog.Timings(totalNanos, 0, 0);
+        } else if (executeNanos < 0) {
+            return new QueryLog.Timings(prepareNanos, totalNanos - prepareNanos, 0);
+        }
+        return new QueryLog.Timings(prepareNanos, executeNanos, totalNanos - prepareNanos - executeNanos);
+    }
+
+    /**
+     * Sets the HTTP caching headers on the response
+     *
+     * @param action      The HTTP Action for this request
+     * @param etag        Entity tag, may be {@code null}
+     * @param cachePolicy Caching policy
+     */
+    private static void setCacheHeaders(HttpAction action, String etag, CachePolicy cachePolicy) {
+        if (etag != null) {
+            action.setResponseHeader(GraphQLOverHttp.HEADER_ETAG, etag);
+        }
+        String cacheControl = cachePolicy.toHeaderValue();
+        if (cacheControl != null) {
+            action.setResponseHeader(GraphQLOverHttp.HEADER_CACHE_CONTROL, cacheControl);
+        }
+    }
+
+    /**
+     * Admits the GraphQL Request via the configured admission controller, if any
+     *
+     * @param action  The HTTP Action for this request
+     * @param request The parsed GraphQL Request
+     * @return Permit, or {@code null} if no admission controller is configured
+     */
+    private AdmissionController.Permit admit(HttpAction action, GraphQLRequest request) {
+        AdmissionController admission = this.admissionController;
+        if (admission == null) {
+            return null;
+        }
+        try {
+            return admission.admit(request.getQuery());
+        } catch (RejectedExecutionException e) {
+            FmtLog.warn(action.log, "[%d] GraphQL Query rejected: %s", action.id, e.getMessage());
+            action.setResponseHeader(HEADER_RETRY_AFTER, Long.toString(admission.getRetryAfterSeconds()));
+            ServletOps.error(HttpSC.SERVICE_UNAVAILABLE_503, "Server is too busy to execute this request");
+            return null;
+        }
+    }
+
+    /**
+     * Creates the deadline for the GraphQL Request
+     * <p>
+     * The returned deadline is cancelled if the underlying Jetty request fails, e.g. because the client disconnected,
+     * so that the executing query stops promptly rather than holding its read transaction until completion.  The
+     * executor further restricts the deadline with its configured query timeout and any client supplied timeout hint.
+     * </p>
+     *
+     * @param action The HTTP Action for this request
+     * @return Request deadline
+     */
+    protected RequestDeadline createDeadline(HttpAction action) {
+        RequestDeadline deadline = RequestDeadline.create();
+        try {
+            ServletContextRequest request = ServletContextRequest.getServletContextRequest(action.getRequest());
+            if (request != null) {
+                request.addFailureListener(e -> deadline.cancel());
+            }
+        } catch (RuntimeException e) {
+            // Not running inside Jetty so can't detect client disconnects, rely upon the timeout alone
+        }
+        return deadline;
+    }
+
+    /**
+     * Restricts the deadline for the GraphQL Request by this action's query timeout, if any
+     *
+     * @param deadline Request deadline
+     * @return Restricted deadline
+     */
+    private RequestDeadline applyQueryTimeout(RequestDeadline deadline) {
+        long timeout = this.queryTimeout;
+        if (timeout <= 0) {
+            return deadline;
+        } else if (deadline == null || deadline == RequestDeadline.NONE) {
+            return RequestDeadline.after(timeout);
         }
+        return deadline.restrict(timeout);
     }
 
     /**
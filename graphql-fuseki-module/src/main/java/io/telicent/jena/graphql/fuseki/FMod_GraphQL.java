@@ -12,7 +12,10 @@
  */
 package io.telicent.jena.graphql.fuseki;
 
+import io.telicent.jena.graphql.execution.AbstractDatasetExecutor;
+import io.telicent.jena.graphql.execution.AdmissionController;
 import io.telicent.jena.graphql.execution.GraphQLOverDatasetExecutor;
+import io.telicent.jena.graphql.utils.DatasetGeneration;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Strings;
 import org.apache.jena.atlas.lib.Version;
@@ -21,14 +24,16 @@ import org.apache.jena.fuseki.Fuseki;
 import org.apache.jena.fuseki.main.FusekiServer;
 import org.apache.jena.fuseki.main.sys.FusekiAutoModule;
 import org.apache.jena.fuseki.server.DataAccessPoint;
+import org.apache.jena.fuseki.server.DataAccessPointRegistry;
+import org.apache.jena.fuseki.server.DataService;
 import org.apache.jena.fuseki.server.Endpoint;
 import org.apache.jena.fuseki.server.Operation;
 import org.apache.jena.fuseki.servlets.ActionProcessor;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.sparql.core.DatasetGraph;
-import org.apache.jena.sparql.core.DatasetGraphFactory;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -61,6 +66,47 @@ public class FMod_GraphQL implements FusekiAutoModule {
         FmtLog.info(Fuseki.configLog, "GraphQL Fuseki Module (%s)", VERSION);
     }
 
+    @Override
+    public void configured(FusekiServer.Builder serverBuilder, DataAccessPointRegistry dapRegistry,
+                           Model configModel) {
+        // Track writes to the datasets that are served over GraphQL before their endpoints are configured, this is
+        // what allows GraphQL GET responses to carry an ETag that clients may revalidate
+        for (DataAccessPoint dap : List.copyOf(dapRegistry.accessPoints())) {
+            DataAccessPoint tracked = trackGeneration(dap);
+            if (tracked != dap) {
+                dapRegistry.put(dap.getName(), tracked);
+            }
+        }
+        FusekiAutoModule.super.configured(serverBuilder, dapRegistry, configModel);
+    }
+
+    /**
+     * Ensures that writes to the dataset of a data access point with GraphQL endpoints are tracked by a
+     * {@link DatasetGeneration}
+     * <p>
+     * Writes made via Fuseki, e.g. SPARQL Update or the Graph Store Protocol, go through the data service's dataset so
+     * replacing that with a tracked wrapper advances the generation on every committed write.  Writes made directly to
+     * the underlying dataset, bypassing Fuseki, are not tracked.
+     * </p>
+     *
+     * @param dap Data access point
+     * @return Data access point whose dataset is tracked, or the original data access point if it has no GraphQL
+     * endpoints or its dataset is already tracked
+     */
+    static DataAccessPoint trackGeneration(DataAccessPoint dap) {
+        DataService dataService = dap.getDataService();
+        DatasetGraph dsg = dataService.getDataset();
+        if (dsg == null || dataService.getEndpoints(SysGraphQL.OP_GRAPHQL).isEmpty()) {
+            return dap;
+        }
+        DatasetGraph tracked = DatasetGeneration.track(dsg);
+        if (tracked == dsg) {
+            return dap;
+        }
+        FmtLog.info(Fuseki.configLog, "%s tracks writes to its dataset to support GraphQL ETags", dap.getName());
+        return new DataAccessPoint(dap.getName(), DataService.newBuilder(dataService).dataset(tracked).build());
+    }
+
     @Override
     public void configDataAccessPoint(DataAccessPoint dap, Model configModel) {
         // Wire up any GraphQL operations correctly
@@ -93,12 +139,16 @@ public class FMod_GraphQL implements FusekiAutoModule {
                                          endpointPath, cls);
                             return;
                         }
-                        GraphQLOverDatasetExecutor executor =
-                                (GraphQLOverDatasetExecutor) cls.getConstructor(DatasetGraph.class)
-                                                                .newInstance(DatasetGraphFactory.empty());
+                        // Executors are shared by every endpoint that uses the same class so that each schema is
+                        // only built once and the caches of parsed queries are shared
+                        GraphQLOverDatasetExecutor executor = getExecutorRegistry().getExecutor(
+                                cls.asSubclass(GraphQLOverDatasetExecutor.class));
                         FmtLog.info(Fuseki.configLog, "%s accepts GraphQL Requests using executor %s", endpointPath,
                                     executorCls);
                         ActionProcessor processor = createActionProcessor(executor);
+                        configureTimeout(endpointPath, e, executor, processor);
+                        configureAdmission(endpointPath, e, processor);
+                        configureQueryLog(endpointPath, e, processor);
                         e.setProcessor(processor);
                     } catch (ClassNotFoundException cnfEx) {
                         FmtLog.error(Fuseki.configLog,
@@ -121,6 +171,9 @@ public class FMod_GraphQL implements FusekiAutoModule {
                         FmtLog.error(Fuseki.configLog,
                                      "%s configured to use GraphQL executor %s whose constructor is not accessible",
                                      endpointPath, executorCls);
+                    } catch (ReflectiveOperationException ex) {
+                        FmtLog.error(Fuseki.configLog, "%s configured to use GraphQL executor %s which failed: %s",
+                                     endpointPath, executorCls, ex.getMessage());
                     }
                 } else {
                     FmtLog.error(Fuseki.configLog,
@@ -131,6 +184,108 @@ public class FMod_GraphQL implements FusekiAutoModule {
         });
     }
 
+    /**
+     * Gets the registry from which the executors for endpoints are obtained
+     * <p>
+     * The default is the shared {@link GraphQLExecutorRegistry#get()} registry so that endpoints using the same
+     * executor class share a single executor.
+     * </p>
+     *
+     * @return Executor registry
+     */
+    protected GraphQLExecutorRegistry getExecutorRegistry() {
+        return GraphQLExecutorRegistry.get();
+    }
+
+    /**
+     * Configures the query timeout for the endpoint, if one is defined in the endpoint context
+     * <p>
+     * Since executors are shared between endpoints the timeout is applied by the endpoint's action processor rather
+     * than the executor itself.
+     * </p>
+     *
+     * @param endpointPath Endpoint path
+     * @param endpoint     Endpoint
+     * @param executor     GraphQL executor for the endpoint
+     * @param processor    Action processor for the endpoint
+     */
+    private static void configureTimeout(String endpointPath, Endpoint endpoint, GraphQLOverDatasetExecutor executor,
+                                         ActionProcessor processor) {
+        String timeout =
+                endpoint.getContext() != null ? endpoint.getContext().getAsString(VocabGraphQL.TIMEOUT) : null;
+        if (StringUtils.isBlank(timeout)) {
+            return;
+        }
+        if (!(executor instanceof AbstractDatasetExecutor) || !(processor instanceof ActionGraphQL action)) {
+            FmtLog.warn(Fuseki.configLog,
+                        "%s configured with a GraphQL timeout but its executor does not support timeouts", endpointPath);
+            return;
+        }
+        try {
+            action.setQueryTimeout(Long.parseLong(timeout));
+            FmtLog.info(Fuseki.configLog, "%s applies a GraphQL query timeout of %s milliseconds", endpointPath,
+                        timeout);
+        } catch (NumberFormatException nfEx) {
+            FmtLog.error(Fuseki.configLog, "%s configured with an invalid GraphQL timeout %s", endpointPath, timeout);
+        }
+    }
+
+    /**
+     * Configures admission control for the action processor, if defined in the endpoint context
+     *
+     * @param endpointPath Endpoint path
+     * @param endpoint     Endpoint
+     * @param processor    Action processor for the endpoint
+     */
+    private static void configureAdmission(String endpointPath, Endpoint endpoint, ActionProcessor processor) {
+        String spec = endpoint.getContext() != null ? endpoint.getContext().getAsString(VocabGraphQL.ADMISSION) : null;
+        if (StringUtils.isBlank(spec)) {
+            return;
+        }
+        if (!(processor instanceof ActionGraphQL action)) {
+            FmtLog.warn(Fuseki.configLog,
+                        "%s configured with GraphQL admission control but its action processor does not support it",
+                        endpointPath);
+            return;
+        }
+        try {
+            AdmissionController admission = AdmissionController.parse(spec);
+            action.setAdmissionController(admission);
+            FmtLog.info(Fuseki.configLog, "%s applies GraphQL admission control %s", endpointPath, admission);
+        } catch (IllegalArgumentException ex) {
+            FmtLog.error(Fuseki.configLog, "%s configured with invalid GraphQL admission control %s: %s", endpointPath,
+                         spec, ex.getMessage());
+        }
+    }
+
+    /**
+     * Configures the query log for the action processor, if defined in the endpoint context
+     *
+     * @param endpointPath Endpoint path
+     * @param endpoint     Endpoint
+     * @param processor    Action processor for the endpoint
+     */
+    private static void configureQueryLog(String endpointPath, Endpoint endpoint, ActionProcessor processor) {
+        String spec = endpoint.getContext() != null ? endpoint.getContext().getAsString(VocabGraphQL.QUERY_LOG) : null;
+        if (StringUtils.isBlank(spec)) {
+            return;
+        }
+        if (!(processor instanceof ActionGraphQL action)) {
+            FmtLog.warn(Fuseki.configLog,
+                        "%s configured with a GraphQL query log but its action processor does not support it",
+                        endpointPath);
+            return;
+        }
+        try {
+            QueryLog queryLog = QueryLog.parse(spec);
+            action.setQueryLog(queryLog);
+            FmtLog.info(Fuseki.configLog, "%s applies GraphQL query log %s", endpointPath, queryLog);
+        } catch (IllegalArgumentException ex) {
+            FmtLog.error(Fuseki.configLog, "%s configured with invalid GraphQL query log %s: %s", endpointPath, spec,
+                         ex.getMessage());
+        }
+    }
+
     /**
      * Creates the action processor, an instance of the {@link org.apache.jena.fuseki.servlets.ActionProcessor}
      * interface, that will handle the processing of the GraphQL requests
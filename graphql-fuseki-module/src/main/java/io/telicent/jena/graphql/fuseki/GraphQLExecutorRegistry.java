@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fuseki;
+
+import io.telicent.jena.graphql.execution.GraphQLOverDatasetExecutor;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * A registry of GraphQL executors shared by every Fuseki endpoint that uses the same executor class
+ * <p>
+ * Fuseki executes GraphQL requests against the dataset of the endpoint that received them, rather than the dataset an
+ * executor was created with, so a single executor can serve every endpoint configured with its class.  Sharing them
+ * means that each executor's {@link graphql.schema.GraphQLSchema} is built once, rather than once per endpoint, and
+ * that its caches of parsed and validated queries and cache policies are shared between endpoints.  Per-endpoint
+ * configuration, such as timeouts and admission control, is applied by the {@link ActionGraphQL} for the endpoint
+ * rather than the executor.
+ * </p>
+ */
+public final class GraphQLExecutorRegistry {
+
+    private static final GraphQLExecutorRegistry SHARED = new GraphQLExecutorRegistry();
+
+    private final ConcurrentMap<Class<?>, GraphQLOverDatasetExecutor> executors = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new empty registry, most callers should use the shared registry from {@link #get()}
+     */
+    public GraphQLExecutorRegistry() {
+
+    }
+
+    /**
+     * Gets the shared registry
+     *
+     * @return Shared registry
+     */
+    public static GraphQLExecutorRegistry get() {
+        return SHARED;
+    }
+
+    /**
+     * Gets the executor for the given class, creating it if this is the first time it is requested
+     * <p>
+     * Executors are created via their public single argument constructor that takes a {@link DatasetGraph}, which is
+     * given an empty dataset.  If creation fails then nothing is registered so a subsequent call will try again.
+     * </p>
+     *
+     * @param cls Executor class
+     * @return Executor
+     * @throws ReflectiveOperationException Thrown if the executor cannot be created, e.g. because the class does not
+     *                                      provide the required constructor or its constructor throws an error
+     */
+    public GraphQLOverDatasetExecutor getExecutor(Class<? extends GraphQLOverDatasetExecutor> cls) throws
+            ReflectiveOperationException {
+        Objects.requireNonNull(cls, "Executor class cannot be null");
+        GraphQLOverDatasetExecutor executor = this.executors.get(cls);
+        if (executor != null) {
+            return executor;
+        }
+        try {
+            return this.executors.computeIfAbsent(cls, c -> {
+                try {
+                    return cls.getConstructor(DatasetGraph.class).newInstance(DatasetGraphFactory.empty());
+                } catch (ReflectiveOperationException e) {
+                    throw new CreationFailure(e);
+                }
+            });
+        } catch (CreationFailure e) {
+            throw e.cause;
+        }
+    }
+
+    /**
+     * Gets a supplier that obtains the executor for the given class from this registry when first called, and
+     * thereafter returns the same executor
+     * <p>
+     * This allows an executor to be associated with an action without incurring the cost of creating it unless a
+     * request is actually received.
+     * </p>
+     *
+     * @param cls Executor class
+     * @return Executor supplier, which throws an {@link IllegalStateException} if the executor cannot be created
+     */
+    public Supplier<GraphQLOverDatasetExecutor> lazy(Class<? extends GraphQLOverDatasetExecutor> cls) {
+        Objects.requireNonNull(cls, "Executor class cannot be null");
+        return new Supplier<>() {
+            private volatile GraphQLOverDatasetExecutor executor;
+
+            @Override
+            public GraphQLOverDatasetExecutor get() {
+                GraphQLOverDatasetExecutor current = this.executor;
+                if (current == null) {
+                    try {
+                        current = getExecutor(cls);
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException("Failed to create GraphQL executor " + cls.getName(), e);
+                    }
+                    this.executor = current;
+                }
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Gets whether an executor for the given class has been created
+     *
+     * @param cls Executor class
+     * @return True if created, false otherwise
+     */
+    public boolean isCreated(Class<?> cls) {
+        return this.executors.containsKey(cls);
+    }
+
+    /**
+     * Carries a checked creation failure out of {@link ConcurrentMap#computeIfAbsent}
+     */
+    private static final class CreationFailure extends RuntimeException {
+        private final ReflectiveOperationException cause;
+
+        private CreationFailure(ReflectiveOperationException cause) {
+            super(cause);
+            this.cause = cause;
+        }
+    }
+}
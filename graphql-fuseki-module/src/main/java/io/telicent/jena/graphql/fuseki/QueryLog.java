@@ -0,0 +1,238 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fuseki;
+
+import io.telicent.jena.graphql.server.model.GraphQLRequest;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.atlas.logging.FmtLog;
+import org.slf4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sampled, structured, log of the GraphQL requests executed by an {@link ActionGraphQL}
+ * <p>
+ * Rather than logging the full text of every query, which is costly for small queries and floods the logs under load,
+ * a single line summarising the request, and how long each phase of it took, is logged for a random sample of
+ * requests.  Requests that take at least {@code slowMillis} are always logged.  The summary identifies the query by
+ * its operation name and a hash of its text, so repeated executions of the same query can be correlated, the full query
+ * text is only logged, alongside the summary, if {@code DEBUG} logging is enabled.  Requests that fail are always
+ * logged, along with their full query text.
+ * </p>
+ */
+public final class QueryLog {
+
+    /**
+     * Default proportion of requests that are logged
+     */
+    public static final double DEFAULT_SAMPLE_RATE = 0.01;
+
+    /**
+     * Default time in milliseconds from which requests are always logged
+     */
+    public static final long DEFAULT_SLOW_MILLIS = 1_000;
+
+    /**
+     * The default query log
+     */
+    public static final QueryLog DEFAULT = new QueryLog(DEFAULT_SAMPLE_RATE, DEFAULT_SLOW_MILLIS);
+
+    /**
+     * A query log that never logs requests
+     */
+    public static final QueryLog DISABLED = new QueryLog(0, 0);
+
+    private static final String SUMMARY_FORMAT =
+            "[%d] GraphQL Query operation=%s hash=%08x length=%d status=%d errors=%d outcome=%s " +
+            "prepare=%.3fms execute=%.3fms write=%.3fms total=%.3fms";
+
+    private final double sampleRate;
+    private final long slowMillis;
+
+    /**
+     * Creates a new query log
+     *
+     * @param sampleRate Proportion of requests that are logged, between {@code 0} and {@code 1} inclusive
+     * @param slowMillis Time in milliseconds from which requests are always logged, {@code 0} if requests are only
+     *                   logged when sampled
+     */
+    public QueryLog(double sampleRate, long slowMillis) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("sampleRate must be between 0 and 1");
+        }
+        if (slowMillis < 0) {
+            throw new IllegalArgumentException("slowMillis must not be negative");
+        }
+        this.sampleRate = sampleRate;
+        this.slowMillis = slowMillis;
+    }
+
+    /**
+     * Parses a query log specification
+     * <p>
+     * A specification is a comma separated list of {@code key=value} pairs, the supported keys are {@code sample} for
+     * the sample rate, defaulting to {@value #DEFAULT_SAMPLE_RATE}, and {@code slow} for the time in milliseconds from
+     * which requests are always logged, defaulting to {@value #DEFAULT_SLOW_MILLIS}.  For example
+     * {@code sample=0.1,slow=500}.
+     * </p>
+     *
+     * @param spec Specification
+     * @return Query log
+     * @throws IllegalArgumentException Thrown if the specification is invalid
+     */
+    public static QueryLog parse(String spec) {
+        if (StringUtils.isBlank(spec)) {
+            throw new IllegalArgumentException("Query log specification cannot be blank");
+        }
+        Map<String, String> values = new HashMap<>();
+        for (String pair : spec.split(",")) {
+            String[] parts = pair.split("=", 2);
+            if (parts.length != 2 || StringUtils.isAnyBlank(parts[0], parts[1])) {
+                throw new IllegalArgumentException("Query log specification has invalid entry '" + pair + "'");
+            }
+            values.put(parts[0].strip(), parts[1].strip());
+        }
+        try {
+            double sampleRate = Double.parseDouble(values.getOrDefault("sample", Double.toString(DEFAULT_SAMPLE_RATE)));
+            long slowMillis = Long.parseLong(values.getOrDefault("slow", Long.toString(DEFAULT_SLOW_MILLIS)));
+            values.keySet().removeAll(Set.of("sample", "slow"));
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Query log specification has unknown keys " + values.keySet());
+            }
+            return new QueryLog(sampleRate, slowMillis);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Query log specification has an invalid number: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the proportion of requests that are logged
+     *
+     * @return Sample rate
+     */
+    public double getSampleRate() {
+        return this.sampleRate;
+    }
+
+    /**
+     * Gets the time in milliseconds from which requests are always logged
+     *
+     * @return Slow request time, {@code 0} if requests are only logged when sampled
+     */
+    public long getSlowMillis() {
+        return this.slowMillis;
+    }
+
+    /**
+     * Decides whether a request that took the given time is logged
+     *
+     * @param elapsedNanos Time the request took in nanoseconds
+     * @return True if the request is logged, false otherwise
+     */
+    boolean isLogged(long elapsedNanos) {
+        if (this.slowMillis > 0 && elapsedNanos >= TimeUnit.MILLISECONDS.toNanos(this.slowMillis)) {
+            return true;
+        }
+        if (this.sampleRate >= 1) {
+            return true;
+        }
+        return this.sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < this.sampleRate;
+    }
+
+    /**
+     * Logs a request that completed, if it is sampled or slow
+     *
+     * @param log     Logger
+     * @param id      Request ID
+     * @param request GraphQL Request
+     * @param status  HTTP Status code of the response
+     * @param errors  Number of GraphQL errors in the response
+     * @param timings Timings for the request
+     * @return True if the request was logged, false otherwise
+     */
+    public boolean log(Logger log, long id, GraphQLRequest request, int status, int errors, Timings timings) {
+        return log(log, id, request, status, errors, timings, null);
+    }
+
+    /**
+     * Logs a request, if it failed, is sampled or is slow
+     * <p>
+     * A request that failed, i.e. ended by throwing rather than producing a response, is always logged, at
+     * {@code WARN} level, together with its full query text so the failure can be reproduced.
+     * </p>
+     *
+     * @param log     Logger
+     * @param id      Request ID
+     * @param request GraphQL Request, may be {@code null} if the request failed before it was parsed
+     * @param status  HTTP Status code of the response
+     * @param errors  Number of GraphQL errors in the response
+     * @param timings Timings for the request
+     * @param failure Error the request failed with, {@code null} if it completed
+     * @return True if the request was logged, false otherwise
+     */
+    public boolean log(Logger log, long id, GraphQLRequest request, int status, int errors, Timings timings,
+                       Throwable failure) {
+        if (failure == null && !isLogged(timings.total())) {
+            return false;
+        }
+        String query = request != null && request.getQuery() != null ? request.getQuery() : "";
+        Object[] args = {
+                id, request != null ? request.getOperationName() : null, query.hashCode(), query.length(), status,
+                errors, failure == null ? "completed" : "failed", millis(timings.prepareNanos()),
+                millis(timings.executeNanos()), millis(timings.writeNanos()), millis(timings.total())
+        };
+        if (failure != null) {
+            FmtLog.warn(log, SUMMARY_FORMAT, args);
+            FmtLog.warn(log, "[%d] GraphQL Query failed with %s: %s = \n%s", id, failure.getClass().getSimpleName(),
+                        failure.getMessage(), query);
+            return true;
+        }
+        FmtLog.info(log, SUMMARY_FORMAT, args);
+        if (log.isDebugEnabled()) {
+            FmtLog.debug(log, "[%d] GraphQL Query = \n%s", id, query);
+        }
+        return true;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryLog{sample=" + this.sampleRate + ", slow=" + this.slowMillis + "ms}";
+    }
+
+    /**
+     * The time taken by each phase of a request
+     *
+     * @param prepareNanos Time in nanoseconds taken to parse, admit and prepare the request
+     * @param executeNanos Time in nanoseconds taken to execute the request
+     * @param writeNanos   Time in nanoseconds taken to write the response
+     */
+    public record Timings(long prepareNanos, long executeNanos, long writeNanos) {
+
+        /**
+         * Gets the total time taken by the request
+         *
+         * @return Total time in nanoseconds
+         */
+        public long total() {
+            return this.prepareNanos + this.executeNanos + this.writeNanos;
+        }
+    }
+}
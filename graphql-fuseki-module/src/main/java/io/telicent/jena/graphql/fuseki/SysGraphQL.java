@@ -13,13 +13,10 @@
 package io.telicent.jena.graphql.fuseki;
 
 import io.telicent.jena.graphql.execution.DatasetExecutor;
-import org.apache.jena.fuseki.Fuseki;
 import org.apache.jena.fuseki.server.Operation;
 import org.apache.jena.fuseki.server.OperationRegistry;
 import org.apache.jena.fuseki.servlets.ActionService;
-import org.apache.jena.sparql.core.DatasetGraphFactory;
 
-import java.io.IOException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -47,13 +44,10 @@ public class SysGraphQL {
         if (initialized) {
             return;
         }
-        // GraphQL Actions for Fuseki
-        try {
-            ActionService graphQL = new ActionGraphQL(new DatasetExecutor(DatasetGraphFactory.empty()));
-            OperationRegistry operationRegistry = OperationRegistry.get();
-            operationRegistry.register(OP_GRAPHQL, graphQL);
-        } catch (IOException e) {
-            Fuseki.configLog.warn("Failed to register Fuseki GraphQL Operation");
-        }
+        // GraphQL Actions for Fuseki, endpoints configured with an executor are given their own action when the module
+        // configures them so the default executor is only created if a request is actually received without one
+        ActionService graphQL = new ActionGraphQL(GraphQLExecutorRegistry.get().lazy(DatasetExecutor.class));
+        OperationRegistry operationRegistry = OperationRegistry.get();
+        operationRegistry.register(OP_GRAPHQL, graphQL);
     }
 }
@@ -34,4 +34,23 @@ public class VocabGraphQL {
      * implementation to use for a GraphQL endpoint
      */
     public static final Symbol EXECUTOR = Symbol.create("graphql:executor");
+
+    /**
+     * Context symbol used to define the query timeout, in milliseconds, for a GraphQL endpoint, this only applies if
+     * the configured executor is an {@link io.telicent.jena.graphql.execution.AbstractDatasetExecutor}
+     */
+    public static final Symbol TIMEOUT = Symbol.create("graphql:timeout");
+
+    /**
+     * Context symbol used to define admission control for a GraphQL endpoint, the value is an
+     * {@link io.telicent.jena.graphql.execution.AdmissionController} specification as accepted by
+     * {@link io.telicent.jena.graphql.execution.AdmissionController#parse(String)}
+     */
+    public static final Symbol ADMISSION = Symbol.create("graphql:admission");
+
+    /**
+     * Context symbol used to configure the query log for a GraphQL endpoint, the value is a {@link QueryLog}
+     * specification as accepted by {@link QueryLog#parse(String)}
+     */
+    public static final Symbol QUERY_LOG = Symbol.create("graphql:query-log");
 }
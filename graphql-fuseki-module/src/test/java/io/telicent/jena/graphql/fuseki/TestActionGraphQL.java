@@ -13,19 +13,27 @@
 package io.telicent.jena.graphql.fuseki;
 
 import static org.apache.jena.fuseki.system.ActionCategory.ACTION;
+import static org.mockito.AdditionalMatchers.and;
 import static org.mockito.Mockito.*;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.expectThrows;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.telicent.jena.graphql.execution.AdmissionController;
 import io.telicent.jena.graphql.execution.DatasetExecutor;
+import io.telicent.jena.graphql.server.model.GraphQLOverHttp;
 import io.telicent.jena.graphql.server.model.GraphQLRequest;
+import io.telicent.jena.graphql.utils.DatasetGeneration;
 import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletInputStream;
@@ -35,8 +43,13 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.apache.jena.fuseki.server.DataService;
 import org.apache.jena.fuseki.servlets.ActionErrorException;
 import org.apache.jena.fuseki.servlets.HttpAction;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.riot.WebContent;
+import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.Txn;
+import org.apache.jena.web.HttpSC;
 import org.eclipse.jetty.ee11.servlet.ServletContextHandler;
 import org.slf4j.Logger;
 import org.testng.annotations.*;
@@ -237,6 +250,253 @@ public class TestActionGraphQL {
         verify(LOGGER, never()).warn(eq("Failed to serialize GraphQL Results"), any(IOException.class));
     }
 
+    @Test
+    public void test_process_admissionRejected() {
+        // given
+        ActionGraphQL action = new ActionGraphQL(new DatasetExecutor(DatasetGraphFactory.empty()));
+        AdmissionController admission = new AdmissionController(1, 0, 0);
+        action.setAdmissionController(admission);
+        when(MOCK_REQUEST.getMethod()).thenReturn("GET");
+        when(MOCK_REQUEST.getParameter("query")).thenReturn(SAMPLE_QUERY);
+
+        // when
+        ActionErrorException error;
+        try (AdmissionController.Permit ignored = admission.admit(SAMPLE_QUERY)) {
+            error = expectThrows(ActionErrorException.class, () -> action.process(getHttpAction()));
+        }
+
+        // then
+        assertEquals(error.getRC(), HttpSC.SERVICE_UNAVAILABLE_503);
+        verify(MOCK_RESPONSE).setHeader("Retry-After", "1");
+        assertEquals(admission.getActive(), 0);
+    }
+
+    @Test
+    public void test_process_queryLogFailure() {
+        // given
+        ActionGraphQL action = new ActionGraphQL(new DatasetExecutor(DatasetGraphFactory.empty()));
+        action.setQueryLog(QueryLog.DISABLED);
+        AdmissionController admission = new AdmissionController(1, 0, 0);
+        action.setAdmissionController(admission);
+        when(LOGGER.isWarnEnabled()).thenReturn(true);
+        when(MOCK_REQUEST.getMethod()).thenReturn("GET");
+        when(MOCK_REQUEST.getParameter("query")).thenReturn(SAMPLE_QUERY);
+
+        // when
+        try (AdmissionController.Permit ignored = admission.admit(SAMPLE_QUERY)) {
+            expectThrows(ActionErrorException.class, () -> action.process(getHttpAction()));
+        }
+
+        // then
+        verify(LOGGER).warn(and(contains("outcome=failed"), contains("status=503")));
+        verify(LOGGER).warn(contains(SAMPLE_QUERY));
+    }
+
+    @Test
+    public void test_process_admitted() throws IOException {
+        // given
+        ActionGraphQL action = new ActionGraphQL(new DatasetExecutor(DatasetGraphFactory.empty()));
+        AdmissionController admission = new AdmissionController(1, 0, 0);
+        action.setAdmissionController(admission);
+        when(MOCK_REQUEST.getMethod()).thenReturn("GET");
+        when(MOCK_REQUEST.getParameter("query")).thenReturn(SAMPLE_QUERY);
+        ServletOutputStream outputStream = mock(ServletOutputStream.class);
+        when(MOCK_RESPONSE.getOutputStream()).thenReturn(outputStream);
+        DataService mockDataService = mock(DataService.class);
+        when(mockDataService.getDataset()).thenReturn(DatasetGraphFactory.empty());
+        HttpAction httpAction = getHttpAction();
+        httpAction.setRequest(null, mockDataService);
+
+        // when
+        action.process(httpAction);
+
+        // then
+        assertSame(action.getAdmissionController(), admission);
+        assertEquals(admission.getActive(), 0);
+        verify(MOCK_RESPONSE, never()).setHeader(eq("Retry-After"), anyString());
+    }
+
+    @Test
+    public void test_process_notModified() throws IOException {
+        // given
+        DatasetGraph dsg = DatasetGeneration.track(DatasetGraphFactory.createTxnMem());
+        DatasetExecutor executor = new DatasetExecutor(dsg);
+        ActionGraphQL action = new ActionGraphQL(executor);
+        String etag = executor.getETag(dsg, SAMPLE_QUERY, null, null, null);
+        when(MOCK_REQUEST.getMethod()).thenReturn("GET");
+        when(MOCK_REQUEST.getParameter("query")).thenReturn(SAMPLE_QUERY);
+        when(MOCK_REQUEST.getHeader(GraphQLOverHttp.HEADER_IF_NONE_MATCH)).thenReturn(etag);
+        ServletOutputStream outputStream = mock(ServletOutputStream.class);
+        when(MOCK_RESPONSE.getOutputStream()).thenReturn(outputStream);
+        DataService mockDataService = mock(DataService.class);
+        when(mockDataService.getDataset()).thenReturn(dsg);
+        HttpAction httpAction = getHttpAction();
+        httpAction.setRequest(null, mockDataService);
+
+        // when
+        action.process(httpAction);
+
+        // then
+        verify(MOCK_RESPONSE).setStatus(HttpSC.NOT_MODIFIED_304);
+        verify(MOCK_RESPONSE).setHeader(GraphQLOverHttp.HEADER_ETAG, etag);
+        verify(MOCK_RESPONSE).setHeader(GraphQLOverHttp.HEADER_CACHE_CONTROL, "public, no-cache");
+        verify(MOCK_RESPONSE, never()).getOutputStream();
+    }
+
+    @Test
+    public void test_process_modified() throws IOException {
+        // given
+        DatasetGraph dsg = DatasetGeneration.track(DatasetGraphFactory.createTxnMem());
+        DatasetExecutor executor = new DatasetExecutor(dsg);
+        ActionGraphQL action = new ActionGraphQL(executor);
+        String stale = executor.getETag(dsg, SAMPLE_QUERY, null, null, null);
+        Txn.executeWrite(dsg, () -> dsg.add(Quad.defaultGraphIRI, NodeFactory.createURI("https://example.org/s"),
+                                            NodeFactory.createURI("https://example.org/p"),
+                                            NodeFactory.createLiteralString("o")));
+        String etag = executor.getETag(dsg, SAMPLE_QUERY, null, null, null);
+        when(MOCK_REQUEST.getMethod()).thenReturn("GET");
+        when(MOCK_REQUEST.getParameter("query")).thenReturn(SAMPLE_QUERY);
+        when(MOCK_REQUEST.getHeader(GraphQLOverHttp.HEADER_IF_NONE_MATCH)).thenReturn(stale);
+        ServletOutputStream outputStream = mock(ServletOutputStream.class);
+        when(MOCK_RESPONSE.getOutputStream()).thenReturn(outputStream);
+        DataService mockDataService = mock(DataService.class);
+        when(mockDataService.getDataset()).thenReturn(dsg);
+        HttpAction httpAction = getHttpAction();
+        httpAction.setRequest(null, mockDataService);
+
+        // when
+        action.process(httpAction);
+
+        // then
+        verify(MOCK_RESPONSE).setStatus(HttpSC.OK_200);
+        verify(MOCK_RESPONSE).setHeader(GraphQLOverHttp.HEADER_ETAG, etag);
+        verify(MOCK_RESPONSE, never()).setHeader(GraphQLOverHttp.HEADER_ETAG, stale);
+    }
+
+    @Test
+    public void test_process_lazyExecutor() throws IOException {
+        // given
+        AtomicInteger created = new AtomicInteger();
+        ActionGraphQL action = new ActionGraphQL(() -> {
+            created.incrementAndGet();
+            return new DatasetExecutor(DatasetGraphFactory.empty());
+        });
+        when(MOCK_REQUEST.getMethod()).thenReturn("GET");
+        when(MOCK_REQUEST.getParameter("query")).thenReturn(SAMPLE_QUERY);
+        ServletOutputStream outputStream = mock(ServletOutputStream.class);
+        when(MOCK_RESPONSE.getOutputStream()).thenReturn(outputStream);
+        DataService mockDataService = mock(DataService.class);
+        when(mockDataService.getDataset()).thenReturn(DatasetGraphFactory.empty());
+        HttpAction httpAction = getHttpAction();
+        httpAction.setRequest(null, mockDataService);
+        assertEquals(created.get(), 0);
+
+        // when
+        action.process(httpAction);
+
+        // then
+        assertEquals(created.get(), 1);
+        assertSame(action.getExecutor(), action.getExecutor());
+        assertEquals(created.get(), 1);
+        verify(MOCK_RESPONSE).setStatus(HttpSC.OK_200);
+    }
+
+    @Test
+    public void test_process_writesAfterTransaction() throws IOException {
+        // given
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        when(MOCK_REQUEST.getMethod()).thenReturn("GET");
+        when(MOCK_REQUEST.getParameter("query")).thenReturn(SAMPLE_QUERY);
+        AtomicInteger writes = new AtomicInteger();
+        AtomicInteger writesInTransaction = new AtomicInteger();
+        ServletOutputStream outputStream = mock(ServletOutputStream.class);
+        doAnswer(invocation -> {
+            writes.incrementAndGet();
+            if (dsg.isInTransaction()) {
+                writesInTransaction.incrementAndGet();
+            }
+            return null;
+        }).when(outputStream).write(any(byte[].class), anyInt(), anyInt());
+        when(MOCK_RESPONSE.getOutputStream()).thenReturn(outputStream);
+        DataService mockDataService = mock(DataService.class);
+        when(mockDataService.getDataset()).thenReturn(dsg);
+        HttpAction httpAction = getHttpAction();
+        httpAction.setRequest(null, mockDataService);
+
+        // when
+        ACTION_GRAPH_QL.process(httpAction);
+
+        // then
+        verify(MOCK_RESPONSE).setStatus(HttpSC.OK_200);
+        assertTrue(writes.get() > 0);
+        assertEquals(writesInTransaction.get(), 0);
+        assertFalse(dsg.isInTransaction());
+    }
+
+    @Test
+    public void test_process_queryLog() throws IOException {
+        // given
+        ActionGraphQL action = new ActionGraphQL(new DatasetExecutor(DatasetGraphFactory.empty()));
+        assertSame(action.getQueryLog(), QueryLog.DEFAULT);
+        action.setQueryLog(new QueryLog(1, 0));
+        when(LOGGER.isInfoEnabled()).thenReturn(true);
+        when(MOCK_REQUEST.getMethod()).thenReturn("GET");
+        when(MOCK_REQUEST.getParameter("query")).thenReturn(SAMPLE_QUERY);
+        ServletOutputStream outputStream = mock(ServletOutputStream.class);
+        when(MOCK_RESPONSE.getOutputStream()).thenReturn(outputStream);
+        DataService mockDataService = mock(DataService.class);
+        when(mockDataService.getDataset()).thenReturn(DatasetGraphFactory.empty());
+        HttpAction httpAction = getHttpAction();
+        httpAction.setRequest(null, mockDataService);
+
+        // when
+        action.process(httpAction);
+
+        // then
+        verify(LOGGER).info(and(contains("operation="), contains("status=200")));
+        verify(LOGGER, never()).info(contains(SAMPLE_QUERY));
+    }
+
+    @Test
+    public void test_process_queryLogDisabled() throws IOException {
+        // given
+        ActionGraphQL action = new ActionGraphQL(new DatasetExecutor(DatasetGraphFactory.empty()));
+        action.setQueryLog(QueryLog.DISABLED);
+        when(LOGGER.isInfoEnabled()).thenReturn(true);
+        when(MOCK_REQUEST.getMethod()).thenReturn("GET");
+        when(MOCK_REQUEST.getParameter("query")).thenReturn(SAMPLE_QUERY);
+        ServletOutputStream outputStream = mock(ServletOutputStream.class);
+        when(MOCK_RESPONSE.getOutputStream()).thenReturn(outputStream);
+        DataService mockDataService = mock(DataService.class);
+        when(mockDataService.getDataset()).thenReturn(DatasetGraphFactory.empty());
+        HttpAction httpAction = getHttpAction();
+        httpAction.setRequest(null, mockDataService);
+
+        // when
+        action.process(httpAction);
+
+        // then
+        verify(MOCK_RESPONSE).setStatus(HttpSC.OK_200);
+        verify(LOGGER, never()).info(contains("GraphQL Query"));
+        action.setQueryLog(null);
+        assertSame(action.getQueryLog(), QueryLog.DEFAULT);
+    }
+
+    @Test
+    public void test_queryTimeout() throws IOException {
+        // given
+        ActionGraphQL action = new ActionGraphQL(new DatasetExecutor(DatasetGraphFactory.empty()));
+        assertEquals(action.getQueryTimeout(), 0);
+
+        // when
+        action.setQueryTimeout(500);
+
+        // then
+        assertEquals(action.getQueryTimeout(), 500);
+        action.setQueryTimeout(-1);
+        assertEquals(action.getQueryTimeout(), 0);
+    }
+
     private HttpAction getHttpAction() {
         return new HttpAction(1L, LOGGER, ACTION, MOCK_REQUEST, MOCK_RESPONSE);
     }
@@ -15,15 +15,19 @@ package io.telicent.jena.graphql.fuseki;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.telicent.jena.graphql.execution.AdmissionController;
+import io.telicent.jena.graphql.execution.GraphQLOverDatasetExecutor;
 import io.telicent.jena.graphql.server.model.GraphQLOverHttp;
 import io.telicent.jena.graphql.server.model.GraphQLRequest;
 import org.apache.commons.io.IOUtils;
@@ -185,6 +189,57 @@ public class TestFusekiGraphQL {
         }
     }
 
+    @Test
+    public void givenMultipleEndpoints_whenSameExecutorClass_thenExecutorShared() {
+        // Given
+        FusekiServer server = build(new File("src/test/files/config-graphql-multiple.ttl")).build();
+        DataAccessPoint dap = server.getDataAccessPointRegistry().accessPoints().get(0);
+
+        // When
+        Map<String, GraphQLOverDatasetExecutor> executors = new HashMap<>();
+        dap.getDataService().getEndpoints(SysGraphQL.OP_GRAPHQL).forEach(e -> {
+            Assert.assertTrue(e.getProcessor() instanceof ActionGraphQL);
+            executors.put(e.isUnnamed() ? "" : e.getName(), ((ActionGraphQL) e.getProcessor()).getExecutor());
+        });
+
+        // Then
+        Assert.assertEquals(executors.size(), 4);
+        Assert.assertSame(executors.get("dataset-graphql"), executors.get(""));
+        Assert.assertNotSame(executors.get("dataset-graphql"), executors.get("traversal-graphql"));
+        Assert.assertSame(executors.get("count-graphql"),
+                          GraphQLExecutorRegistry.get().lazy(CountExecutor.class).get());
+    }
+
+    @Test
+    public void admission_config() throws IOException, InterruptedException {
+        FusekiServer server = build(new File("src/test/files/config-graphql-admission.ttl")).build();
+        DataAccessPoint dap = server.getDataAccessPointRegistry().accessPoints().get(0);
+        Assert.assertEquals(dap.getDataService().getEndpoints(SysGraphQL.OP_GRAPHQL).size(), 2);
+        dap.getDataService().getEndpoints(SysGraphQL.OP_GRAPHQL).forEach(e -> {
+            Assert.assertTrue(e.getProcessor() instanceof ActionGraphQL);
+            ActionGraphQL action = (ActionGraphQL) e.getProcessor();
+            if (Strings.CS.equals(e.getName(), "graphql")) {
+                AdmissionController admission = action.getAdmissionController();
+                Assert.assertNotNull(admission);
+                Assert.assertEquals(admission.getMaxConcurrent(), 4);
+                Assert.assertEquals(admission.getMaxQueued(), 8);
+                Assert.assertEquals(admission.getMaxWaitMillis(), 500);
+                Assert.assertEquals(admission.getCheapLaneConcurrent(), 2);
+            } else {
+                Assert.assertNull(action.getAdmissionController());
+            }
+        });
+        try {
+            server.start();
+            uploadTestData(server, "ds", "src/test/files/starwars.ttl");
+
+            verifySuccessfulQuery(server, "/simple.graphql", "graphql");
+            verifySuccessfulQuery(server, "/simple.graphql", "bad-admission-graphql");
+        } finally {
+            server.stop();
+        }
+    }
+
     @Test
     public void bad_config() throws IOException {
         FusekiServer server = build(new File("src/test/files/config-graphql-bad.ttl")).build();
@@ -262,4 +317,50 @@ public class TestFusekiGraphQL {
             server.stop();
         }
     }
+
+    private HttpResponse<byte[]> makeGraphQLGetRequest(FusekiServer server, String query, String ifNoneMatch) throws
+            IOException, InterruptedException {
+        //@formatter:off
+        HttpRequest.Builder builder =
+                HttpRequest.newBuilder(URI.create(server.datasetURL("ds") + "/graphql?query=" +
+                                                  URLEncoder.encode(query, StandardCharsets.UTF_8)))
+                           .header("Accept", GraphQLOverHttp.CONTENT_TYPE_GRAPHQL_RESPONSE_JSON)
+                           .GET();
+        //@formatter:on
+        if (ifNoneMatch != null) {
+            builder.header(GraphQLOverHttp.HEADER_IF_NONE_MATCH, ifNoneMatch);
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Test
+    public void givenConfiguredDataset_whenRevalidatingGetRequest_thenNotModifiedUntilWritten() throws IOException,
+            InterruptedException {
+        // Given
+        FusekiServer server = build(new File("src/test/files/config-graphql.ttl")).build();
+        try {
+            server.start();
+            uploadTestData(server, "ds", "src/test/files/starwars.ttl");
+            String query = IOUtils.resourceToString("/simple.graphql", StandardCharsets.UTF_8);
+            HttpResponse<byte[]> response = makeGraphQLGetRequest(server, query, null);
+            Assert.assertEquals(response.statusCode(), HttpSC.OK_200);
+            String etag = response.headers().firstValue(GraphQLOverHttp.HEADER_ETAG).orElse(null);
+            Assert.assertNotNull(etag, "No ETag for a dataset configured via a configuration file");
+
+            // When
+            HttpResponse<byte[]> revalidated = makeGraphQLGetRequest(server, query, etag);
+
+            // Then
+            Assert.assertEquals(revalidated.statusCode(), HttpSC.NOT_MODIFIED_304);
+            Assert.assertEquals(revalidated.headers().firstValue(GraphQLOverHttp.HEADER_ETAG).orElse(null), etag);
+
+            // And
+            uploadTestData(server, "ds", "src/test/files/starwars.ttl");
+            HttpResponse<byte[]> written = makeGraphQLGetRequest(server, query, etag);
+            Assert.assertEquals(written.statusCode(), HttpSC.OK_200);
+            Assert.assertNotEquals(written.headers().firstValue(GraphQLOverHttp.HEADER_ETAG).orElse(null), etag);
+        } finally {
+            server.stop();
+        }
+    }
 }
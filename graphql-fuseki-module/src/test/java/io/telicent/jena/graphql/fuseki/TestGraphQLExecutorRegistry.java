@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fuseki;
+
+import io.telicent.jena.graphql.execution.DatasetExecutor;
+import io.telicent.jena.graphql.execution.GraphQLOverDatasetExecutor;
+import io.telicent.jena.graphql.execution.TraversalExecutor;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.Supplier;
+
+public class TestGraphQLExecutorRegistry {
+
+    @Test
+    public void givenRegistry_whenGettingSameClass_thenSameExecutor() throws ReflectiveOperationException {
+        // Given
+        GraphQLExecutorRegistry registry = new GraphQLExecutorRegistry();
+
+        // When
+        GraphQLOverDatasetExecutor first = registry.getExecutor(DatasetExecutor.class);
+        GraphQLOverDatasetExecutor second = registry.getExecutor(DatasetExecutor.class);
+
+        // Then
+        Assert.assertTrue(first instanceof DatasetExecutor);
+        Assert.assertSame(second, first);
+        Assert.assertNotSame(registry.getExecutor(TraversalExecutor.class), first);
+        Assert.assertNotSame(new GraphQLExecutorRegistry().getExecutor(DatasetExecutor.class), first);
+    }
+
+    @Test
+    public void givenLazySupplier_whenNotCalled_thenExecutorNotCreated() throws ReflectiveOperationException {
+        // Given
+        GraphQLExecutorRegistry registry = new GraphQLExecutorRegistry();
+
+        // When
+        Supplier<GraphQLOverDatasetExecutor> supplier = registry.lazy(CountExecutor.class);
+
+        // Then
+        Assert.assertFalse(registry.isCreated(CountExecutor.class));
+        GraphQLOverDatasetExecutor executor = supplier.get();
+        Assert.assertTrue(registry.isCreated(CountExecutor.class));
+        Assert.assertSame(supplier.get(), executor);
+        Assert.assertSame(registry.getExecutor(CountExecutor.class), executor);
+    }
+
+    @Test
+    public void givenFailingConstructor_whenGettingExecutor_thenErrorAndNotRegistered() {
+        // Given
+        GraphQLExecutorRegistry registry = new GraphQLExecutorRegistry();
+
+        // When and Then
+        Assert.assertThrows(InvocationTargetException.class,
+                            () -> registry.getExecutor(ExecutorNotConstructable.class));
+        Assert.assertFalse(registry.isCreated(ExecutorNotConstructable.class));
+        Assert.assertThrows(IllegalStateException.class, () -> registry.lazy(ExecutorNotConstructable.class).get());
+    }
+
+    @Test
+    public void givenNoPublicConstructor_whenGettingExecutor_thenNoSuchMethod() {
+        // Given
+        GraphQLExecutorRegistry registry = new GraphQLExecutorRegistry();
+
+        // When and Then
+        Assert.assertThrows(NoSuchMethodException.class,
+                            () -> registry.getExecutor(ExecutorWithPrivateConstructor.class));
+    }
+}
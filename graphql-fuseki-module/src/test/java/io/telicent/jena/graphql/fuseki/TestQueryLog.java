@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fuseki;
+
+import io.telicent.jena.graphql.server.model.GraphQLRequest;
+import org.slf4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.AdditionalMatchers.and;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+public class TestQueryLog {
+
+    private static GraphQLRequest request(String query) {
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery(query);
+        request.setOperationName("Test");
+        return request;
+    }
+
+    @Test
+    public void test_parse() {
+        // given
+        QueryLog queryLog = QueryLog.parse("sample=0.5, slow=250");
+
+        // then
+        Assert.assertEquals(queryLog.getSampleRate(), 0.5);
+        Assert.assertEquals(queryLog.getSlowMillis(), 250);
+    }
+
+    @Test
+    public void test_parse_defaults() {
+        // given
+        QueryLog queryLog = QueryLog.parse("sample=1");
+
+        // then
+        Assert.assertEquals(queryLog.getSampleRate(), 1.0);
+        Assert.assertEquals(queryLog.getSlowMillis(), QueryLog.DEFAULT_SLOW_MILLIS);
+        Assert.assertEquals(QueryLog.parse("slow=0").getSampleRate(), QueryLog.DEFAULT_SAMPLE_RATE);
+    }
+
+    @DataProvider(name = "invalid")
+    public Object[][] invalidSpecs() {
+        return new Object[][] {
+                { "" },
+                { "sample" },
+                { "sample=" },
+                { "sample=abc" },
+                { "sample=1.5" },
+                { "sample=-0.1" },
+                { "slow=-1" },
+                { "sample=0.1,other=1" }
+        };
+    }
+
+    @Test(dataProvider = "invalid", expectedExceptions = IllegalArgumentException.class)
+    public void test_parse_invalid(String spec) {
+        QueryLog.parse(spec);
+    }
+
+    @Test
+    public void test_isLogged_sampling() {
+        // given
+        QueryLog all = new QueryLog(1, 0);
+        QueryLog none = new QueryLog(0, 0);
+
+        // then
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(all.isLogged(0));
+            Assert.assertFalse(none.isLogged(0));
+            Assert.assertFalse(QueryLog.DISABLED.isLogged(Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void test_isLogged_slow() {
+        // given
+        QueryLog queryLog = new QueryLog(0, 100);
+
+        // then
+        Assert.assertFalse(queryLog.isLogged(TimeUnit.MILLISECONDS.toNanos(99)));
+        Assert.assertTrue(queryLog.isLogged(TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    @Test
+    public void test_log_summary() {
+        // given
+        Logger log = mock(Logger.class);
+        when(log.isInfoEnabled()).thenReturn(true);
+        QueryLog.Timings timings = new QueryLog.Timings(TimeUnit.MILLISECONDS.toNanos(1),
+                                                        TimeUnit.MILLISECONDS.toNanos(2),
+                                                        TimeUnit.MILLISECONDS.toNanos(3));
+
+        // when
+        boolean logged = new QueryLog(1, 0).log(log, 7, request("{ quads { subject { value } } }"), 200, 0, timings);
+
+        // then
+        Assert.assertTrue(logged);
+        Assert.assertEquals(timings.total(), TimeUnit.MILLISECONDS.toNanos(6));
+        verify(log).info(contains("[7] GraphQL Query operation=Test"));
+        verify(log).info(contains("total=6"));
+        verify(log, never()).debug(anyString());
+    }
+
+    @Test
+    public void test_log_debugIncludesQuery() {
+        // given
+        Logger log = mock(Logger.class);
+        when(log.isInfoEnabled()).thenReturn(true);
+        when(log.isDebugEnabled()).thenReturn(true);
+
+        // when
+        new QueryLog(1, 0).log(log, 1, request("{ quads { subject { value } } }"), 200, 0,
+                               new QueryLog.Timings(0, 0, 0));
+
+        // then
+        verify(log).debug(contains("{ quads { subject { value } } }"));
+    }
+
+    @Test
+    public void test_log_notSampled() {
+        // given
+        Logger log = mock(Logger.class);
+        when(log.isInfoEnabled()).thenReturn(true);
+
+        // when
+        boolean logged = QueryLog.DISABLED.log(log, 1, request("{ quads { subject { value } } }"), 200, 0,
+                                               new QueryLog.Timings(0, 0, 0));
+
+        // then
+        Assert.assertFalse(logged);
+        verifyNoInteractions(log);
+    }
+
+    @Test
+    public void test_log_summaryIncludesOutcome() {
+        // given
+        Logger log = mock(Logger.class);
+        when(log.isInfoEnabled()).thenReturn(true);
+
+        // when
+        new QueryLog(1, 0).log(log, 1, request("{ quads { subject { value } } }"), 200, 0,
+                               new QueryLog.Timings(0, 0, 0));
+
+        // then
+        verify(log).info(contains("outcome=completed"));
+    }
+
+    @Test
+    public void test_log_failureAlwaysLoggedWithQuery() {
+        // given
+        Logger log = mock(Logger.class);
+        when(log.isWarnEnabled()).thenReturn(true);
+
+        // when
+        boolean logged = QueryLog.DISABLED.log(log, 3, request("{ quads { subject { value } } }"), 500, 0,
+                                               new QueryLog.Timings(0, 0, 0), new IllegalStateException("boom"));
+
+        // then
+        Assert.assertTrue(logged);
+        verify(log).warn(and(contains("[3] GraphQL Query operation=Test"), contains("outcome=failed")));
+        verify(log).warn(and(contains("IllegalStateException: boom"), contains("{ quads { subject { value } } }")));
+        verify(log, never()).info(anyString());
+    }
+
+    @Test
+    public void test_log_failureWithoutRequest() {
+        // given
+        Logger log = mock(Logger.class);
+        when(log.isWarnEnabled()).thenReturn(true);
+
+        // when
+        boolean logged = QueryLog.DEFAULT.log(log, 4, null, 400, 0, new QueryLog.Timings(0, 0, 0),
+                                              new IllegalArgumentException("bad"));
+
+        // then
+        Assert.assertTrue(logged);
+        verify(log).warn(and(contains("operation=null"), contains("status=400")));
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.benchmarks;
+
+import io.telicent.jena.graphql.utils.CompactDatasetGraph;
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.system.Txn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks quad pattern scans over a transactional in-memory dataset versus a {@link CompactDatasetGraph}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class CompactDatasetBenchmark {
+
+    private static final Node GRAPH = NodeFactory.createURI("https://example.org/graph");
+    private static final Node TYPE = NodeFactory.createURI("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
+    private static final Node PERSON = NodeFactory.createURI("http://ies.data.gov.uk/ontology/ies4#Person");
+
+    /**
+     * Creates a compact dataset benchmark.
+     */
+    public CompactDatasetBenchmark() {
+    }
+
+    /**
+     * Shared benchmark state.
+     */
+    @State(Scope.Benchmark)
+    public static class DatasetState {
+
+        /**
+         * Number of entities in the dataset, each has ten quads.
+         */
+        @Param({"10000", "100000"})
+        public int entities;
+
+        /**
+         * Dataset implementation.
+         */
+        @Param({"txnmem", "compact"})
+        public String store;
+
+        private DatasetGraph dsg;
+        private Node subject;
+
+        /**
+         * Creates a benchmark state container.
+         */
+        public DatasetState() {
+        }
+
+        /**
+         * Builds the dataset.
+         */
+        @Setup(Level.Trial)
+        public void setup() {
+            this.dsg = "compact".equals(this.store) ? new CompactDatasetGraph() : DatasetGraphFactory.createTxnMem();
+            Txn.executeWrite(this.dsg, () -> {
+                for (int i = 0; i < this.entities; i++) {
+                    Node entity = NodeFactory.createURI("https://example.org/data#entity" + i);
+                    this.dsg.add(GRAPH, entity, TYPE, i % 10 == 0 ? PERSON :
+                                                     NodeFactory.createURI("https://example.org/Type" + (i % 7)));
+                    for (int j = 1; j < 10; j++) {
+                        int related = (i + j) % this.entities;
+                        Node object = j % 2 == 0 ? NodeFactory.createLiteralString("Value " + i + "/" + j) :
+                                      NodeFactory.createURI("https://example.org/data#entity" + related);
+                        this.dsg.add(GRAPH, entity, NodeFactory.createURI("https://example.org/predicate" + j), object);
+                    }
+                }
+            });
+            this.subject = NodeFactory.createURI("https://example.org/data#entity" + (this.entities / 2));
+        }
+    }
+
+    /**
+     * Finds every quad about a subject, as fetching a node's properties and relationships does.
+     *
+     * @param state Shared benchmark state.
+     * @return Number of quads found
+     */
+    @Benchmark
+    public long findBySubject(DatasetState state) {
+        return Txn.calculateRead(state.dsg, () -> Iter.count(state.dsg.find(Node.ANY, state.subject, Node.ANY,
+                                                                            Node.ANY)));
+    }
+
+    /**
+     * Finds every instance of a type, as listing the instances of a type does.
+     *
+     * @param state Shared benchmark state.
+     * @return Number of quads found
+     */
+    @Benchmark
+    public long findByPredicateObject(DatasetState state) {
+        return Txn.calculateRead(state.dsg, () -> Iter.count(state.dsg.find(Node.ANY, Node.ANY, TYPE, PERSON)));
+    }
+
+    /**
+     * Finds every quad whose object is a subject, as fetching a node's inbound relationships does.
+     *
+     * @param state Shared benchmark state.
+     * @return Number of quads found
+     */
+    @Benchmark
+    public long findByObject(DatasetState state) {
+        return Txn.calculateRead(state.dsg, () -> Iter.count(state.dsg.find(Node.ANY, Node.ANY, Node.ANY,
+                                                                            state.subject)));
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.benchmarks;
+
+import io.telicent.jena.graphql.utils.DatasetSnapshot;
+import io.telicent.jena.graphql.utils.ParallelLoader;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFParserBuilder;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks loading an in-memory dataset from TriG and N-Quads files, in parallel, and from a binary dataset snapshot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class DatasetLoadBenchmark {
+
+    /**
+     * Creates a dataset load benchmark.
+     */
+    public DatasetLoadBenchmark() {
+    }
+
+    /**
+     * Shared benchmark state.
+     */
+    @State(Scope.Benchmark)
+    public static class LoadState {
+
+        /**
+         * Number of quads in the dataset.
+         */
+        @Param({"10000", "100000"})
+        public int quadCount;
+
+        /**
+         * Format the dataset is loaded from.
+         */
+        @Param({"trig", "nquads", "parallel", "snapshot"})
+        public String format;
+
+        private Path trig, nquads, snapshot;
+
+        /**
+         * Creates a benchmark state container.
+         */
+        public LoadState() {
+        }
+
+        /**
+         * Writes the synthetic dataset as both a TriG file and a snapshot.
+         *
+         * @throws IOException Thrown if the files cannot be written
+         */
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+            dsg.prefixes().add("ies", "http://ies.data.gov.uk/ontology/ies4#");
+            dsg.prefixes().add("data", "https://example.org/data#");
+            Node type = NodeFactory.createURI("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
+            for (int i = 0; i < this.quadCount; i++) {
+                Node graph = NodeFactory.createURI("https://example.org/graph" + (i % 4));
+                Node subject = NodeFactory.createURI("https://example.org/data#entity" + (i / 10));
+                Node object = switch (i % 10) {
+                    case 0 -> NodeFactory.createURI("http://ies.data.gov.uk/ontology/ies4#Person");
+                    case 1, 2 -> NodeFactory.createLiteralString("Name of entity " + i);
+                    case 3 -> NodeFactory.createLiteralLang("Nom " + i, "fr");
+                    case 4 -> NodeFactory.createLiteralDT(Integer.toString(i), XSDDatatype.XSDinteger);
+                    default -> NodeFactory.createURI("https://example.org/data#entity" + (i % 997));
+                };
+                Node predicate = i % 10 == 0 ? type :
+                                 NodeFactory.createURI("http://ies.data.gov.uk/ontology/ies4#predicate" + (i % 10));
+                dsg.add(graph, subject, predicate, object);
+            }
+            this.trig = Files.createTempFile("dataset", ".trig");
+            try (OutputStream output = Files.newOutputStream(this.trig)) {
+                RDFDataMgr.write(output, dsg, Lang.TRIG);
+            }
+            this.nquads = Files.createTempFile("dataset", ".nq");
+            try (OutputStream output = Files.newOutputStream(this.nquads)) {
+                RDFDataMgr.write(output, dsg, Lang.NQUADS);
+            }
+            this.snapshot = Files.createTempFile("dataset", ".snapshot");
+            DatasetSnapshot.write(dsg, this.snapshot, this.trig);
+        }
+
+        /**
+         * Removes the files written for the benchmark.
+         *
+         * @throws IOException Thrown if the files cannot be removed
+         */
+        @TearDown(Level.Trial)
+        public void teardown() throws IOException {
+            Files.deleteIfExists(this.trig);
+            Files.deleteIfExists(this.nquads);
+            Files.deleteIfExists(this.snapshot);
+        }
+    }
+
+    /**
+     * Measures loading the dataset into a new in-memory dataset from the configured format.
+     *
+     * @param state Shared benchmark state.
+     * @return Loaded dataset
+     * @throws IOException          Thrown if the dataset cannot be loaded
+     * @throws InterruptedException Thrown if interrupted while loading
+     */
+    @Benchmark
+    public DatasetGraph load(LoadState state) throws IOException, InterruptedException {
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        switch (state.format) {
+            case "snapshot" -> DatasetSnapshot.read(state.snapshot, dsg);
+            case "parallel" -> new ParallelLoader(Runtime.getRuntime().availableProcessors(), 256 * 1024)
+                    .load(dsg, List.of(state.nquads));
+            case "nquads" -> RDFParserBuilder.create().source(state.nquads).lang(Lang.NQUADS).build().parse(dsg);
+            default -> RDFParserBuilder.create().source(state.trig).lang(Lang.TRIG).build().parse(dsg);
+        }
+        return dsg;
+    }
+}
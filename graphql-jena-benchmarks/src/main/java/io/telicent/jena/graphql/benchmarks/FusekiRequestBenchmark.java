@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.telicent.jena.graphql.execution.DatasetExecutor;
+import io.telicent.jena.graphql.fuseki.ActionGraphQL;
+import io.telicent.jena.graphql.fuseki.QueryLog;
+import io.telicent.jena.graphql.fuseki.SysGraphQL;
+import io.telicent.jena.graphql.server.model.GraphQLRequest;
+import org.apache.jena.fuseki.main.FusekiServer;
+import org.apache.jena.fuseki.main.sys.FusekiModules;
+import org.apache.jena.riot.WebContent;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per-request overhead of small GraphQL queries made over HTTP to a Fuseki GraphQL endpoint.
+ * <p>
+ * For small queries the cost of a request is dominated by the request pipeline rather than query execution, i.e.
+ * parsing, transactions, logging and serialising the response, so this measures the full round trip through a
+ * {@link FusekiServer} running in the same JVM.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class FusekiRequestBenchmark {
+
+    /**
+     * Creates a Fuseki request benchmark.
+     */
+    public FusekiRequestBenchmark() {
+    }
+
+    /**
+     * Shared benchmark state.
+     */
+    @State(Scope.Benchmark)
+    public static class ServerState {
+
+        /**
+         * Query to make, {@code lookup} finds a single quad and selects all its fields, {@code subject} selects just
+         * the subject of the same quad.
+         */
+        @Param({"lookup", "subject"})
+        public String query;
+
+        /**
+         * Query log, {@code sampled} being the default {@link QueryLog}, {@code all} logs every request.
+         */
+        @Param({"sampled", "all"})
+        public String queryLog;
+
+        private FusekiServer server;
+        private HttpClient client;
+        private HttpRequest request;
+
+        /**
+         * Creates a server state container.
+         */
+        public ServerState() {
+        }
+
+        /**
+         * Starts the server and prepares the request.
+         *
+         * @throws IOException If schema loading fails.
+         */
+        @Setup
+        public void setup() throws IOException {
+            ActionGraphQL action = new ActionGraphQL(new DatasetExecutor(DatasetGraphFactory.empty()));
+            action.setQueryLog("all".equals(this.queryLog) ? new QueryLog(1, 0) : QueryLog.DEFAULT);
+            //@formatter:off
+            this.server = FusekiServer.create()
+                                      .port(0)
+                                      .fusekiModules(FusekiModules.create())
+                                      .registerOperation(SysGraphQL.OP_GRAPHQL, action)
+                                      .add("/ds", BenchmarkResources.generateDataset(1000))
+                                      .addEndpoint("/ds", "graphql", SysGraphQL.OP_GRAPHQL)
+                                      .build()
+                                      .start();
+            //@formatter:on
+
+            GraphQLRequest graphQLRequest = new GraphQLRequest();
+            graphQLRequest.setQuery("subject".equals(this.query) ?
+                                    BenchmarkResources.loadResource("/queries/dataset/subject-quads.graphql") :
+                                    BenchmarkResources.loadResource("/queries/dataset/filtered-quads.graphql"));
+            this.client = HttpClient.newHttpClient();
+            //@formatter:off
+            this.request = HttpRequest.newBuilder(URI.create(this.server.datasetURL("ds") + "/graphql"))
+                                      .header("Content-Type", WebContent.contentTypeJSON)
+                                      .POST(HttpRequest.BodyPublishers.ofByteArray(
+                                              new ObjectMapper().writeValueAsBytes(graphQLRequest)))
+                                      .build();
+            //@formatter:on
+        }
+
+        /**
+         * Stops the server.
+         */
+        @TearDown
+        public void teardown() {
+            this.client.close();
+            this.server.stop();
+        }
+    }
+
+    /**
+     * Makes a single GraphQL request.
+     *
+     * @param state Shared benchmark state.
+     * @return Response body.
+     * @throws IOException          If the request fails.
+     * @throws InterruptedException If interrupted while waiting for the response.
+     */
+    @Benchmark
+    public byte[] request(ServerState state) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = state.client.send(state.request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body();
+    }
+}
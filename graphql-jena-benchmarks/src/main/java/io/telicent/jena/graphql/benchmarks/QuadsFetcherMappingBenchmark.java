@@ -12,13 +12,18 @@
  */
 package io.telicent.jena.graphql.benchmarks;
 
+import graphql.GraphQLContext;
+import graphql.execution.MergedField;
+import graphql.language.Field;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.DataFetchingEnvironmentImpl;
 import graphql.schema.DataFetchingFieldSelectionSet;
 import graphql.schema.SelectedField;
+import io.telicent.jena.graphql.fetchers.NodeFetcher;
 import io.telicent.jena.graphql.fetchers.QuadsFetcher;
 import io.telicent.jena.graphql.schemas.CoreSchema;
 import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -31,6 +36,11 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import java.util.HashMap;
 import java.util.List;
@@ -39,6 +49,12 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Benchmarks QuadsFetcher mapping costs for different selection shapes.
+ * <p>
+ * Also benchmarks the cost of wrapping the individual nodes of each quad via {@link NodeFetcher}, with and without
+ * request scoped wrapper reuse.  Since the main difference between those variants is allocation pressure they are
+ * best run with JMH's GC profiler enabled, either by passing {@code -prof gc} to the benchmarks JAR or by running the
+ * {@link #main(String[])} method of this class.
+ * </p>
  */
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.MILLISECONDS)
@@ -107,6 +123,94 @@ public class QuadsFetcherMappingBenchmark {
         blackhole.consume(state.fetcher.get(state.environment));
     }
 
+    /**
+     * Shared benchmark state for node wrapping benchmarks.
+     */
+    @State(Scope.Benchmark)
+    public static class WrapState {
+
+        /**
+         * Dataset size parameter used to scale the generated quads.
+         */
+        @Param({"100", "1000", "10000"})
+        public int size;
+
+        /**
+         * Whether wrappers for repeated nodes are reused within a request.
+         */
+        @Param({"false", "true"})
+        public boolean reuseWrappers;
+
+        private NodeFetcher fetcher;
+        private List<Quad> quads;
+        private DataFetchingEnvironment[] templates;
+
+        /**
+         * Creates a wrap state container.
+         */
+        public WrapState() {
+        }
+
+        /**
+         * Builds the dataset and environment templates for the benchmark.
+         */
+        @Setup
+        public void setup() {
+            DatasetGraph dsg = BenchmarkResources.generateDataset(size);
+            quads = dsg.stream().toList();
+            fetcher = new NodeFetcher(reuseWrappers);
+            String[] fields = {
+                    CoreSchema.SUBJECT_FIELD, CoreSchema.PREDICATE_FIELD, CoreSchema.OBJECT_FIELD,
+                    CoreSchema.GRAPH_FIELD
+            };
+            templates = new DataFetchingEnvironment[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                templates[i] = DataFetchingEnvironmentImpl
+                        .newDataFetchingEnvironment()
+                        .mergedField(MergedField.newMergedField().addField(new Field(fields[i])).build())
+                        .build();
+            }
+        }
+    }
+
+    /**
+     * Measures the cost of wrapping every node of every quad, as happens when all fields of a quad are selected.
+     * <p>
+     * A fresh {@link GraphQLContext} is used for each invocation to mirror a fresh request.
+     * </p>
+     *
+     * @param state     n/a
+     * @param blackhole n/a
+     */
+    @Benchmark
+    public void wrapQuadNodes(WrapState state, Blackhole blackhole) {
+        GraphQLContext context = GraphQLContext.newContext().build();
+        for (Quad quad : state.quads) {
+            for (DataFetchingEnvironment template : state.templates) {
+                DataFetchingEnvironment environment = DataFetchingEnvironmentImpl
+                        .newDataFetchingEnvironment(template)
+                        .source(quad)
+                        .graphQLContext(context)
+                        .build();
+                blackhole.consume(state.fetcher.get(environment).getKind());
+            }
+        }
+    }
+
+    /**
+     * Runs the benchmarks in this class with the GC profiler enabled so allocation rates are reported
+     *
+     * @param args Ignored
+     * @throws RunnerException Thrown if the benchmarks fail to run
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(QuadsFetcherMappingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
     private static final class TestSelectionSet implements DataFetchingFieldSelectionSet {
 
         private final Map<String, String> selected = new HashMap<>();
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.benchmarks;
+
+import io.telicent.jena.graphql.schemas.telicent.graph.models.IdStrategy;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.Relationship;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the relationship ID and URI hash strategies of the Telicent graph schema.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class RelationshipIdBenchmark {
+
+    /**
+     * Creates a relationship ID benchmark.
+     */
+    public RelationshipIdBenchmark() {
+    }
+
+    /**
+     * Shared benchmark state.
+     */
+    @State(Scope.Benchmark)
+    public static class IdState {
+
+        /**
+         * Number of relationships to compute IDs for, 250 being the size of a typical outRels page.
+         */
+        @Param({"250", "2500"})
+        public int relationshipCount;
+
+        /**
+         * ID strategy to use.
+         */
+        @Param({"SHA1", "FAST"})
+        public IdStrategy strategy;
+
+        private Node[] subjects, predicates, objects;
+
+        /**
+         * Creates a benchmark state container.
+         */
+        public IdState() {
+        }
+
+        /**
+         * Builds the synthetic relationship nodes for the benchmark.
+         */
+        @Setup
+        public void setup() {
+            this.subjects = new Node[this.relationshipCount];
+            this.predicates = new Node[this.relationshipCount];
+            this.objects = new Node[this.relationshipCount];
+            Node subject = NodeFactory.createURI("https://example.org/data#subject");
+            for (int i = 0; i < this.relationshipCount; i++) {
+                this.subjects[i] = subject;
+                this.predicates[i] = NodeFactory.createURI("http://ies.data.gov.uk/ontology/ies4#predicate" + (i % 12));
+                this.objects[i] = i % 5 == 0 ? NodeFactory.createLiteralString("Literal value " + i) :
+                                  NodeFactory.createURI("https://example.org/data#object" + i);
+            }
+        }
+    }
+
+    /**
+     * Measures computing the ID of every relationship in a page with the configured strategy.
+     *
+     * @param state     Shared benchmark state.
+     * @param blackhole JMH blackhole.
+     */
+    @Benchmark
+    public void relationshipIds(IdState state, Blackhole blackhole) {
+        for (int i = 0; i < state.relationshipCount; i++) {
+            Relationship relationship =
+                    new Relationship(state.subjects[i], state.predicates[i], state.objects[i], null);
+            blackhole.consume(relationship.getId(state.strategy));
+        }
+    }
+
+    /**
+     * Measures computing the URI hash of the predicate of every relationship in a page with the configured strategy.
+     *
+     * @param state     Shared benchmark state.
+     * @param blackhole JMH blackhole.
+     */
+    @Benchmark
+    public void uriHashes(IdState state, Blackhole blackhole) {
+        for (int i = 0; i < state.relationshipCount; i++) {
+            blackhole.consume(new TelicentGraphNode(state.predicates[i], null).getUriHash(state.strategy));
+        }
+    }
+}
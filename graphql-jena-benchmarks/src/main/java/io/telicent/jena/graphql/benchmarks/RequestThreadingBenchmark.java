@@ -0,0 +1,181 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.benchmarks;
+
+import graphql.ExecutionResult;
+import io.telicent.jena.graphql.execution.DatasetExecutor;
+import io.telicent.jena.graphql.execution.ExecutionPool;
+import io.telicent.jena.graphql.execution.RequestDeadline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * A load test comparing the request threading models of the standalone server under a burst of mixed requests.
+ * <p>
+ * Each operation submits a burst of requests to a fixed pool of platform threads standing in for the HTTP server's
+ * request threads.  Every {@code slowEvery}th request blocks for {@code blockMillis} in a call that doesn't check its
+ * deadline, simulating a slow Search API call, before executing its query, the remaining requests are cheap queries.
+ * All requests have a {@code queryTimeout} deadline.  The operation completes when every request in the burst has
+ * been answered, successfully, with an error or rejected.
+ * </p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RequestThreadingBenchmark {
+
+    /**
+     * Creates a request threading benchmark.
+     */
+    public RequestThreadingBenchmark() {
+    }
+
+    /**
+     * Shared benchmark state.
+     */
+    @State(Scope.Benchmark)
+    public static class ThreadingState {
+
+        /**
+         * Threading model, {@code direct} being the default where requests execute on the request threads.
+         */
+        @Param({"direct", "virtual", "platform"})
+        public String model;
+
+        /**
+         * How long slow requests block for, in milliseconds.
+         */
+        @Param({"2000"})
+        public long blockMillis;
+
+        /**
+         * Number of HTTP server request threads.
+         */
+        @Param({"4"})
+        public int requestThreads;
+
+        /**
+         * Number of requests in each burst.
+         */
+        @Param({"32"})
+        public int burstSize;
+
+        /**
+         * Every n'th request in the burst is slow.
+         */
+        @Param({"4"})
+        public int slowEvery;
+
+        /**
+         * Query timeout for every request, in milliseconds.
+         */
+        @Param({"100"})
+        public long queryTimeout;
+
+        private DatasetExecutor executor;
+        private String query;
+        private ExecutorService requestPool;
+        private ExecutionPool executionPool;
+
+        /**
+         * Creates a benchmark state container.
+         */
+        public ThreadingState() {
+        }
+
+        /**
+         * Builds the dataset, request threads and execution pool for the benchmark.
+         *
+         * @throws IOException If schema loading fails.
+         */
+        @Setup
+        public void setup() throws IOException {
+            this.executor = new DatasetExecutor(BenchmarkResources.generateDataset(100));
+            this.query = BenchmarkResources.loadResource("/queries/dataset/simple-quads.graphql");
+            this.requestPool = Executors.newFixedThreadPool(this.requestThreads);
+            this.executionPool = switch (this.model) {
+                case "direct" -> ExecutionPool.DIRECT;
+                case "virtual" -> ExecutionPool.virtualThreads();
+                case "platform" -> ExecutionPool.platformThreads(this.requestThreads, this.requestThreads * 2,
+                                                                 this.requestThreads);
+                default -> throw new IllegalArgumentException("Unknown threading model " + this.model);
+            };
+        }
+
+        /**
+         * Shuts down the request threads and execution pool.
+         */
+        @TearDown
+        public void teardown() {
+            this.requestPool.shutdownNow();
+            this.executionPool.close();
+        }
+
+        private Object request(boolean slow) {
+            RequestDeadline deadline = RequestDeadline.after(this.queryTimeout);
+            try {
+                return this.executionPool.run(() -> {
+                    if (slow) {
+                        try {
+                            Thread.sleep(this.blockMillis);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    ExecutionResult result = this.executor.execute(this.query, null, Map.of(), Map.of(), deadline);
+                    return result.getErrors();
+                }, deadline);
+            } catch (CancellationException | RejectedExecutionException e) {
+                return e;
+            }
+        }
+    }
+
+    /**
+     * Measures the time to answer a burst of mixed slow and cheap requests.
+     *
+     * @param state     Shared benchmark state.
+     * @param blackhole JMH blackhole.
+     * @throws Exception If a request fails unexpectedly.
+     */
+    @Benchmark
+    public void burst(ThreadingState state, Blackhole blackhole) throws Exception {
+        List<Future<Object>> responses = new ArrayList<>(state.burstSize);
+        for (int i = 0; i < state.burstSize; i++) {
+            boolean slow = i % state.slowEvery == 0;
+            responses.add(state.requestPool.submit(() -> state.request(slow)));
+        }
+        for (Future<Object> response : responses) {
+            blackhole.consume(response.get());
+        }
+    }
+}
@@ -17,13 +17,19 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import graphql.*;
 import graphql.execution.preparsed.PreparsedDocumentEntry;
 import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.language.AstPrinter;
+import graphql.language.Document;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
 import graphql.schema.GraphQLSchema;
 import graphql.schema.idl.RuntimeWiring;
 import graphql.schema.idl.SchemaGenerator;
 import graphql.schema.idl.TypeDefinitionRegistry;
 import io.telicent.jena.graphql.fetchers.NodeFetcher;
 import io.telicent.jena.graphql.schemas.CoreSchema;
+import io.telicent.jena.graphql.server.model.GraphQLOverHttp;
 import io.telicent.jena.graphql.server.model.GraphQLRequest;
+import io.telicent.jena.graphql.utils.DatasetGeneration;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.system.Txn;
 
@@ -50,6 +56,10 @@ public abstract class AbstractDatasetExecutor implements GraphQLExecutor, GraphQ
      * The configured GraphQL instance for executing the queries
      */
     protected final GraphQL graphQL;
+    private volatile ResultLimits resultLimits = ResultLimits.UNLIMITED;
+    private volatile long queryTimeout = 0;
+    private volatile ResponseNormaliser responseNormaliser = null;
+    private final Cache<CacheKey, CacheInfo> cacheInfo = Caffeine.newBuilder().maximumSize(1_000).build();
 
     /**
      * Creates a new execution
@@ -129,6 +139,184 @@ public abstract class AbstractDatasetExecutor implements GraphQLExecutor, GraphQ
         return true;
     }
 
+    /**
+     * Gets the result limits that are applied to each request
+     *
+     * @return Result limits
+     */
+    public ResultLimits getResultLimits() {
+        return this.resultLimits;
+    }
+
+    /**
+     * Sets the result limits that are applied to each request, fetchers that honour these limits will find them in the
+     * {@link GraphQLContext} for the request
+     *
+     * @param limits Result limits, {@code null} is treated as {@link ResultLimits#UNLIMITED}
+     */
+    public void setResultLimits(ResultLimits limits) {
+        this.resultLimits = limits != null ? limits : ResultLimits.UNLIMITED;
+    }
+
+    /**
+     * Gets the query timeout that is applied to each request
+     *
+     * @return Query timeout in milliseconds, {@code 0} if no timeout applies
+     */
+    public long getQueryTimeout() {
+        return this.queryTimeout;
+    }
+
+    /**
+     * Sets the query timeout that is applied to each request, fetchers that honour this timeout find the resulting
+     * {@link RequestDeadline} in the {@link GraphQLContext} for the request
+     * <p>
+     * Clients may request a shorter timeout via the {@value RequestDeadline#TIMEOUT_EXTENSION} extension but can never
+     * extend the timeout beyond that configured here.
+     * </p>
+     *
+     * @param timeoutMs Query timeout in milliseconds, {@code 0} or less for no timeout
+     */
+    public void setQueryTimeout(long timeoutMs) {
+        this.queryTimeout = Math.max(0, timeoutMs);
+    }
+
+    /**
+     * Gets the normaliser used when a client requests a normalised response
+     *
+     * @return Response normaliser, or {@code null} if this executor does not support normalised responses
+     */
+    public ResponseNormaliser getResponseNormaliser() {
+        return this.responseNormaliser;
+    }
+
+    /**
+     * Sets the normaliser used when a client requests a normalised response via the
+     * {@value ResponseNormaliser#NORMALISE_EXTENSION} extension
+     *
+     * @param normaliser Response normaliser, {@code null} disables normalised responses in which case the extension is
+     *                   ignored
+     */
+    public void setResponseNormaliser(ResponseNormaliser normaliser) {
+        this.responseNormaliser = normaliser;
+    }
+
+    /**
+     * Gets the HTTP caching policy for a query, as declared by {@code @cacheControl} directives in the schema
+     *
+     * @param query         GraphQL Query
+     * @param operationName Operation name
+     * @return Caching policy, {@link CachePolicy#NONE} if the schema declares no policy or the query is invalid
+     */
+    public CachePolicy getCachePolicy(String query, String operationName) {
+        return getCacheInfo(query, operationName).policy();
+    }
+
+    /**
+     * Gets the entity tag for a request executed against this executor's dataset
+     *
+     * @param query         GraphQL Query
+     * @param operationName Operation name
+     * @param variables     Variables
+     * @param extensions    Extensions
+     * @return Entity tag, or {@code null} if the response to the request cannot be revalidated
+     * @see #getETag(DatasetGraph, String, String, Map, Map)
+     */
+    public String getETag(String query, String operationName, Map<String, Object> variables,
+                          Map<String, Object> extensions) {
+        return getETag(this.dsg, query, operationName, variables, extensions);
+    }
+
+    /**
+     * Gets the entity tag for a request executed against a specific {@link DatasetGraph}
+     * <p>
+     * The tag combines the normalised request with the dataset's {@link DatasetGeneration}, so it changes whenever a
+     * write is committed to the dataset.  Callers should obtain the tag <strong>before</strong> executing the request,
+     * that way a write that commits during execution makes the tag stale rather than the tag failing to reflect the
+     * write.  No tag is available if the dataset's generation is not tracked, see
+     * {@link DatasetGeneration#track(DatasetGraph)}, the query is invalid, or the query's {@link CachePolicy} does not
+     * permit revalidation.
+     * </p>
+     *
+     * @param dsg           Dataset Graph
+     * @param query         GraphQL Query
+     * @param operationName Operation name
+     * @param variables     Variables
+     * @param extensions    Extensions
+     * @return Entity tag, or {@code null} if the response to the request cannot be revalidated
+     */
+    public String getETag(DatasetGraph dsg, String query, String operationName, Map<String, Object> variables,
+                          Map<String, Object> extensions) {
+        DatasetGeneration generation = DatasetGeneration.get(dsg);
+        if (generation == null) {
+            return null;
+        }
+        return getETag(generation.current(), query, operationName, variables, extensions);
+    }
+
+    /**
+     * Gets the entity tag for a request executed against a specific generation of a dataset
+     * <p>
+     * Callers that need to compute the tag after the request has been prepared for execution should obtain the
+     * generation, via {@link DatasetGeneration#current()}, before beginning the read transaction for the request.
+     * </p>
+     *
+     * @param generation    Dataset generation
+     * @param query         GraphQL Query
+     * @param operationName Operation name
+     * @param variables     Variables
+     * @param extensions    Extensions
+     * @return Entity tag, or {@code null} if the response to the request cannot be revalidated
+     * @see #getETag(DatasetGraph, String, String, Map, Map)
+     */
+    public String getETag(long generation, String query, String operationName, Map<String, Object> variables,
+                          Map<String, Object> extensions) {
+        CacheInfo info = getCacheInfo(query, operationName);
+        if (!info.policy().isRevalidatable()) {
+            return null;
+        }
+        try {
+            return GraphQLOverHttp.computeETag(this.getClass().getName(), generation, info.normalisedQuery(),
+                                               operationName, variables, extensions);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private CacheInfo getCacheInfo(String query, String operationName) {
+        if (query == null) {
+            return CacheInfo.UNCACHEABLE;
+        }
+        return this.cacheInfo.get(new CacheKey(query, operationName), key -> {
+            try {
+                Document document = Parser.parse(key.query());
+                return new CacheInfo(AstPrinter.printAstCompact(document),
+                                     CachePolicy.forQuery(this.schema, document, key.operationName()));
+            } catch (InvalidSyntaxException e) {
+                return CacheInfo.UNCACHEABLE;
+            }
+        });
+    }
+
+    /**
+     * Key for the memoised caching information about a query
+     *
+     * @param query         Query
+     * @param operationName Operation name
+     */
+    private record CacheKey(String query, String operationName) {
+    }
+
+    /**
+     * Memoised caching information about a query
+     *
+     * @param normalisedQuery Normalised query
+     * @param policy          Caching policy
+     */
+    private record CacheInfo(String normalisedQuery, CachePolicy policy) {
+        private static final CacheInfo UNCACHEABLE = new CacheInfo(null, CachePolicy.NONE);
+    }
+
     @Override
     public final ExecutionResult execute(String query) {
         return execute(query, Collections.emptyMap());
@@ -150,6 +338,12 @@ public abstract class AbstractDatasetExecutor implements GraphQLExecutor, GraphQ
         return execute(this.dsg, query, operationName, variables, extensions);
     }
 
+    @Override
+    public final ExecutionResult execute(String query, String operationName, Map<String, Object> variables,
+                                         Map<String, Object> extensions, RequestDeadline deadline) {
+        return execute(this.dsg, query, operationName, variables, extensions, deadline);
+    }
+
     /**
      * Executes a GraphQL request against a specific {@link DatasetGraph} instance
      *
@@ -163,6 +357,12 @@ public abstract class AbstractDatasetExecutor implements GraphQLExecutor, GraphQ
                        request.getExtensions());
     }
 
+    @Override
+    public final ExecutionResult execute(DatasetGraph dsg, GraphQLRequest request, RequestDeadline deadline) {
+        return execute(dsg, request.getQuery(), request.getOperationName(), request.getVariables(),
+                       request.getExtensions(), deadline);
+    }
+
     /**
      * Executes a GraphQL request against a specific {@link DatasetGraph} instance
      * <p>
@@ -181,17 +381,89 @@ public abstract class AbstractDatasetExecutor implements GraphQLExecutor, GraphQ
     @Override
     public final ExecutionResult execute(DatasetGraph dsg, String query, String operationName,
                                          Map<String, Object> variables, Map<String, Object> extensions) {
+        return execute(dsg, query, operationName, variables, extensions, null);
+    }
+
+    /**
+     * Executes a GraphQL request against a specific {@link DatasetGraph} instance subject to a deadline
+     * <p>
+     * The executor's configured query timeout, and any {@value RequestDeadline#TIMEOUT_EXTENSION} extension supplied
+     * by the client, further restrict the given deadline.  Callers that can detect that the client has gone away
+     * should supply their own deadline and {@link RequestDeadline#cancel()} it when that happens.
+     * </p>
+     *
+     * @param dsg           DatasetGraph
+     * @param query         GraphQL Query
+     * @param operationName Operation name
+     * @param variables     Variables
+     * @param extensions    Extensions
+     * @param deadline      Deadline, may be {@code null} in which case a new deadline is created
+     * @return GraphQL Results
+     */
+    @Override
+    public final ExecutionResult execute(DatasetGraph dsg, String query, String operationName,
+                                         Map<String, Object> variables, Map<String, Object> extensions,
+                                         RequestDeadline deadline) {
         Objects.requireNonNull(dsg, "DatasetGraph to execute over cannot be null");
+        RequestDeadline requestDeadline;
+        try {
+            requestDeadline = createDeadline(extensions, deadline);
+        } catch (IllegalArgumentException e) {
+            return ExecutionResult.newExecutionResult()
+                                  .addError(GraphqlErrorBuilder.newError().message(e.getMessage()).build())
+                                  .build();
+        }
+        //@formatter:off
         ExecutionInput input = ExecutionInput.newExecutionInput(query)
                                              .localContext(createLocalContext(dsg, extensions))
                                              .operationName(operationName)
                                              .variables(variables)
                                              .extensions(extensions)
+                                             .graphQLContext(b -> b.of(ResultLimits.CONTEXT_KEY, this.resultLimits,
+                                                                       RequestDeadline.CONTEXT_KEY, requestDeadline,
+                                                                       RequestTransaction.CONTEXT_KEY,
+                                                                       new RequestTransaction(dsg)))
                                              .build();
+        //@formatter:on
 
         // Ensure we execute the GraphQL query inside a read transaction on the Dataset.  This gives proper transaction
-        // isolation for the entire query which could include many requests against the dataset
-        return Txn.calculateRead(dsg, () -> this.graphQL.execute(input));
+        // isolation for the entire query which could include many requests against the dataset.  If the caller already
+        // holds a transaction, e.g. the Fuseki module, then that is joined rather than a new one being started, and
+        // fetchers read within it via the RequestTransaction in the context
+        ExecutionResult result = Txn.calculateRead(dsg, () -> this.graphQL.execute(input));
+
+        // Normalisation only rearranges the already computed result so happens outside the transaction
+        ResponseNormaliser normaliser = this.responseNormaliser;
+        if (normaliser != null && ResponseNormaliser.isRequested(extensions)) {
+            return normaliser.normalise(this.schema, query, operationName, result);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the deadline for a request
+     *
+     * @param extensions Request extensions, which may carry a {@value RequestDeadline#TIMEOUT_EXTENSION} hint
+     * @param deadline   Caller supplied deadline, may be {@code null}
+     * @return Request deadline
+     * @throws IllegalArgumentException Thrown if the timeout hint is invalid
+     */
+    private RequestDeadline createDeadline(Map<String, Object> extensions, RequestDeadline deadline) {
+        long hint = RequestDeadline.parseTimeoutHint(extensions);
+        long configured = this.queryTimeout;
+        if (deadline == null || deadline == RequestDeadline.NONE) {
+            if (hint == 0 && configured == 0) {
+                return RequestDeadline.NONE;
+            }
+            deadline = RequestDeadline.create();
+        }
+        if (configured > 0) {
+            deadline.restrict(configured);
+        }
+        if (hint > 0) {
+            deadline.restrict(hint);
+        }
+        return deadline;
     }
 
     /**
@@ -0,0 +1,372 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import graphql.language.*;
+import graphql.parser.Parser;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Controls admission of requests to a GraphQL executor, shedding load when the executor is saturated
+ * <p>
+ * At most {@code maxConcurrent} requests are admitted at once.  Further requests wait, up to {@code maxWaitMillis},
+ * for an admitted request to complete, with at most {@code maxQueued} requests waiting at once.  Requests that can't be
+ * admitted are rejected immediately with a {@link RejectedExecutionException}, callers are expected to turn this into
+ * a {@code 503 Service Unavailable} response with a {@code Retry-After} header of {@link #getRetryAfterSeconds()}.
+ * </p>
+ * <p>
+ * Optionally a cheap lane of {@code cheapLaneConcurrent} additional slots may be reserved for requests whose estimated
+ * cost, see {@link #estimateCost(String)}, is at most {@code cheapCost}.  This allows cheap lookups to continue to be
+ * answered promptly while the executor is saturated with expensive queries.  A cheap request only uses the cheap lane
+ * when no regular slot is immediately available.
+ * </p>
+ */
+public final class AdmissionController {
+
+    /**
+     * Default maximum time in milliseconds a request may wait to be admitted
+     */
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 1_000;
+
+    /**
+     * Default maximum estimated cost of a request that may use the cheap lane
+     */
+    public static final int DEFAULT_CHEAP_COST = 10;
+
+    /**
+     * Estimated cost of a request whose query can't be parsed
+     */
+    static final int UNPARSEABLE_COST = Integer.MAX_VALUE;
+
+    private final int maxConcurrent, maxQueued, cheapLaneConcurrent, cheapCost;
+    private final long maxWaitMillis;
+    private final Semaphore slots, cheapSlots;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * Creates a new admission controller with no cheap lane
+     *
+     * @param maxConcurrent Maximum number of concurrently admitted requests, must be at least 1
+     * @param maxQueued     Maximum number of requests waiting to be admitted, must not be negative
+     * @param maxWaitMillis Maximum time in milliseconds a request may wait to be admitted, must not be negative
+     */
+    public AdmissionController(int maxConcurrent, int maxQueued, long maxWaitMillis) {
+        this(maxConcurrent, maxQueued, maxWaitMillis, 0, DEFAULT_CHEAP_COST);
+    }
+
+    /**
+     * Creates a new admission controller
+     *
+     * @param maxConcurrent       Maximum number of concurrently admitted requests, must be at least 1
+     * @param maxQueued           Maximum number of requests waiting to be admitted, must not be negative
+     * @param maxWaitMillis       Maximum time in milliseconds a request may wait to be admitted, must not be negative
+     * @param cheapLaneConcurrent Number of additional slots reserved for cheap requests, {@code 0} for no cheap lane
+     * @param cheapCost           Maximum estimated cost of a request that may use the cheap lane, must be positive
+     */
+    public AdmissionController(int maxConcurrent, int maxQueued, long maxWaitMillis, int cheapLaneConcurrent,
+                               int cheapCost) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("maxQueued must not be negative");
+        }
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("maxWaitMillis must not be negative");
+        }
+        if (cheapLaneConcurrent < 0) {
+            throw new IllegalArgumentException("cheapLaneConcurrent must not be negative");
+        }
+        if (cheapCost < 1) {
+            throw new IllegalArgumentException("cheapCost must be positive");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitMillis = maxWaitMillis;
+        this.cheapLaneConcurrent = cheapLaneConcurrent;
+        this.cheapCost = cheapCost;
+        this.slots = new Semaphore(maxConcurrent, true);
+        this.cheapSlots = cheapLaneConcurrent > 0 ? new Semaphore(cheapLaneConcurrent) : null;
+    }
+
+    /**
+     * Parses an admission controller from a specification string
+     * <p>
+     * A specification is a comma separated list of {@code key=value} pairs where the keys are {@code concurrent}
+     * (required), {@code queue} (defaults to the value of {@code concurrent}), {@code wait} in milliseconds (defaults
+     * to {@value #DEFAULT_MAX_WAIT_MILLIS}), {@code cheap} giving the number of cheap lane slots (defaults to
+     * {@code 0}), and {@code cheap-cost} (defaults to {@value #DEFAULT_CHEAP_COST}), e.g.
+     * {@code concurrent=8,queue=32,wait=500,cheap=2}.
+     * </p>
+     *
+     * @param spec Specification
+     * @return Admission controller
+     * @throws IllegalArgumentException Thrown if the specification is invalid
+     */
+    public static AdmissionController parse(String spec) {
+        if (StringUtils.isBlank(spec)) {
+            throw new IllegalArgumentException("Admission control specification cannot be blank");
+        }
+        Map<String, String> values = new HashMap<>();
+        for (String pair : spec.split(",")) {
+            String[] parts = pair.split("=", 2);
+            if (parts.length != 2 || StringUtils.isAnyBlank(parts[0], parts[1])) {
+                throw new IllegalArgumentException("Admission control specification has invalid entry '" + pair + "'");
+            }
+            values.put(parts[0].strip(), parts[1].strip());
+        }
+        try {
+            String concurrent = values.remove("concurrent");
+            if (concurrent == null) {
+                throw new IllegalArgumentException("Admission control specification must specify concurrent");
+            }
+            int maxConcurrent = Integer.parseInt(concurrent);
+            int maxQueued = Integer.parseInt(values.getOrDefault("queue", concurrent));
+            long maxWaitMillis = Long.parseLong(values.getOrDefault("wait", Long.toString(DEFAULT_MAX_WAIT_MILLIS)));
+            int cheapLaneConcurrent = Integer.parseInt(values.getOrDefault("cheap", "0"));
+            int cheapCost = Integer.parseInt(values.getOrDefault("cheap-cost", Integer.toString(DEFAULT_CHEAP_COST)));
+            values.keySet().removeAll(Set.of("queue", "wait", "cheap", "cheap-cost"));
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException(
+                        "Admission control specification has unknown keys " + values.keySet());
+            }
+            return new AdmissionController(maxConcurrent, maxQueued, maxWaitMillis, cheapLaneConcurrent, cheapCost);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Admission control specification has an invalid number: " +
+                                               e.getMessage());
+        }
+    }
+
+    /**
+     * Admits a request only if a slot, or a cheap lane slot, is immediately available, never waiting
+     * <p>
+     * Callers that must not block, e.g. a container thread serving an asynchronous request, can use this to admit a
+     * request cheaply, and only if it is not admitted call {@link #admit(String)} from a thread that may wait.  The
+     * returned permit, if any, <strong>MUST</strong> be closed once the request completes.
+     * </p>
+     *
+     * @param query GraphQL query for the request, used to estimate its cost if the cheap lane is considered
+     * @return Permit, or {@code null} if no slot is immediately available
+     */
+    public Permit tryAdmit(String query) {
+        if (this.slots.tryAcquire()) {
+            return new Permit(this.slots);
+        }
+        if (this.cheapSlots != null && estimateCost(query) <= this.cheapCost && this.cheapSlots.tryAcquire()) {
+            return new Permit(this.cheapSlots);
+        }
+        return null;
+    }
+
+    /**
+     * Admits a request, waiting if necessary
+     * <p>
+     * The returned permit <strong>MUST</strong> be closed once the request completes, typically via a
+     * try-with-resources block.
+     * </p>
+     *
+     * @param query GraphQL query for the request, used to estimate its cost if the cheap lane is considered
+     * @return Permit
+     * @throws RejectedExecutionException Thrown if the request cannot be admitted
+     */
+    public Permit admit(String query) {
+        Permit permit = tryAdmit(query);
+        if (permit != null) {
+            return permit;
+        }
+        if (this.queued.incrementAndGet() > this.maxQueued) {
+            this.queued.decrementAndGet();
+            throw new RejectedExecutionException("Too many requests are waiting to be admitted");
+        }
+        try {
+            if (this.slots.tryAcquire(this.maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                return new Permit(this.slots);
+            }
+            throw new RejectedExecutionException(
+                    "Request was not admitted within " + this.maxWaitMillis + " milliseconds");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting to be admitted");
+        } finally {
+            this.queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Estimates the cost of a GraphQL query
+     * <p>
+     * This is a cheap syntactic heuristic, the estimated cost is the sum over all selected fields of their depth within
+     * the query, so deeply nested selections, which typically fan out over many results, cost more than flat ones.
+     * Fields selected via fragments are counted wherever the fragment is spread.  A query that can't be parsed has the
+     * maximum cost.
+     * </p>
+     *
+     * @param query GraphQL query
+     * @return Estimated cost
+     */
+    public static int estimateCost(String query) {
+        if (StringUtils.isBlank(query)) {
+            return UNPARSEABLE_COST;
+        }
+        Document document;
+        try {
+            document = Parser.parse(query);
+        } catch (Throwable e) {
+            return UNPARSEABLE_COST;
+        }
+        Map<String, FragmentDefinition> fragments = new HashMap<>();
+        for (Definition<?> definition : document.getDefinitions()) {
+            if (definition instanceof FragmentDefinition fragment) {
+                fragments.put(fragment.getName(), fragment);
+            }
+        }
+        long cost = 0;
+        for (Definition<?> definition : document.getDefinitions()) {
+            if (definition instanceof OperationDefinition operation) {
+                cost += cost(operation.getSelectionSet(), 1, fragments, new HashSet<>());
+            }
+        }
+        return (int) Math.min(cost, UNPARSEABLE_COST);
+    }
+
+    private static long cost(SelectionSet selectionSet, int depth, Map<String, FragmentDefinition> fragments,
+                             Set<String> spreading) {
+        if (selectionSet == null) {
+            return 0;
+        }
+        long cost = 0;
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field field) {
+                cost += depth + cost(field.getSelectionSet(), depth + 1, fragments, spreading);
+            } else if (selection instanceof InlineFragment inline) {
+                cost += cost(inline.getSelectionSet(), depth, fragments, spreading);
+            } else if (selection instanceof FragmentSpread spread) {
+                FragmentDefinition fragment = fragments.get(spread.getName());
+                // Guard against cyclic fragments, these are invalid and will be rejected by validation anyway
+                if (fragment != null && spreading.add(spread.getName())) {
+                    cost += cost(fragment.getSelectionSet(), depth, fragments, spreading);
+                    spreading.remove(spread.getName());
+                }
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Gets the number of seconds after which a rejected client should retry
+     *
+     * @return Retry after seconds
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(this.maxWaitMillis + 999));
+    }
+
+    /**
+     * Gets the maximum number of concurrently admitted requests, excluding the cheap lane
+     *
+     * @return Maximum concurrent requests
+     */
+    public int getMaxConcurrent() {
+        return this.maxConcurrent;
+    }
+
+    /**
+     * Gets the maximum number of requests that may wait to be admitted
+     *
+     * @return Maximum queued requests
+     */
+    public int getMaxQueued() {
+        return this.maxQueued;
+    }
+
+    /**
+     * Gets the maximum time a request may wait to be admitted
+     *
+     * @return Maximum wait in milliseconds
+     */
+    public long getMaxWaitMillis() {
+        return this.maxWaitMillis;
+    }
+
+    /**
+     * Gets the number of slots reserved for cheap requests
+     *
+     * @return Cheap lane slots, {@code 0} if there is no cheap lane
+     */
+    public int getCheapLaneConcurrent() {
+        return this.cheapLaneConcurrent;
+    }
+
+    /**
+     * Gets the maximum estimated cost of a request that may use the cheap lane
+     *
+     * @return Cheap cost
+     */
+    public int getCheapCost() {
+        return this.cheapCost;
+    }
+
+    /**
+     * Gets the number of requests currently admitted, including those admitted via the cheap lane
+     *
+     * @return Active requests
+     */
+    public int getActive() {
+        return this.maxConcurrent - this.slots.availablePermits() +
+               (this.cheapSlots != null ? this.cheapLaneConcurrent - this.cheapSlots.availablePermits() : 0);
+    }
+
+    /**
+     * Gets the number of requests currently waiting to be admitted
+     *
+     * @return Queued requests
+     */
+    public int getQueued() {
+        return this.queued.get();
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionController{concurrent=" + this.maxConcurrent + ", queue=" + this.maxQueued + ", wait=" +
+               this.maxWaitMillis + "ms, cheap=" + this.cheapLaneConcurrent + ", cheapCost=" + this.cheapCost + "}";
+    }
+
+    /**
+     * A permit for an admitted request, closing it releases the request's slot
+     */
+    public static final class Permit implements AutoCloseable {
+        private final Semaphore slots;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore slots) {
+            this.slots = slots;
+        }
+
+        @Override
+        public void close() {
+            if (this.released.compareAndSet(false, true)) {
+                this.slots.release();
+            }
+        }
+    }
+}
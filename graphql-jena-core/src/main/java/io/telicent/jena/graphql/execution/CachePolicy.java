@@ -0,0 +1,312 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import graphql.language.*;
+import graphql.schema.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The HTTP caching policy for a GraphQL query, as declared by {@value #DIRECTIVE} directives in the schema
+ * <p>
+ * Schemas opt in to caching by declaring the directive, see
+ * {@link io.telicent.jena.graphql.schemas.GraphQLJenaSchemas#CACHE_CONTROL_SCHEMA}, and applying it to fields and/or
+ * object types, e.g. {@code node(uri: String!): Node @cacheControl(maxAge: 30)}.  The policy for a query is the most
+ * restrictive over all the fields it selects, i.e. the minimum {@code maxAge}, a {@code PRIVATE} scope if any selected
+ * field has that scope, and no storage at all if any selected field has {@code noStore: true}.  A field without the
+ * directive takes the policy of its return type if that has the directive, otherwise root fields default to a
+ * {@code maxAge} of {@code 0} while nested fields inherit the policy of their parent.
+ * </p>
+ * <p>
+ * Fields whose values come from somewhere other than the dataset, e.g. an external search index, should declare
+ * {@code noStore: true} since a response that includes them cannot be revalidated against the dataset's generation.
+ * If the schema does not declare the directive then the policy is {@link #NONE} and no {@code Cache-Control} header is
+ * sent.
+ * </p>
+ */
+public final class CachePolicy {
+
+    /**
+     * Name of the directive that declares the caching policy for a field or type
+     */
+    public static final String DIRECTIVE = "cacheControl";
+
+    /**
+     * Name of the directive argument that gives the maximum age in seconds
+     */
+    public static final String ARGUMENT_MAX_AGE = "maxAge";
+
+    /**
+     * Name of the directive argument that gives the scope
+     */
+    public static final String ARGUMENT_SCOPE = "scope";
+
+    /**
+     * Name of the directive argument that forbids storing responses
+     */
+    public static final String ARGUMENT_NO_STORE = "noStore";
+
+    /**
+     * Possible scopes for a cached response
+     */
+    public enum Scope {
+        /**
+         * Response may be cached by shared caches
+         */
+        PUBLIC,
+        /**
+         * Response is specific to the requesting user and may only be cached by their client
+         */
+        PRIVATE
+    }
+
+    /**
+     * Policy indicating that no caching policy is declared, in which case no {@code Cache-Control} header is sent
+     */
+    public static final CachePolicy NONE = new CachePolicy(0, Scope.PUBLIC, false, false);
+
+    private final int maxAge;
+    private final Scope scope;
+    private final boolean noStore;
+    private final boolean declared;
+
+    /**
+     * Creates a new caching policy
+     *
+     * @param maxAge Maximum age in seconds, must not be negative
+     * @param scope  Scope, {@code null} is treated as {@link Scope#PUBLIC}
+     */
+    public CachePolicy(int maxAge, Scope scope) {
+        this(maxAge, scope, false);
+    }
+
+    /**
+     * Creates a new caching policy
+     *
+     * @param maxAge  Maximum age in seconds, must not be negative
+     * @param scope   Scope, {@code null} is treated as {@link Scope#PUBLIC}
+     * @param noStore Whether responses must not be stored at all
+     */
+    public CachePolicy(int maxAge, Scope scope, boolean noStore) {
+        this(maxAge, scope, noStore, true);
+        if (maxAge < 0) {
+            throw new IllegalArgumentException("maxAge must not be negative");
+        }
+    }
+
+    private CachePolicy(int maxAge, Scope scope, boolean noStore, boolean declared) {
+        this.maxAge = maxAge;
+        this.scope = scope != null ? scope : Scope.PUBLIC;
+        this.noStore = noStore;
+        this.declared = declared;
+    }
+
+    /**
+     * Gets the maximum age in seconds
+     *
+     * @return Maximum age
+     */
+    public int getMaxAge() {
+        return this.maxAge;
+    }
+
+    /**
+     * Gets the scope
+     *
+     * @return Scope
+     */
+    public Scope getScope() {
+        return this.scope;
+    }
+
+    /**
+     * Gets whether responses must not be stored at all
+     *
+     * @return True if responses must not be stored
+     */
+    public boolean isNoStore() {
+        return this.noStore;
+    }
+
+    /**
+     * Gets whether responses may be revalidated with a conditional request, i.e. whether an {@code ETag} should be
+     * issued for them
+     *
+     * @return True if responses may be revalidated
+     */
+    public boolean isRevalidatable() {
+        return this.declared && !this.noStore;
+    }
+
+    /**
+     * Combines this policy with another to give the more restrictive of the two
+     *
+     * @param other Other policy
+     * @return Combined policy
+     */
+    public CachePolicy restrict(CachePolicy other) {
+        if (other == null || !other.declared) {
+            return this;
+        } else if (!this.declared) {
+            return other;
+        }
+        int restrictedMaxAge = Math.min(this.maxAge, other.maxAge);
+        Scope restrictedScope =
+                this.scope == Scope.PRIVATE || other.scope == Scope.PRIVATE ? Scope.PRIVATE : Scope.PUBLIC;
+        boolean restrictedNoStore = this.noStore || other.noStore;
+        if (restrictedMaxAge == this.maxAge && restrictedScope == this.scope && restrictedNoStore == this.noStore) {
+            return this;
+        }
+        return new CachePolicy(restrictedMaxAge, restrictedScope, restrictedNoStore);
+    }
+
+    /**
+     * Gets the value of the {@code Cache-Control} header for this policy
+     * <p>
+     * A {@code maxAge} of {@code 0} produces {@code no-cache}, which permits caching but requires revalidation, so
+     * clients still benefit from conditional requests.
+     * </p>
+     *
+     * @return Header value, or {@code null} if no policy is declared
+     */
+    public String toHeaderValue() {
+        if (!this.declared) {
+            return null;
+        } else if (this.noStore) {
+            return "no-store";
+        }
+        String scopeValue = this.scope == Scope.PRIVATE ? "private" : "public";
+        return this.maxAge == 0 ? scopeValue + ", no-cache" : scopeValue + ", max-age=" + this.maxAge;
+    }
+
+    /**
+     * Determines the caching policy for a query
+     *
+     * @param schema        Schema
+     * @param document      Parsed query document
+     * @param operationName Operation name, may be {@code null} if the document contains a single operation
+     * @return Caching policy, {@link #NONE} if the schema declares no policy, or the operation can't be determined or
+     * isn't a query
+     */
+    public static CachePolicy forQuery(GraphQLSchema schema, Document document, String operationName) {
+        Objects.requireNonNull(schema, "Schema cannot be null");
+        Objects.requireNonNull(document, "Document cannot be null");
+        if (schema.getDirective(DIRECTIVE) == null) {
+            return NONE;
+        }
+        OperationDefinition operation = null;
+        Map<String, FragmentDefinition> fragments = new HashMap<>();
+        for (Definition<?> definition : document.getDefinitions()) {
+            if (definition instanceof OperationDefinition candidate) {
+                if (operationName == null ? operation == null : operationName.equals(candidate.getName())) {
+                    operation = candidate;
+                } else if (operationName == null) {
+                    return NONE;
+                }
+            } else if (definition instanceof FragmentDefinition fragment) {
+                fragments.put(fragment.getName(), fragment);
+            }
+        }
+        if (operation == null || operation.getOperation() != OperationDefinition.Operation.QUERY) {
+            return NONE;
+        }
+        return collect(schema, fragments, operation.getSelectionSet(), schema.getQueryType(), null, NONE,
+                       new HashSet<>());
+    }
+
+    private static CachePolicy collect(GraphQLSchema schema, Map<String, FragmentDefinition> fragments,
+                                       SelectionSet selectionSet, GraphQLType parentType, CachePolicy parentPolicy,
+                                       CachePolicy policy, Set<String> visiting) {
+        if (selectionSet == null) {
+            return policy;
+        }
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field field) {
+                if (!(parentType instanceof GraphQLFieldsContainer container)) {
+                    continue;
+                }
+                GraphQLFieldDefinition definition = container.getFieldDefinition(field.getName());
+                if (definition == null) {
+                    // Introspection fields e.g. __typename are not part of the container
+                    continue;
+                }
+                GraphQLUnmodifiedType type = GraphQLTypeUtil.unwrapAll(definition.getType());
+                CachePolicy fieldPolicy = declared(definition.getAppliedDirective(DIRECTIVE));
+                if (fieldPolicy == null && type instanceof GraphQLObjectType objectType) {
+                    fieldPolicy = declared(objectType.getAppliedDirective(DIRECTIVE));
+                }
+                if (fieldPolicy == null) {
+                    fieldPolicy = parentPolicy != null ? parentPolicy : new CachePolicy(0, Scope.PUBLIC);
+                }
+                policy = policy.restrict(fieldPolicy);
+                policy = collect(schema, fragments, field.getSelectionSet(), type, fieldPolicy, policy, visiting);
+            } else if (selection instanceof InlineFragment inline) {
+                GraphQLType type =
+                        inline.getTypeCondition() != null ? schema.getType(inline.getTypeCondition().getName()) :
+                        parentType;
+                policy = collect(schema, fragments, inline.getSelectionSet(), type, parentPolicy, policy, visiting);
+            } else if (selection instanceof FragmentSpread spread) {
+                FragmentDefinition fragment = fragments.get(spread.getName());
+                if (fragment != null && visiting.add(spread.getName())) {
+                    policy = collect(schema, fragments, fragment.getSelectionSet(),
+                                     schema.getType(fragment.getTypeCondition().getName()), parentPolicy, policy,
+                                     visiting);
+                    visiting.remove(spread.getName());
+                }
+            }
+        }
+        return policy;
+    }
+
+    private static CachePolicy declared(GraphQLAppliedDirective directive) {
+        if (directive == null) {
+            return null;
+        }
+        GraphQLAppliedDirectiveArgument maxAge = directive.getArgument(ARGUMENT_MAX_AGE);
+        GraphQLAppliedDirectiveArgument scope = directive.getArgument(ARGUMENT_SCOPE);
+        GraphQLAppliedDirectiveArgument noStore = directive.getArgument(ARGUMENT_NO_STORE);
+        Object maxAgeValue = maxAge != null ? maxAge.getValue() : null;
+        Object scopeValue = scope != null ? scope.getValue() : null;
+        Object noStoreValue = noStore != null ? noStore.getValue() : null;
+        return new CachePolicy(maxAgeValue instanceof Number number ? Math.max(0, number.intValue()) : 0,
+                               scopeValue != null ? Scope.valueOf(scopeValue.toString()) : Scope.PUBLIC,
+                               Boolean.TRUE.equals(noStoreValue));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof CachePolicy other)) {
+            return false;
+        }
+        return this.maxAge == other.maxAge && this.scope == other.scope && this.noStore == other.noStore
+                && this.declared == other.declared;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.maxAge, this.scope, this.noStore, this.declared);
+    }
+
+    @Override
+    public String toString() {
+        if (!this.declared) {
+            return "CachePolicy{none}";
+        }
+        return "CachePolicy{maxAge=" + this.maxAge + ", scope=" + this.scope + ", noStore=" + this.noStore + "}";
+    }
+}
@@ -15,6 +15,10 @@ package io.telicent.jena.graphql.execution;
 import graphql.schema.idl.NaturalEnumValuesProvider;
 import graphql.schema.idl.RuntimeWiring;
 import graphql.schema.idl.TypeDefinitionRegistry;
+import io.telicent.jena.graphql.fetchers.DistinctPredicatesFetcher;
+import io.telicent.jena.graphql.fetchers.DistinctSubjectsFetcher;
+import io.telicent.jena.graphql.fetchers.GraphsFetcher;
+import io.telicent.jena.graphql.fetchers.QuadCountFetcher;
 import io.telicent.jena.graphql.fetchers.QuadsFetcher;
 import io.telicent.jena.graphql.schemas.DatasetSchema;
 import io.telicent.jena.graphql.schemas.GraphQLJenaSchemas;
@@ -50,7 +54,14 @@ public class DatasetExecutor extends AbstractDatasetExecutor {
         NaturalEnumValuesProvider<NodeKind> nodeKinds = new NaturalEnumValuesProvider<>(NodeKind.class);
         return RuntimeWiring.newRuntimeWiring()
                                .type(DatasetSchema.QUADS_QUERY_TYPE,
-                                     t -> t.dataFetcher(DatasetSchema.QUADS_FIELD, new QuadsFetcher()).enumValues(nodeKinds));
+                                     t -> t.dataFetcher(DatasetSchema.QUADS_FIELD, new QuadsFetcher())
+                                           .dataFetcher(DatasetSchema.QUAD_COUNT_FIELD, new QuadCountFetcher())
+                                           .dataFetcher(DatasetSchema.GRAPHS_FIELD, new GraphsFetcher())
+                                           .dataFetcher(DatasetSchema.DISTINCT_PREDICATES_FIELD,
+                                                        new DistinctPredicatesFetcher())
+                                           .dataFetcher(DatasetSchema.DISTINCT_SUBJECTS_FIELD,
+                                                        new DistinctSubjectsFetcher())
+                                           .enumValues(nodeKinds));
         //@formatter:on
     }
 
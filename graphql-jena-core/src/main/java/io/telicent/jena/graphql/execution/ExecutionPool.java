@@ -0,0 +1,390 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Controls which threads GraphQL requests are executed on
+ * <p>
+ * Execution is blocking, a request holds its thread for the duration of its read transaction including any time
+ * spent waiting on external services such as a Search API.  When a server executes requests directly on its container
+ * threads a burst of slow requests, e.g. expensive facet queries, can therefore occupy every container thread and
+ * cheap requests queue behind them.  An execution pool lets a server choose instead to execute each request on its own
+ * virtual thread, see {@link #virtualThreads()}, or on a bounded pool of platform threads with a bounded accept queue,
+ * see {@link #platformThreads(int, int, int)}.
+ * </p>
+ * <p>
+ * Callers hand a request to {@link #submit(Supplier, RequestDeadline)} which returns immediately, so the calling
+ * thread, e.g. a container thread, is free to serve other requests while the request executes.  Callers that prefer
+ * to block may instead use {@link #run(Supplier, RequestDeadline)}.  A bounded pool may reject a request with a
+ * {@link RejectedExecutionException} when it is saturated, and a request which overruns its deadline may be abandoned.
+ * </p>
+ * <p>
+ * An executing request is never interrupted since that could interrupt I/O within its read transaction, which for
+ * TDB2 closes the underlying file channels.  Requests are instead expected to stop cooperatively once their
+ * {@link RequestDeadline} passes or is cancelled.
+ * </p>
+ */
+public final class ExecutionPool implements AutoCloseable {
+
+    /**
+     * Default size of the accept queue for a platform thread pool
+     */
+    public static final int DEFAULT_ACCEPT_QUEUE = 256;
+
+    /**
+     * How long excess platform threads, i.e. those above the core pool size, are kept alive for when idle
+     */
+    static final long KEEP_ALIVE_SECONDS = 60;
+
+    /**
+     * How long after its deadline passes a request is given to stop of its own accord before it is abandoned
+     */
+    public static final long ABANDON_GRACE_MILLIS = 1_000;
+
+    /**
+     * A pool that executes requests directly on the calling thread, this is the default threading model
+     */
+    public static final ExecutionPool DIRECT = new ExecutionPool(null, "direct");
+
+    /**
+     * Single daemon thread used to abandon requests that overrun their deadlines, it only wakes when a request's
+     * deadline, plus the grace period, passes
+     */
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "graphql-request-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService executor;
+    private final String description;
+
+    private ExecutionPool(ExecutorService executor, String description) {
+        this.executor = executor;
+        this.description = description;
+    }
+
+    /**
+     * Creates a pool that executes each request on a new virtual thread
+     *
+     * @return Execution pool
+     */
+    public static ExecutionPool virtualThreads() {
+        return new ExecutionPool(Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("graphql-virtual-", 0).factory()), "virtual");
+    }
+
+    /**
+     * Creates a pool that executes requests on a bounded pool of platform threads
+     * <p>
+     * Requests beyond the number of worker threads wait in the accept queue, if that is full further worker threads
+     * are started up to the maximum, and if those are also busy the request is rejected.  An accept queue of {@code 0}
+     * means requests are never queued.
+     * </p>
+     *
+     * @param workerThreads    Number of worker threads kept running, must be at least 1
+     * @param maxWorkerThreads Maximum number of worker threads, must be at least {@code workerThreads}
+     * @param acceptQueue      Maximum number of requests waiting for a worker thread, must not be negative
+     * @return Execution pool
+     */
+    public static ExecutionPool platformThreads(int workerThreads, int maxWorkerThreads, int acceptQueue) {
+        if (workerThreads < 1) {
+            throw new IllegalArgumentException("workerThreads must be at least 1");
+        }
+        if (maxWorkerThreads < workerThreads) {
+            throw new IllegalArgumentException("maxWorkerThreads must be at least workerThreads");
+        }
+        if (acceptQueue < 0) {
+            throw new IllegalArgumentException("acceptQueue must not be negative");
+        }
+        AtomicInteger threadId = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "graphql-worker-" + threadId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        BlockingQueue<Runnable> queue =
+                acceptQueue > 0 ? new ArrayBlockingQueue<>(acceptQueue) : new SynchronousQueue<>();
+        ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(workerThreads, maxWorkerThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue,
+                                       threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        return new ExecutionPool(executor,
+                                 "platform[workers=" + workerThreads + ", max=" + maxWorkerThreads + ", queue=" +
+                                 acceptQueue + "]");
+    }
+
+    /**
+     * Gets whether this pool executes requests directly on the calling thread
+     *
+     * @return True if direct, false otherwise
+     */
+    public boolean isDirect() {
+        return this.executor == null;
+    }
+
+    /**
+     * Executes a request on this pool, blocking until it completes
+     *
+     * @param request Request to execute
+     * @param <T>     Result type
+     * @return Request result
+     * @throws RejectedExecutionException Thrown if the pool is saturated, or has been closed, and cannot accept the
+     *                                    request
+     */
+    public <T> T run(Supplier<T> request) {
+        return run(request, RequestDeadline.NONE);
+    }
+
+    /**
+     * Executes a request on this pool, blocking until it completes or is abandoned because its deadline has passed
+     * <p>
+     * This is a blocking convenience over {@link #submit(Supplier, RequestDeadline)}, see that method for details of
+     * when a request is abandoned.  If the calling thread is interrupted while waiting the deadline is cancelled, the
+     * request itself is not interrupted.
+     * </p>
+     *
+     * @param request  Request to execute
+     * @param deadline Request deadline, this may be further restricted by the request as it executes
+     * @param <T>      Result type
+     * @return Request result
+     * @throws RejectedExecutionException Thrown if the pool is saturated, or has been closed, and cannot accept the
+     *                                    request
+     * @throws CancellationException      Thrown if the request was abandoned
+     */
+    public <T> T run(Supplier<T> request, RequestDeadline deadline) {
+        if (this.executor == null) {
+            Objects.requireNonNull(request, "request cannot be null");
+            Objects.requireNonNull(deadline, "deadline cannot be null");
+            return request.get();
+        }
+        CompletableFuture<T> result = submit(request, deadline).result();
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            deadline.cancel();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for request to execute");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            } else if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    /**
+     * Submits a request for execution on this pool without waiting for it to complete
+     * <p>
+     * Fetchers check the deadline cooperatively so a request normally stops promptly of its own accord once its
+     * deadline passes.  However, a request may be blocked in a call that doesn't check the deadline, e.g. a call to an
+     * external Search API, in which case the caller would otherwise wait until that call returns.  Therefore when this
+     * pool does not execute requests directly, a request that is still running {@link #ABANDON_GRACE_MILLIS} after its
+     * deadline passed, or it was cancelled, is abandoned.  Its {@link Execution#result()} completes exceptionally with
+     * a {@link CancellationException} so the caller can respond, while the request itself is left to wind down, it is
+     * never interrupted.  A request that is abandoned before it started executing never executes.
+     * </p>
+     * <p>
+     * Any resources held on behalf of the request, e.g. an admission permit, should be released when
+     * {@link Execution#finished()} completes rather than when the result completes, since an abandoned request may
+     * still be executing.
+     * </p>
+     * <p>
+     * For a direct pool the request is executed on the calling thread before this method returns.  Requests whose
+     * deadline is {@link RequestDeadline#NONE} are never abandoned so are not watched at all.  Otherwise a single
+     * check is scheduled for when the request should be abandoned, and rescheduled only if the deadline is restricted
+     * or cancelled, rather than the deadline being polled.
+     * </p>
+     *
+     * @param request  Request to execute
+     * @param deadline Request deadline, this may be further restricted by the request as it executes
+     * @param <T>      Result type
+     * @return Execution of the request
+     * @throws RejectedExecutionException Thrown if the pool is saturated, or has been closed, and cannot accept the
+     *                                    request
+     */
+    public <T> Execution<T> submit(Supplier<T> request, RequestDeadline deadline) {
+        Objects.requireNonNull(request, "request cannot be null");
+        Objects.requireNonNull(deadline, "deadline cannot be null");
+        Execution<T> execution = new Execution<>();
+        if (this.executor == null) {
+            execution.execute(request);
+            return execution;
+        }
+        Future<?> task = this.executor.submit(() -> {
+            if (execution.started.compareAndSet(false, true)) {
+                execution.execute(request);
+            }
+        });
+        if (deadline != RequestDeadline.NONE) {
+            new Watch(execution, task, deadline).start();
+        }
+        return execution;
+    }
+
+    /**
+     * Closes the pool, requests that are already executing or queued are allowed to complete but new requests are
+     * rejected
+     */
+    @Override
+    public void close() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.description;
+    }
+
+    /**
+     * Watches the deadline of a submitted request, abandoning the request once the grace period after its deadline
+     * passed, or after it was cancelled, has elapsed
+     */
+    private static final class Watch implements Runnable {
+        private final Execution<?> execution;
+        private final Future<?> task;
+        private final RequestDeadline deadline;
+        private ScheduledFuture<?> check;
+        private long cancelledAt = -1;
+        private Runnable unregister;
+
+        private Watch(Execution<?> execution, Future<?> task, RequestDeadline deadline) {
+            this.execution = execution;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        private void start() {
+            // Register before scheduling so that no change to the deadline can be missed
+            this.unregister = this.deadline.onChange(this::schedule);
+            schedule();
+            this.execution.result.whenComplete((r, e) -> stop());
+        }
+
+        /**
+         * Schedules the check for when the request should be abandoned, replacing any previously scheduled check
+         */
+        private synchronized void schedule() {
+            if (this.execution.result.isDone()) {
+                return;
+            }
+            long delayMillis = Long.MAX_VALUE;
+            if (this.deadline.hasTimeout()) {
+                delayMillis = this.deadline.remainingMillis() + ABANDON_GRACE_MILLIS;
+            }
+            if (this.deadline.isCancelled()) {
+                if (this.cancelledAt == -1) {
+                    this.cancelledAt = System.nanoTime();
+                }
+                long sinceCancelled = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.cancelledAt);
+                delayMillis = Math.min(delayMillis, Math.max(0, ABANDON_GRACE_MILLIS - sinceCancelled));
+            }
+            if (this.check != null) {
+                this.check.cancel(false);
+                this.check = null;
+            }
+            if (delayMillis == Long.MAX_VALUE) {
+                // No timeout and not cancelled, nothing to check unless the deadline changes
+                return;
+            }
+            try {
+                this.check = WATCHDOG.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Only happens during JVM shutdown, nothing further to watch
+            }
+        }
+
+        @Override
+        public void run() {
+            if (this.execution.result.isDone()) {
+                return;
+            }
+            if (!this.deadline.isCancelled() && !this.deadline.isExpired()) {
+                // Woke marginally early, e.g. due to rounding of the remaining time
+                schedule();
+                return;
+            }
+            // Never interrupt, only prevent the request from starting if it is still queued
+            this.task.cancel(false);
+            if (this.execution.started.compareAndSet(false, true)) {
+                this.execution.finished.complete(null);
+            }
+            this.execution.result.completeExceptionally(new CancellationException(
+                    "Request did not stop within " + ABANDON_GRACE_MILLIS + " milliseconds of " +
+                    (this.deadline.isCancelled() ? "being cancelled" : "its deadline passing") + " so was abandoned"));
+        }
+
+        private synchronized void stop() {
+            if (this.check != null) {
+                this.check.cancel(false);
+                this.check = null;
+            }
+            if (this.unregister != null) {
+                this.unregister.run();
+            }
+        }
+    }
+
+    /**
+     * The execution of a request submitted to an {@link ExecutionPool}
+     *
+     * @param <T> Result type
+     */
+    public static final class Execution<T> {
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final CompletableFuture<Void> finished = new CompletableFuture<>();
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private Execution() {
+        }
+
+        private void execute(Supplier<T> request) {
+            try {
+                this.result.complete(request.get());
+            } catch (Throwable e) {
+                this.result.completeExceptionally(e);
+            } finally {
+                this.finished.complete(null);
+            }
+        }
+
+        /**
+         * Gets the result of the request, this completes exceptionally with a {@link CancellationException} if the
+         * request was abandoned
+         *
+         * @return Result
+         */
+        public CompletableFuture<T> result() {
+            return this.result;
+        }
+
+        /**
+         * Gets a future that completes once the request is no longer executing, either because it finished or because
+         * it was abandoned before it started executing
+         *
+         * @return Finished future
+         */
+        public CompletableFuture<Void> finished() {
+            return this.finished;
+        }
+    }
+}
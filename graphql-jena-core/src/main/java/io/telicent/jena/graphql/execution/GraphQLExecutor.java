@@ -51,6 +51,25 @@ public interface GraphQLExecutor {
     ExecutionResult execute(String query, String operationName, Map<String, Object> variables,
                             Map<String, Object> extensions);
 
+    /**
+     * Executes the provided query subject to a deadline
+     * <p>
+     * The default implementation ignores the deadline, implementations that support cooperative cancellation should
+     * override this and make the deadline available to their fetchers.
+     * </p>
+     *
+     * @param query         Query
+     * @param operationName Operation name indicating an operation within the query document to execute
+     * @param variables     Variables to make available to the query
+     * @param extensions    Vendor extensions to make available to the query
+     * @param deadline      Deadline for the request, may be {@code null}
+     * @return Execution Result
+     */
+    default ExecutionResult execute(String query, String operationName, Map<String, Object> variables,
+                                    Map<String, Object> extensions, RequestDeadline deadline) {
+        return execute(query, operationName, variables, extensions);
+    }
+
     /**
      * Executes the provided request
      *
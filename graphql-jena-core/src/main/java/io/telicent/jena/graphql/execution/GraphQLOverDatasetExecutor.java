@@ -43,4 +43,41 @@ public interface GraphQLOverDatasetExecutor {
      */
     ExecutionResult execute(DatasetGraph dsg, String query, String operationName, Map<String, Object> variables,
                             Map<String, Object> extensions);
+
+    /**
+     * Executes the provided query over the given {@link DatasetGraph} subject to a deadline
+     * <p>
+     * The default implementation ignores the deadline, implementations that support cooperative cancellation should
+     * override this and make the deadline available to their fetchers.
+     * </p>
+     *
+     * @param dsg      Dataset Graph to query
+     * @param request  GraphQL Request
+     * @param deadline Deadline for the request, may be {@code null}
+     * @return Execution Result
+     */
+    default ExecutionResult execute(DatasetGraph dsg, GraphQLRequest request, RequestDeadline deadline) {
+        return execute(dsg, request);
+    }
+
+    /**
+     * Executes the provided query over the given {@link DatasetGraph} subject to a deadline
+     * <p>
+     * The default implementation ignores the deadline, implementations that support cooperative cancellation should
+     * override this and make the deadline available to their fetchers.
+     * </p>
+     *
+     * @param dsg           Dataset Graph to query
+     * @param query         Query
+     * @param operationName Operation name indicating an operation within the query document to execute
+     * @param variables     Variables to make available to the query
+     * @param extensions    Vendor extensions to make available to the query
+     * @param deadline      Deadline for the request, may be {@code null}
+     * @return Execution Result
+     */
+    default ExecutionResult execute(DatasetGraph dsg, String query, String operationName,
+                                    Map<String, Object> variables, Map<String, Object> extensions,
+                                    RequestDeadline deadline) {
+        return execute(dsg, query, operationName, variables, extensions);
+    }
 }
@@ -0,0 +1,303 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import graphql.GraphQLContext;
+import graphql.execution.AbortExecutionException;
+import graphql.schema.DataFetchingEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * A per-request deadline that fetchers check cooperatively while streaming results
+ * <p>
+ * A deadline is created for each request by {@link AbstractDatasetExecutor} from the executor's configured query
+ * timeout, see {@link AbstractDatasetExecutor#setQueryTimeout(long)}, and the optional {@value #TIMEOUT_EXTENSION}
+ * extension supplied by the client, with the shorter of the two applying.  A client hint can only shorten the server
+ * timeout, never extend it.  Callers that are able to detect that a client has gone away, e.g. because the HTTP
+ * connection was closed, may supply their own deadline and {@link #cancel()} it.
+ * </p>
+ * <p>
+ * The deadline is made available to fetchers for each request via the {@link GraphQLContext}, fetchers wrap their
+ * streams with {@link #guard(Stream)} so that a timed out or cancelled request stops consuming CPU and releases its
+ * read transaction promptly.
+ * </p>
+ */
+public final class RequestDeadline {
+
+    /**
+     * Key under which the deadline is stored in the {@link GraphQLContext} for a request
+     */
+    public static final Class<RequestDeadline> CONTEXT_KEY = RequestDeadline.class;
+
+    /**
+     * Name of the GraphQL extension via which a client may request a shorter timeout, in milliseconds
+     */
+    public static final String TIMEOUT_EXTENSION = "timeoutMs";
+
+    /**
+     * A deadline that never expires and cannot be cancelled
+     */
+    public static final RequestDeadline NONE = new RequestDeadline(Long.MAX_VALUE, false);
+
+    /**
+     * How many stream elements are processed between checks of the clock
+     */
+    static final int CLOCK_CHECK_INTERVAL = 64;
+
+    private volatile long deadlineNanos;
+    private volatile boolean cancelled;
+    private final boolean mutable;
+    private List<Runnable> listeners;
+
+    private RequestDeadline(long deadlineNanos, boolean mutable) {
+        this.deadlineNanos = deadlineNanos;
+        this.mutable = mutable;
+    }
+
+    /**
+     * Creates a new deadline that has no timeout but which may be cancelled and/or restricted later
+     *
+     * @return Deadline
+     */
+    public static RequestDeadline create() {
+        return new RequestDeadline(Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Creates a new deadline that expires after the given timeout
+     *
+     * @param timeoutMs Timeout in milliseconds, must be positive
+     * @return Deadline
+     */
+    public static RequestDeadline after(long timeoutMs) {
+        RequestDeadline deadline = create();
+        deadline.restrict(timeoutMs);
+        return deadline;
+    }
+
+    /**
+     * Gets the deadline for the request that the given environment belongs to
+     *
+     * @param environment Data fetching environment
+     * @return Deadline, {@link #NONE} if no deadline applies
+     */
+    public static RequestDeadline get(DataFetchingEnvironment environment) {
+        GraphQLContext context = environment.getGraphQlContext();
+        if (context == null) {
+            return NONE;
+        }
+        RequestDeadline deadline = context.get(CONTEXT_KEY);
+        return deadline != null ? deadline : NONE;
+    }
+
+    /**
+     * Parses the timeout hint, if any, from the extensions of a GraphQL request
+     *
+     * @param extensions Extensions
+     * @return Timeout in milliseconds, or {@code 0} if no hint was supplied
+     * @throws IllegalArgumentException Thrown if the hint is present but not a positive integer
+     */
+    public static long parseTimeoutHint(Map<String, Object> extensions) {
+        if (extensions == null) {
+            return 0;
+        }
+        Object rawTimeout = extensions.get(TIMEOUT_EXTENSION);
+        if (rawTimeout == null) {
+            return 0;
+        }
+        long timeout;
+        if (rawTimeout instanceof Number number) {
+            timeout = number.longValue();
+        } else {
+            try {
+                timeout = Long.parseLong(rawTimeout.toString());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(TIMEOUT_EXTENSION + " extension must be an integer");
+            }
+        }
+        if (timeout <= 0) {
+            throw new IllegalArgumentException(TIMEOUT_EXTENSION + " extension must be positive");
+        }
+        return timeout;
+    }
+
+    /**
+     * Restricts this deadline so that it expires no later than the given timeout from now, if the deadline already
+     * expires sooner than this then it is unchanged
+     *
+     * @param timeoutMs Timeout in milliseconds, must be positive
+     * @return Deadline
+     */
+    public RequestDeadline restrict(long timeoutMs) {
+        if (timeoutMs <= 0) {
+            throw new IllegalArgumentException("timeoutMs must be positive");
+        }
+        if (!this.mutable) {
+            throw new IllegalStateException("Cannot restrict an immutable deadline");
+        }
+        long candidate = System.nanoTime() + Math.min(timeoutMs, Long.MAX_VALUE / 2_000_000L) * 1_000_000L;
+        boolean changed = false;
+        synchronized (this) {
+            if (!this.hasTimeout() || candidate - this.deadlineNanos < 0) {
+                this.deadlineNanos = candidate;
+                changed = true;
+            }
+        }
+        if (changed) {
+            notifyListeners();
+        }
+        return this;
+    }
+
+    /**
+     * Cancels the request that this deadline belongs to, e.g. because the client disconnected
+     */
+    public void cancel() {
+        if (this.mutable && !this.cancelled) {
+            this.cancelled = true;
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Registers a listener that is notified whenever this deadline is restricted or cancelled, so that anything
+     * scheduled around the deadline can be rescheduled rather than polling the deadline
+     * <p>
+     * Listeners are notified on the thread that changed the deadline so <strong>MUST</strong> return promptly.  An
+     * immutable deadline, e.g. {@link #NONE}, never changes so its listeners are never notified.
+     * </p>
+     *
+     * @param listener Listener
+     * @return Action that removes the listener
+     */
+    Runnable onChange(Runnable listener) {
+        Objects.requireNonNull(listener, "listener cannot be null");
+        if (!this.mutable) {
+            return () -> {
+            };
+        }
+        synchronized (this) {
+            if (this.listeners == null) {
+                this.listeners = new ArrayList<>(1);
+            }
+            this.listeners.add(listener);
+        }
+        return () -> {
+            synchronized (this) {
+                this.listeners.remove(listener);
+            }
+        };
+    }
+
+    private void notifyListeners() {
+        List<Runnable> notify;
+        synchronized (this) {
+            if (this.listeners == null || this.listeners.isEmpty()) {
+                return;
+            }
+            notify = List.copyOf(this.listeners);
+        }
+        notify.forEach(Runnable::run);
+    }
+
+    /**
+     * Gets whether this deadline has a timeout
+     *
+     * @return True if there is a timeout, false otherwise
+     */
+    public boolean hasTimeout() {
+        return this.deadlineNanos != Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets whether the request was cancelled
+     *
+     * @return True if cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Gets whether the deadline has passed
+     *
+     * @return True if expired, false otherwise
+     */
+    public boolean isExpired() {
+        return this.hasTimeout() && System.nanoTime() - this.deadlineNanos >= 0;
+    }
+
+    /**
+     * Gets the remaining time before the deadline passes
+     *
+     * @return Remaining milliseconds, {@link Long#MAX_VALUE} if there is no timeout
+     */
+    public long remainingMillis() {
+        if (!this.hasTimeout()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, (this.deadlineNanos - System.nanoTime()) / 1_000_000L);
+    }
+
+    /**
+     * Checks whether the request should stop, this is the case if it has been cancelled, the deadline has passed, or
+     * the executing thread was interrupted
+     *
+     * @throws AbortExecutionException Thrown if the request should stop
+     */
+    public void check() {
+        if (this.cancelled || Thread.currentThread().isInterrupted()) {
+            throw new AbortExecutionException("Request was cancelled");
+        }
+        if (this.isExpired()) {
+            throw new AbortExecutionException("Request exceeded its deadline");
+        }
+    }
+
+    /**
+     * Wraps a stream so that this deadline is checked cooperatively as elements are consumed
+     * <p>
+     * Cancellation is checked for every element while the clock is read for the first element, so that even short
+     * streams, e.g. per-node lookups, notice a passed deadline, and thereafter only every
+     * {@value #CLOCK_CHECK_INTERVAL} elements to keep the per-element overhead low.
+     * </p>
+     *
+     * @param stream Stream
+     * @param <T>    Element type
+     * @return Guarded stream
+     */
+    public <T> Stream<T> guard(Stream<T> stream) {
+        if (this == NONE) {
+            return stream;
+        }
+        int[] counter = new int[1];
+        return stream.peek(x -> {
+            if (this.cancelled) {
+                check();
+            }
+            if (counter[0]++ % CLOCK_CHECK_INTERVAL == 0) {
+                check();
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "RequestDeadline{remainingMillis=" + this.remainingMillis() + ", cancelled=" + this.cancelled + "}";
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import graphql.GraphQLContext;
+import graphql.schema.DataFetchingEnvironment;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.system.Txn;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * The read transaction within which a GraphQL request executes
+ * <p>
+ * {@link AbstractDatasetExecutor} executes each request inside a single read transaction on its dataset, joining the
+ * caller's transaction if one is already active, and records that transaction in the {@link GraphQLContext} for the
+ * request.  Fetchers should read the dataset via
+ * {@link #calculateRead(DataFetchingEnvironment, DatasetGraph, Supplier)} which runs directly within the request
+ * transaction rather than checking for, or starting, a transaction of their own for every field they fetch.  Reads of a
+ * different dataset, or from a thread other than the one executing the request, fall back to
+ * {@link Txn#calculateRead(org.apache.jena.sparql.core.Transactional, Supplier)}.
+ * </p>
+ */
+public final class RequestTransaction {
+
+    /**
+     * Key under which the transaction is stored in the {@link GraphQLContext} for a request
+     */
+    public static final Class<RequestTransaction> CONTEXT_KEY = RequestTransaction.class;
+
+    private final DatasetGraph dsg;
+    private final Thread thread;
+
+    /**
+     * Creates a new request transaction, this <strong>MUST</strong> be created on the thread that holds the read
+     * transaction on the dataset
+     *
+     * @param dsg Dataset Graph the transaction is active on
+     */
+    RequestTransaction(DatasetGraph dsg) {
+        this.dsg = Objects.requireNonNull(dsg, "DatasetGraph cannot be null");
+        this.thread = Thread.currentThread();
+    }
+
+    /**
+     * Gets the transaction for the request that the given environment belongs to
+     *
+     * @param environment Data fetching environment
+     * @return Request transaction, or {@code null} if none is recorded
+     */
+    public static RequestTransaction get(DataFetchingEnvironment environment) {
+        GraphQLContext context = environment.getGraphQlContext();
+        return context != null ? context.get(CONTEXT_KEY) : null;
+    }
+
+    /**
+     * Gets whether reads of the given dataset, made from the current thread, are covered by this transaction
+     *
+     * @param dsg Dataset Graph
+     * @return True if covered, false otherwise
+     */
+    public boolean covers(DatasetGraph dsg) {
+        return this.dsg == dsg && this.thread == Thread.currentThread();
+    }
+
+    /**
+     * Calculates a value by reading the given dataset within the request transaction, if it covers the read, or
+     * otherwise within a read transaction of its own
+     *
+     * @param environment Data fetching environment
+     * @param dsg         Dataset Graph to read
+     * @param action      Action that reads the dataset
+     * @param <T>         Value type
+     * @return Value
+     */
+    public static <T> T calculateRead(DataFetchingEnvironment environment, DatasetGraph dsg, Supplier<T> action) {
+        RequestTransaction transaction = get(environment);
+        if (transaction != null && transaction.covers(dsg)) {
+            return action.get();
+        }
+        return Txn.calculateRead(dsg, action);
+    }
+}
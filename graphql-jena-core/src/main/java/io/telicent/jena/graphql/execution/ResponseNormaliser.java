@@ -0,0 +1,253 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import graphql.ExecutionResult;
+import graphql.language.*;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.schema.GraphQLUnmodifiedType;
+
+import java.util.*;
+
+/**
+ * Rewrites GraphQL results into a normalised form where each entity appears only once
+ * <p>
+ * Responses over highly connected data tend to repeat the same entities many times, e.g. the same {@code Node} appears
+ * as the {@code range} of many relationships.  When a client requests normalisation, via the
+ * {@value #NORMALISE_EXTENSION} extension, objects of the configured entity types are moved into an entity table,
+ * keyed by their identity field, that is returned in the {@value #ENTITIES_EXTENSION} extension of the response.  Each
+ * occurrence of the entity within the data is replaced by the value of its identity field.
+ * </p>
+ * <p>
+ * Since different parts of a query may select different fields of an entity the entity table holds the union of the
+ * fields selected for it.  Where two occurrences of an entity have the same field with different values, e.g. because
+ * they selected it with different arguments, the later occurrence is left inline in the data.  Likewise, occurrences
+ * that do not select the identity field are left inline.  Clients can therefore distinguish references from inline
+ * entities since a reference is a string while an inline entity is an object.
+ * </p>
+ */
+public final class ResponseNormaliser {
+
+    /**
+     * Name of the GraphQL extension via which a client requests a normalised response
+     */
+    public static final String NORMALISE_EXTENSION = "normalise";
+
+    /**
+     * Name of the response extension that holds the entity table of a normalised response
+     */
+    public static final String ENTITIES_EXTENSION = "entities";
+
+    private final Map<String, String> identityFields;
+
+    /**
+     * Creates a new normaliser
+     *
+     * @param identityFields Map from the names of the GraphQL object types that should be normalised to the name of
+     *                       the field that identifies an instance of that type e.g. {@code Node} to {@code uri}
+     */
+    public ResponseNormaliser(Map<String, String> identityFields) {
+        if (identityFields == null || identityFields.isEmpty()) {
+            throw new IllegalArgumentException("At least one entity type must be specified");
+        }
+        this.identityFields = Map.copyOf(identityFields);
+    }
+
+    /**
+     * Gets the names of the GraphQL object types that are normalised, mapped to their identity field
+     *
+     * @return Identity fields
+     */
+    public Map<String, String> getIdentityFields() {
+        return this.identityFields;
+    }
+
+    /**
+     * Determines whether the given request extensions ask for a normalised response
+     *
+     * @param extensions Request extensions
+     * @return True if a normalised response is requested
+     */
+    public static boolean isRequested(Map<String, Object> extensions) {
+        if (extensions == null) {
+            return false;
+        }
+        Object normalise = extensions.get(NORMALISE_EXTENSION);
+        return normalise instanceof Boolean requested ? requested : Boolean.parseBoolean(Objects.toString(normalise));
+    }
+
+    /**
+     * Normalises a GraphQL result
+     *
+     * @param schema        Schema the query was executed against
+     * @param query         GraphQL Query that produced the result
+     * @param operationName Operation name, may be {@code null} if the query contains a single operation
+     * @param result        GraphQL Result
+     * @return Normalised result, or the original result if it has no data or the operation cannot be determined
+     */
+    public ExecutionResult normalise(GraphQLSchema schema, String query, String operationName,
+                                     ExecutionResult result) {
+        Objects.requireNonNull(schema, "Schema cannot be null");
+        Objects.requireNonNull(result, "Result cannot be null");
+        if (!(result.getData() instanceof Map<?, ?>) || query == null) {
+            return result;
+        }
+        Selection plan = plan(schema, Parser.parse(query), operationName);
+        if (plan == null) {
+            return result;
+        }
+        Map<String, Map<String, Object>> entities = new LinkedHashMap<>();
+        Object data = normalise(result.getData(), plan, entities);
+        //@formatter:off
+        return ExecutionResult.newExecutionResult()
+                              .from(result)
+                              .data(data)
+                              .addExtension(ENTITIES_EXTENSION, entities)
+                              .build();
+        //@formatter:on
+    }
+
+    /**
+     * Plans the normalisation by walking the selected operation against the schema, recording the result keys beneath
+     * which entities are found
+     *
+     * @param schema        Schema
+     * @param document      Query document
+     * @param operationName Operation name
+     * @return Normalisation plan, or {@code null} if the operation cannot be determined
+     */
+    private Selection plan(GraphQLSchema schema, Document document, String operationName) {
+        OperationDefinition operation = null;
+        Map<String, FragmentDefinition> fragments = new HashMap<>();
+        for (Definition<?> definition : document.getDefinitions()) {
+            if (definition instanceof OperationDefinition candidate) {
+                if (operationName == null ? operation == null : operationName.equals(candidate.getName())) {
+                    operation = candidate;
+                } else if (operationName == null) {
+                    // Ambiguous, in which case the query would not have executed successfully anyway
+                    return null;
+                }
+            } else if (definition instanceof FragmentDefinition fragment) {
+                fragments.put(fragment.getName(), fragment);
+            }
+        }
+        if (operation == null) {
+            return null;
+        }
+        GraphQLType root = switch (operation.getOperation()) {
+            case MUTATION -> schema.getMutationType();
+            case SUBSCRIPTION -> schema.getSubscriptionType();
+            default -> schema.getQueryType();
+        };
+        Selection plan = new Selection(null);
+        this.collect(schema, fragments, operation.getSelectionSet(), root, plan, new HashSet<>());
+        return plan;
+    }
+
+    private void collect(GraphQLSchema schema, Map<String, FragmentDefinition> fragments, SelectionSet selectionSet,
+                         GraphQLType parentType, Selection target, Set<String> visiting) {
+        if (selectionSet == null) {
+            return;
+        }
+        for (graphql.language.Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field field) {
+                if (!(parentType instanceof GraphQLFieldsContainer container)) {
+                    continue;
+                }
+                GraphQLFieldDefinition definition = container.getFieldDefinition(field.getName());
+                if (definition == null) {
+                    // Introspection fields e.g. __typename are not part of the container
+                    continue;
+                }
+                if (field.getSelectionSet() == null) {
+                    if (field.getName().equals(target.identityField)) {
+                        target.identityKey = field.getResultKey();
+                    }
+                    continue;
+                }
+                GraphQLUnmodifiedType type = GraphQLTypeUtil.unwrapAll(definition.getType());
+                Selection child = target.children.computeIfAbsent(field.getResultKey(), k -> new Selection(
+                        this.identityFields.get(type.getName())));
+                this.collect(schema, fragments, field.getSelectionSet(), type, child, visiting);
+            } else if (selection instanceof InlineFragment inline) {
+                GraphQLType type =
+                        inline.getTypeCondition() != null ? schema.getType(inline.getTypeCondition().getName()) :
+                        parentType;
+                this.collect(schema, fragments, inline.getSelectionSet(), type, target, visiting);
+            } else if (selection instanceof FragmentSpread spread) {
+                FragmentDefinition fragment = fragments.get(spread.getName());
+                if (fragment != null && visiting.add(spread.getName())) {
+                    this.collect(schema, fragments, fragment.getSelectionSet(),
+                                 schema.getType(fragment.getTypeCondition().getName()), target, visiting);
+                    visiting.remove(spread.getName());
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object normalise(Object value, Selection selection, Map<String, Map<String, Object>> entities) {
+        if (value instanceof List<?> list) {
+            List<Object> normalised = new ArrayList<>(list.size());
+            for (Object item : list) {
+                normalised.add(normalise(item, selection, entities));
+            }
+            return normalised;
+        } else if (!(value instanceof Map<?, ?>)) {
+            return value;
+        }
+
+        Map<String, Object> object = (Map<String, Object>) value;
+        Map<String, Object> normalised = new LinkedHashMap<>(object.size());
+        for (Map.Entry<String, Object> entry : object.entrySet()) {
+            Selection child = selection.children.get(entry.getKey());
+            normalised.put(entry.getKey(),
+                           child != null ? normalise(entry.getValue(), child, entities) : entry.getValue());
+        }
+        if (selection.identityKey == null || !(normalised.get(selection.identityKey) instanceof String id)) {
+            return normalised;
+        }
+
+        Map<String, Object> entity = entities.get(id);
+        if (entity == null) {
+            entities.put(id, normalised);
+            return id;
+        }
+        for (Map.Entry<String, Object> entry : normalised.entrySet()) {
+            if (entity.containsKey(entry.getKey()) && !Objects.equals(entity.get(entry.getKey()), entry.getValue())) {
+                // Conflicting selection of the same field, leave this occurrence inline
+                return normalised;
+            }
+        }
+        entity.putAll(normalised);
+        return id;
+    }
+
+    /**
+     * A node of the normalisation plan, records the selections beneath a result key
+     */
+    private static final class Selection {
+        private final Map<String, Selection> children = new HashMap<>();
+        private final String identityField;
+        private String identityKey;
+
+        private Selection(String identityField) {
+            this.identityField = identityField;
+        }
+    }
+}
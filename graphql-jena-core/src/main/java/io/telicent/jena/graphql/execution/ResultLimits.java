@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import graphql.GraphQLContext;
+import graphql.schema.DataFetchingEnvironment;
+
+/**
+ * Per-request limits on the size of results that fetchers will materialise
+ * <p>
+ * Limits are configured on an executor via {@link AbstractDatasetExecutor#setResultLimits(ResultLimits)} and are
+ * made available to fetchers for each request via the {@link GraphQLContext}.  Fetchers that honour these limits
+ * check them incrementally while streaming results so that the full result is never materialised when a limit is
+ * exceeded.
+ * </p>
+ */
+public final class ResultLimits {
+
+    /**
+     * Key under which the limits are stored in the {@link GraphQLContext} for a request
+     */
+    public static final Class<ResultLimits> CONTEXT_KEY = ResultLimits.class;
+
+    /**
+     * Limits that impose no restrictions
+     */
+    public static final ResultLimits UNLIMITED =
+            new ResultLimits(Long.MAX_VALUE, Long.MAX_VALUE, OverflowMode.TRUNCATE);
+
+    /**
+     * Possible behaviours when a limit is exceeded
+     */
+    public enum OverflowMode {
+        /**
+         * Truncate the results at the limit, returning the partial results along with a GraphQL error that indicates
+         * that they were truncated
+         */
+        TRUNCATE,
+        /**
+         * Abort the field entirely, returning no results for it and a GraphQL error
+         */
+        ABORT
+    }
+
+    private final long maxQuads, maxBytes;
+    private final OverflowMode mode;
+
+    /**
+     * Creates new result limits
+     *
+     * @param maxQuads Maximum number of quads that may be streamed for a single field, must be positive
+     * @param maxBytes Maximum estimated number of bytes that may be materialised for a single field, must be positive
+     * @param mode     Behaviour when a limit is exceeded
+     */
+    public ResultLimits(long maxQuads, long maxBytes, OverflowMode mode) {
+        if (maxQuads <= 0) {
+            throw new IllegalArgumentException("maxQuads must be positive");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.maxQuads = maxQuads;
+        this.maxBytes = maxBytes;
+        this.mode = mode != null ? mode : OverflowMode.TRUNCATE;
+    }
+
+    /**
+     * Gets the limits for the request that the given environment belongs to
+     *
+     * @param environment Data fetching environment
+     * @return Result limits, {@link #UNLIMITED} if no limits configured
+     */
+    public static ResultLimits get(DataFetchingEnvironment environment) {
+        GraphQLContext context = environment.getGraphQlContext();
+        if (context == null) {
+            return UNLIMITED;
+        }
+        ResultLimits limits = context.get(CONTEXT_KEY);
+        return limits != null ? limits : UNLIMITED;
+    }
+
+    /**
+     * Gets the maximum number of quads that may be streamed for a single field
+     *
+     * @return Maximum quads
+     */
+    public long getMaxQuads() {
+        return this.maxQuads;
+    }
+
+    /**
+     * Gets the maximum estimated number of bytes that may be materialised for a single field
+     *
+     * @return Maximum bytes
+     */
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    /**
+     * Gets whether a byte limit applies, when it does not fetchers need not estimate result sizes
+     *
+     * @return True if a byte limit applies, false otherwise
+     */
+    public boolean hasByteLimit() {
+        return this.maxBytes != Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets the behaviour when a limit is exceeded
+     *
+     * @return Overflow mode
+     */
+    public OverflowMode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Gets whether these limits impose any restrictions
+     *
+     * @return True if unlimited, false otherwise
+     */
+    public boolean isUnlimited() {
+        return this.maxQuads == Long.MAX_VALUE && this.maxBytes == Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultLimits{maxQuads=" + this.maxQuads + ", maxBytes=" + this.maxBytes + ", mode=" + this.mode + "}";
+    }
+}
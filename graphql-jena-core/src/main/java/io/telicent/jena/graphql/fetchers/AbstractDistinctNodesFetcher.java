@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.RequestTransaction;
+import io.telicent.jena.graphql.schemas.DatasetSchema;
+import io.telicent.jena.graphql.schemas.models.WrappedNode;
+import io.telicent.jena.graphql.utils.NodeFilter;
+import io.telicent.jena.graphql.utils.QuadMatcher;
+import io.telicent.jena.graphql.utils.SortedNodeIndex;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * An abstract GraphQL Data Fetcher that finds the distinct nodes in a given position of the quads matching a pattern
+ * <p>
+ * Where the pattern has a concrete node in the position of interest at most that node is returned, so only the first
+ * matching quad is found.  Where the pattern is otherwise unrestricted, and the dataset has a {@link SortedNodeIndex}
+ * attached, the index's distinct nodes for the position are walked and each is probed for a single matching quad, so
+ * the run of quads sharing a node is skipped rather than scanned.  Otherwise the matching quads are streamed from the
+ * dataset and never collected, only the distinct nodes are retained.  Since index iteration generally returns quads in
+ * sorted order a cheap comparison with the previously seen node is made before falling back to the set of distinct
+ * nodes.
+ * </p>
+ */
+public abstract class AbstractDistinctNodesFetcher implements DataFetcher<List<WrappedNode>> {
+
+    /**
+     * Creates a new distinct nodes fetcher
+     */
+    protected AbstractDistinctNodesFetcher() {
+
+    }
+
+    @Override
+    public final List<WrappedNode> get(DataFetchingEnvironment environment) {
+        QuadMatcher matcher = NodeFilter.parsePatternMatcher(environment.getArgument(DatasetSchema.PATTERN_ARGUMENT));
+        int limit = getLimit(environment);
+        DatasetGraph dsg = environment.getLocalContext();
+        return RequestTransaction.calculateRead(environment, dsg,
+                                                () -> distinct(dsg, matcher, limit).stream()
+                                                                                   .map(WrappedNode::new)
+                                                                                   .toList());
+    }
+
+    /**
+     * Finds the distinct nodes
+     *
+     * @param dsg     Dataset Graph
+     * @param matcher Quad matcher
+     * @param limit   Maximum number of distinct nodes to find
+     * @return Distinct nodes
+     */
+    private Collection<Node> distinct(DatasetGraph dsg, QuadMatcher matcher, int limit) {
+        Quad pattern = matcher.asPattern();
+        if (!Node.ANY.equals(select(pattern))) {
+            // Every matching quad has the same node in this position so the first match suffices
+            try (Stream<Quad> stream = matcher.stream(dsg)) {
+                return stream.findFirst().map(q -> List.of(select(q))).orElse(List.of());
+            }
+        }
+
+        SortedNodeIndex index = SortedNodeIndex.get(dsg);
+        List<Node> candidates = index != null && isUnrestricted(matcher) ? candidates(index) : null;
+        if (candidates != null) {
+            return probe(dsg, matcher, candidates, limit);
+        }
+        return scan(dsg, matcher, limit);
+    }
+
+    /**
+     * Gets whether a matcher places no restrictions on the quads, in which case probing every candidate node will
+     * generally find a match and be cheaper than scanning all the quads
+     */
+    private static boolean isUnrestricted(QuadMatcher matcher) {
+        return !matcher.hasConditions() && matcher.asPattern().equals(QuadMatcher.ANY.asPattern());
+    }
+
+    /**
+     * Finds the distinct nodes by probing each candidate node for a single matching quad
+     */
+    private List<Node> probe(DatasetGraph dsg, QuadMatcher matcher, List<Node> candidates, int limit) {
+        Quad pattern = matcher.asPattern();
+        List<Node> nodes = new ArrayList<>();
+        for (Node candidate : candidates) {
+            if (nodes.size() >= limit) {
+                break;
+            }
+            Quad probe = bind(pattern, candidate);
+            try (Stream<Quad> quads = dsg.stream(probe.getGraph(), probe.getSubject(), probe.getPredicate(),
+                                                 probe.getObject())) {
+                if (quads.anyMatch(matcher)) {
+                    nodes.add(candidate);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Finds the distinct nodes by scanning the matching quads
+     */
+    private Set<Node> scan(DatasetGraph dsg, QuadMatcher matcher, int limit) {
+        Set<Node> nodes = new LinkedHashSet<>();
+        Node last = null;
+        try (Stream<Quad> stream = matcher.stream(dsg)) {
+            Iterator<Quad> quads = stream.iterator();
+            while (quads.hasNext() && nodes.size() < limit) {
+                Node n = select(quads.next());
+                if (n.equals(last)) {
+                    continue;
+                }
+                nodes.add(n);
+                last = n;
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Selects the node of interest from a quad
+     *
+     * @param quad Quad
+     * @return Node
+     */
+    protected abstract Node select(Quad quad);
+
+    /**
+     * Binds the position of interest within a quad pattern to a node
+     *
+     * @param pattern Quad pattern
+     * @param node    Node
+     * @return Bound quad pattern
+     */
+    protected abstract Quad bind(Quad pattern, Node node);
+
+    /**
+     * Gets the distinct nodes that may appear in the position of interest from a sorted node index
+     *
+     * @param index Sorted node index
+     * @return Candidate nodes, or {@code null} if the index doesn't hold the distinct nodes for this position
+     */
+    protected List<Node> candidates(SortedNodeIndex index) {
+        return null;
+    }
+
+    /**
+     * Gets the maximum number of distinct nodes to return
+     *
+     * @param environment Data fetching environment
+     * @return Limit
+     */
+    protected int getLimit(DataFetchingEnvironment environment) {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers;
+
+import io.telicent.jena.graphql.utils.SortedNodeIndex;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.Quad;
+
+import java.util.List;
+
+/**
+ * A GraphQL Data Fetcher that finds the distinct predicates of the quads matching a pattern
+ */
+public class DistinctPredicatesFetcher extends AbstractDistinctNodesFetcher {
+
+    /**
+     * Creates a new distinct predicates fetcher
+     */
+    public DistinctPredicatesFetcher() {
+        super();
+    }
+
+    @Override
+    protected Node select(Quad quad) {
+        return quad.getPredicate();
+    }
+
+    @Override
+    protected Quad bind(Quad pattern, Node node) {
+        return Quad.create(pattern.getGraph(), pattern.getSubject(), node, pattern.getObject());
+    }
+
+    @Override
+    protected List<Node> candidates(SortedNodeIndex index) {
+        return index.predicates();
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers;
+
+import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.schemas.DatasetSchema;
+import io.telicent.jena.graphql.utils.SortedNodeIndex;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.Quad;
+
+import java.util.List;
+
+/**
+ * A GraphQL Data Fetcher that finds the distinct subjects of the quads matching a pattern, up to some limit
+ */
+public class DistinctSubjectsFetcher extends AbstractDistinctNodesFetcher {
+
+    /**
+     * Creates a new distinct subjects fetcher
+     */
+    public DistinctSubjectsFetcher() {
+        super();
+    }
+
+    @Override
+    protected Node select(Quad quad) {
+        return quad.getSubject();
+    }
+
+    @Override
+    protected Quad bind(Quad pattern, Node node) {
+        return Quad.create(pattern.getGraph(), node, pattern.getPredicate(), pattern.getObject());
+    }
+
+    @Override
+    protected List<Node> candidates(SortedNodeIndex index) {
+        return index.subjects();
+    }
+
+    @Override
+    protected int getLimit(DataFetchingEnvironment environment) {
+        Integer limit = environment.getArgument(DatasetSchema.LIMIT_ARGUMENT);
+        if (limit == null) {
+            return DatasetSchema.DEFAULT_DISTINCT_LIMIT;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be a positive integer");
+        }
+        return limit;
+    }
+}
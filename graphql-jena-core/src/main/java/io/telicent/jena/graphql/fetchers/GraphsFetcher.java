@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.RequestTransaction;
+import io.telicent.jena.graphql.schemas.models.WrappedNode;
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A GraphQL Data Fetcher that lists the graphs present in the dataset
+ * <p>
+ * The default graph is included, as {@link Quad#defaultGraphIRI}, if and only if it is non-empty.  Named graphs are
+ * obtained from the datasets own graph listing rather than by scanning the quads.
+ * </p>
+ */
+public class GraphsFetcher implements DataFetcher<List<WrappedNode>> {
+
+    /**
+     * Creates a new graphs fetcher
+     */
+    public GraphsFetcher() {
+
+    }
+
+    @Override
+    public List<WrappedNode> get(DataFetchingEnvironment environment) {
+        DatasetGraph dsg = environment.getLocalContext();
+        return RequestTransaction.calculateRead(environment, dsg, () -> {
+            List<WrappedNode> graphs = new ArrayList<>();
+            if (!dsg.getDefaultGraph().isEmpty()) {
+                graphs.add(new WrappedNode(Quad.defaultGraphIRI));
+            }
+            Iterator<Node> graphNodes = dsg.listGraphNodes();
+            try {
+                while (graphNodes.hasNext()) {
+                    graphs.add(new WrappedNode(graphNodes.next()));
+                }
+            } finally {
+                Iter.close(graphNodes);
+            }
+            return graphs;
+        });
+    }
+}
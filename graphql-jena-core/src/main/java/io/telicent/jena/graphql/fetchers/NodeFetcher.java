@@ -12,6 +12,7 @@
  */
 package io.telicent.jena.graphql.fetchers;
 
+import graphql.GraphQLContext;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 import io.telicent.jena.graphql.schemas.CoreSchema;
@@ -25,14 +26,35 @@ import java.util.Map;
 
 /**
  * A GraphQL {@link DataFetcher} that accesses a specific Node from a {@link Triple}, {@link Quad} or {@link Map}
+ * <p>
+ * By default wrappers for repeated nodes are reused for the lifetime of a request, this is done by storing a bounded
+ * cache in the {@link GraphQLContext} for the request.  This substantially reduces allocations for large results
+ * since predicates and graphs, and often subjects, tend to be heavily repeated.
+ * </p>
  */
 public class NodeFetcher implements DataFetcher<WrappedNode> {
 
+    /**
+     * Key used to store the request scoped wrapper cache in the {@link GraphQLContext}
+     */
+    static final String WRAPPED_NODE_CACHE_KEY = NodeFetcher.class.getCanonicalName() + ".wrappedNodes";
+
+    private final boolean reuseWrappers;
+
     /**
      * Creates a new node fetcher that extracts the individual nodes (or RDF terms) from a larger data structure
      */
     public NodeFetcher() {
+        this(true);
+    }
 
+    /**
+     * Creates a new node fetcher that extracts the individual nodes (or RDF terms) from a larger data structure
+     *
+     * @param reuseWrappers Whether wrappers for repeated nodes are reused within a request
+     */
+    public NodeFetcher(boolean reuseWrappers) {
+        this.reuseWrappers = reuseWrappers;
     }
 
     @Override
@@ -40,50 +62,68 @@ public class NodeFetcher implements DataFetcher<WrappedNode> {
     public WrappedNode get(DataFetchingEnvironment environment) {
         Object parent = environment.getSource();
         if (parent instanceof Triple) {
-            return get(environment, (Triple) parent);
+            return get(environment, (Triple) parent, wrappers(environment));
         } else if (parent instanceof Quad) {
-            return get(environment, (Quad) parent);
+            return get(environment, (Quad) parent, wrappers(environment));
         } else if (parent instanceof Map<?, ?>) {
-            return get(environment, (Map<String, Object>) parent);
+            return get(environment, (Map<String, Object>) parent, wrappers(environment));
         } else {
             throw new IllegalArgumentException("Cannot fetch Node for a parent type that is not Triple/Quad");
         }
     }
 
-    private WrappedNode get(DataFetchingEnvironment environment, Map<String, Object> parent) {
+    private WrappedNode get(DataFetchingEnvironment environment, Map<String, Object> parent,
+                            WrappedNodeCache wrappers) {
         return switch (environment.getField().getName()) {
-            case CoreSchema.SUBJECT_FIELD -> wrap(parent.get(CoreSchema.SUBJECT_FIELD));
-            case CoreSchema.PREDICATE_FIELD -> wrap(parent.get(CoreSchema.PREDICATE_FIELD));
-            case CoreSchema.OBJECT_FIELD -> wrap(parent.get(CoreSchema.OBJECT_FIELD));
-            case DatasetSchema.QUADS_FIELD -> wrap(parent.get(DatasetSchema.QUADS_FIELD));
+            case CoreSchema.SUBJECT_FIELD -> wrap(wrappers, parent.get(CoreSchema.SUBJECT_FIELD));
+            case CoreSchema.PREDICATE_FIELD -> wrap(wrappers, parent.get(CoreSchema.PREDICATE_FIELD));
+            case CoreSchema.OBJECT_FIELD -> wrap(wrappers, parent.get(CoreSchema.OBJECT_FIELD));
+            case DatasetSchema.QUADS_FIELD -> wrap(wrappers, parent.get(DatasetSchema.QUADS_FIELD));
             default -> throw new IllegalArgumentException("Unrecognised field " + environment.getField().getName());
         };
     }
 
-    private WrappedNode get(DataFetchingEnvironment environment, Quad quad) {
+    private WrappedNode get(DataFetchingEnvironment environment, Quad quad, WrappedNodeCache wrappers) {
         return switch (environment.getField().getName()) {
-            case CoreSchema.SUBJECT_FIELD -> wrap(quad.getSubject());
-            case CoreSchema.PREDICATE_FIELD -> wrap(quad.getPredicate());
-            case CoreSchema.OBJECT_FIELD -> wrap(quad.getObject());
-            case CoreSchema.GRAPH_FIELD -> wrap(quad.getGraph());
+            case CoreSchema.SUBJECT_FIELD -> wrap(wrappers, quad.getSubject());
+            case CoreSchema.PREDICATE_FIELD -> wrap(wrappers, quad.getPredicate());
+            case CoreSchema.OBJECT_FIELD -> wrap(wrappers, quad.getObject());
+            case CoreSchema.GRAPH_FIELD -> wrap(wrappers, quad.getGraph());
             default -> throw new IllegalArgumentException(
                     "Cannot fetch field " + environment.getField().getName() + " for a Quad");
         };
     }
 
-    private WrappedNode get(DataFetchingEnvironment environment, Triple triple) {
+    private WrappedNode get(DataFetchingEnvironment environment, Triple triple, WrappedNodeCache wrappers) {
         return switch (environment.getField().getName()) {
-            case CoreSchema.SUBJECT_FIELD -> wrap(triple.getSubject());
-            case CoreSchema.PREDICATE_FIELD -> wrap(triple.getPredicate());
-            case CoreSchema.OBJECT_FIELD -> wrap(triple.getObject());
+            case CoreSchema.SUBJECT_FIELD -> wrap(wrappers, triple.getSubject());
+            case CoreSchema.PREDICATE_FIELD -> wrap(wrappers, triple.getPredicate());
+            case CoreSchema.OBJECT_FIELD -> wrap(wrappers, triple.getObject());
             default -> throw new IllegalArgumentException(
                     "Cannot fetch field " + environment.getField().getName() + " for a Quad");
         };
     }
 
-    private WrappedNode wrap(Object o) {
+    /**
+     * Gets the request scoped wrapper cache, if wrapper reuse is enabled and a GraphQL context is available
+     *
+     * @param environment Data fetching environment
+     * @return Wrapper cache, or {@code null} if wrappers should not be reused
+     */
+    private WrappedNodeCache wrappers(DataFetchingEnvironment environment) {
+        if (!this.reuseWrappers) {
+            return null;
+        }
+        GraphQLContext context = environment.getGraphQlContext();
+        if (context == null) {
+            return null;
+        }
+        return context.computeIfAbsent(WRAPPED_NODE_CACHE_KEY, k -> new WrappedNodeCache());
+    }
+
+    private WrappedNode wrap(WrappedNodeCache wrappers, Object o) {
         if (o instanceof Node) {
-            return wrap((Node) o);
+            return wrap(wrappers, (Node) o);
         } else if (o instanceof WrappedNode) {
             return (WrappedNode) o;
         } else {
@@ -91,7 +131,7 @@ public class NodeFetcher implements DataFetcher<WrappedNode> {
         }
     }
 
-    private WrappedNode wrap(Node n) {
-        return new WrappedNode(n);
+    private WrappedNode wrap(WrappedNodeCache wrappers, Node n) {
+        return wrappers != null ? wrappers.wrap(n) : new WrappedNode(n);
     }
 }
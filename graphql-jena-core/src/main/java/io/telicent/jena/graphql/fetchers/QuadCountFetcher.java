@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.RequestTransaction;
+import io.telicent.jena.graphql.schemas.DatasetSchema;
+import io.telicent.jena.graphql.utils.NodeFilter;
+import io.telicent.jena.graphql.utils.QuadMatcher;
+import io.telicent.jena.graphql.utils.ShardedDatasetGraph;
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphWrapper;
+import org.apache.jena.sparql.core.Quad;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * A GraphQL Data Fetcher that counts the quads matching a pattern without materialising them
+ */
+public class QuadCountFetcher implements DataFetcher<Integer> {
+
+    /**
+     * Creates a new quad count fetcher
+     */
+    public QuadCountFetcher() {
+
+    }
+
+    @Override
+    public Integer get(DataFetchingEnvironment environment) {
+        QuadMatcher matcher = NodeFilter.parsePatternMatcher(environment.getArgument(DatasetSchema.PATTERN_ARGUMENT));
+        DatasetGraph dsg = environment.getLocalContext();
+        // GraphQL Int is 32 bit so saturate rather than overflow for very large datasets
+        return RequestTransaction.calculateRead(environment, dsg,
+                                                () -> (int) Math.min(count(dsg, matcher), Integer.MAX_VALUE));
+    }
+
+    /**
+     * Counts the quads matching the given matcher
+     * <p>
+     * Where the matcher selects an entire concrete graph the graph size is used directly, otherwise the matching quads
+     * are counted by walking the index iterator without collecting them.  Over a {@link ShardedDatasetGraph} each shard
+     * is counted in parallel and the counts summed.
+     * </p>
+     *
+     * @param dsg     Dataset Graph
+     * @param matcher Quad matcher
+     * @return Count of matching quads
+     */
+    static long count(DatasetGraph dsg, QuadMatcher matcher) {
+        if (matcher.hasConditions()) {
+            try (Stream<Quad> quads = matcher.stream(dsg)) {
+                return quads.count();
+            }
+        }
+        Quad pattern = matcher.asPattern();
+        Node g = pattern.getGraph();
+        if (g.isConcrete() && !Quad.isUnionGraph(g) && isWildcard(pattern.getSubject()) && isWildcard(
+                pattern.getPredicate()) && isWildcard(pattern.getObject())) {
+            if (Quad.isDefaultGraph(g)) {
+                return dsg.getDefaultGraph().size();
+            }
+            return dsg.containsGraph(g) ? dsg.getGraph(g).size() : 0;
+        }
+
+        DatasetGraph base = dsg;
+        while (base instanceof DatasetGraphWrapper wrapper) {
+            base = wrapper.getWrapped();
+        }
+        if (base instanceof ShardedDatasetGraph sharded) {
+            return sharded.count(g, pattern.getSubject(), pattern.getPredicate(), pattern.getObject());
+        }
+
+        long count = 0;
+        Iterator<Quad> quads =
+                dsg.find(g, pattern.getSubject(), pattern.getPredicate(), pattern.getObject());
+        try {
+            while (quads.hasNext()) {
+                quads.next();
+                count++;
+            }
+        } finally {
+            Iter.close(quads);
+        }
+        return count;
+    }
+
+    private static boolean isWildcard(Node n) {
+        return n == null || Node.ANY.equals(n);
+    }
+}
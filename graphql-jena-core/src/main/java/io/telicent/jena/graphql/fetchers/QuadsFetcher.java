@@ -12,23 +12,48 @@
  */
 package io.telicent.jena.graphql.fetchers;
 
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.DataFetcherResult;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.RequestDeadline;
+import io.telicent.jena.graphql.execution.RequestTransaction;
+import io.telicent.jena.graphql.execution.ResultLimits;
 import io.telicent.jena.graphql.schemas.CoreSchema;
 import io.telicent.jena.graphql.utils.NodeFilter;
+import io.telicent.jena.graphql.utils.NodeMatcher;
+import io.telicent.jena.graphql.utils.QuadMatcher;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Quad;
-import org.apache.jena.system.Txn;
 
-import java.util.LinkedHashMap;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A GraphQL Data Fetcher that fetches quads
+ * <p>
+ * The {@link ResultLimits} for the request are honoured, these are checked incrementally while streaming the quads so
+ * that a result exceeding the limits is never fully materialised.  Depending on the configured
+ * {@link ResultLimits.OverflowMode} exceeding a limit either truncates the results, returning the partial results
+ * along with an error, or aborts the field entirely.
+ * </p>
+ * <p>
+ * The {@link RequestDeadline} for the request is also checked while streaming so that a timed out or cancelled request
+ * stops promptly.
+ * </p>
  */
-public class QuadsFetcher implements DataFetcher<List<Object>> {
+public class QuadsFetcher implements DataFetcher<DataFetcherResult<List<Object>>> {
+
+    /**
+     * Estimated per-node overhead, in bytes, used when estimating the materialised size of results
+     */
+    static final int NODE_OVERHEAD_BYTES = 32;
 
     /**
      * Creates a new Quads Fetcher that fetches quads from an underlying RDF dataset
@@ -38,11 +63,12 @@ public class QuadsFetcher implements DataFetcher<List<Object>> {
     }
 
     @Override
-    public List<Object> get(DataFetchingEnvironment environment) {
-        Node subject = NodeFilter.parse(environment.getArgument(CoreSchema.SUBJECT_FIELD));
-        Node predicate = NodeFilter.parse(environment.getArgument(CoreSchema.PREDICATE_FIELD));
-        Node object = NodeFilter.parse(environment.getArgument(CoreSchema.OBJECT_FIELD));
-        Node graph = NodeFilter.parse(environment.getArgument(CoreSchema.GRAPH_FIELD));
+    public DataFetcherResult<List<Object>> get(DataFetchingEnvironment environment) {
+        NodeMatcher subject = NodeFilter.parseMatcher(environment.getArgument(CoreSchema.SUBJECT_FIELD));
+        NodeMatcher predicate = NodeFilter.parseMatcher(environment.getArgument(CoreSchema.PREDICATE_FIELD));
+        NodeMatcher object = NodeFilter.parseMatcher(environment.getArgument(CoreSchema.OBJECT_FIELD));
+        NodeMatcher graph = NodeFilter.parseMatcher(environment.getArgument(CoreSchema.GRAPH_FIELD));
+        QuadMatcher matcher = new QuadMatcher(graph, subject, predicate, object);
 
         boolean includesSubject = environment.getSelectionSet().contains(CoreSchema.SUBJECT_FIELD + "/**");
         boolean includesPredicate = environment.getSelectionSet().contains(CoreSchema.PREDICATE_FIELD + "/**");
@@ -51,25 +77,132 @@ public class QuadsFetcher implements DataFetcher<List<Object>> {
         boolean includesAll = includesSubject && includesPredicate && includesObject && includesGraph;
         boolean includesTriple = includesSubject && includesPredicate && includesObject;
 
+        Function<Quad, Object> mapper;
+        if (includesAll) {
+            mapper = q -> q;
+        } else if (includesTriple) {
+            mapper = Quad::asTriple;
+        } else {
+            mapper = q -> map(q, includesSubject, includesPredicate, includesObject, includesGraph);
+        }
+
         DatasetGraph dsg = environment.getLocalContext();
+        ResultLimits limits = ResultLimits.get(environment);
+        RequestDeadline deadline = RequestDeadline.get(environment);
+        deadline.check();
+
+        return RequestTransaction.calculateRead(environment, dsg, () -> {
+            if (limits.isUnlimited()) {
+                try (Stream<Quad> quads = deadline.guard(matcher.stream(dsg))) {
+                    return DataFetcherResult.<List<Object>>newResult()
+                                            .data(quads.map(mapper).collect(Collectors.toList()))
+                                            .build();
+                }
+            }
 
-        return Txn.calculateRead(dsg, () -> {
-            if (!includesAll) {
-                if (includesTriple) {
-                    return dsg.stream(graph, subject, predicate, object)
-                              .map(Quad::asTriple)
-                              .collect(Collectors.toList());
-                } else {
-                    return dsg.stream(graph, subject, predicate, object)
-                              .map(q -> map(q, includesSubject, includesPredicate, includesObject, includesGraph))
-                              .collect(
-                                      Collectors.toList());
+            List<Object> results = new ArrayList<>();
+            long bytes = 0;
+            try (Stream<Quad> quads = deadline.guard(matcher.stream(dsg))) {
+                Iterator<Quad> iter = quads.iterator();
+                while (iter.hasNext()) {
+                    Quad q = iter.next();
+                    long size = limits.hasByteLimit() ?
+                                estimateBytes(q, includesSubject, includesPredicate, includesObject, includesGraph) :
+                                0;
+                    if (results.size() >= limits.getMaxQuads() || bytes + size > limits.getMaxBytes()) {
+                        return overflow(environment, limits, results);
+                    }
+                    bytes += size;
+                    results.add(mapper.apply(q));
                 }
             }
-            return dsg.stream(graph, subject, predicate, object).collect(Collectors.toList());
+            return DataFetcherResult.<List<Object>>newResult().data(results).build();
         });
     }
 
+    /**
+     * Handles a result exceeding the limits
+     *
+     * @param environment Data fetching environment
+     * @param limits      Limits that were exceeded
+     * @param results     Results collected prior to exceeding the limits
+     * @return Truncated results with an error
+     * @throws AbortExecutionException Thrown if the limits are configured to abort on overflow
+     */
+    private DataFetcherResult<List<Object>> overflow(DataFetchingEnvironment environment, ResultLimits limits,
+                                                     List<Object> results) {
+        String message = "Results for field " + environment.getField().getName() + " exceeded the configured limits ("
+                         + limits.getMaxQuads() + " quads, " + limits.getMaxBytes() + " bytes)";
+        if (limits.getMode() == ResultLimits.OverflowMode.ABORT) {
+            throw new AbortExecutionException(message);
+        }
+        //@formatter:off
+        return DataFetcherResult.<List<Object>>newResult()
+                                .data(results)
+                                .error(GraphqlErrorBuilder.newError(environment)
+                                                          .message(message + ", results were truncated to "
+                                                                   + results.size() + " quads")
+                                                          .extensions(Map.<String, Object>of("truncated", true,
+                                                                             "returned", results.size()))
+                                                          .build())
+                                .build();
+        //@formatter:on
+    }
+
+    /**
+     * Estimates the number of bytes materialised for the selected fields of a quad
+     *
+     * @param q                 Quad
+     * @param includesSubject   Whether the subject is selected
+     * @param includesPredicate Whether the predicate is selected
+     * @param includesObject    Whether the object is selected
+     * @param includesGraph     Whether the graph is selected
+     * @return Estimated bytes
+     */
+    static long estimateBytes(Quad q, boolean includesSubject, boolean includesPredicate, boolean includesObject,
+                              boolean includesGraph) {
+        long size = NODE_OVERHEAD_BYTES;
+        if (includesSubject) {
+            size += estimateBytes(q.getSubject());
+        }
+        if (includesPredicate) {
+            size += estimateBytes(q.getPredicate());
+        }
+        if (includesObject) {
+            size += estimateBytes(q.getObject());
+        }
+        if (includesGraph) {
+            size += estimateBytes(q.getGraph());
+        }
+        return size;
+    }
+
+    /**
+     * Estimates the number of bytes materialised for a node, this is based upon the length of its lexical
+     * representation plus a fixed overhead
+     *
+     * @param n Node
+     * @return Estimated bytes
+     */
+    static long estimateBytes(Node n) {
+        long size = NODE_OVERHEAD_BYTES;
+        if (n.isURI()) {
+            size += n.getURI().length();
+        } else if (n.isBlank()) {
+            size += n.getBlankNodeLabel().length();
+        } else if (n.isLiteral()) {
+            size += n.getLiteralLexicalForm().length();
+            size += StringUtils.isNotEmpty(n.getLiteralLanguage()) ? n.getLiteralLanguage().length() :
+                    n.getLiteralDatatypeURI().length();
+        } else if (n.isTripleTerm()) {
+            Triple t = n.getTriple();
+            size += estimateBytes(t.getSubject()) + estimateBytes(t.getPredicate()) + estimateBytes(t.getObject());
+        } else if (n.isVariable()) {
+            size += n.getName().length();
+        }
+        return size;
+    }
+
     private Object map(Quad q, boolean includesSubject, boolean includesPredicate, boolean includesObject,
                        boolean includesGraph) {
         int expectedFields = 0;
@@ -14,6 +14,8 @@ package io.telicent.jena.graphql.fetchers;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.RequestDeadline;
+import io.telicent.jena.graphql.execution.RequestTransaction;
 import io.telicent.jena.graphql.schemas.TraversalSchema;
 import io.telicent.jena.graphql.schemas.models.EdgeDirection;
 import io.telicent.jena.graphql.schemas.models.NodeKind;
@@ -22,7 +24,6 @@ import io.telicent.jena.graphql.schemas.models.TraversalNode;
 import io.telicent.jena.graphql.utils.NodeFilter;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.DatasetGraph;
-import org.apache.jena.system.Txn;
 
 import java.util.EnumSet;
 import java.util.List;
@@ -49,15 +50,17 @@ public class TraversalEdgesFetcher implements DataFetcher<List<TraversalEdge>> {
         // Determine which edges we are traversing and which edges we care about
         List<Node> predicateFilters = NodeFilter.parseList(environment.getArgument(TraversalSchema.PREDICATE_FIELD));
         EnumSet<NodeKind> kinds = NodeFilter.parseKinds(environment.getArgument(TraversalSchema.KINDS_ARGUMENT));
+        RequestDeadline deadline = RequestDeadline.get(environment);
+        deadline.check();
 
-        return Txn.calculateRead(dsg, () -> {
+        return RequestTransaction.calculateRead(environment, dsg, () -> {
             List<TraversalEdge> edges = switch (environment.getField().getName()) {
                 //@formatter:off
             case TraversalSchema.INCOMING_FIELD ->
                     predicateFilters
                           .stream()
                           .distinct()
-                          .flatMap(p -> dsg.stream(Node.ANY, Node.ANY, p, node.getNode().getNode())
+                          .flatMap(p -> deadline.guard(dsg.stream(Node.ANY, Node.ANY, p, node.getNode().getNode()))
                           .map(q -> TraversalEdge.of(q.getPredicate(), EdgeDirection.IN, q.getSubject())))
                           .filter(e -> kinds.contains(e.getTarget().getNode().getKind()))
                           .collect(Collectors.toList());
@@ -65,7 +68,7 @@ public class TraversalEdgesFetcher implements DataFetcher<List<TraversalEdge>> {
                     predicateFilters
                           .stream()
                           .distinct()
-                          .flatMap(p -> dsg.stream(Node.ANY, node.getNode().getNode(), p, Node.ANY))
+                          .flatMap(p -> deadline.guard(dsg.stream(Node.ANY, node.getNode().getNode(), p, Node.ANY)))
                           .map(q -> TraversalEdge.of(q.getPredicate(), EdgeDirection.OUT, q.getObject()))
                           .filter(e -> kinds.contains(e.getTarget().getNode().getKind()))
                           .collect(Collectors.toList());
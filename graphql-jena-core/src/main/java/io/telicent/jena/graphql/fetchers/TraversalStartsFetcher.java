@@ -14,13 +14,13 @@ package io.telicent.jena.graphql.fetchers;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.RequestTransaction;
 import io.telicent.jena.graphql.schemas.TraversalSchema;
 import io.telicent.jena.graphql.schemas.models.TraversalNode;
 import io.telicent.jena.graphql.utils.NodeFilter;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Quad;
-import org.apache.jena.system.Txn;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -42,12 +42,14 @@ public class TraversalStartsFetcher implements DataFetcher<List<TraversalNode>>
         DatasetGraph dsg = environment.getLocalContext();
         List<Node> startFilters = NodeFilter.parseList(environment.getArgument(TraversalSchema.STARTS_ARGUMENT));
 
-        return Txn.calculateRead(dsg, () -> startFilters.stream()
-                                                        .distinct()
-                                                        .flatMap(n -> dsg.stream(Node.ANY, n, Node.ANY, Node.ANY))
-                                                        .map(Quad::getSubject)
-                                                        .distinct()
-                                                        .map(TraversalNode::of)
-                                                        .collect(Collectors.toList()));
+        return RequestTransaction.calculateRead(environment, dsg,
+                                                () -> startFilters.stream()
+                                                                  .distinct()
+                                                                  .flatMap(n -> dsg.stream(Node.ANY, n, Node.ANY,
+                                                                                           Node.ANY))
+                                                                  .map(Quad::getSubject)
+                                                                  .distinct()
+                                                                  .map(TraversalNode::of)
+                                                                  .collect(Collectors.toList()));
     }
 }
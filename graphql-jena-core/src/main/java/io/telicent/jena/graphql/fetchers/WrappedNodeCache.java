@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers;
+
+import io.telicent.jena.graphql.schemas.models.WrappedNode;
+import org.apache.jena.graph.Node;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A request scoped cache of {@link WrappedNode} instances so that repeated nodes, e.g. predicates and graphs, share a
+ * single wrapper rather than allocating a fresh wrapper for every field of every quad
+ * <p>
+ * The cache is bounded, once the maximum size is reached further nodes are still wrapped but are no longer cached.
+ * </p>
+ */
+final class WrappedNodeCache {
+
+    /**
+     * Default maximum number of wrappers that will be cached
+     */
+    static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final Map<Node, WrappedNode> wrappers = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    /**
+     * Creates a new cache with the default maximum size
+     */
+    WrappedNodeCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a new cache
+     *
+     * @param maxSize Maximum number of wrappers to cache
+     */
+    WrappedNodeCache(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize cannot be negative");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Wraps a node, reusing a previously created wrapper if one is available
+     *
+     * @param n Node
+     * @return Wrapped node
+     */
+    WrappedNode wrap(Node n) {
+        WrappedNode wrapped = this.wrappers.get(n);
+        if (wrapped != null) {
+            return wrapped;
+        }
+        wrapped = new WrappedNode(n);
+        if (this.wrappers.size() < this.maxSize) {
+            WrappedNode existing = this.wrappers.putIfAbsent(n, wrapped);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return wrapped;
+    }
+
+    /**
+     * Gets the number of cached wrappers
+     *
+     * @return Cached wrappers
+     */
+    int size() {
+        return this.wrappers.size();
+    }
+}
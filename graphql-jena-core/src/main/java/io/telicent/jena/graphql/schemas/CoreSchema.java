@@ -72,4 +72,16 @@ public class CoreSchema {
      * Triple field
      */
     public static final String TRIPLE_FIELD = "triple";
+    /**
+     * Node filter greater than field
+     */
+    public static final String GT_FIELD = "gt";
+    /**
+     * Node filter less than field
+     */
+    public static final String LT_FIELD = "lt";
+    /**
+     * Node filter prefix field
+     */
+    public static final String PREFIX_FIELD = "prefix";
 }
@@ -33,4 +33,44 @@ public class DatasetSchema extends CoreSchema {
      * Quads query type
      */
     public static final String QUADS_QUERY_TYPE = "Quads";
+
+    /**
+     * Quad count field
+     */
+    public static final String QUAD_COUNT_FIELD = "quadCount";
+
+    /**
+     * Graphs field
+     */
+    public static final String GRAPHS_FIELD = "graphs";
+
+    /**
+     * Distinct predicates field
+     */
+    public static final String DISTINCT_PREDICATES_FIELD = "distinctPredicates";
+
+    /**
+     * Distinct subjects field
+     */
+    public static final String DISTINCT_SUBJECTS_FIELD = "distinctSubjects";
+
+    /**
+     * Quad pattern input type
+     */
+    public static final String QUAD_PATTERN_TYPE = "QuadPattern";
+
+    /**
+     * Pattern argument
+     */
+    public static final String PATTERN_ARGUMENT = "pattern";
+
+    /**
+     * Limit argument
+     */
+    public static final String LIMIT_ARGUMENT = "limit";
+
+    /**
+     * Default limit for the {@value #DISTINCT_SUBJECTS_FIELD} field
+     */
+    public static final int DEFAULT_DISTINCT_LIMIT = 1000;
 }
@@ -37,6 +37,11 @@ public class GraphQLJenaSchemas {
      * The classpath resource containing our Traversal GraphQL Schema
      */
     public static final String TRAVERSAL = "/io/telicent/jena/graphql/schemas/traversal.graphqls";
+    /**
+     * The classpath resource declaring the {@code @cacheControl} directive, see
+     * {@link io.telicent.jena.graphql.execution.CachePolicy}
+     */
+    public static final String CACHE_CONTROL_SCHEMA = "/io/telicent/jena/graphql/schemas/cache-control.graphqls";
 
     /**
      * Loads a schema by combining all the given schema files into a single Schema
@@ -68,7 +73,7 @@ public class GraphQLJenaSchemas {
      * @throws graphql.schema.idl.errors.SchemaProblem If the schema is invalid
      */
     public static TypeDefinitionRegistry loadDatasetSchema() throws IOException {
-        return loadSchema(CORE, DATASET);
+        return loadSchema(CORE, CACHE_CONTROL_SCHEMA, DATASET);
     }
 
     /**
@@ -80,6 +85,6 @@ public class GraphQLJenaSchemas {
      * @throws graphql.schema.idl.errors.SchemaProblem If the schema is invalid
      */
     public static TypeDefinitionRegistry loadTraversalSchema() throws IOException {
-        return loadSchema(CORE, TRAVERSAL);
+        return loadSchema(CORE, CACHE_CONTROL_SCHEMA, TRAVERSAL);
     }
 }
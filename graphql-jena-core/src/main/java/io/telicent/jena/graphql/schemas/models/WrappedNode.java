@@ -30,35 +30,23 @@ import java.util.Objects;
  */
 public class WrappedNode {
     private final Node node;
-    private final NodeKind kind;
+    private NodeKind kind;
 
     /**
      * Creates a new wrapper around a Jena node
+     * <p>
+     * The {@link NodeKind} of the node is derived lazily on first access since for many use cases only some of the
+     * fields of the wrapper are ever selected.
+     * </p>
      *
      * @param n Node to wrap
      */
     public WrappedNode(Node n) {
         Objects.requireNonNull(n, "Node cannot be null");
-        this.node = n;
-        if (n.isURI()) {
-            this.kind = NodeKind.URI;
-        } else if (n.isBlank()) {
-            this.kind = NodeKind.BLANK;
-        } else if (n.isVariable()) {
-            this.kind = NodeKind.VARIABLE;
-        } else if (n.isTripleTerm()) {
-            this.kind = NodeKind.TRIPLE;
-        } else if (n.isLiteral()) {
-            if (StringUtils.isNotBlank(n.getLiteralLanguage())) {
-                this.kind = NodeKind.LANGUAGE_LITERAL;
-            } else if (StringUtils.isNotBlank(n.getLiteralDatatypeURI())) {
-                this.kind = NodeKind.TYPED_LITERAL;
-            } else {
-                this.kind = NodeKind.PLAIN_LITERAL;
-            }
-        } else {
+        if (!n.isURI() && !n.isBlank() && !n.isVariable() && !n.isTripleTerm() && !n.isLiteral()) {
             throw new IllegalArgumentException("Cannot wrap an unrecognised Node type");
         }
+        this.node = n;
     }
 
     /**
@@ -114,16 +102,45 @@ public class WrappedNode {
      * @return Node kind
      */
     public NodeKind getKind() {
+        // NB - Benign race, the derived kind is always the same for a given node so concurrent callers can at worst
+        //      duplicate the derivation
+        if (this.kind == null) {
+            this.kind = deriveKind(this.node);
+        }
         return this.kind;
     }
 
+    /**
+     * Derives the kind of a node
+     *
+     * @param n Node
+     * @return Node kind
+     */
+    private static NodeKind deriveKind(Node n) {
+        if (n.isURI()) {
+            return NodeKind.URI;
+        } else if (n.isBlank()) {
+            return NodeKind.BLANK;
+        } else if (n.isVariable()) {
+            return NodeKind.VARIABLE;
+        } else if (n.isTripleTerm()) {
+            return NodeKind.TRIPLE;
+        } else if (StringUtils.isNotBlank(n.getLiteralLanguage())) {
+            return NodeKind.LANGUAGE_LITERAL;
+        } else if (StringUtils.isNotBlank(n.getLiteralDatatypeURI())) {
+            return NodeKind.TYPED_LITERAL;
+        } else {
+            return NodeKind.PLAIN_LITERAL;
+        }
+    }
+
     /**
      * Gets the value of the node, unless this is of kind {@link NodeKind#TRIPLE}
      *
      * @return Value, or {@code null} if a Triple Node
      */
     public String getValue() {
-        return switch (this.kind) {
+        return switch (this.getKind()) {
             case URI -> this.node.getURI();
             case BLANK -> this.node.getBlankNodeLabel();
             case PLAIN_LITERAL, TYPED_LITERAL, LANGUAGE_LITERAL -> this.node.getLiteralLexicalForm();
@@ -138,7 +155,7 @@ public class WrappedNode {
      * @return Triple, or {@code null} if different node kind
      */
     public Triple getTriple() {
-        return this.kind == NodeKind.TRIPLE ? this.node.getTriple() : null;
+        return this.getKind() == NodeKind.TRIPLE ? this.node.getTriple() : null;
     }
 
     /**
@@ -147,7 +164,7 @@ public class WrappedNode {
      * @return Language, or {@code null} if different node kind
      */
     public String getLanguage() {
-        return this.kind == NodeKind.LANGUAGE_LITERAL ? this.node.getLiteralLanguage() : null;
+        return this.getKind() == NodeKind.LANGUAGE_LITERAL ? this.node.getLiteralLanguage() : null;
     }
 
     /**
@@ -156,7 +173,7 @@ public class WrappedNode {
      * @return Datatype, or {@code null} if different node kind
      */
     public String getDatatype() {
-        return switch (this.kind) {
+        return switch (this.getKind()) {
             case TYPED_LITERAL -> this.node.getLiteralDatatypeURI();
             case LANGUAGE_LITERAL -> RDF.dtLangString.getURI();
             default -> null;
@@ -181,17 +198,17 @@ public class WrappedNode {
     @JsonIgnore
     public Map<String, Object> toMap() {
         LinkedHashMap<String, Object> map = new LinkedHashMap<>();
-        map.put(CoreSchema.KIND_FIELD, this.kind.name());
-        if (this.kind != NodeKind.TRIPLE) {
+        map.put(CoreSchema.KIND_FIELD, this.getKind().name());
+        if (this.getKind() != NodeKind.TRIPLE) {
             map.put(CoreSchema.VALUE_FIELD, this.getValue());
         }
-        if (this.kind == NodeKind.LANGUAGE_LITERAL) {
+        if (this.getKind() == NodeKind.LANGUAGE_LITERAL) {
             map.put(CoreSchema.LANGUAGE_FIELD, this.getLanguage());
         }
-        if (this.kind == NodeKind.LANGUAGE_LITERAL || this.kind == NodeKind.TYPED_LITERAL) {
+        if (this.getKind() == NodeKind.LANGUAGE_LITERAL || this.getKind() == NodeKind.TYPED_LITERAL) {
             map.put(CoreSchema.DATATYPE_FIELD, this.getDatatype());
         }
-        if (this.kind == NodeKind.TRIPLE) {
+        if (this.getKind() == NodeKind.TRIPLE) {
             map.put(CoreSchema.TRIPLE_FIELD, toMap(this.getTriple()));
         }
         return map;
@@ -219,11 +236,11 @@ public class WrappedNode {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         WrappedNode that = (WrappedNode) o;
-        return kind == that.kind && Objects.equals(node, that.node);
+        return getKind() == that.getKind() && Objects.equals(node, that.node);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(kind, node);
+        return Objects.hash(getKind(), node);
     }
 }
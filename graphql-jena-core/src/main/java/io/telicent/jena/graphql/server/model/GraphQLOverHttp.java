@@ -15,19 +15,30 @@ package io.telicent.jena.graphql.server.model;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 
 import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.GraphQLError;
+import io.telicent.jena.graphql.execution.ResponseNormaliser;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Strings;
 import org.apache.jena.web.HttpSC;
@@ -60,8 +71,36 @@ public class GraphQLOverHttp {
      * The {@code operationName} parameter to GraphQL endpoints
      */
     public static final String PARAMETER_OPERATION_NAME = "operationName";
+    /**
+     * The {@code normalised} media type parameter, a client may include {@code normalised=true} on a media range of
+     * its {@code Accept} header to request a normalised response, see {@link ResponseNormaliser}
+     */
+    public static final String MEDIA_TYPE_PARAMETER_NORMALISED = "normalised";
+    /**
+     * The {@code ETag} HTTP header
+     */
+    public static final String HEADER_ETAG = "ETag";
+    /**
+     * The {@code If-None-Match} HTTP header
+     */
+    public static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    /**
+     * The {@code Cache-Control} HTTP header
+     */
+    public static final String HEADER_CACHE_CONTROL = "Cache-Control";
 
     private static final ObjectMapper JSON = new JsonMapper();
+    /**
+     * JSON mapper that serializes maps with their keys ordered so equivalent maps serialize identically
+     */
+    private static final ObjectMapper CANONICAL_JSON =
+            JsonMapper.builder().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true).build();
+    private static final HexFormat HEX = HexFormat.of();
+    /**
+     * Identifies this process so that entity tags issued before a restart never match those issued after it, since
+     * dataset generations restart with the process while persistent data may have changed in the meantime
+     */
+    private static final String INSTANCE_ID = UUID.randomUUID().toString();
 
     /**
      * A Jackson type reference for a generic map of String to Object which gets used extensively within the GraphQL
@@ -70,6 +109,74 @@ public class GraphQLOverHttp {
     public static final TypeReference<Map<String, Object>> GENERIC_MAP_TYPE = new TypeReference<>() {
     };
 
+    /**
+     * Computes a weak entity tag for a GraphQL request
+     * <p>
+     * The tag is a digest of everything that determines the response, so two requests receive the same tag only if
+     * they would receive equivalent responses.  Callers should normalise the query, e.g. removing insignificant
+     * whitespace and comments, so that trivially different forms of the same query share a tag.  The tag is weak since
+     * equivalent responses need not be byte for byte identical.
+     * </p>
+     * <p>
+     * Generations are only meaningful within the process that counted them, so the tag also includes an identifier
+     * for this process that is chosen randomly at startup.  Tags therefore never match across a restart, even where
+     * the generation has reached the same value, since the data may have been changed offline or reloaded.
+     * </p>
+     *
+     * @param scope           Scope that distinguishes otherwise identical requests to different endpoints, e.g. the
+     *                        executor that answers them
+     * @param generation      Generation of the data the request is answered from, see
+     *                        {@link io.telicent.jena.graphql.utils.DatasetGeneration}
+     * @param normalisedQuery Normalised query
+     * @param operationName   Operation name, may be {@code null}
+     * @param variables       Variables, may be {@code null}
+     * @param extensions      Extensions, may be {@code null}
+     * @return Weak entity tag, including the {@code W/} prefix and surrounding quotes
+     * @throws IllegalArgumentException Thrown if the variables or extensions cannot be serialized
+     */
+    public static String computeETag(String scope, long generation, String normalisedQuery, String operationName,
+                                     Map<String, Object> variables, Map<String, Object> extensions) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+        try {
+            digest.update(CANONICAL_JSON.writeValueAsBytes(
+                    Arrays.asList(INSTANCE_ID, scope, generation, normalisedQuery, operationName,
+                                  variables != null ? variables : Map.of(),
+                                  extensions != null ? extensions : Map.of())));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request cannot be serialized: " + e.getMessage(), e);
+        }
+        // 128 bits is ample to make collisions between distinct requests vanishingly unlikely
+        return "W/\"" + HEX.formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    /**
+     * Determines whether an {@code If-None-Match} header matches an entity tag, using the weak comparison that
+     * <a href="https://www.rfc-editor.org/rfc/rfc9110#section-13.1.2">RFC 9110</a> requires for this header
+     *
+     * @param ifNoneMatch {@code If-None-Match} header value, may be {@code null}
+     * @param etag        Current entity tag, may be {@code null}
+     * @return True if the header matches the entity tag, in which case the client's cached response is still current
+     */
+    public static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (StringUtils.isBlank(ifNoneMatch) || etag == null) {
+            return false;
+        }
+        String opaque = Strings.CS.removeStart(etag, "W/");
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || Strings.CS.removeStart(candidate, "W/").equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Selects the HTTP Status Code to return with a GraphQL Response
      * <p>
@@ -91,6 +198,47 @@ public class GraphQLOverHttp {
         return status;
     }
 
+    /**
+     * Determines whether an {@code Accept} header requests a normalised response via the
+     * {@value #MEDIA_TYPE_PARAMETER_NORMALISED} media type parameter
+     *
+     * @param accept Accept header value, may be {@code null}
+     * @return True if a normalised response is requested
+     */
+    public static boolean acceptsNormalised(String accept) {
+        if (StringUtils.isBlank(accept)) {
+            return false;
+        }
+        for (String mediaRange : accept.split(",")) {
+            String[] parts = mediaRange.split(";");
+            for (int i = 1; i < parts.length; i++) {
+                String[] parameter = parts[i].split("=", 2);
+                if (parameter.length == 2 && Strings.CI.equals(parameter[0].trim(), MEDIA_TYPE_PARAMETER_NORMALISED)
+                        && Strings.CI.equals(StringUtils.strip(parameter[1].trim(), "\""), "true")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the {@value ResponseNormaliser#NORMALISE_EXTENSION} extension to a request's extensions if the
+     * {@code Accept} header requests a normalised response
+     *
+     * @param extensions Request extensions, may be {@code null} or immutable
+     * @param accept     Accept header value, may be {@code null}
+     * @return Request extensions, a new map if the extension was added, otherwise the original extensions
+     */
+    public static Map<String, Object> applyAccept(Map<String, Object> extensions, String accept) {
+        if (!acceptsNormalised(accept)) {
+            return extensions;
+        }
+        Map<String, Object> updated = extensions != null ? new HashMap<>(extensions) : new HashMap<>();
+        updated.put(ResponseNormaliser.NORMALISE_EXTENSION, true);
+        return updated;
+    }
+
     /**
      * Tries to parse in a raw input string that is a JSON encoded object representing an arbitrary map.
      * <p>
@@ -169,6 +317,12 @@ public class GraphQLOverHttp {
 
     /**
      * Writes a GraphQL result as JSON to the provided {@link OutputStream}
+     * <p>
+     * Results built by graphql-java are streamed to the output field by field, producing the same JSON as
+     * {@link ExecutionResult#toSpecification()} without first copying the result into a specification map.  Any other
+     * {@link ExecutionResult} implementation is written via its {@link ExecutionResult#toSpecification()} in case it
+     * customises it.  The output stream is closed once the result has been written.
+     * </p>
      *
      * @param result GraphQL Result
      * @param output Output stream to write to
@@ -177,7 +331,29 @@ public class GraphQLOverHttp {
     public static void write(ExecutionResult result, OutputStream output) throws IOException {
         Objects.requireNonNull(result, "Cannot write a null GraphQL Result");
         Objects.requireNonNull(output, "Cannot write a GraphQL Response to a null output stream");
-        Map<String, Object> specResponse = result.toSpecification();
-        JSON.writeValue(output, specResponse);
+        if (!(result instanceof ExecutionResultImpl)) {
+            JSON.writeValue(output, result.toSpecification());
+            return;
+        }
+        try (JsonGenerator generator = JSON.createGenerator(output)) {
+            generator.writeStartObject();
+            List<GraphQLError> errors = result.getErrors();
+            if (errors != null && !errors.isEmpty()) {
+                generator.writeArrayFieldStart("errors");
+                for (GraphQLError error : errors) {
+                    generator.writeObject(error.toSpecification());
+                }
+                generator.writeEndArray();
+            }
+            if (result.isDataPresent()) {
+                generator.writeFieldName("data");
+                generator.writeObject(result.getData());
+            }
+            if (result.getExtensions() != null) {
+                generator.writeFieldName("extensions");
+                generator.writeObject(result.getExtensions());
+            }
+            generator.writeEndObject();
+        }
     }
 }
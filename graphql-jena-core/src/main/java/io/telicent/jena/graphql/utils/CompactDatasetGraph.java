@@ -0,0 +1,953 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.query.TxnType;
+import org.apache.jena.riot.system.PrefixMap;
+import org.apache.jena.riot.system.PrefixMapFactory;
+import org.apache.jena.sparql.JenaTransactionException;
+import org.apache.jena.sparql.core.DatasetGraphBase;
+import org.apache.jena.sparql.core.GraphView;
+import org.apache.jena.sparql.core.Quad;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A compact, read optimised, in-memory {@link org.apache.jena.sparql.core.DatasetGraph}
+ * <p>
+ * Every distinct RDF term is encoded to an {@code int} via a dictionary, and quads are stored as sorted arrays of
+ * {@code int}s in three orders, {@code GSPO}, {@code GPOS} and {@code GOSP}, four {@code int}s per quad per order.  Any
+ * quad pattern with a concrete graph is answered by a binary search of whichever order has the pattern's concrete
+ * terms as a prefix, followed by a sequential scan of the matching range.  Patterns with a wildcard graph perform the
+ * same search once per graph, so are best suited to datasets with modest numbers of named graphs.  Compared to
+ * {@link org.apache.jena.sparql.core.DatasetGraphFactory#createTxnMem()} this typically occupies several times less
+ * heap, since there are no per-quad objects, and scans are faster since matching quads are contiguous in memory.
+ * </p>
+ * <p>
+ * The trade-off is that updates are expensive.  Quads and dictionary are immutable snapshots, a write transaction
+ * accumulates its changes separately and committing it builds a new snapshot, taking time proportional to the size of
+ * the dataset, which is then swapped in atomically.  Read transactions see the snapshot that was current when they
+ * began and are never blocked by writers, there is at most one writer at a time.  Writes made outside of a transaction
+ * are each committed individually, so should be avoided for anything other than occasional single quad changes, bulk
+ * changes, e.g. loading data, <strong>MUST</strong> be made within a single write transaction.  Prefixes are not
+ * transactional.
+ * </p>
+ */
+public final class CompactDatasetGraph extends DatasetGraphBase {
+
+    private static final int WILDCARD = -1, UNKNOWN = -2;
+    private static final int G = 0, S = 1, P = 2, O = 3;
+    private static final int DEFAULT_GRAPH = 0;
+
+    /**
+     * Quad orders, each gives the quad component stored at each position of its records
+     */
+    private enum Order {
+        GSPO(G, S, P, O),
+        GPOS(G, P, O, S),
+        GOSP(G, O, S, P);
+
+        private final int[] layout;
+
+        Order(int... layout) {
+            this.layout = layout;
+        }
+
+        /**
+         * Chooses the order in which the concrete terms of a pattern, with a concrete graph, form a prefix
+         */
+        private static Order choose(boolean s, boolean p, boolean o) {
+            if (s && !p && o) {
+                return GOSP;
+            } else if (s) {
+                return GSPO;
+            } else if (p) {
+                return GPOS;
+            } else if (o) {
+                return GOSP;
+            }
+            return GSPO;
+        }
+    }
+
+    private final ReentrantLock writer = new ReentrantLock();
+    private final ThreadLocal<TxnState> txn = new ThreadLocal<>();
+    private final PrefixMap prefixes = PrefixMapFactory.create();
+    private volatile Snapshot current = Snapshot.EMPTY;
+
+    /**
+     * Creates a new empty dataset
+     */
+    public CompactDatasetGraph() {
+    }
+
+    /**
+     * Gets the number of quads in the most recently committed snapshot
+     *
+     * @return Quad count
+     */
+    public long getQuadCount() {
+        return this.current.size;
+    }
+
+    /**
+     * Gets the number of distinct terms encoded in the dictionary of the most recently committed snapshot
+     * <p>
+     * Terms are never removed from the dictionary, so this may include terms that no longer occur in any quad.
+     * </p>
+     *
+     * @return Term count
+     */
+    public long getTermCount() {
+        return this.current.dictionary.size;
+    }
+
+    //region Graphs
+
+    @Override
+    public Graph getDefaultGraph() {
+        return GraphView.createDefaultGraph(this);
+    }
+
+    @Override
+    public Graph getGraph(Node graphNode) {
+        return GraphView.createNamedGraph(this, graphNode);
+    }
+
+    @Override
+    public Graph getUnionGraph() {
+        return GraphView.createUnionGraph(this);
+    }
+
+    @Override
+    public void addGraph(Node graphName, Graph graph) {
+        mutate(state -> graph.find().forEachRemaining(t -> add(state, Quad.create(graphName, t))));
+    }
+
+    @Override
+    public void removeGraph(Node graphName) {
+        deleteAny(graphName, Node.ANY, Node.ANY, Node.ANY);
+    }
+
+    @Override
+    public Iterator<Node> listGraphNodes() {
+        TxnState state = this.txn.get();
+        if (state != null && state.delta != null && !state.delta.isEmpty()) {
+            return Iter.iter(findNG(Node.ANY, Node.ANY, Node.ANY, Node.ANY)).map(Quad::getGraph).distinct();
+        }
+        Snapshot snapshot = state != null ? state.base : this.current;
+        List<Node> graphs = new ArrayList<>(snapshot.graphs.length);
+        for (int graph : snapshot.graphs) {
+            if (graph != DEFAULT_GRAPH) {
+                graphs.add(snapshot.dictionary.nodes[graph]);
+            }
+        }
+        return graphs.iterator();
+    }
+
+    @Override
+    public PrefixMap prefixes() {
+        return this.prefixes;
+    }
+
+    //endregion
+
+    //region Find
+
+    @Override
+    public Iterator<Quad> find(Node g, Node s, Node p, Node o) {
+        if (isAny(g)) {
+            return findInGraphs(false, s, p, o);
+        } else if (Quad.isUnionGraph(g)) {
+            return findUnion(s, p, o);
+        }
+        return findInGraph(normaliseGraph(g), s, p, o);
+    }
+
+    @Override
+    public Iterator<Quad> findNG(Node g, Node s, Node p, Node o) {
+        if (isAny(g)) {
+            return findInGraphs(true, s, p, o);
+        } else if (Quad.isUnionGraph(g)) {
+            return findUnion(s, p, o);
+        } else if (Quad.isDefaultGraph(g)) {
+            throw new IllegalArgumentException("Default graph in findNG call");
+        }
+        return findInGraph(g, s, p, o);
+    }
+
+    private Iterator<Quad> findUnion(Node s, Node p, Node o) {
+        return Iter.iter(findInGraphs(true, s, p, o))
+                   .map(Quad::asTriple)
+                   .distinct()
+                   .map(t -> Quad.create(Quad.unionGraph, t));
+    }
+
+    /**
+     * Finds quads in all graphs, or in all named graphs
+     */
+    private Iterator<Quad> findInGraphs(boolean namedOnly, Node s, Node p, Node o) {
+        TxnState state = this.txn.get();
+        Snapshot base = state != null ? state.base : this.current;
+        Delta delta = state != null ? state.delta : null;
+        Dictionary dictionary = delta != null ? delta.dictionary : base.dictionary;
+        int[] pattern = { WILDCARD, dictionary.encode(s), dictionary.encode(p), dictionary.encode(o) };
+        return findVisible(base, delta, pattern, namedOnly);
+    }
+
+    /**
+     * Finds quads in a specific graph
+     */
+    private Iterator<Quad> findInGraph(Node g, Node s, Node p, Node o) {
+        TxnState state = this.txn.get();
+        Snapshot base = state != null ? state.base : this.current;
+        Delta delta = state != null ? state.delta : null;
+        Dictionary dictionary = delta != null ? delta.dictionary : base.dictionary;
+        int[] pattern = {
+                dictionary.encode(g), dictionary.encode(s), dictionary.encode(p), dictionary.encode(o)
+        };
+        return findVisible(base, delta, pattern, false);
+    }
+
+    private static Iterator<Quad> findVisible(Snapshot base, Delta delta, int[] pattern, boolean namedOnly) {
+        for (int id : pattern) {
+            if (id == UNKNOWN) {
+                // A concrete term that isn't in the dictionary can't match anything
+                return Collections.emptyIterator();
+            }
+        }
+        Iterator<Quad> quads = base.find(pattern, namedOnly);
+        if (delta == null || delta.isEmpty()) {
+            return quads;
+        }
+        if (!delta.removed.isEmpty()) {
+            quads = Iter.filter(quads, q -> !delta.removed.contains(q));
+        }
+        return Iter.concat(quads, delta.findAdded(pattern, namedOnly));
+    }
+
+    private static boolean isAny(Node node) {
+        return node == null || Node.ANY.equals(node) || node.isVariable();
+    }
+
+    private static Node normaliseGraph(Node graph) {
+        return graph == null || Quad.isDefaultGraph(graph) ? Quad.defaultGraphIRI : graph;
+    }
+
+    //endregion
+
+    //region Updates
+
+    @Override
+    public void add(Quad quad) {
+        mutate(state -> add(state, quad));
+    }
+
+    @Override
+    public void delete(Quad quad) {
+        mutate(state -> state.delta.delete(normalise(quad)));
+    }
+
+    @Override
+    public void deleteAny(Node g, Node s, Node p, Node o) {
+        mutate(state -> {
+            // Materialise the matches first since deleting changes what find() would return
+            List<Quad> matches = Iter.toList(find(g, s, p, o));
+            for (Quad quad : matches) {
+                state.delta.delete(normalise(quad));
+            }
+        });
+    }
+
+    @Override
+    public void clear() {
+        deleteAny(Node.ANY, Node.ANY, Node.ANY, Node.ANY);
+        this.prefixes.clear();
+    }
+
+    private static void add(TxnState state, Quad quad) {
+        state.delta.add(state.base, normalise(quad));
+    }
+
+    private static Quad normalise(Quad quad) {
+        if (!quad.isConcrete()) {
+            throw new IllegalArgumentException("Cannot add/delete a quad that is not concrete: " + quad);
+        } else if (Quad.isUnionGraph(quad.getGraph())) {
+            throw new IllegalArgumentException("Cannot add/delete a quad in the union graph: " + quad);
+        }
+        if (Quad.isDefaultGraph(quad.getGraph()) && !Quad.defaultGraphIRI.equals(quad.getGraph())) {
+            return Quad.create(Quad.defaultGraphIRI, quad.asTriple());
+        }
+        return quad;
+    }
+
+    /**
+     * Applies a change within the current write transaction, or within its own write transaction if there is no
+     * current transaction
+     */
+    private void mutate(Consumer<TxnState> change) {
+        TxnState state = this.txn.get();
+        if (state == null) {
+            begin(TxnType.WRITE);
+            try {
+                change.accept(this.txn.get());
+                commit();
+            } finally {
+                end();
+            }
+            return;
+        }
+        if (state.mode != ReadWrite.WRITE && !promote(state.type == TxnType.READ_COMMITTED_PROMOTE ?
+                                                       Promote.READ_COMMITTED : Promote.ISOLATED)) {
+            throw new JenaTransactionException("Cannot write in a read transaction");
+        }
+        change.accept(state);
+    }
+
+    //endregion
+
+    //region Transactions
+
+    @Override
+    public boolean supportsTransactions() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsTransactionAbort() {
+        return true;
+    }
+
+    @Override
+    public void begin(TxnType type) {
+        Objects.requireNonNull(type, "Transaction type cannot be null");
+        if (this.txn.get() != null) {
+            throw new JenaTransactionException("Already in a transaction");
+        }
+        if (type == TxnType.WRITE) {
+            this.writer.lock();
+            Snapshot base = this.current;
+            this.txn.set(new TxnState(type, ReadWrite.WRITE, base, new Delta(base.dictionary)));
+        } else {
+            this.txn.set(new TxnState(type, ReadWrite.READ, this.current, null));
+        }
+    }
+
+    @Override
+    public void begin(ReadWrite readWrite) {
+        begin(TxnType.convert(readWrite));
+    }
+
+    @Override
+    public boolean promote(Promote mode) {
+        TxnState state = requireTransaction();
+        if (state.mode == ReadWrite.WRITE) {
+            return true;
+        } else if (state.type == TxnType.READ) {
+            return false;
+        }
+        this.writer.lock();
+        Snapshot latest = this.current;
+        if (mode == Promote.ISOLATED && latest != state.base) {
+            // Another writer has committed since this transaction began so it can't be promoted in isolation
+            this.writer.unlock();
+            return false;
+        }
+        state.base = latest;
+        state.delta = new Delta(latest.dictionary);
+        state.mode = ReadWrite.WRITE;
+        return true;
+    }
+
+    @Override
+    public void commit() {
+        TxnState state = requireTransaction();
+        if (state.mode == ReadWrite.WRITE && !state.finished) {
+            try {
+                if (!state.delta.isEmpty()) {
+                    this.current = state.delta.apply(state.base);
+                }
+            } finally {
+                state.finished = true;
+                this.writer.unlock();
+            }
+        }
+        state.finished = true;
+    }
+
+    @Override
+    public void abort() {
+        TxnState state = requireTransaction();
+        if (state.mode == ReadWrite.WRITE && !state.finished) {
+            this.writer.unlock();
+        }
+        state.finished = true;
+    }
+
+    @Override
+    public void end() {
+        TxnState state = this.txn.get();
+        if (state == null) {
+            return;
+        }
+        if (state.mode == ReadWrite.WRITE && !state.finished) {
+            // Writes that were neither committed nor aborted are discarded
+            this.writer.unlock();
+        }
+        this.txn.remove();
+    }
+
+    @Override
+    public ReadWrite transactionMode() {
+        TxnState state = this.txn.get();
+        return state != null ? state.mode : null;
+    }
+
+    @Override
+    public TxnType transactionType() {
+        TxnState state = this.txn.get();
+        return state != null ? state.type : null;
+    }
+
+    @Override
+    public boolean isInTransaction() {
+        return this.txn.get() != null;
+    }
+
+    private TxnState requireTransaction() {
+        TxnState state = this.txn.get();
+        if (state == null || state.finished) {
+            throw new JenaTransactionException("Not in a transaction");
+        }
+        return state;
+    }
+
+    /**
+     * The state of a transaction on the current thread
+     */
+    private static final class TxnState {
+        private final TxnType type;
+        private ReadWrite mode;
+        private Snapshot base;
+        private Delta delta;
+        private boolean finished;
+
+        private TxnState(TxnType type, ReadWrite mode, Snapshot base, Delta delta) {
+            this.type = type;
+            this.mode = mode;
+            this.base = base;
+            this.delta = delta;
+        }
+    }
+
+    //endregion
+
+    //region Storage
+
+    /**
+     * An immutable snapshot of the quads
+     */
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = build(Dictionary.create(), new int[0], 0);
+
+        private final Dictionary dictionary;
+        private final int[][] orders;
+        private final int size;
+        private final int[] graphs;
+
+        private Snapshot(Dictionary dictionary, int[][] orders, int size, int[] graphs) {
+            this.dictionary = dictionary;
+            this.orders = orders;
+            this.size = size;
+            this.graphs = graphs;
+        }
+
+        /**
+         * Builds a snapshot from quads that are already sorted, and de-duplicated, in {@code GSPO} order
+         */
+        private static Snapshot build(Dictionary dictionary, int[] gspo, int size) {
+            int[][] orders = new int[Order.values().length][];
+            orders[Order.GSPO.ordinal()] = gspo.length == size * 4 ? gspo : Arrays.copyOf(gspo, size * 4);
+            for (Order order : Order.values()) {
+                if (order != Order.GSPO) {
+                    int[] records = new int[size * 4];
+                    for (int r = 0, offset = 0; r < size; r++, offset += 4) {
+                        for (int i = 0; i < 4; i++) {
+                            records[offset + i] = gspo[offset + order.layout[i]];
+                        }
+                    }
+                    Records.sort(records, size);
+                    orders[order.ordinal()] = records;
+                }
+            }
+            int[] graphs = new int[16];
+            int graphCount = 0;
+            for (int r = 0; r < size; r++) {
+                int graph = gspo[r * 4];
+                if (graphCount == 0 || graphs[graphCount - 1] != graph) {
+                    if (graphCount == graphs.length) {
+                        graphs = Arrays.copyOf(graphs, graphCount * 2);
+                    }
+                    graphs[graphCount++] = graph;
+                }
+            }
+            return new Snapshot(dictionary.trim(), orders, size, Arrays.copyOf(graphs, graphCount));
+        }
+
+        private boolean contains(int[] quad) {
+            int[] gspo = this.orders[Order.GSPO.ordinal()];
+            return Records.lowerBound(gspo, this.size, quad, 4) < Records.upperBound(gspo, this.size, quad, 4);
+        }
+
+        private Iterator<Quad> find(int[] pattern, boolean namedOnly) {
+            if (this.size == 0) {
+                return Collections.emptyIterator();
+            }
+            Order order = Order.choose(pattern[S] != WILDCARD, pattern[P] != WILDCARD, pattern[O] != WILDCARD);
+            int[] records = this.orders[order.ordinal()];
+            int[] key = new int[4];
+            int prefix = 1;
+            while (prefix < 4 && pattern[order.layout[prefix]] != WILDCARD) {
+                key[prefix] = pattern[order.layout[prefix]];
+                prefix++;
+            }
+
+            int[] ranges;
+            if (pattern[G] != WILDCARD) {
+                key[0] = pattern[G];
+                ranges = new int[] { Records.lowerBound(records, this.size, key, prefix),
+                                     Records.upperBound(records, this.size, key, prefix) };
+            } else if (prefix == 1) {
+                // Scanning everything, so a single range suffices
+                key[0] = DEFAULT_GRAPH;
+                ranges = new int[] { namedOnly ? Records.upperBound(records, this.size, key, 1) : 0, this.size };
+            } else {
+                ranges = new int[this.graphs.length * 2];
+                for (int i = 0; i < this.graphs.length; i++) {
+                    if (namedOnly && this.graphs[i] == DEFAULT_GRAPH) {
+                        continue;
+                    }
+                    key[0] = this.graphs[i];
+                    int start = Records.lowerBound(records, this.size, key, prefix);
+                    ranges[i * 2] = start;
+                    ranges[i * 2 + 1] = start < this.size ? Records.upperBound(records, this.size, key, prefix) : start;
+                }
+            }
+            return new RecordIterator(this.dictionary, records, order, ranges);
+        }
+    }
+
+    /**
+     * Iterates over ranges of records, decoding each into a quad
+     */
+    private static final class RecordIterator implements Iterator<Quad> {
+        private final Dictionary dictionary;
+        private final int[] records;
+        private final Order order;
+        private final int[] ranges;
+        private int range = 0, next;
+
+        private RecordIterator(Dictionary dictionary, int[] records, Order order, int[] ranges) {
+            this.dictionary = dictionary;
+            this.records = records;
+            this.order = order;
+            this.ranges = ranges;
+            this.next = ranges[0];
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.range < this.ranges.length && this.next >= this.ranges[this.range + 1]) {
+                this.range += 2;
+                if (this.range < this.ranges.length) {
+                    this.next = this.ranges[this.range];
+                }
+            }
+            return this.range < this.ranges.length;
+        }
+
+        @Override
+        public Quad next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node[] terms = new Node[4];
+            int offset = this.next * 4;
+            for (int i = 0; i < 4; i++) {
+                terms[this.order.layout[i]] = this.dictionary.nodes[this.records[offset + i]];
+            }
+            this.next++;
+            return Quad.create(terms[G], terms[S], terms[P], terms[O]);
+        }
+    }
+
+    /**
+     * The uncommitted changes of a write transaction
+     */
+    private static final class Delta {
+        private final Dictionary base;
+        private Dictionary dictionary;
+        private int[] added = new int[64];
+        private int addedCount = 0;
+        private final Set<Quad> removed = new HashSet<>();
+
+        private Delta(Dictionary dictionary) {
+            this.base = dictionary;
+            this.dictionary = dictionary;
+        }
+
+        private boolean isEmpty() {
+            return this.addedCount == 0 && this.removed.isEmpty();
+        }
+
+        private void add(Snapshot snapshot, Quad quad) {
+            this.removed.remove(quad);
+            if (this.dictionary == this.base) {
+                int[] ids = this.base.encode(quad);
+                if (ids != null && snapshot.contains(ids)) {
+                    return;
+                }
+                // Copy on write so that readers of the snapshot never see the dictionary change
+                this.dictionary = this.base.copy();
+            }
+            int[] ids = new int[] {
+                    this.dictionary.add(quad.getGraph()),
+                    this.dictionary.add(quad.getSubject()),
+                    this.dictionary.add(quad.getPredicate()),
+                    this.dictionary.add(quad.getObject())
+            };
+            if (ids[G] < this.base.size && ids[S] < this.base.size && ids[P] < this.base.size &&
+                ids[O] < this.base.size && snapshot.contains(ids)) {
+                return;
+            }
+            if (this.addedCount * 4 == this.added.length) {
+                this.added = Arrays.copyOf(this.added, this.added.length * 2);
+            }
+            System.arraycopy(ids, 0, this.added, this.addedCount * 4, 4);
+            this.addedCount++;
+        }
+
+        private void delete(Quad quad) {
+            this.removed.add(quad);
+        }
+
+        private Iterator<Quad> findAdded(int[] pattern, boolean namedOnly) {
+            List<Quad> matches = new ArrayList<>();
+            Set<Quad> seen = new HashSet<>();
+            for (int r = 0, offset = 0; r < this.addedCount; r++, offset += 4) {
+                if (namedOnly && this.added[offset] == DEFAULT_GRAPH) {
+                    continue;
+                }
+                boolean matched = true;
+                for (int i = 0; i < 4 && matched; i++) {
+                    matched = pattern[i] == WILDCARD || pattern[i] == this.added[offset + i];
+                }
+                if (matched) {
+                    Quad quad = decode(this.added, offset);
+                    if (!this.removed.contains(quad) && seen.add(quad)) {
+                        matches.add(quad);
+                    }
+                }
+            }
+            return matches.iterator();
+        }
+
+        private Quad decode(int[] records, int offset) {
+            Node[] nodes = this.dictionary.nodes;
+            return Quad.create(nodes[records[offset]], nodes[records[offset + 1]], nodes[records[offset + 2]],
+                               nodes[records[offset + 3]]);
+        }
+
+        /**
+         * Applies the changes to a snapshot producing a new snapshot
+         */
+        private Snapshot apply(Snapshot snapshot) {
+            // Quads from the snapshot that are retained are still sorted
+            int[] base = snapshot.orders[Order.GSPO.ordinal()];
+            int[] kept = base;
+            int keptCount = snapshot.size;
+            if (!this.removed.isEmpty()) {
+                kept = new int[base.length];
+                keptCount = 0;
+                for (int r = 0, offset = 0; r < snapshot.size; r++, offset += 4) {
+                    if (!this.removed.contains(decode(base, offset))) {
+                        System.arraycopy(base, offset, kept, keptCount * 4, 4);
+                        keptCount++;
+                    }
+                }
+            }
+
+            // Added quads must be sorted and de-duplicated before merging
+            int[] extra = new int[this.addedCount * 4];
+            int extraCount = 0;
+            for (int r = 0, offset = 0; r < this.addedCount; r++, offset += 4) {
+                if (this.removed.isEmpty() || !this.removed.contains(decode(this.added, offset))) {
+                    System.arraycopy(this.added, offset, extra, extraCount * 4, 4);
+                    extraCount++;
+                }
+            }
+            Records.sort(extra, extraCount);
+            extraCount = Records.unique(extra, extraCount);
+
+            int[] merged = new int[(keptCount + extraCount) * 4];
+            int size = Records.mergeUnique(kept, keptCount, extra, extraCount, merged);
+            return Snapshot.build(this.dictionary, merged, size);
+        }
+    }
+
+    /**
+     * A dictionary that encodes terms to consecutive {@code int} IDs via an open addressing hash table
+     */
+    private static final class Dictionary {
+        private Node[] nodes;
+        private int[] table;
+        private int size;
+
+        private Dictionary(Node[] nodes, int[] table, int size) {
+            this.nodes = nodes;
+            this.table = table;
+            this.size = size;
+        }
+
+        private static Dictionary create() {
+            Dictionary dictionary = new Dictionary(new Node[16], new int[32], 0);
+            dictionary.add(Quad.defaultGraphIRI);
+            return dictionary;
+        }
+
+        private static int slot(Node node, int mask) {
+            int h = node.hashCode() * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        /**
+         * Encodes a term for use in a pattern
+         *
+         * @return ID, {@link #WILDCARD} if the term is a wildcard, or {@link #UNKNOWN} if the term is not encoded
+         */
+        private int encode(Node node) {
+            if (isAny(node)) {
+                return WILDCARD;
+            }
+            int id = lookup(node);
+            return id >= 0 ? id : UNKNOWN;
+        }
+
+        private int[] encode(Quad quad) {
+            int[] ids = new int[] {
+                    lookup(quad.getGraph()), lookup(quad.getSubject()), lookup(quad.getPredicate()),
+                    lookup(quad.getObject())
+            };
+            for (int id : ids) {
+                if (id < 0) {
+                    return null;
+                }
+            }
+            return ids;
+        }
+
+        private int lookup(Node node) {
+            int mask = this.table.length - 1;
+            for (int i = slot(node, mask); ; i = (i + 1) & mask) {
+                int entry = this.table[i];
+                if (entry == 0) {
+                    return -1;
+                } else if (this.nodes[entry - 1].equals(node)) {
+                    return entry - 1;
+                }
+            }
+        }
+
+        private int add(Node node) {
+            int id = lookup(node);
+            if (id >= 0) {
+                return id;
+            }
+            if (this.size == this.nodes.length) {
+                this.nodes = Arrays.copyOf(this.nodes, this.size * 2);
+            }
+            id = this.size++;
+            this.nodes[id] = node;
+            if (this.size * 2 > this.table.length) {
+                rehash(this.table.length * 2);
+            } else {
+                insert(this.table, id);
+            }
+            return id;
+        }
+
+        private void insert(int[] into, int id) {
+            int mask = into.length - 1;
+            int i = slot(this.nodes[id], mask);
+            while (into[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            into[i] = id + 1;
+        }
+
+        private void rehash(int capacity) {
+            int[] rehashed = new int[capacity];
+            for (int id = 0; id < this.size; id++) {
+                insert(rehashed, id);
+            }
+            this.table = rehashed;
+        }
+
+        private Dictionary copy() {
+            return new Dictionary(Arrays.copyOf(this.nodes, Math.max(this.size * 2, 16)), this.table.clone(),
+                                  this.size);
+        }
+
+        private Dictionary trim() {
+            if (this.nodes.length != this.size) {
+                this.nodes = Arrays.copyOf(this.nodes, this.size);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Operations on flat arrays of records of four {@code int}s, ordered lexicographically
+     */
+    private static final class Records {
+
+        private Records() {
+        }
+
+        private static int compare(int[] a, int i, int[] b, int j, int length) {
+            for (int k = 0; k < length; k++) {
+                int c = Integer.compare(a[i + k], b[j + k]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Finds the first record whose prefix is greater than or equal to the key
+         */
+        private static int lowerBound(int[] records, int size, int[] key, int prefix) {
+            int low = 0, high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(records, mid * 4, key, 0, prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Finds the first record whose prefix is greater than the key
+         */
+        private static int upperBound(int[] records, int size, int[] key, int prefix) {
+            int low = 0, high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(records, mid * 4, key, 0, prefix) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Sorts records via a bottom up merge sort
+         */
+        private static void sort(int[] records, int size) {
+            if (size < 2) {
+                return;
+            }
+            int[] source = records, target = new int[size * 4];
+            for (int width = 1; width < size; width *= 2) {
+                for (int low = 0; low < size; low += width * 2) {
+                    int mid = Math.min(low + width, size), high = Math.min(low + width * 2, size);
+                    int i = low, j = mid, k = low;
+                    while (i < mid && j < high) {
+                        if (compare(source, i * 4, source, j * 4, 4) <= 0) {
+                            System.arraycopy(source, i++ * 4, target, k++ * 4, 4);
+                        } else {
+                            System.arraycopy(source, j++ * 4, target, k++ * 4, 4);
+                        }
+                    }
+                    System.arraycopy(source, i * 4, target, k * 4, (mid - i) * 4);
+                    k += mid - i;
+                    System.arraycopy(source, j * 4, target, k * 4, (high - j) * 4);
+                }
+                int[] swap = source;
+                source = target;
+                target = swap;
+            }
+            if (source != records) {
+                System.arraycopy(source, 0, records, 0, size * 4);
+            }
+        }
+
+        /**
+         * Removes adjacent duplicate records
+         *
+         * @return Number of unique records
+         */
+        private static int unique(int[] records, int size) {
+            if (size < 2) {
+                return size;
+            }
+            int unique = 1;
+            for (int r = 1; r < size; r++) {
+                if (compare(records, r * 4, records, (unique - 1) * 4, 4) != 0) {
+                    System.arraycopy(records, r * 4, records, unique * 4, 4);
+                    unique++;
+                }
+            }
+            return unique;
+        }
+
+        /**
+         * Merges two sorted sets of unique records, omitting records present in both
+         *
+         * @return Number of merged records
+         */
+        private static int mergeUnique(int[] a, int aSize, int[] b, int bSize, int[] merged) {
+            int i = 0, j = 0, k = 0;
+            while (i < aSize && j < bSize) {
+                int c = compare(a, i * 4, b, j * 4, 4);
+                if (c <= 0) {
+                    System.arraycopy(a, i++ * 4, merged, k++ * 4, 4);
+                    if (c == 0) {
+                        j++;
+                    }
+                } else {
+                    System.arraycopy(b, j++ * 4, merged, k++ * 4, 4);
+                }
+            }
+            System.arraycopy(a, i * 4, merged, k * 4, (aSize - i) * 4);
+            k += aSize - i;
+            System.arraycopy(b, j * 4, merged, k * 4, (bSize - j) * 4);
+            return k + bSize - j;
+        }
+    }
+
+    //endregion
+}
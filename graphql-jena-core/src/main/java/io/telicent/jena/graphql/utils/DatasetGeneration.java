@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphWrapper;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sparql.util.Symbol;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A generation counter for a dataset that advances every time a write to the dataset is committed
+ * <p>
+ * The generation identifies a version of the data so may be combined with a request to derive a cache validator, such
+ * as an HTTP {@code ETag}, which becomes stale as soon as the data changes.  {@link #track(DatasetGraph)} wraps a
+ * dataset so that every write commit made through the wrapper advances the generation, attaching the generation to the
+ * datasets {@link Context} where {@link #get(DatasetGraph)} finds it.  Writes made directly to the underlying dataset,
+ * bypassing the wrapper, are not tracked.
+ * </p>
+ */
+public final class DatasetGeneration {
+
+    /**
+     * Context symbol used to attach a generation to a dataset
+     */
+    public static final Symbol SYMBOL = Symbol.create("graphql:datasetGeneration");
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Creates a new generation counter starting from generation {@code 0}
+     */
+    public DatasetGeneration() {
+    }
+
+    /**
+     * Creates a new generation counter starting from the given generation
+     * <p>
+     * This is used when one dataset replaces another, e.g. when reloading data, so that the replacement's generations
+     * follow on from those of the dataset it replaces and validators derived from the replaced dataset become stale.
+     * </p>
+     *
+     * @param initial Initial generation
+     */
+    public DatasetGeneration(long initial) {
+        if (initial < 0) {
+            throw new IllegalArgumentException("initial generation must not be negative");
+        }
+        this.generation.set(initial);
+    }
+
+    /**
+     * Gets the current generation
+     *
+     * @return Current generation
+     */
+    public long current() {
+        return this.generation.get();
+    }
+
+    /**
+     * Advances the generation, invalidating any validators derived from earlier generations
+     *
+     * @return New generation
+     */
+    public long advance() {
+        return this.generation.incrementAndGet();
+    }
+
+    /**
+     * Gets the generation attached to a dataset
+     *
+     * @param dsg Dataset Graph
+     * @return Generation, or {@code null} if the dataset's writes are not being tracked
+     */
+    public static DatasetGeneration get(DatasetGraph dsg) {
+        if (dsg == null) {
+            return null;
+        }
+        Context context = dsg.getContext();
+        return context != null && context.get(SYMBOL) instanceof DatasetGeneration generation ? generation : null;
+    }
+
+    /**
+     * Wraps a dataset so that its generation advances whenever a write is committed through the wrapper
+     * <p>
+     * If the dataset is already tracked it is returned as-is.  If a generation is already attached to the dataset's
+     * {@link Context}, e.g. because another wrapper over the same dataset exists, then that generation is shared.
+     * </p>
+     *
+     * @param dsg Dataset Graph
+     * @return Tracked Dataset Graph
+     */
+    public static DatasetGraph track(DatasetGraph dsg) {
+        Objects.requireNonNull(dsg, "Dataset Graph cannot be null");
+        if (dsg instanceof TrackedDatasetGraph) {
+            return dsg;
+        }
+        DatasetGeneration generation = get(dsg);
+        if (generation == null) {
+            generation = new DatasetGeneration();
+            if (dsg.getContext() != null) {
+                dsg.getContext().set(SYMBOL, generation);
+            }
+        }
+        return new TrackedDatasetGraph(dsg, generation);
+    }
+
+    @Override
+    public String toString() {
+        return "DatasetGeneration{" + this.generation.get() + "}";
+    }
+
+    /**
+     * A dataset wrapper that advances a generation on every write commit, and after every write made outside of a
+     * transaction
+     */
+    private static final class TrackedDatasetGraph extends DatasetGraphWrapper {
+
+        private final DatasetGeneration generation;
+
+        private TrackedDatasetGraph(DatasetGraph dsg, DatasetGeneration generation) {
+            super(dsg);
+            this.generation = generation;
+        }
+
+        @Override
+        public void commit() {
+            boolean write = isInTransaction() && transactionMode() == ReadWrite.WRITE;
+            super.commit();
+            if (write) {
+                this.generation.advance();
+            }
+        }
+
+        private void written() {
+            if (!isInTransaction()) {
+                this.generation.advance();
+            }
+        }
+
+        @Override
+        public void add(Quad quad) {
+            super.add(quad);
+            written();
+        }
+
+        @Override
+        public void add(Node g, Node s, Node p, Node o) {
+            super.add(g, s, p, o);
+            written();
+        }
+
+        @Override
+        public void delete(Quad quad) {
+            super.delete(quad);
+            written();
+        }
+
+        @Override
+        public void delete(Node g, Node s, Node p, Node o) {
+            super.delete(g, s, p, o);
+            written();
+        }
+
+        @Override
+        public void deleteAny(Node g, Node s, Node p, Node o) {
+            super.deleteAny(g, s, p, o);
+            written();
+        }
+
+        @Override
+        public void addGraph(Node graphName, Graph graph) {
+            super.addGraph(graphName, graph);
+            written();
+        }
+
+        @Override
+        public void removeGraph(Node graphName) {
+            super.removeGraph(graphName);
+            written();
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            written();
+        }
+    }
+}
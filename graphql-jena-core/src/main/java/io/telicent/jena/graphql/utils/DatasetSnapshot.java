@@ -0,0 +1,453 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.util.NodeFactoryExtra;
+import org.apache.jena.system.Txn;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.RDF;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * A compact binary snapshot of a dataset that loads far faster than re-parsing the RDF it was originally loaded from
+ * <p>
+ * A snapshot is written in a single sequential pass over the dataset.  Terms are dictionary encoded, each distinct term
+ * is written once, inline, the first time it is used and thereafter referenced by its variable length encoded
+ * dictionary ID.  Quads are written as a table of {@code (subject, predicate, object)} IDs per graph, so the graph is
+ * written only once per table.  Loading a snapshot is a single sequential read that requires no parsing beyond decoding
+ * the terms, and since each distinct term is decoded once every quad that uses it shares the same {@link Node}
+ * instance.
+ * </p>
+ * <p>
+ * A snapshot may record the size and modification time of the file the dataset was originally loaded from, see
+ * {@link #isCurrent(Path, Path)}, so callers can tell when a snapshot is stale and needs recreating.
+ * </p>
+ */
+public final class DatasetSnapshot {
+
+    /**
+     * Current version of the snapshot format
+     */
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = "GQLJSNAP".getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * ID used to mark the end of a table, or of the tables, real dictionary IDs start from {@code 1}
+     */
+    private static final int END = 0;
+
+    private static final byte TERM_URI = 1;
+    private static final byte TERM_BLANK = 2;
+    private static final byte TERM_STRING = 3;
+    private static final byte TERM_LANG = 4;
+    private static final byte TERM_TYPED = 5;
+    private static final byte TERM_OTHER = 6;
+
+    /**
+     * Datatype for directional language tagged strings, which can't be encoded as a plain language tagged string so are
+     * written in their N-Triples form instead
+     */
+    private static final String DIR_LANG_STRING = RDF.getURI() + "dirLangString";
+
+    private DatasetSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a dataset
+     * <p>
+     * The snapshot is first written to a temporary file alongside the snapshot file, which then replaces the snapshot
+     * file, so a partially written snapshot is never left in place.
+     * </p>
+     *
+     * @param dsg      Dataset Graph
+     * @param snapshot Snapshot file
+     * @param source   File the dataset was originally loaded from, may be {@code null}
+     * @return Number of quads written
+     * @throws IOException Thrown if the snapshot cannot be written
+     */
+    public static long write(DatasetGraph dsg, Path snapshot, Path source) throws IOException {
+        Objects.requireNonNull(dsg, "Dataset Graph cannot be null");
+        Objects.requireNonNull(snapshot, "Snapshot cannot be null");
+        SourceInfo sourceInfo = SourceInfo.of(source);
+        Path parent = snapshot.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, snapshot.getFileName().toString(), ".tmp");
+        try {
+            long quads;
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE))) {
+                quads = Txn.calculateRead(dsg, () -> {
+                    try {
+                        return new Writer(output).write(dsg, sourceInfo);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            try {
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return quads;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads a snapshot into a new in-memory transactional dataset
+     *
+     * @param snapshot Snapshot file
+     * @return Dataset Graph
+     * @throws IOException Thrown if the snapshot cannot be read, or is corrupt or truncated
+     */
+    public static DatasetGraph read(Path snapshot) throws IOException {
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        read(snapshot, dsg);
+        return dsg;
+    }
+
+    /**
+     * Reads a snapshot into an existing dataset, within a single write transaction
+     *
+     * @param snapshot Snapshot file
+     * @param dsg      Dataset Graph to load the snapshot into
+     * @return Number of quads read
+     * @throws IOException Thrown if the snapshot cannot be read, or is corrupt or truncated
+     */
+    public static long read(Path snapshot, DatasetGraph dsg) throws IOException {
+        Objects.requireNonNull(snapshot, "Snapshot cannot be null");
+        Objects.requireNonNull(dsg, "Dataset Graph cannot be null");
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshot), BUFFER_SIZE))) {
+            return Txn.calculateWrite(dsg, () -> {
+                try {
+                    return new Reader(input).read(dsg);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof EOFException eof) {
+                throw new IOException("Snapshot " + snapshot + " is truncated", eof);
+            }
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Determines whether a snapshot exists and is current with respect to the file the dataset was originally loaded
+     * from, i.e. that file has the same size and modification time as when the snapshot was written
+     *
+     * @param snapshot Snapshot file
+     * @param source   Source file
+     * @return True if the snapshot exists, is of the current {@link #VERSION}, and is current
+     */
+    public static boolean isCurrent(Path snapshot, Path source) {
+        if (snapshot == null || source == null || !Files.isRegularFile(snapshot)) {
+            return false;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            SourceInfo recorded = readHeader(input);
+            return recorded.equals(SourceInfo.of(source));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static SourceInfo readHeader(DataInputStream input) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        input.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a dataset snapshot");
+        }
+        int version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported dataset snapshot version " + version + ", expected " + VERSION);
+        }
+        return new SourceInfo(input.readLong(), input.readLong());
+    }
+
+    /**
+     * Size and modification time of the file a dataset was loaded from
+     *
+     * @param size         Size in bytes, {@code -1} if unknown
+     * @param lastModified Modification time in milliseconds since the epoch, {@code -1} if unknown
+     */
+    private record SourceInfo(long size, long lastModified) {
+        private static final SourceInfo UNKNOWN = new SourceInfo(-1, -1);
+
+        private static SourceInfo of(Path source) {
+            if (source == null) {
+                return UNKNOWN;
+            }
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+                return new SourceInfo(attributes.size(), attributes.lastModifiedTime().toMillis());
+            } catch (IOException e) {
+                return UNKNOWN;
+            }
+        }
+    }
+
+    /**
+     * Writes a snapshot, assigning dictionary IDs to terms as they are first encountered
+     */
+    private static final class Writer {
+        private final DataOutputStream output;
+        private final Map<Node, Integer> terms = new HashMap<>();
+        private final Map<String, Integer> datatypes = new HashMap<>();
+
+        private Writer(DataOutputStream output) {
+            this.output = output;
+        }
+
+        private long write(DatasetGraph dsg, SourceInfo source) throws IOException {
+            this.output.write(MAGIC);
+            this.output.writeInt(VERSION);
+            this.output.writeLong(source.size());
+            this.output.writeLong(source.lastModified());
+
+            Map<String, String> prefixes = dsg.prefixes().getMapping();
+            writeVarInt(prefixes.size());
+            for (Map.Entry<String, String> prefix : prefixes.entrySet()) {
+                writeString(prefix.getKey());
+                writeString(prefix.getValue());
+            }
+
+            long quads = writeTable(Quad.defaultGraphIRI, dsg.getDefaultGraph());
+            Iterator<Node> graphs = dsg.listGraphNodes();
+            while (graphs.hasNext()) {
+                Node graphName = graphs.next();
+                quads += writeTable(graphName, dsg.getGraph(graphName));
+            }
+            writeVarInt(END);
+
+            // Trailer allows truncation to be detected
+            this.output.writeLong(quads);
+            this.output.write(MAGIC);
+            return quads;
+        }
+
+        private long writeTable(Node graphName, Graph graph) throws IOException {
+            long count = 0;
+            ExtendedIterator<Triple> triples = graph.find();
+            try {
+                while (triples.hasNext()) {
+                    Triple t = triples.next();
+                    if (count == 0) {
+                        writeTerm(graphName);
+                    }
+                    writeTerm(t.getSubject());
+                    writeTerm(t.getPredicate());
+                    writeTerm(t.getObject());
+                    count++;
+                }
+            } finally {
+                triples.close();
+            }
+            if (count > 0) {
+                writeVarInt(END);
+            }
+            return count;
+        }
+
+        private void writeTerm(Node node) throws IOException {
+            Integer id = this.terms.get(node);
+            if (id != null) {
+                writeVarInt(id);
+                return;
+            }
+            id = this.terms.size() + 1;
+            this.terms.put(node, id);
+            writeVarInt(id);
+            if (node.isURI()) {
+                this.output.writeByte(TERM_URI);
+                writeString(node.getURI());
+            } else if (node.isBlank()) {
+                this.output.writeByte(TERM_BLANK);
+                writeString(node.getBlankNodeLabel());
+            } else if (node.isLiteral() && !DIR_LANG_STRING.equals(node.getLiteralDatatypeURI())) {
+                String lang = node.getLiteralLanguage();
+                if (lang != null && !lang.isEmpty()) {
+                    this.output.writeByte(TERM_LANG);
+                    writeString(node.getLiteralLexicalForm());
+                    writeString(lang);
+                } else if (XSDDatatype.XSDstring.getURI().equals(node.getLiteralDatatypeURI())) {
+                    this.output.writeByte(TERM_STRING);
+                    writeString(node.getLiteralLexicalForm());
+                } else {
+                    this.output.writeByte(TERM_TYPED);
+                    writeString(node.getLiteralLexicalForm());
+                    writeDatatype(node.getLiteralDatatypeURI());
+                }
+            } else {
+                // Rare terms, e.g. triple terms, are written in their N-Triples form
+                this.output.writeByte(TERM_OTHER);
+                writeString(NodeFmtLib.strNT(node));
+            }
+        }
+
+        private void writeDatatype(String datatypeUri) throws IOException {
+            Integer id = this.datatypes.get(datatypeUri);
+            if (id != null) {
+                writeVarInt(id);
+                return;
+            }
+            id = this.datatypes.size() + 1;
+            this.datatypes.put(datatypeUri, id);
+            writeVarInt(id);
+            writeString(datatypeUri);
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            this.output.write(bytes);
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                this.output.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            this.output.writeByte(value);
+        }
+    }
+
+    /**
+     * Reads a snapshot, rebuilding the term dictionary as terms are first encountered
+     */
+    private static final class Reader {
+        private final DataInputStream input;
+        private final List<Node> terms = new ArrayList<>();
+        private final List<RDFDatatype> datatypes = new ArrayList<>();
+        private byte[] buffer = new byte[256];
+
+        private Reader(DataInputStream input) {
+            this.input = input;
+        }
+
+        private long read(DatasetGraph dsg) throws IOException {
+            readHeader(this.input);
+            int prefixes = readVarInt();
+            for (int i = 0; i < prefixes; i++) {
+                dsg.prefixes().add(readString(), readString());
+            }
+
+            long quads = 0;
+            int graphId;
+            while ((graphId = readVarInt()) != END) {
+                Node graphName = readTerm(graphId);
+                int subjectId;
+                while ((subjectId = readVarInt()) != END) {
+                    Node subject = readTerm(subjectId);
+                    Node predicate = readTerm(readVarInt());
+                    Node object = readTerm(readVarInt());
+                    dsg.add(graphName, subject, predicate, object);
+                    quads++;
+                }
+            }
+
+            long expected = this.input.readLong();
+            byte[] magic = new byte[MAGIC.length];
+            this.input.readFully(magic);
+            if (expected != quads || !Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Snapshot is corrupt, expected " + expected + " quads but read " + quads);
+            }
+            return quads;
+        }
+
+        private Node readTerm(int id) throws IOException {
+            if (id <= this.terms.size()) {
+                if (id <= END) {
+                    throw new IOException("Snapshot is corrupt, invalid term ID " + id);
+                }
+                return this.terms.get(id - 1);
+            } else if (id != this.terms.size() + 1) {
+                throw new IOException("Snapshot is corrupt, term ID " + id + " was not defined");
+            }
+            byte kind = this.input.readByte();
+            Node node = switch (kind) {
+                case TERM_URI -> NodeFactory.createURI(readString());
+                case TERM_BLANK -> NodeFactory.createBlankNode(readString());
+                case TERM_STRING -> NodeFactory.createLiteralString(readString());
+                case TERM_LANG -> NodeFactory.createLiteralLang(readString(), readString());
+                case TERM_TYPED -> {
+                    String lexicalForm = readString();
+                    yield NodeFactory.createLiteralDT(lexicalForm, readDatatype());
+                }
+                case TERM_OTHER -> NodeFactoryExtra.parseNode(readString());
+                default -> throw new IOException("Snapshot is corrupt, unknown term kind " + kind);
+            };
+            this.terms.add(node);
+            return node;
+        }
+
+        private RDFDatatype readDatatype() throws IOException {
+            int id = readVarInt();
+            if (id > 0 && id <= this.datatypes.size()) {
+                return this.datatypes.get(id - 1);
+            } else if (id != this.datatypes.size() + 1) {
+                throw new IOException("Snapshot is corrupt, datatype ID " + id + " was not defined");
+            }
+            RDFDatatype datatype = TypeMapper.getInstance().getSafeTypeByName(readString());
+            this.datatypes.add(datatype);
+            return datatype;
+        }
+
+        private String readString() throws IOException {
+            int length = readVarInt();
+            if (length < 0) {
+                throw new IOException("Snapshot is corrupt, invalid string length " + length);
+            }
+            if (length > this.buffer.length) {
+                this.buffer = new byte[Math.max(length, this.buffer.length * 2)];
+            }
+            this.input.readFully(this.buffer, 0, length);
+            return new String(this.buffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = this.input.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Snapshot is corrupt, invalid variable length integer");
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.graph.Node;
+
+/**
+ * A streaming implementation of the 128-bit x64 variant of MurmurHash3
+ * <p>
+ * Characters are hashed as their UTF-16LE code units directly, without first encoding them into an intermediate string
+ * or byte array, so hashing a character sequence produces the same value as MurmurHash3 over its UTF-16LE encoding.
+ * Instances are not thread-safe and are intended to be used for a single hash.  Since the hash depends only on the
+ * characters hashed it is stable across JVMs and releases, unlike {@link Object#hashCode()} for many types.
+ * </p>
+ */
+public final class Hash128 {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private long h1, h2;
+    private long k1, k2;
+    private int buffered;
+    private long length;
+
+    /**
+     * Creates a new hash with a seed of zero
+     */
+    public Hash128() {
+        this(0);
+    }
+
+    /**
+     * Creates a new hash
+     *
+     * @param seed Seed
+     */
+    public Hash128(int seed) {
+        this.h1 = seed & 0xffffffffL;
+        this.h2 = seed & 0xffffffffL;
+    }
+
+    /**
+     * Adds a character to the hash
+     *
+     * @param c Character
+     * @return This hash
+     */
+    public Hash128 putChar(char c) {
+        // Each block is 16 bytes i.e. 8 UTF-16 code units, the first 4 of which form k1 and the last 4 k2
+        if (this.buffered < 4) {
+            this.k1 |= (long) c << (16 * this.buffered);
+        } else {
+            this.k2 |= (long) c << (16 * (this.buffered - 4));
+        }
+        this.length += 2;
+        if (++this.buffered == 8) {
+            mixBlock();
+        }
+        return this;
+    }
+
+    /**
+     * Adds a sequence of characters to the hash
+     *
+     * @param chars Characters
+     * @return This hash
+     */
+    public Hash128 putChars(CharSequence chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            putChar(chars.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Adds an integer to the hash, as two characters
+     *
+     * @param value Value
+     * @return This hash
+     */
+    public Hash128 putInt(int value) {
+        return putChar((char) value).putChar((char) (value >>> 16));
+    }
+
+    /**
+     * Adds a node to the hash, each component is prefixed with a kind marker or its length so that distinct nodes, and
+     * distinct sequences of nodes, always contribute distinct inputs to the hash
+     *
+     * @param node Node
+     * @return This hash
+     */
+    public Hash128 putNode(Node node) {
+        if (node.isURI()) {
+            putComponent(putChar('U'), node.getURI());
+        } else if (node.isBlank()) {
+            putComponent(putChar('B'), node.getBlankNodeLabel());
+        } else if (node.isLiteral()) {
+            putComponent(putChar('L'), node.getLiteralLexicalForm());
+            putComponent(this, node.getLiteralDatatypeURI());
+            putComponent(this, node.getLiteralLanguage());
+        } else {
+            // Any other kind of node, e.g. variables or triple terms, is rare enough to use its string form
+            putComponent(putChar('O'), node.toString());
+        }
+        return this;
+    }
+
+    private static void putComponent(Hash128 hash, String value) {
+        if (value == null) {
+            hash.putInt(-1);
+        } else {
+            hash.putInt(value.length()).putChars(value);
+        }
+    }
+
+    private void mixBlock() {
+        this.h1 ^= mixK1(this.k1);
+        this.h1 = Long.rotateLeft(this.h1, 27);
+        this.h1 += this.h2;
+        this.h1 = this.h1 * 5 + 0x52dce729;
+
+        this.h2 ^= mixK2(this.k2);
+        this.h2 = Long.rotateLeft(this.h2, 31);
+        this.h2 += this.h1;
+        this.h2 = this.h2 * 5 + 0x38495ab5;
+
+        this.k1 = 0;
+        this.k2 = 0;
+        this.buffered = 0;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * Completes the hash
+     *
+     * @return The two 64-bit halves of the hash
+     */
+    public long[] finish() {
+        // Tail, the buffered code units that did not fill a complete block
+        if (this.buffered > 4) {
+            this.h2 ^= mixK2(this.k2);
+        }
+        if (this.buffered > 0) {
+            this.h1 ^= mixK1(this.k1);
+        }
+
+        this.h1 ^= this.length;
+        this.h2 ^= this.length;
+        this.h1 += this.h2;
+        this.h2 += this.h1;
+        this.h1 = fmix64(this.h1);
+        this.h2 = fmix64(this.h2);
+        this.h1 += this.h2;
+        this.h2 += this.h1;
+        return new long[] { this.h1, this.h2 };
+    }
+
+    /**
+     * Completes the hash and formats it as 32 lowercase hexadecimal characters
+     *
+     * @return Hexadecimal hash
+     */
+    public String finishHex() {
+        long[] hash = finish();
+        char[] hex = new char[32];
+        for (int i = 0; i < 2; i++) {
+            long value = hash[i];
+            for (int j = 15; j >= 0; j--) {
+                hex[i * 16 + j] = HEX[(int) (value & 0xf)];
+                value >>>= 4;
+            }
+        }
+        return new String(hex);
+    }
+}
@@ -12,9 +12,16 @@
  */
 package io.telicent.jena.graphql.utils;
 
+import io.telicent.jena.graphql.schemas.CoreSchema;
 import io.telicent.jena.graphql.schemas.models.NodeKind;
 import io.telicent.jena.graphql.schemas.models.WrappedNode;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.datatypes.TypeMapper;
 import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.expr.NodeValue;
 
 import java.util.*;
 
@@ -23,6 +30,9 @@ import java.util.*;
  */
 public class NodeFilter {
 
+    private static final EnumSet<NodeKind> CONDITIONAL_KINDS =
+            EnumSet.of(NodeKind.URI, NodeKind.PLAIN_LITERAL, NodeKind.LANGUAGE_LITERAL, NodeKind.TYPED_LITERAL);
+
     /**
      * Private constructor prevents instantiation
      */
@@ -39,10 +49,138 @@ public class NodeFilter {
         if (rawFilter == null || rawFilter.isEmpty()) {
             return Node.ANY;
         }
+        if (isConditional(rawFilter)) {
+            throw new IllegalArgumentException(
+                    "Range, prefix and language only node filters are not supported in this context");
+        }
         return new WrappedNode(rawFilter).getNode();
 
     }
 
+    /**
+     * Parses a node filter into a node matcher
+     * <p>
+     * A node filter that specifies any of the {@code gt}, {@code lt} or {@code prefix} fields, or that specifies a
+     * {@code language} without a {@code value}, is a conditional filter that matches all nodes of the given kind that
+     * satisfy those conditions.  Any other node filter is an exact match, see {@link #parse(Map)}.
+     * </p>
+     * <p>
+     * Range conditions ({@code gt} and {@code lt}) are exclusive, only apply to typed literals, and require that the
+     * {@code datatype} is specified since the bounds are interpreted as values of that datatype.
+     * </p>
+     *
+     * @param rawFilter Raw filter object
+     * @return Node matcher, will be {@link NodeMatcher#ANY} if no filter was supplied
+     */
+    public static NodeMatcher parseMatcher(Map<String, Object> rawFilter) {
+        if (rawFilter == null || rawFilter.isEmpty()) {
+            return NodeMatcher.ANY;
+        }
+        if (!isConditional(rawFilter)) {
+            return NodeMatcher.exact(parse(rawFilter));
+        }
+        if (rawFilter.get(CoreSchema.VALUE_FIELD) != null) {
+            throw new IllegalArgumentException("A node filter cannot specify both a value and gt, lt or prefix");
+        }
+        Object rawKind = rawFilter.get(CoreSchema.KIND_FIELD);
+        if (rawKind == null) {
+            throw new IllegalArgumentException("A node filter must specify the kind field");
+        }
+        NodeKind kind = NodeKind.valueOf(rawKind.toString());
+        String datatype = (String) rawFilter.get(CoreSchema.DATATYPE_FIELD);
+        String language = (String) rawFilter.get(CoreSchema.LANGUAGE_FIELD);
+        String prefix = (String) rawFilter.get(CoreSchema.PREFIX_FIELD);
+        String gt = (String) rawFilter.get(CoreSchema.GT_FIELD);
+        String lt = (String) rawFilter.get(CoreSchema.LT_FIELD);
+
+        if (!CONDITIONAL_KINDS.contains(kind)) {
+            throw new IllegalArgumentException(
+                    "Range, prefix and language filters are not supported for nodes of kind " + kind);
+        }
+        if (language != null && kind != NodeKind.LANGUAGE_LITERAL) {
+            throw new IllegalArgumentException("A language filter may only be used with kind LANGUAGE_LITERAL");
+        }
+        if (datatype != null && kind == NodeKind.URI) {
+            throw new IllegalArgumentException("A datatype filter cannot be used with kind URI");
+        }
+        NodeValue lowerBound = null, upperBound = null;
+        if (gt != null || lt != null) {
+            if (kind != NodeKind.TYPED_LITERAL) {
+                throw new IllegalArgumentException("Range filters may only be used with kind TYPED_LITERAL");
+            }
+            if (StringUtils.isBlank(datatype)) {
+                throw new IllegalArgumentException("Range filters require that the datatype is specified");
+            }
+            RDFDatatype rdfDatatype = TypeMapper.getInstance().getSafeTypeByName(datatype);
+            lowerBound = parseBound(gt, rdfDatatype, CoreSchema.GT_FIELD);
+            upperBound = parseBound(lt, rdfDatatype, CoreSchema.LT_FIELD);
+        }
+        return new NodeMatcher(Node.ANY, kind, datatype, language, prefix, lowerBound, upperBound);
+    }
+
+    private static NodeValue parseBound(String bound, RDFDatatype datatype, String field) {
+        if (bound == null) {
+            return null;
+        }
+        if (!datatype.isValid(bound)) {
+            throw new IllegalArgumentException(
+                    "The " + field + " value '" + bound + "' is not a valid value for datatype " + datatype.getURI());
+        }
+        return NodeValue.makeNode(NodeFactory.createLiteralDT(bound, datatype));
+    }
+
+    /**
+     * Determines whether a raw node filter is a conditional filter
+     *
+     * @param rawFilter Raw filter
+     * @return True if conditional, false otherwise
+     */
+    private static boolean isConditional(Map<String, Object> rawFilter) {
+        return rawFilter.get(CoreSchema.GT_FIELD) != null || rawFilter.get(CoreSchema.LT_FIELD) != null
+               || rawFilter.get(CoreSchema.PREFIX_FIELD) != null || (rawFilter.get(CoreSchema.LANGUAGE_FIELD) != null
+                                                                     && rawFilter.get(CoreSchema.VALUE_FIELD) == null);
+    }
+
+    /**
+     * Parses a quad pattern i.e. a map that may contain node filters for each of the subject, predicate, object and
+     * graph fields of a quad
+     *
+     * @param rawPattern Raw pattern object
+     * @return Quad pattern, any field that was not supplied will be {@link Node#ANY}
+     */
+    @SuppressWarnings("unchecked")
+    public static Quad parsePattern(Map<String, Object> rawPattern) {
+        if (rawPattern == null || rawPattern.isEmpty()) {
+            return Quad.ANY;
+        }
+        //@formatter:off
+        return Quad.create(parse((Map<String, Object>) rawPattern.get(CoreSchema.GRAPH_FIELD)),
+                           parse((Map<String, Object>) rawPattern.get(CoreSchema.SUBJECT_FIELD)),
+                           parse((Map<String, Object>) rawPattern.get(CoreSchema.PREDICATE_FIELD)),
+                           parse((Map<String, Object>) rawPattern.get(CoreSchema.OBJECT_FIELD)));
+        //@formatter:on
+    }
+
+    /**
+     * Parses a quad pattern into a quad matcher, this differs from {@link #parsePattern(Map)} in that conditional node
+     * filters are permitted, see {@link #parseMatcher(Map)}
+     *
+     * @param rawPattern Raw pattern object
+     * @return Quad matcher
+     */
+    @SuppressWarnings("unchecked")
+    public static QuadMatcher parsePatternMatcher(Map<String, Object> rawPattern) {
+        if (rawPattern == null || rawPattern.isEmpty()) {
+            return QuadMatcher.ANY;
+        }
+        //@formatter:off
+        return new QuadMatcher(parseMatcher((Map<String, Object>) rawPattern.get(CoreSchema.GRAPH_FIELD)),
+                               parseMatcher((Map<String, Object>) rawPattern.get(CoreSchema.SUBJECT_FIELD)),
+                               parseMatcher((Map<String, Object>) rawPattern.get(CoreSchema.PREDICATE_FIELD)),
+                               parseMatcher((Map<String, Object>) rawPattern.get(CoreSchema.OBJECT_FIELD)));
+        //@formatter:on
+    }
+
     /**
      * Makes a Node filter from the given Node
      *
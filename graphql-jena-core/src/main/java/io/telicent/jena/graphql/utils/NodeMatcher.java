@@ -0,0 +1,252 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import io.telicent.jena.graphql.schemas.models.NodeKind;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.expr.ExprEvalException;
+import org.apache.jena.sparql.expr.NodeValue;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * A matcher for nodes, this is either an exact match against a specific node (or {@link Node#ANY}) or a conditional
+ * match that applies range, prefix and/or language conditions to nodes of a given kind
+ * <p>
+ * Instances are created via {@link NodeFilter#parseMatcher(java.util.Map)}.
+ * </p>
+ */
+public final class NodeMatcher implements Predicate<Node> {
+
+    /**
+     * A matcher that matches any node
+     */
+    public static final NodeMatcher ANY = new NodeMatcher(Node.ANY, null, null, null, null, null, null);
+
+    private final Node node;
+    private final NodeKind kind;
+    private final String datatype, language, prefix;
+    private final NodeValue lowerBound, upperBound;
+
+    /**
+     * Creates a new matcher
+     *
+     * @param node       Node, {@link Node#ANY} for a conditional matcher
+     * @param kind       Node kind, {@code null} for an exact matcher
+     * @param datatype   Datatype URI that literals must have, may be {@code null}
+     * @param language   Language tag that literals must match, may be {@code null}
+     * @param prefix     Prefix that URIs/literal lexical forms must start with, may be {@code null}
+     * @param lowerBound Exclusive lower bound on literal values, may be {@code null}
+     * @param upperBound Exclusive upper bound on literal values, may be {@code null}
+     */
+    NodeMatcher(Node node, NodeKind kind, String datatype, String language, String prefix, NodeValue lowerBound,
+                NodeValue upperBound) {
+        this.node = Objects.requireNonNull(node, "Node cannot be null");
+        this.kind = kind;
+        this.datatype = datatype;
+        this.language = language != null ? language.toLowerCase(Locale.ROOT) : null;
+        this.prefix = prefix;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * Creates a matcher that exactly matches the given node
+     *
+     * @param n Node, {@link Node#ANY} matches any node
+     * @return Exact matcher
+     */
+    public static NodeMatcher exact(Node n) {
+        if (n == null || Node.ANY.equals(n)) {
+            return ANY;
+        }
+        return new NodeMatcher(n, null, null, null, null, null, null);
+    }
+
+    /**
+     * Gets the node that may be used to find candidate quads, this is {@link Node#ANY} for conditional matchers
+     *
+     * @return Node
+     */
+    public Node getNode() {
+        return this.node;
+    }
+
+    /**
+     * Gets whether this matcher applies conditions, if {@code false} then {@link #getNode()} fully describes this
+     * matcher
+     *
+     * @return True if conditional, false otherwise
+     */
+    public boolean hasConditions() {
+        return this.kind != null;
+    }
+
+    /**
+     * Gets the kind of node this matcher matches, only applicable to conditional matchers
+     *
+     * @return Node kind, or {@code null} for an exact matcher
+     */
+    public NodeKind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Gets the datatype literals must have, if any
+     *
+     * @return Datatype URI, or {@code null} if no datatype condition
+     */
+    public String getDatatype() {
+        return this.datatype;
+    }
+
+    /**
+     * Gets the language tag that literals must match, if any, this is normalised to lower case
+     *
+     * @return Language tag, or {@code null} if no language condition
+     */
+    public String getLanguage() {
+        return this.language;
+    }
+
+    /**
+     * Gets the prefix that URIs, or the lexical forms of literals, must start with, if any
+     *
+     * @return Prefix, or {@code null} if no prefix condition
+     */
+    public String getPrefix() {
+        return this.prefix;
+    }
+
+    /**
+     * Gets the exclusive lower bound on literal values, if any
+     *
+     * @return Lower bound, or {@code null} if no lower bound
+     */
+    public NodeValue getLowerBound() {
+        return this.lowerBound;
+    }
+
+    /**
+     * Gets the exclusive upper bound on literal values, if any
+     *
+     * @return Upper bound, or {@code null} if no upper bound
+     */
+    public NodeValue getUpperBound() {
+        return this.upperBound;
+    }
+
+    @Override
+    public boolean test(Node n) {
+        if (n == null) {
+            return false;
+        }
+        if (!hasConditions()) {
+            return Node.ANY.equals(this.node) || this.node.equals(n);
+        }
+        return switch (this.kind) {
+            case URI -> n.isURI() && matchesPrefix(n.getURI());
+            case PLAIN_LITERAL, LANGUAGE_LITERAL, TYPED_LITERAL -> n.isLiteral() && matchesLiteral(n);
+            default -> false;
+        };
+    }
+
+    private boolean matchesLiteral(Node n) {
+        boolean hasLanguage = StringUtils.isNotEmpty(n.getLiteralLanguage());
+        switch (this.kind) {
+            case LANGUAGE_LITERAL:
+                if (!hasLanguage || !matchesLanguage(n.getLiteralLanguage())) {
+                    return false;
+                }
+                break;
+            case PLAIN_LITERAL:
+                if (hasLanguage || !XSDDatatype.XSDstring.getURI().equals(n.getLiteralDatatypeURI())) {
+                    return false;
+                }
+                break;
+            default:
+                if (hasLanguage) {
+                    return false;
+                }
+                break;
+        }
+        if (this.datatype != null && !this.datatype.equals(n.getLiteralDatatypeURI())) {
+            return false;
+        }
+        return matchesPrefix(n.getLiteralLexicalForm()) && matchesRange(n);
+    }
+
+    private boolean matchesPrefix(String value) {
+        return this.prefix == null || value.startsWith(this.prefix);
+    }
+
+    /**
+     * Checks whether a language tag matches the language condition, a tag matches if it is equal to the condition or
+     * is a sub-tag of it e.g. {@code en-GB} matches a condition of {@code en}
+     *
+     * @param tag Language tag
+     * @return True if matches, false otherwise
+     */
+    private boolean matchesLanguage(String tag) {
+        if (this.language == null) {
+            return true;
+        }
+        String normalised = tag.toLowerCase(Locale.ROOT);
+        return normalised.equals(this.language) || normalised.startsWith(this.language + "-");
+    }
+
+    private boolean matchesRange(Node n) {
+        if (this.lowerBound == null && this.upperBound == null) {
+            return true;
+        }
+        try {
+            NodeValue value = NodeValue.makeNode(n);
+            if (this.lowerBound != null && NodeValue.compare(value, this.lowerBound) <= 0) {
+                return false;
+            }
+            return this.upperBound == null || NodeValue.compare(value, this.upperBound) < 0;
+        } catch (ExprEvalException e) {
+            // Ill-formed or incomparable values never match a range
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (!hasConditions()) {
+            return this.node.toString();
+        }
+        StringBuilder builder = new StringBuilder();
+        builder.append(this.kind);
+        if (this.datatype != null) {
+            builder.append(" datatype=").append(this.datatype);
+        }
+        if (this.language != null) {
+            builder.append(" language=").append(this.language);
+        }
+        if (this.prefix != null) {
+            builder.append(" prefix=").append(this.prefix);
+        }
+        if (this.lowerBound != null) {
+            builder.append(" gt=").append(this.lowerBound);
+        }
+        if (this.upperBound != null) {
+            builder.append(" lt=").append(this.upperBound);
+        }
+        return builder.toString();
+    }
+}
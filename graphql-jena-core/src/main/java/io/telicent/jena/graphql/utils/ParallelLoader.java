@@ -0,0 +1,415 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RDFParserBuilder;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.lang.LabelToNode;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A loader that parses RDF files on multiple threads and loads them into a dataset within a single write transaction
+ * <p>
+ * Line based formats, i.e. N-Quads and N-Triples, are split into chunks of roughly {@link #getChunkSize()} bytes on
+ * line boundaries and each chunk is parsed independently, other formats are parsed a whole file at a time, so loading
+ * several files also proceeds in parallel.  Blank node labels remain scoped to the file they appear in, so a label
+ * that appears in several chunks of the same file denotes the same blank node.
+ * </p>
+ * <p>
+ * Parser threads encode the terms they produce against a shared dictionary so that every occurrence of a term in the
+ * loaded data is the same {@link Node} instance, reducing the memory the loaded dataset occupies, and pass the quads
+ * in batches to the calling thread.  The calling thread adds them to the dataset within a single write transaction,
+ * avoiding the cost of a transaction per quad that parsing directly into a transactional dataset outside of a
+ * transaction incurs.  If parsing any file fails then the transaction is aborted so the dataset is left unchanged.
+ * </p>
+ * <p>
+ * A loader instance may only be used for one load at a time, while a load is in progress {@link #getQuadsRead()} and
+ * {@link #getQuadsPerSecond()} report its progress.
+ * </p>
+ */
+public final class ParallelLoader {
+
+    /**
+     * Default size in bytes of the chunks that line based formats are split into
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int BOUNDARY_SCAN_SIZE = 64 * 1024;
+    private static final List<Quad> END = List.of();
+
+    private final int threads, chunkSize;
+    private final AtomicLong quadsRead = new AtomicLong();
+    private volatile long started, finished;
+
+    /**
+     * Creates a new loader that uses a parser thread per available processor
+     */
+    public ParallelLoader() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new loader
+     *
+     * @param threads   Number of parser threads
+     * @param chunkSize Size in bytes of the chunks that line based formats are split into
+     */
+    public ParallelLoader(int threads, int chunkSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1");
+        }
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Gets the number of parser threads
+     *
+     * @return Parser threads
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * Gets the size in bytes of the chunks that line based formats are split into
+     *
+     * @return Chunk size
+     */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * Gets the number of quads read by the current, or most recent, load
+     * <p>
+     * This includes any quads that were duplicates of quads already in the dataset.
+     * </p>
+     *
+     * @return Quads read
+     */
+    public long getQuadsRead() {
+        return this.quadsRead.get();
+    }
+
+    /**
+     * Gets the throughput of the current, or most recent, load
+     *
+     * @return Quads read per second, {@code 0} if no load has started
+     */
+    public double getQuadsPerSecond() {
+        long start = this.started;
+        if (start == 0) {
+            return 0;
+        }
+        long end = this.finished != 0 ? this.finished : System.nanoTime();
+        return this.quadsRead.get() / (Math.max(end - start, 1) / 1_000_000_000d);
+    }
+
+    /**
+     * Loads the given RDF files into a dataset
+     * <p>
+     * The language of each file is determined from its file extension, as for {@link RDFParserBuilder#source(Path)}.
+     * </p>
+     *
+     * @param dsg     Dataset to load into, this must not be in a transaction on the calling thread
+     * @param sources RDF files to load
+     * @return Number of quads read
+     * @throws IOException          Thrown if a file cannot be read
+     * @throws InterruptedException Thrown if the calling thread is interrupted while loading, in which case the load is
+     *                              abandoned
+     */
+    public long load(DatasetGraph dsg, List<Path> sources) throws IOException, InterruptedException {
+        Objects.requireNonNull(dsg, "Dataset Graph cannot be null");
+        Objects.requireNonNull(sources, "Sources cannot be null");
+        List<Callable<Void>> tasks = new ArrayList<>();
+        BlockingQueue<List<Quad>> batches = new ArrayBlockingQueue<>(this.threads * 4);
+        Map<Node, Node> dictionary = new ConcurrentHashMap<>();
+        Map<String, String> prefixes = new ConcurrentHashMap<>();
+        for (Path source : sources) {
+            tasks.addAll(prepare(source, batches, dictionary, prefixes));
+        }
+
+        this.quadsRead.set(0);
+        this.finished = 0;
+        this.started = System.nanoTime();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService parsers = Executors.newFixedThreadPool(this.threads, Thread.ofPlatform()
+                                                                                  .name("graphql-loader-", 0)
+                                                                                  .daemon()
+                                                                                  .factory());
+        dsg.begin(ReadWrite.WRITE);
+        try {
+            for (Callable<Void> task : tasks) {
+                parsers.submit(() -> {
+                    try {
+                        task.call();
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        batches.put(END);
+                    }
+                    return null;
+                });
+            }
+
+            int remaining = tasks.size();
+            while (remaining > 0 && failure.get() == null) {
+                List<Quad> batch = batches.take();
+                if (batch == END) {
+                    remaining--;
+                    continue;
+                }
+                for (Quad quad : batch) {
+                    dsg.add(quad);
+                }
+                this.quadsRead.addAndGet(batch.size());
+            }
+            rethrow(failure.get());
+            prefixes.forEach((prefix, namespace) -> dsg.prefixes().add(prefix, namespace));
+            dsg.commit();
+            return this.quadsRead.get();
+        } finally {
+            if (dsg.isInTransaction()) {
+                dsg.abort();
+            }
+            dsg.end();
+            parsers.shutdownNow();
+            this.finished = System.nanoTime();
+        }
+    }
+
+    private static void rethrow(Throwable failure) throws IOException {
+        if (failure == null) {
+            return;
+        }
+        if (failure instanceof IOException e) {
+            throw e;
+        } else if (failure instanceof UncheckedIOException e) {
+            throw e.getCause();
+        } else if (failure instanceof RuntimeException e) {
+            throw e;
+        } else if (failure instanceof Error e) {
+            throw e;
+        }
+        throw new IOException(failure);
+    }
+
+    /**
+     * Prepares the parsing tasks for a file
+     *
+     * @param source     File
+     * @param batches    Queue to which batches of parsed quads are passed
+     * @param dictionary Shared term dictionary
+     * @param prefixes   Shared prefixes
+     * @return Parsing tasks
+     * @throws IOException Thrown if the file cannot be read
+     */
+    private List<Callable<Void>> prepare(Path source, BlockingQueue<List<Quad>> batches, Map<Node, Node> dictionary,
+                                         Map<String, String> prefixes) throws IOException {
+        Lang lang = RDFLanguages.filenameToLang(source.toString());
+        if (lang == null) {
+            throw new IOException("Unable to determine the RDF language of file " + source);
+        }
+        long size = Files.size(source);
+        if (!isLineBased(source, lang) || size <= this.chunkSize) {
+            return List.of(() -> {
+                try {
+                    RDFParserBuilder.create()
+                                    .source(source)
+                                    .parse(new BatchingStream(batches, dictionary, prefixes));
+                } catch (RiotException e) {
+                    throw new IOException("Failed to parse file " + source + ": " + e.getMessage(), e);
+                }
+                return null;
+            });
+        }
+
+        // Blank node labels are file scoped, so every chunk of a file allocates blank nodes from the same seed
+        UUID labels = UUID.randomUUID();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long start = 0;
+            while (start < size) {
+                long end = nextLineStart(channel, Math.min(start + this.chunkSize, size), size);
+                long chunkStart = start;
+                int length = Math.toIntExact(end - start);
+                tasks.add(() -> {
+                    byte[] chunk = new byte[length];
+                    try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ)) {
+                        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+                        while (buffer.hasRemaining()) {
+                            if (input.read(buffer, chunkStart + buffer.position()) < 0) {
+                                throw new IOException("File " + source + " was truncated while loading");
+                            }
+                        }
+                    }
+                    try {
+                        RDFParserBuilder.create()
+                                        .source(new ByteArrayInputStream(chunk))
+                                        .lang(lang)
+                                        .labelToNode(LabelToNode.createScopeByDocumentHash(labels))
+                                        .parse(new BatchingStream(batches, dictionary, prefixes));
+                    } catch (RiotException e) {
+                        // Line numbers reported by the parser are relative to the start of the chunk
+                        throw new IOException(
+                                "Failed to parse file " + source + " in the chunk starting at byte " + chunkStart +
+                                ": " + e.getMessage(), e);
+                    }
+                    return null;
+                });
+                start = end;
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Determines whether a file is in a line based format that can be split into chunks, compressed files can't be
+     *
+     * @param source File
+     * @param lang   Language
+     * @return True if line based
+     */
+    private static boolean isLineBased(Path source, Lang lang) {
+        if (!Lang.NQUADS.equals(lang) && !Lang.NTRIPLES.equals(lang)) {
+            return false;
+        }
+        String filename = source.getFileName().toString();
+        int extension = filename.lastIndexOf('.');
+        return extension >= 0 && lang.equals(RDFLanguages.fileExtToLang(filename.substring(extension + 1)));
+    }
+
+    /**
+     * Finds the offset of the start of the first line that starts at, or after, the given offset
+     *
+     * @param channel File channel
+     * @param offset  Offset
+     * @param size    File size
+     * @return Offset of the start of the line, or the file size if there are no further lines
+     * @throws IOException Thrown if the file cannot be read
+     */
+    private static long nextLineStart(FileChannel channel, long offset, long size) throws IOException {
+        if (offset >= size) {
+            return size;
+        }
+        // Start from the preceding byte so that an offset which is already the start of a line is returned as-is
+        long position = offset - 1;
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * A stream that encodes terms against the shared dictionary and passes quads on in batches
+     */
+    private static final class BatchingStream extends StreamRDFBase {
+        private final BlockingQueue<List<Quad>> batches;
+        private final Map<Node, Node> dictionary;
+        private final Map<String, String> prefixes;
+        private List<Quad> batch = new ArrayList<>(BATCH_SIZE);
+
+        private BatchingStream(BlockingQueue<List<Quad>> batches, Map<Node, Node> dictionary,
+                               Map<String, String> prefixes) {
+            this.batches = batches;
+            this.dictionary = dictionary;
+            this.prefixes = prefixes;
+        }
+
+        private Node encode(Node node) {
+            Node existing = this.dictionary.putIfAbsent(node, node);
+            return existing != null ? existing : node;
+        }
+
+        @Override
+        public void triple(Triple triple) {
+            add(Quad.defaultGraphIRI, triple.getSubject(), triple.getPredicate(), triple.getObject());
+        }
+
+        @Override
+        public void quad(Quad quad) {
+            add(quad.getGraph(), quad.getSubject(), quad.getPredicate(), quad.getObject());
+        }
+
+        private void add(Node g, Node s, Node p, Node o) {
+            this.batch.add(Quad.create(g == null || Quad.isDefaultGraph(g) ? Quad.defaultGraphIRI : encode(g),
+                                       encode(s), encode(p), encode(o)));
+            if (this.batch.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void prefix(String prefix, String iri) {
+            this.prefixes.put(prefix, iri);
+        }
+
+        @Override
+        public void finish() {
+            flush();
+        }
+
+        private void flush() {
+            if (this.batch.isEmpty()) {
+                return;
+            }
+            try {
+                this.batches.put(this.batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Load was abandoned");
+            }
+            this.batch = new ArrayList<>(BATCH_SIZE);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.riot.system.PrefixMap;
+import org.apache.jena.riot.system.PrefixMapFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sparql.util.Symbol;
+import org.apache.jena.system.Txn;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A shared service for abbreviating URIs using a set of prefixes
+ * <p>
+ * {@link PrefixMap#abbreviate(String)} scans every prefix for each URI it abbreviates.  Results typically contain the
+ * same handful of predicates and types many times over so this instead finds candidate namespaces via a trie over the
+ * namespace URIs, and memoizes the results in a bounded memo.  An abbreviator is a point in time snapshot of the
+ * prefixes it was built from, {@link #forDataset(DatasetGraph)} shares a single abbreviator between all callers for a
+ * dataset, attaching it to the datasets {@link Context}, and rebuilds it whenever the datasets prefixes have changed.
+ * </p>
+ * <p>
+ * Where several namespaces match a URI the longest namespace that produces a valid prefixed name is used.
+ * </p>
+ */
+public final class PrefixAbbreviator {
+
+    /**
+     * Context symbol used to attach a shared abbreviator to a dataset
+     */
+    public static final Symbol SYMBOL = Symbol.create("graphql:prefixAbbreviator");
+
+    /**
+     * Maximum number of results memoized, once reached the memo is cleared so it repopulates with the URIs currently
+     * being abbreviated
+     */
+    public static final int MAX_MEMO_SIZE = 16_384;
+
+    /**
+     * Memo value used to record that a URI has no abbreviation, a real abbreviation is never empty
+     */
+    private static final String NONE = "";
+
+    private final Map<String, String> namespaces;
+    private final TrieNode root = new TrieNode();
+    private final Map<String, String> memo = new ConcurrentHashMap<>();
+
+    private PrefixAbbreviator(Map<String, String> mapping) {
+        this.namespaces = Map.copyOf(mapping);
+        // Where several prefixes share a namespace use the first lexically so that abbreviations are deterministic
+        for (Map.Entry<String, String> entry : new TreeMap<>(this.namespaces).entrySet()) {
+            TrieNode node = this.root;
+            String namespace = entry.getValue();
+            for (int i = 0; i < namespace.length(); i++) {
+                node = node.child(namespace.charAt(i), true);
+            }
+            if (node.prefixes == null) {
+                node.prefixes = PrefixMapFactory.create(Map.of(entry.getKey(), namespace));
+            }
+        }
+    }
+
+    /**
+     * Creates a new abbreviator from a snapshot of the given prefixes
+     *
+     * @param prefixes Prefixes
+     * @return Abbreviator
+     */
+    public static PrefixAbbreviator of(PrefixMap prefixes) {
+        Objects.requireNonNull(prefixes, "Prefixes cannot be null");
+        return new PrefixAbbreviator(prefixes.getMapping());
+    }
+
+    /**
+     * Gets the shared abbreviator for the prefixes of the given dataset, building a new one if none is attached or the
+     * prefixes have changed since the attached one was built
+     *
+     * @param dsg Dataset Graph
+     * @return Abbreviator
+     */
+    public static PrefixAbbreviator forDataset(DatasetGraph dsg) {
+        Objects.requireNonNull(dsg, "Dataset Graph cannot be null");
+        Map<String, String> mapping = Txn.calculateRead(dsg, () -> Map.copyOf(dsg.prefixes().getMapping()));
+        Context context = dsg.getContext();
+        if (context != null && context.get(SYMBOL) instanceof PrefixAbbreviator existing && existing.namespaces.equals(
+                mapping)) {
+            return existing;
+        }
+        PrefixAbbreviator abbreviator = new PrefixAbbreviator(mapping);
+        if (context != null) {
+            context.set(SYMBOL, abbreviator);
+        }
+        return abbreviator;
+    }
+
+    /**
+     * Abbreviates a URI
+     *
+     * @param uri URI
+     * @return Abbreviated URI i.e. a prefixed name, or {@code null} if no prefix can abbreviate the URI
+     */
+    public String abbreviate(String uri) {
+        String abbreviation = this.memo.get(uri);
+        if (abbreviation == null) {
+            abbreviation = lookup(uri);
+            if (this.memo.size() >= MAX_MEMO_SIZE) {
+                this.memo.clear();
+            }
+            this.memo.put(uri, abbreviation != null ? abbreviation : NONE);
+            return abbreviation;
+        }
+        return abbreviation == NONE ? null : abbreviation;
+    }
+
+    /**
+     * Gets the number of namespaces known to this abbreviator
+     *
+     * @return Number of namespaces
+     */
+    public int size() {
+        return this.namespaces.size();
+    }
+
+    private String lookup(String uri) {
+        // Walk the trie collecting every namespace that is a prefix of the URI, then try them longest first
+        List<PrefixMap> candidates = null;
+        TrieNode node = this.root;
+        for (int i = 0; i < uri.length() && node != null; i++) {
+            node = node.child(uri.charAt(i), false);
+            if (node != null && node.prefixes != null) {
+                if (candidates == null) {
+                    candidates = new ArrayList<>(2);
+                }
+                candidates.add(node.prefixes);
+            }
+        }
+        if (candidates == null) {
+            return null;
+        }
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            // The single namespace prefix map checks that the remainder of the URI is a valid local name
+            String abbreviation = candidates.get(i).abbreviate(uri);
+            if (abbreviation != null) {
+                return abbreviation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A node within the namespace trie, children are kept in arrays sorted by character
+     */
+    private static final class TrieNode {
+        private char[] keys = new char[0];
+        private TrieNode[] children = new TrieNode[0];
+        private PrefixMap prefixes;
+
+        private TrieNode child(char c, boolean create) {
+            int index = Arrays.binarySearch(this.keys, c);
+            if (index >= 0) {
+                return this.children[index];
+            } else if (!create) {
+                return null;
+            }
+            int insertAt = -index - 1;
+            char[] keys = new char[this.keys.length + 1];
+            TrieNode[] children = new TrieNode[this.children.length + 1];
+            System.arraycopy(this.keys, 0, keys, 0, insertAt);
+            System.arraycopy(this.children, 0, children, 0, insertAt);
+            System.arraycopy(this.keys, insertAt, keys, insertAt + 1, this.keys.length - insertAt);
+            System.arraycopy(this.children, insertAt, children, insertAt + 1, this.children.length - insertAt);
+            keys[insertAt] = c;
+            children[insertAt] = new TrieNode();
+            this.keys = keys;
+            this.children = children;
+            return children[insertAt];
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A matcher for quads composed of a {@link NodeMatcher} for each field of the quad
+ * <p>
+ * When none of the node matchers are conditional this is equivalent to a simple quad pattern.  Otherwise the quads
+ * matching the exact portion of the pattern are found and then filtered by the conditional node matchers.  If the
+ * dataset has a {@link SortedNodeIndex} attached then that is used to find the candidate nodes for the most selective
+ * conditional node matcher, avoiding a full scan of the quads.
+ * </p>
+ */
+public final class QuadMatcher implements Predicate<Quad> {
+
+    /**
+     * A matcher that matches any quad
+     */
+    public static final QuadMatcher ANY =
+            new QuadMatcher(NodeMatcher.ANY, NodeMatcher.ANY, NodeMatcher.ANY, NodeMatcher.ANY);
+
+    private static final int GRAPH = 0, SUBJECT = 1, PREDICATE = 2, OBJECT = 3;
+
+    private final NodeMatcher[] matchers;
+
+    /**
+     * Creates a new quad matcher
+     *
+     * @param graph     Graph matcher
+     * @param subject   Subject matcher
+     * @param predicate Predicate matcher
+     * @param object    Object matcher
+     */
+    public QuadMatcher(NodeMatcher graph, NodeMatcher subject, NodeMatcher predicate, NodeMatcher object) {
+        this.matchers = new NodeMatcher[] {
+                Objects.requireNonNull(graph, "Graph matcher cannot be null"),
+                Objects.requireNonNull(subject, "Subject matcher cannot be null"),
+                Objects.requireNonNull(predicate, "Predicate matcher cannot be null"),
+                Objects.requireNonNull(object, "Object matcher cannot be null")
+        };
+    }
+
+    /**
+     * Gets the graph matcher
+     *
+     * @return Graph matcher
+     */
+    public NodeMatcher getGraph() {
+        return this.matchers[GRAPH];
+    }
+
+    /**
+     * Gets the subject matcher
+     *
+     * @return Subject matcher
+     */
+    public NodeMatcher getSubject() {
+        return this.matchers[SUBJECT];
+    }
+
+    /**
+     * Gets the predicate matcher
+     *
+     * @return Predicate matcher
+     */
+    public NodeMatcher getPredicate() {
+        return this.matchers[PREDICATE];
+    }
+
+    /**
+     * Gets the object matcher
+     *
+     * @return Object matcher
+     */
+    public NodeMatcher getObject() {
+        return this.matchers[OBJECT];
+    }
+
+    /**
+     * Gets whether any of the node matchers are conditional
+     *
+     * @return True if conditional, false otherwise
+     */
+    public boolean hasConditions() {
+        for (NodeMatcher matcher : this.matchers) {
+            if (matcher.hasConditions()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the simple quad pattern for this matcher, conditional node matchers are represented as {@link Node#ANY}
+     *
+     * @return Quad pattern
+     */
+    public Quad asPattern() {
+        return Quad.create(getGraph().getNode(), getSubject().getNode(), getPredicate().getNode(),
+                           getObject().getNode());
+    }
+
+    @Override
+    public boolean test(Quad quad) {
+        return getGraph().test(quad.getGraph()) && getSubject().test(quad.getSubject()) && getPredicate().test(
+                quad.getPredicate()) && getObject().test(quad.getObject());
+    }
+
+    /**
+     * Streams the quads from the dataset that match this matcher
+     * <p>
+     * The caller is responsible for closing the returned stream and should do so within a read transaction.
+     * </p>
+     *
+     * @param dsg Dataset Graph
+     * @return Stream of matching quads
+     */
+    public Stream<Quad> stream(DatasetGraph dsg) {
+        Quad pattern = asPattern();
+        if (!hasConditions()) {
+            return stream(dsg, pattern);
+        }
+
+        SortedNodeIndex index = SortedNodeIndex.get(dsg);
+        if (index != null) {
+            int position = -1;
+            List<Node> candidates = null;
+            for (int i = 0; i < this.matchers.length; i++) {
+                if (!this.matchers[i].hasConditions()) {
+                    continue;
+                }
+                List<Node> nodes = index.candidates(this.matchers[i]);
+                if (nodes != null && (candidates == null || nodes.size() < candidates.size())) {
+                    candidates = nodes;
+                    position = i;
+                }
+            }
+            if (candidates != null) {
+                final int selected = position;
+                return candidates.stream().flatMap(n -> stream(dsg, substitute(pattern, selected, n))).filter(this);
+            }
+        }
+        return stream(dsg, pattern).filter(this);
+    }
+
+    private static Stream<Quad> stream(DatasetGraph dsg, Quad pattern) {
+        return dsg.stream(pattern.getGraph(), pattern.getSubject(), pattern.getPredicate(), pattern.getObject());
+    }
+
+    private static Quad substitute(Quad pattern, int position, Node n) {
+        return switch (position) {
+            case GRAPH -> Quad.create(n, pattern.getSubject(), pattern.getPredicate(), pattern.getObject());
+            case SUBJECT -> Quad.create(pattern.getGraph(), n, pattern.getPredicate(), pattern.getObject());
+            case PREDICATE -> Quad.create(pattern.getGraph(), pattern.getSubject(), n, pattern.getObject());
+            default -> Quad.create(pattern.getGraph(), pattern.getSubject(), pattern.getPredicate(), n);
+        };
+    }
+}
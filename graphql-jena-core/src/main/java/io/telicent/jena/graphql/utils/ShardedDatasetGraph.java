@@ -0,0 +1,602 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.iterator.IteratorCloseable;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.query.TxnType;
+import org.apache.jena.riot.system.PrefixMap;
+import org.apache.jena.shared.JenaException;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphBase;
+import org.apache.jena.sparql.core.GraphView;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.Txn;
+
+import java.lang.ref.Cleaner;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A {@link DatasetGraph} that presents several shard datasets, e.g. separate TDB2 databases, as a single dataset
+ * <p>
+ * Each quad belongs to exactly one shard, chosen by hashing either its graph or its subject depending on the
+ * {@link Partitioning}.  The hash is a {@link Hash128} of the node's lexical form, so quads are routed to the same
+ * shard by any JVM and release.  Updates are routed to the owning shard, as are finds whose pattern has a concrete
+ * partition key.  Any other find is scattered across all the shards, which are scanned in parallel, and their results
+ * gathered in shard order.  Since shards are disjoint the gathered quads contain no duplicates, except for finds over
+ * the union graph of a dataset partitioned by graph, where the same triple may appear in several shards and is made
+ * distinct.  Results are returned in a consistent order for unchanged data, so paging over them behaves exactly as it
+ * does over a single dataset, and because this is itself a {@link DatasetGraph} any executor and fetcher may be used
+ * over it.
+ * </p>
+ * <p>
+ * Each shard is scanned on a separate thread, up to a bounded number of quads ahead of the consumer, so while the
+ * consumer reads one shard's results the later shards are already being scanned.  Scans are stopped when the returned
+ * iterator is closed, or becomes unreachable, so abandoning iteration part way through, e.g. when a page is filled,
+ * doesn't leave scans running.  Finds made within a write transaction scan the shards sequentially on the calling
+ * thread so that they see the transaction's uncommitted changes.
+ * </p>
+ * <p>
+ * Since transactions are bound to the thread that began them, each parallel scan, and each parallel count, runs within
+ * its own read transaction on its shard rather than the caller's.  Reads that span shards are therefore
+ * <strong>not</strong> a consistent snapshot across shards, a write committed while a find is in progress may be seen
+ * by some shards and not others, although the results from each shard are consistent.  Callers that require a
+ * consistent view across shards <strong>MUST</strong> ensure that no writes are committed while they are reading.
+ * </p>
+ * <p>
+ * Transactions are begun, committed and aborted on every shard in turn, so commits are not atomic across shards.
+ * Prefixes are held by the first shard.
+ * </p>
+ */
+public final class ShardedDatasetGraph extends DatasetGraphBase {
+
+    /**
+     * How quads are partitioned across the shards
+     */
+    public enum Partitioning {
+        /**
+         * Quads are partitioned by their graph, so every quad of a graph is held by the same shard
+         */
+        GRAPH,
+        /**
+         * Quads are partitioned by their subject, so every quad about a subject, in any graph, is held by the same
+         * shard
+         */
+        SUBJECT
+    }
+
+    /**
+     * Number of quads passed from a shard scan to the consumer at a time
+     */
+    static final int BATCH_SIZE = 1_024;
+    /**
+     * Number of batches a shard scan may run ahead of the consumer
+     */
+    static final int MAX_BATCHES_AHEAD = 8;
+    private static final long OFFER_WAIT_MILLIS = 100;
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final Executor DEFAULT_EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("graphql-shard-scan-", 0).factory());
+
+    private final Partitioning partitioning;
+    private final List<DatasetGraph> shards;
+    private final Executor executor;
+
+    /**
+     * Creates a new sharded dataset whose shards are scanned on virtual threads
+     *
+     * @param partitioning How quads are partitioned across the shards
+     * @param shards       Shards, the same shards <strong>MUST</strong> be given in the same order each time a sharded
+     *                     dataset is created over persistent shards otherwise quads won't be found in their shards
+     */
+    public ShardedDatasetGraph(Partitioning partitioning, List<DatasetGraph> shards) {
+        this(partitioning, shards, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Creates a new sharded dataset
+     *
+     * @param partitioning How quads are partitioned across the shards
+     * @param shards       Shards, the same shards <strong>MUST</strong> be given in the same order each time a sharded
+     *                     dataset is created over persistent shards otherwise quads won't be found in their shards
+     * @param executor     Executor on which shards are scanned in parallel
+     */
+    public ShardedDatasetGraph(Partitioning partitioning, List<DatasetGraph> shards, Executor executor) {
+        this.partitioning = Objects.requireNonNull(partitioning, "Partitioning cannot be null");
+        Objects.requireNonNull(shards, "Shards cannot be null");
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        for (DatasetGraph shard : shards) {
+            Objects.requireNonNull(shard, "Shards cannot contain null");
+        }
+        this.shards = List.copyOf(shards);
+        this.executor = Objects.requireNonNull(executor, "Executor cannot be null");
+    }
+
+    /**
+     * Gets the partitioning
+     *
+     * @return Partitioning
+     */
+    public Partitioning getPartitioning() {
+        return this.partitioning;
+    }
+
+    /**
+     * Gets the shards
+     *
+     * @return Shards
+     */
+    public List<DatasetGraph> getShards() {
+        return this.shards;
+    }
+
+    /**
+     * Gets the index of the shard that holds a quad
+     *
+     * @param quad Quad
+     * @return Shard index
+     */
+    public int shardFor(Quad quad) {
+        return shardFor(normaliseGraph(quad.getGraph()), quad.getSubject());
+    }
+
+    /**
+     * Gets the index of the shard that holds the quads matching a pattern
+     *
+     * @return Shard index, or {@code -1} if the pattern's partition key isn't concrete so quads may be in any shard
+     */
+    private int shardFor(Node g, Node s) {
+        Node key = this.partitioning == Partitioning.GRAPH ? g : s;
+        if (isAny(key) || Quad.isUnionGraph(key)) {
+            return -1;
+        }
+        // Node.hashCode() isn't guaranteed to be stable across JVMs or releases, which would leave quads held by
+        // persistent shards unreachable, so route by a stable hash of the node's lexical form
+        long hash = new Hash128().putNode(key).finish()[0];
+        return (int) Math.floorMod(hash, (long) this.shards.size());
+    }
+
+    /**
+     * Counts the quads matching a pattern, counting each shard in parallel
+     *
+     * @param g Graph
+     * @param s Subject
+     * @param p Predicate
+     * @param o Object
+     * @return Count of matching quads
+     */
+    public long count(Node g, Node s, Node p, Node o) {
+        int shard = shardFor(normaliseGraph(g), s);
+        if (shard >= 0) {
+            return count(this.shards.get(shard).find(g, s, p, o));
+        } else if (Quad.isUnionGraph(g) && this.partitioning == Partitioning.GRAPH && this.shards.size() > 1) {
+            // Triples may be repeated across shards so have to be made distinct, which requires gathering them
+            return count(find(g, s, p, o));
+        } else if (!isParallel()) {
+            long count = 0;
+            for (DatasetGraph dsg : this.shards) {
+                count += count(dsg.find(g, s, p, o));
+            }
+            return count;
+        }
+        List<CompletableFuture<Long>> counts = new ArrayList<>();
+        for (DatasetGraph dsg : this.shards) {
+            counts.add(CompletableFuture.supplyAsync(() -> Txn.calculateRead(dsg, () -> count(dsg.find(g, s, p, o))),
+                                                     this.executor));
+        }
+        long count = 0;
+        try {
+            for (CompletableFuture<Long> shardCount : counts) {
+                count += shardCount.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            counts.forEach(c -> c.cancel(true));
+            throw new JenaException("Interrupted while counting quads", e);
+        } catch (ExecutionException e) {
+            counts.forEach(c -> c.cancel(true));
+            throw failure(e.getCause());
+        }
+        return count;
+    }
+
+    private static long count(Iterator<Quad> quads) {
+        long count = 0;
+        try {
+            while (quads.hasNext()) {
+                quads.next();
+                count++;
+            }
+        } finally {
+            Iter.close(quads);
+        }
+        return count;
+    }
+
+    //region Graphs
+
+    @Override
+    public Graph getDefaultGraph() {
+        return GraphView.createDefaultGraph(this);
+    }
+
+    @Override
+    public Graph getGraph(Node graphNode) {
+        return GraphView.createNamedGraph(this, graphNode);
+    }
+
+    @Override
+    public Graph getUnionGraph() {
+        return GraphView.createUnionGraph(this);
+    }
+
+    @Override
+    public void addGraph(Node graphName, Graph graph) {
+        graph.find().forEachRemaining(t -> add(Quad.create(graphName, t)));
+    }
+
+    @Override
+    public void removeGraph(Node graphName) {
+        deleteAny(graphName, Node.ANY, Node.ANY, Node.ANY);
+    }
+
+    @Override
+    public Iterator<Node> listGraphNodes() {
+        Iterator<Node> graphs = Iter.flatMap(this.shards.iterator(), DatasetGraph::listGraphNodes);
+        // When partitioned by subject the same graph may be present in several shards
+        return this.partitioning == Partitioning.GRAPH ? graphs : Iter.distinct(graphs);
+    }
+
+    @Override
+    public PrefixMap prefixes() {
+        return this.shards.get(0).prefixes();
+    }
+
+    //endregion
+
+    //region Find
+
+    @Override
+    public Iterator<Quad> find(Node g, Node s, Node p, Node o) {
+        return find(g, s, p, o, dsg -> dsg.find(g, s, p, o));
+    }
+
+    @Override
+    public Iterator<Quad> findNG(Node g, Node s, Node p, Node o) {
+        if (!isAny(g) && Quad.isDefaultGraph(g)) {
+            throw new IllegalArgumentException("Default graph in findNG call");
+        }
+        return find(g, s, p, o, dsg -> dsg.findNG(g, s, p, o));
+    }
+
+    private Iterator<Quad> find(Node g, Node s, Node p, Node o, Function<DatasetGraph, Iterator<Quad>> scan) {
+        int shard = shardFor(normaliseGraph(g), s);
+        if (shard >= 0) {
+            return scan.apply(this.shards.get(shard));
+        }
+        Iterator<Quad> quads;
+        if (isParallel()) {
+            quads = new Gather(this.shards, scan, this.executor);
+        } else {
+            quads = Iter.flatMap(this.shards.iterator(), scan);
+        }
+        if (!isAny(g) && Quad.isUnionGraph(g) && this.partitioning == Partitioning.GRAPH) {
+            // The same triple may be in graphs held by different shards
+            return Iter.distinct(quads);
+        }
+        return quads;
+    }
+
+    /**
+     * Gets whether finds that span shards should scan them in parallel, this is not possible within a write
+     * transaction since other threads would not see its uncommitted changes
+     */
+    private boolean isParallel() {
+        return this.shards.size() > 1 && !(isInTransaction() && transactionMode() == ReadWrite.WRITE);
+    }
+
+    private static boolean isAny(Node node) {
+        return node == null || Node.ANY.equals(node) || node.isVariable();
+    }
+
+    private static Node normaliseGraph(Node graph) {
+        return graph != null && Quad.isDefaultGraph(graph) ? Quad.defaultGraphIRI : graph;
+    }
+
+    private static RuntimeException failure(Throwable e) {
+        return e instanceof RuntimeException runtime ? runtime : new JenaException("Failed to scan shard", e);
+    }
+
+    //endregion
+
+    //region Updates
+
+    @Override
+    public void add(Quad quad) {
+        this.shards.get(shardFor(quad)).add(quad);
+    }
+
+    @Override
+    public void delete(Quad quad) {
+        this.shards.get(shardFor(quad)).delete(quad);
+    }
+
+    @Override
+    public void deleteAny(Node g, Node s, Node p, Node o) {
+        int shard = shardFor(normaliseGraph(g), s);
+        if (shard >= 0) {
+            this.shards.get(shard).deleteAny(g, s, p, o);
+        } else {
+            this.shards.forEach(dsg -> dsg.deleteAny(g, s, p, o));
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.shards.forEach(DatasetGraph::clear);
+    }
+
+    @Override
+    public void close() {
+        forEachShard(DatasetGraph::close);
+    }
+
+    //endregion
+
+    //region Transactions
+
+    @Override
+    public boolean supportsTransactions() {
+        return this.shards.stream().allMatch(DatasetGraph::supportsTransactions);
+    }
+
+    @Override
+    public boolean supportsTransactionAbort() {
+        return this.shards.stream().allMatch(DatasetGraph::supportsTransactionAbort);
+    }
+
+    @Override
+    public void begin(TxnType type) {
+        for (int i = 0; i < this.shards.size(); i++) {
+            try {
+                this.shards.get(i).begin(type);
+            } catch (RuntimeException e) {
+                // Don't leave the shards that did begin in a transaction
+                for (int j = 0; j < i; j++) {
+                    this.shards.get(j).end();
+                }
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void begin(ReadWrite readWrite) {
+        begin(TxnType.convert(readWrite));
+    }
+
+    @Override
+    public boolean promote(Promote mode) {
+        for (DatasetGraph shard : this.shards) {
+            if (!shard.promote(mode)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void commit() {
+        forEachShard(DatasetGraph::commit);
+    }
+
+    @Override
+    public void abort() {
+        forEachShard(DatasetGraph::abort);
+    }
+
+    @Override
+    public void end() {
+        forEachShard(DatasetGraph::end);
+    }
+
+    @Override
+    public ReadWrite transactionMode() {
+        return this.shards.get(0).transactionMode();
+    }
+
+    @Override
+    public TxnType transactionType() {
+        return this.shards.get(0).transactionType();
+    }
+
+    @Override
+    public boolean isInTransaction() {
+        return this.shards.get(0).isInTransaction();
+    }
+
+    /**
+     * Applies an action to every shard, even if it fails for some, rethrowing the first failure
+     */
+    private void forEachShard(Consumer<DatasetGraph> action) {
+        RuntimeException failure = null;
+        for (DatasetGraph shard : this.shards) {
+            try {
+                action.accept(shard);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    //endregion
+
+    //region Scatter Gather
+
+    /**
+     * Gathers the results of scanning every shard in parallel, returning them in shard order
+     */
+    private static final class Gather implements IteratorCloseable<Quad> {
+        private final List<Scan> scans;
+        private final Cleaner.Cleanable cleanable;
+        private Iterator<Quad> batch = Collections.emptyIterator();
+        private int shard;
+
+        private Gather(List<DatasetGraph> shards, Function<DatasetGraph, Iterator<Quad>> scan, Executor executor) {
+            List<Scan> scans = new ArrayList<>(shards.size());
+            for (DatasetGraph dsg : shards) {
+                scans.add(new Scan(dsg, scan));
+            }
+            this.scans = scans;
+            // The cancel action must not reference this iterator otherwise it would never become unreachable
+            this.cleanable = CLEANER.register(this, () -> scans.forEach(Scan::cancel));
+            try {
+                for (Scan s : scans) {
+                    executor.execute(s);
+                }
+            } catch (RejectedExecutionException e) {
+                this.cleanable.clean();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!this.batch.hasNext()) {
+                if (this.shard >= this.scans.size()) {
+                    return false;
+                }
+                List<Quad> next = this.scans.get(this.shard).take();
+                if (next.isEmpty()) {
+                    // An empty batch marks the end of a shard's results
+                    this.shard++;
+                } else {
+                    this.batch = next.iterator();
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Quad next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.batch.next();
+        }
+
+        @Override
+        public void close() {
+            this.cleanable.clean();
+        }
+    }
+
+    /**
+     * Scans a single shard within its own read transaction, passing its results to the consumer in batches
+     */
+    private static final class Scan implements Runnable {
+        private final DatasetGraph dsg;
+        private final Function<DatasetGraph, Iterator<Quad>> scan;
+        private final BlockingQueue<List<Quad>> batches = new ArrayBlockingQueue<>(MAX_BATCHES_AHEAD + 1);
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+
+        private Scan(DatasetGraph dsg, Function<DatasetGraph, Iterator<Quad>> scan) {
+            this.dsg = dsg;
+            this.scan = scan;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Txn.executeRead(this.dsg, () -> {
+                    Iterator<Quad> quads = this.scan.apply(this.dsg);
+                    try {
+                        List<Quad> batch = new ArrayList<>(BATCH_SIZE);
+                        while (!this.cancelled && quads.hasNext()) {
+                            batch.add(quads.next());
+                            if (batch.size() == BATCH_SIZE) {
+                                offer(batch);
+                                batch = new ArrayList<>(BATCH_SIZE);
+                            }
+                        }
+                        if (!batch.isEmpty()) {
+                            offer(batch);
+                        }
+                    } finally {
+                        Iter.close(quads);
+                    }
+                });
+            } catch (CancellationException e) {
+                // Consumer no longer wants the results
+            } catch (Throwable e) {
+                this.failure = e;
+            } finally {
+                try {
+                    offer(List.of());
+                } catch (CancellationException e) {
+                    // Consumer no longer wants the results
+                }
+            }
+        }
+
+        private void offer(List<Quad> batch) {
+            try {
+                while (!this.batches.offer(batch, OFFER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (this.cancelled) {
+                        throw new CancellationException();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            }
+        }
+
+        private List<Quad> take() {
+            List<Quad> batch;
+            try {
+                batch = this.batches.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new JenaException("Interrupted while scanning shard", e);
+            }
+            if (batch.isEmpty() && this.failure != null) {
+                throw failure(this.failure);
+            }
+            return batch;
+        }
+
+        private void cancel() {
+            this.cancelled = true;
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,262 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sparql.util.Symbol;
+import org.apache.jena.system.Txn;
+
+import java.util.*;
+
+/**
+ * An optional sorted secondary index over the URIs and literals within a dataset
+ * <p>
+ * This is used by {@link QuadMatcher} to answer conditional node filters (see {@link NodeFilter#parseMatcher(Map)})
+ * in {@code O(log n + k)} time by finding the candidate nodes that satisfy the conditions, rather than scanning all the
+ * quads in the dataset.  The index holds:
+ * </p>
+ * <ul>
+ *     <li>URIs sorted lexically, for prefix conditions</li>
+ *     <li>Literals sorted by lexical form, for prefix conditions</li>
+ *     <li>Literals grouped by datatype and sorted by value, for range conditions</li>
+ *     <li>Language tagged literals sorted by language tag, for language conditions</li>
+ *     <li>The distinct subjects and predicates, including blank node subjects, for finding distinct nodes by probing
+ *     each in turn rather than scanning all the quads</li>
+ * </ul>
+ * <p>
+ * The index is a point in time snapshot of the dataset, it is attached to a dataset via its {@link Context} using
+ * {@link #attach(DatasetGraph)}.  It is only intended for datasets that are read-only or rarely updated, if the
+ * dataset is updated then the index should be re-attached, otherwise nodes added after the index was built will not be
+ * found by conditional filters or as distinct nodes.  Nodes removed from the dataset are harmless since candidate nodes
+ * are only ever used to look up quads.
+ * </p>
+ */
+public final class SortedNodeIndex {
+
+    /**
+     * Context symbol used to attach an index to a dataset
+     */
+    public static final Symbol SYMBOL = Symbol.create("graphql:sortedNodeIndex");
+
+    private final NavigableSet<String> uris = new TreeSet<>();
+    private final Map<String, Node> uriNodes = new HashMap<>();
+    private final NavigableMap<String, List<Node>> literalsByLexicalForm = new TreeMap<>();
+    private final Map<String, NavigableMap<NodeValue, List<Node>>> literalsByDatatype = new HashMap<>();
+    private final NavigableMap<String, List<Node>> literalsByLanguage = new TreeMap<>();
+    private final List<Node> subjects, predicates;
+    private final int size;
+
+    /**
+     * Builds a new index over the given dataset
+     *
+     * @param dsg Dataset Graph
+     */
+    private SortedNodeIndex(DatasetGraph dsg) {
+        Set<Node> literals = new HashSet<>();
+        Set<Node> subjects = new LinkedHashSet<>();
+        Set<Node> predicates = new LinkedHashSet<>();
+        Iterator<Quad> quads = dsg.find();
+        try {
+            while (quads.hasNext()) {
+                Quad q = quads.next();
+                subjects.add(q.getSubject());
+                predicates.add(q.getPredicate());
+                addUri(q.getGraph());
+                addUri(q.getSubject());
+                addUri(q.getPredicate());
+                Node o = q.getObject();
+                if (o.isURI()) {
+                    addUri(o);
+                } else if (o.isLiteral() && literals.add(o)) {
+                    addLiteral(o);
+                }
+            }
+        } finally {
+            Iter.close(quads);
+        }
+        this.subjects = List.copyOf(subjects);
+        this.predicates = List.copyOf(predicates);
+        this.size = this.uris.size() + literals.size();
+    }
+
+    private void addUri(Node n) {
+        if (n.isURI() && this.uris.add(n.getURI())) {
+            this.uriNodes.put(n.getURI(), n);
+        }
+    }
+
+    private void addLiteral(Node n) {
+        this.literalsByLexicalForm.computeIfAbsent(n.getLiteralLexicalForm(), k -> new ArrayList<>(1)).add(n);
+        String language = n.getLiteralLanguage();
+        if (StringUtils.isNotEmpty(language)) {
+            this.literalsByLanguage.computeIfAbsent(language.toLowerCase(Locale.ROOT), k -> new ArrayList<>())
+                                   .add(n);
+        } else {
+            this.literalsByDatatype.computeIfAbsent(n.getLiteralDatatypeURI(),
+                                                    k -> new TreeMap<>(NodeValue::compareAlways))
+                                   .computeIfAbsent(NodeValue.makeNode(n), k -> new ArrayList<>(1))
+                                   .add(n);
+        }
+    }
+
+    /**
+     * Builds an index over the given dataset
+     *
+     * @param dsg Dataset Graph
+     * @return Index
+     */
+    public static SortedNodeIndex build(DatasetGraph dsg) {
+        Objects.requireNonNull(dsg, "Dataset Graph cannot be null");
+        return Txn.calculateRead(dsg, () -> new SortedNodeIndex(dsg));
+    }
+
+    /**
+     * Builds an index over the given dataset and attaches it to the datasets context, replacing any previously attached
+     * index
+     *
+     * @param dsg Dataset Graph
+     * @return Index
+     */
+    public static SortedNodeIndex attach(DatasetGraph dsg) {
+        SortedNodeIndex index = build(dsg);
+        dsg.getContext().set(SYMBOL, index);
+        return index;
+    }
+
+    /**
+     * Gets the index attached to the given dataset, if any
+     *
+     * @param dsg Dataset Graph
+     * @return Index, or {@code null} if none attached
+     */
+    public static SortedNodeIndex get(DatasetGraph dsg) {
+        if (dsg == null) {
+            return null;
+        }
+        Context context = dsg.getContext();
+        if (context == null) {
+            return null;
+        }
+        Object index = context.get(SYMBOL);
+        return index instanceof SortedNodeIndex ? (SortedNodeIndex) index : null;
+    }
+
+    /**
+     * Gets the number of distinct nodes in the index
+     *
+     * @return Size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the distinct subjects in the dataset, in the order they were first found when the index was built
+     *
+     * @return Subjects
+     */
+    public List<Node> subjects() {
+        return this.subjects;
+    }
+
+    /**
+     * Gets the distinct predicates in the dataset, in the order they were first found when the index was built
+     *
+     * @return Predicates
+     */
+    public List<Node> predicates() {
+        return this.predicates;
+    }
+
+    /**
+     * Finds the candidate nodes that satisfy the given conditional matcher
+     * <p>
+     * The returned candidates are a superset of the nodes that satisfy the matcher, callers <strong>MUST</strong> still
+     * apply the matcher to the quads found using the candidates.
+     * </p>
+     *
+     * @param matcher Node matcher
+     * @return Candidate nodes, or {@code null} if the index cannot narrow down the candidates for this matcher
+     */
+    public List<Node> candidates(NodeMatcher matcher) {
+        if (matcher == null || !matcher.hasConditions()) {
+            return null;
+        }
+        return switch (matcher.getKind()) {
+            case URI -> matcher.getPrefix() != null ? uriCandidates(matcher.getPrefix()) : null;
+            case LANGUAGE_LITERAL -> {
+                if (matcher.getLanguage() != null) {
+                    yield languageCandidates(matcher.getLanguage());
+                }
+                yield matcher.getPrefix() != null ? prefixed(this.literalsByLexicalForm, matcher.getPrefix()) : null;
+            }
+            case PLAIN_LITERAL, TYPED_LITERAL -> {
+                if (matcher.getDatatype() != null) {
+                    yield datatypeCandidates(matcher);
+                }
+                yield matcher.getPrefix() != null ? prefixed(this.literalsByLexicalForm, matcher.getPrefix()) : null;
+            }
+            default -> null;
+        };
+    }
+
+    private List<Node> uriCandidates(String prefix) {
+        List<Node> candidates = new ArrayList<>();
+        for (String uri : this.uris.tailSet(prefix, true)) {
+            if (!uri.startsWith(prefix)) {
+                break;
+            }
+            candidates.add(this.uriNodes.get(uri));
+        }
+        return candidates;
+    }
+
+    private List<Node> languageCandidates(String language) {
+        List<Node> candidates = new ArrayList<>(this.literalsByLanguage.getOrDefault(language, List.of()));
+        candidates.addAll(prefixed(this.literalsByLanguage, language + "-"));
+        return candidates;
+    }
+
+    private List<Node> datatypeCandidates(NodeMatcher matcher) {
+        NavigableMap<NodeValue, List<Node>> values = this.literalsByDatatype.get(matcher.getDatatype());
+        if (values == null) {
+            return List.of();
+        }
+        if (matcher.getLowerBound() != null) {
+            values = values.tailMap(matcher.getLowerBound(), false);
+        }
+        if (matcher.getUpperBound() != null) {
+            values = values.headMap(matcher.getUpperBound(), false);
+        }
+        List<Node> candidates = new ArrayList<>();
+        values.values().forEach(candidates::addAll);
+        return candidates;
+    }
+
+    private static List<Node> prefixed(NavigableMap<String, List<Node>> map, String prefix) {
+        List<Node> candidates = new ArrayList<>();
+        for (Map.Entry<String, List<Node>> entry : map.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            candidates.addAll(entry.getValue());
+        }
+        return candidates;
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.*;
+
+public class TestAdmissionController {
+
+    private static final String CHEAP_QUERY = "{ node(uri: \"https://example.org/a\") { uri } }";
+    private static final String EXPENSIVE_QUERY = """
+            {
+              node(uri: "https://example.org/a") {
+                uri
+                outRels { id predicate range { uri types { uri } } }
+                inRels { id predicate domain { uri types { uri } } }
+                relFacets { predicates { uri count } types { uri count } }
+              }
+            }
+            """;
+
+    @Test
+    public void test_admit_basic() {
+        AdmissionController controller = new AdmissionController(2, 0, 0);
+        try (AdmissionController.Permit a = controller.admit(CHEAP_QUERY);
+             AdmissionController.Permit b = controller.admit(CHEAP_QUERY)) {
+            Assert.assertEquals(controller.getActive(), 2);
+            Assert.assertThrows(RejectedExecutionException.class, () -> controller.admit(CHEAP_QUERY));
+        }
+        Assert.assertEquals(controller.getActive(), 0);
+        try (AdmissionController.Permit ignored = controller.admit(CHEAP_QUERY)) {
+            Assert.assertEquals(controller.getActive(), 1);
+        }
+    }
+
+    @Test
+    public void test_permit_closeIdempotent() {
+        AdmissionController controller = new AdmissionController(1, 0, 0);
+        AdmissionController.Permit permit = controller.admit(CHEAP_QUERY);
+        permit.close();
+        permit.close();
+        Assert.assertEquals(controller.getActive(), 0);
+        try (AdmissionController.Permit a = controller.admit(CHEAP_QUERY)) {
+            Assert.assertThrows(RejectedExecutionException.class, () -> controller.admit(CHEAP_QUERY));
+        }
+    }
+
+    @Test
+    public void test_admit_waits() throws Exception {
+        AdmissionController controller = new AdmissionController(1, 1, 5_000);
+        AdmissionController.Permit first = controller.admit(EXPENSIVE_QUERY);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Boolean> waiting = executor.submit(() -> {
+                try (AdmissionController.Permit ignored = controller.admit(EXPENSIVE_QUERY)) {
+                    return true;
+                }
+            });
+            waitForQueued(controller, 1);
+
+            // Queue is full so further requests are rejected immediately
+            Assert.assertThrows(RejectedExecutionException.class, () -> controller.admit(EXPENSIVE_QUERY));
+
+            first.close();
+            Assert.assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(controller.getQueued(), 0);
+        Assert.assertEquals(controller.getActive(), 0);
+    }
+
+    @Test
+    public void test_admit_waitTimesOut() {
+        AdmissionController controller = new AdmissionController(1, 1, 50);
+        try (AdmissionController.Permit ignored = controller.admit(EXPENSIVE_QUERY)) {
+            long start = System.nanoTime();
+            Assert.assertThrows(RejectedExecutionException.class, () -> controller.admit(EXPENSIVE_QUERY));
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+            Assert.assertEquals(controller.getQueued(), 0);
+        }
+    }
+
+    @Test
+    public void test_tryAdmit_neverWaits() {
+        AdmissionController controller =
+                new AdmissionController(1, 1, 5_000, 1, AdmissionController.DEFAULT_CHEAP_COST);
+        try (AdmissionController.Permit first = controller.tryAdmit(EXPENSIVE_QUERY)) {
+            Assert.assertNotNull(first);
+
+            // No regular slot is available so an expensive request isn't admitted, even though it could queue
+            long start = System.nanoTime();
+            Assert.assertNull(controller.tryAdmit(EXPENSIVE_QUERY));
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+            Assert.assertEquals(controller.getQueued(), 0);
+
+            // A cheap request may still use the cheap lane
+            try (AdmissionController.Permit cheap = controller.tryAdmit(CHEAP_QUERY)) {
+                Assert.assertNotNull(cheap);
+                Assert.assertEquals(controller.getActive(), 2);
+                Assert.assertNull(controller.tryAdmit(CHEAP_QUERY));
+            }
+        }
+        Assert.assertEquals(controller.getActive(), 0);
+    }
+
+    @Test
+    public void test_cheapLane() {
+        AdmissionController controller = new AdmissionController(1, 0, 0, 1, AdmissionController.DEFAULT_CHEAP_COST);
+        try (AdmissionController.Permit expensive = controller.admit(EXPENSIVE_QUERY)) {
+            // Expensive queries can't use the cheap lane
+            Assert.assertThrows(RejectedExecutionException.class, () -> controller.admit(EXPENSIVE_QUERY));
+
+            // Cheap queries can
+            try (AdmissionController.Permit cheap = controller.admit(CHEAP_QUERY)) {
+                Assert.assertEquals(controller.getActive(), 2);
+                Assert.assertThrows(RejectedExecutionException.class, () -> controller.admit(CHEAP_QUERY));
+            }
+            try (AdmissionController.Permit cheap = controller.admit(CHEAP_QUERY)) {
+                Assert.assertEquals(controller.getActive(), 2);
+            }
+        }
+        Assert.assertEquals(controller.getActive(), 0);
+    }
+
+    @Test
+    public void test_estimateCost() {
+        Assert.assertEquals(AdmissionController.estimateCost("{ a }"), 1);
+        Assert.assertEquals(AdmissionController.estimateCost("{ a { b c } }"), 5);
+        Assert.assertEquals(AdmissionController.estimateCost("{ a { ...F } } fragment F on T { b c }"), 5);
+        Assert.assertEquals(AdmissionController.estimateCost("{ a { ... on T { b } } }"), 3);
+        Assert.assertEquals(AdmissionController.estimateCost(CHEAP_QUERY), 3);
+        Assert.assertTrue(AdmissionController.estimateCost(EXPENSIVE_QUERY) > AdmissionController.DEFAULT_CHEAP_COST);
+    }
+
+    @Test
+    public void test_estimateCost_unparseable() {
+        Assert.assertEquals(AdmissionController.estimateCost(null), AdmissionController.UNPARSEABLE_COST);
+        Assert.assertEquals(AdmissionController.estimateCost("{ a "), AdmissionController.UNPARSEABLE_COST);
+    }
+
+    @Test
+    public void test_estimateCost_cyclicFragments() {
+        Assert.assertEquals(
+                AdmissionController.estimateCost("{ a { ...F } } fragment F on T { b { ...F } }"), 3);
+    }
+
+    @Test
+    public void test_retryAfter() {
+        Assert.assertEquals(new AdmissionController(1, 0, 0).getRetryAfterSeconds(), 1);
+        Assert.assertEquals(new AdmissionController(1, 0, 1_000).getRetryAfterSeconds(), 1);
+        Assert.assertEquals(new AdmissionController(1, 0, 2_500).getRetryAfterSeconds(), 3);
+    }
+
+    @Test
+    public void test_parse() {
+        AdmissionController controller = AdmissionController.parse("concurrent=8, queue=32, wait=500, cheap=2");
+        Assert.assertEquals(controller.getMaxConcurrent(), 8);
+        Assert.assertEquals(controller.getMaxQueued(), 32);
+        Assert.assertEquals(controller.getMaxWaitMillis(), 500);
+        Assert.assertEquals(controller.getCheapLaneConcurrent(), 2);
+        Assert.assertEquals(controller.getCheapCost(), AdmissionController.DEFAULT_CHEAP_COST);
+
+        controller = AdmissionController.parse("concurrent=4");
+        Assert.assertEquals(controller.getMaxQueued(), 4);
+        Assert.assertEquals(controller.getMaxWaitMillis(), AdmissionController.DEFAULT_MAX_WAIT_MILLIS);
+        Assert.assertEquals(controller.getCheapLaneConcurrent(), 0);
+    }
+
+    @DataProvider(name = "invalidSpecs")
+    public Object[][] invalidSpecs() {
+        return new Object[][] {
+                { "" },
+                { "queue=4" },
+                { "concurrent" },
+                { "concurrent=" },
+                { "concurrent=abc" },
+                { "concurrent=0" },
+                { "concurrent=4,queue=-1" },
+                { "concurrent=4,cheap-cost=0" },
+                { "concurrent=4,foo=bar" }
+        };
+    }
+
+    @Test(dataProvider = "invalidSpecs", expectedExceptions = IllegalArgumentException.class)
+    public void test_parse_invalid(String spec) {
+        AdmissionController.parse(spec);
+    }
+
+    private static void waitForQueued(AdmissionController controller, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (controller.getQueued() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(controller.getQueued(), expected);
+    }
+}
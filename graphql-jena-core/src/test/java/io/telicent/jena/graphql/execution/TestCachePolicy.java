@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import io.telicent.jena.graphql.schemas.GraphQLJenaSchemas;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+public class TestCachePolicy {
+
+    private static final String SCHEMA = """
+            type Query {
+              defaulted: Item
+              short: Item @cacheControl(maxAge: 10)
+              long: Item @cacheControl(maxAge: 60)
+              personal: Item @cacheControl(maxAge: 60, scope: PRIVATE)
+              external: Item @cacheControl(noStore: true)
+              typed: Cached
+            }
+
+            type Item {
+              name: String
+              details: Item @cacheControl(maxAge: 5)
+            }
+
+            type Cached @cacheControl(maxAge: 30) {
+              name: String
+            }
+            """;
+
+    private static GraphQLSchema buildSchema(boolean withDirective) throws IOException {
+        TypeDefinitionRegistry registry =
+                withDirective ? GraphQLJenaSchemas.loadSchema(GraphQLJenaSchemas.CACHE_CONTROL_SCHEMA) :
+                new TypeDefinitionRegistry();
+        String sdl = withDirective ? SCHEMA : SCHEMA.replaceAll("@cacheControl\\([^)]*\\)", "");
+        registry.merge(new SchemaParser().parse(sdl));
+        return new SchemaGenerator().makeExecutableSchema(registry, RuntimeWiring.newRuntimeWiring().build());
+    }
+
+    private static CachePolicy policyFor(String query, String operationName) throws IOException {
+        return CachePolicy.forQuery(buildSchema(true), Parser.parse(query), operationName);
+    }
+
+    @DataProvider(name = "queries")
+    private Object[][] queries() {
+        return new Object[][] {
+                { "{ defaulted { name } }", "public, no-cache" },
+                { "{ short { name } }", "public, max-age=10" },
+                { "{ short { name } long { name } }", "public, max-age=10" },
+                { "{ long { name } personal { name } }", "private, max-age=60" },
+                { "{ long { details { name } } }", "public, max-age=5" },
+                { "{ typed { name } }", "public, max-age=30" },
+                { "{ long { name } external { name } }", "no-store" },
+                { "{ long { ...Named } } fragment Named on Item { details { name } }", "public, max-age=5" },
+                { "{ long { ... on Item { details { name } } } }", "public, max-age=5" },
+                { "{ long { __typename name } }", "public, max-age=60" }
+        };
+    }
+
+    @Test(dataProvider = "queries")
+    public void givenQuery_whenDeterminingPolicy_thenMostRestrictive(String query, String expected) throws
+            IOException {
+        // Given and When
+        CachePolicy policy = policyFor(query, null);
+
+        // Then
+        Assert.assertEquals(policy.toHeaderValue(), expected);
+    }
+
+    @Test
+    public void givenSchemaWithoutDirective_whenDeterminingPolicy_thenNone() throws IOException {
+        // Given
+        GraphQLSchema schema = buildSchema(false);
+
+        // When
+        CachePolicy policy = CachePolicy.forQuery(schema, Parser.parse("{ short { name } }"), null);
+
+        // Then
+        Assert.assertSame(policy, CachePolicy.NONE);
+        Assert.assertNull(policy.toHeaderValue());
+        Assert.assertFalse(policy.isRevalidatable());
+    }
+
+    @Test
+    public void givenMultipleOperations_whenDeterminingPolicy_thenNamedOperationUsed() throws IOException {
+        // Given
+        String query = "query A { short { name } } query B { long { name } }";
+
+        // When and Then
+        Assert.assertEquals(policyFor(query, "B").getMaxAge(), 60);
+        Assert.assertEquals(policyFor(query, "A").getMaxAge(), 10);
+        Assert.assertSame(policyFor(query, null), CachePolicy.NONE);
+        Assert.assertSame(policyFor(query, "C"), CachePolicy.NONE);
+    }
+
+    @Test
+    public void givenPolicies_whenRestricting_thenMostRestrictive() {
+        // Given
+        CachePolicy publicPolicy = new CachePolicy(30, CachePolicy.Scope.PUBLIC);
+        CachePolicy privatePolicy = new CachePolicy(60, CachePolicy.Scope.PRIVATE);
+
+        // When
+        CachePolicy restricted = publicPolicy.restrict(privatePolicy);
+
+        // Then
+        Assert.assertEquals(restricted, new CachePolicy(30, CachePolicy.Scope.PRIVATE));
+        Assert.assertSame(publicPolicy.restrict(CachePolicy.NONE), publicPolicy);
+        Assert.assertSame(CachePolicy.NONE.restrict(publicPolicy), publicPolicy);
+        Assert.assertTrue(restricted.isRevalidatable());
+        Assert.assertFalse(restricted.restrict(new CachePolicy(60, null, true)).isRevalidatable());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void givenNegativeMaxAge_whenCreatingPolicy_thenRejected() {
+        new CachePolicy(-1, CachePolicy.Scope.PUBLIC);
+    }
+}
@@ -21,13 +21,17 @@ import io.telicent.jena.graphql.schemas.CoreSchema;
 import io.telicent.jena.graphql.schemas.DatasetSchema;
 import io.telicent.jena.graphql.schemas.GraphQLJenaSchemas;
 import io.telicent.jena.graphql.schemas.models.NodeKind;
+import io.telicent.jena.graphql.schemas.models.WrappedNode;
 import io.telicent.jena.graphql.server.model.GraphQLRequest;
+import io.telicent.jena.graphql.utils.DatasetGeneration;
 import io.telicent.jena.graphql.utils.NodeFilter;
+import io.telicent.jena.graphql.utils.SortedNodeIndex;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
 import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.Txn;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
 import org.testng.Assert;
@@ -59,6 +63,12 @@ public class TestDatasetExecution extends AbstractExecutionTests {
 
     public static final String DETAILED_QUADS_QUERY = loadQuery("detailed-quads.graphql");
 
+    public static final String AGGREGATE_QUADS_QUERY = loadQuery("aggregate-quads.graphql");
+
+    public static final String INVALID_LIMIT_QUADS_QUERY = loadQuery("invalid-limit-quads.graphql");
+
+    public static final String DISTINCT_SUBJECT_PATTERN_QUERY = loadQuery("distinct-subject-pattern.graphql");
+
     /**
      * Verifies that the query results include the expected number of quads in the given field
      *
@@ -211,6 +221,200 @@ public class TestDatasetExecution extends AbstractExecutionTests {
         verifyNode(quad, CoreSchema.SUBJECT_FIELD, NodeKind.URI, subject.getURI(), null, null);
     }
 
+    @Test
+    public void dataset_07_aggregates() throws IOException {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        generateDummyQuads(dsg, 100);
+        Node graph = NodeFactory.createURI("https://example.org/graph");
+        Node subject = NodeFactory.createURI("https://example.org/subject");
+        dsg.add(graph, subject, RDF.type.asNode(), RDFS.Class.asNode());
+        dsg.add(graph, subject, RDFS.label.asNode(), NodeFactory.createLiteralString("label"));
+        DatasetExecutor execution = new DatasetExecutor(dsg);
+
+        ExecutionResult result = verifyExecution(execution, AGGREGATE_QUADS_QUERY);
+
+        Map<String, Object> data = result.getData();
+        Assert.assertEquals(data.get(DatasetSchema.QUAD_COUNT_FIELD), 102);
+        Assert.assertEquals(data.get("comments"), 100);
+        Assert.assertEquals(data.get("named"), 2);
+        verifyNodeList(data, DatasetSchema.GRAPHS_FIELD, 2);
+        verifyNodeList(data, DatasetSchema.DISTINCT_PREDICATES_FIELD, 3);
+        verifyNodeList(data, DatasetSchema.DISTINCT_SUBJECTS_FIELD, 10);
+    }
+
+    @Test
+    public void dataset_empty_02_aggregates() throws IOException {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        DatasetExecutor execution = new DatasetExecutor(dsg);
+
+        ExecutionResult result = verifyExecution(execution, AGGREGATE_QUADS_QUERY);
+
+        Map<String, Object> data = result.getData();
+        Assert.assertEquals(data.get(DatasetSchema.QUAD_COUNT_FIELD), 0);
+        Assert.assertEquals(data.get("named"), 0);
+        verifyNodeList(data, DatasetSchema.GRAPHS_FIELD, 0);
+        verifyNodeList(data, DatasetSchema.DISTINCT_PREDICATES_FIELD, 0);
+        verifyNodeList(data, DatasetSchema.DISTINCT_SUBJECTS_FIELD, 0);
+    }
+
+    @Test
+    public void dataset_07_aggregates_indexed() throws IOException {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        generateDummyQuads(dsg, 100);
+        Node graph = NodeFactory.createURI("https://example.org/graph");
+        Node subject = NodeFactory.createURI("https://example.org/subject");
+        dsg.add(graph, subject, RDF.type.asNode(), RDFS.Class.asNode());
+        dsg.add(graph, subject, RDFS.label.asNode(), NodeFactory.createLiteralString("label"));
+        dsg.add(Quad.defaultGraphIRI, NodeFactory.createBlankNode(), RDFS.label.asNode(),
+                NodeFactory.createLiteralString("blank"));
+        DatasetExecutor execution = new DatasetExecutor(dsg);
+        Map<String, Object> scanned = verifyExecution(execution, AGGREGATE_QUADS_QUERY).getData();
+
+        SortedNodeIndex.attach(dsg);
+        Map<String, Object> probed = verifyExecution(execution, AGGREGATE_QUADS_QUERY).getData();
+
+        Assert.assertEquals(probed, scanned);
+        verifyNodeList(probed, DatasetSchema.DISTINCT_PREDICATES_FIELD, 3);
+        Assert.assertEquals(((List<Object>) probed.get(DatasetSchema.DISTINCT_SUBJECTS_FIELD)).size(), 10);
+    }
+
+    @Test
+    public void dataset_07_aggregates_concrete() throws IOException {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        generateDummyQuads(dsg, 100);
+        Node graph = NodeFactory.createURI("https://example.org/graph");
+        Node subject = NodeFactory.createURI("https://example.org/subject");
+        dsg.add(graph, subject, RDF.type.asNode(), RDFS.Class.asNode());
+        dsg.add(graph, subject, RDFS.label.asNode(), NodeFactory.createLiteralString("label"));
+        DatasetExecutor execution = new DatasetExecutor(dsg);
+
+        ExecutionResult result = verifyExecution(execution, DISTINCT_SUBJECT_PATTERN_QUERY);
+
+        Map<String, Object> data = result.getData();
+        verifyNodeList(data, DatasetSchema.DISTINCT_PREDICATES_FIELD, 2);
+        verifyNodeList(data, DatasetSchema.DISTINCT_SUBJECTS_FIELD, 1);
+        List<Map<String, Object>> subjects =
+                (List<Map<String, Object>>) data.get(DatasetSchema.DISTINCT_SUBJECTS_FIELD);
+        Assert.assertEquals(new WrappedNode(subjects.get(0)).getNode(), subject);
+    }
+
+    @Test
+    public void dataset_08_invalid_limit() throws IOException {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        generateDummyQuads(dsg, 10);
+        DatasetExecutor execution = new DatasetExecutor(dsg);
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery(INVALID_LIMIT_QUADS_QUERY);
+
+        verifyExecutionErrors(execution, request);
+    }
+
+    private static void verifyNodeList(Map<String, Object> data, String field, int expectedNodes) {
+        Assert.assertTrue(data.containsKey(field));
+        List<Map<String, Object>> nodes = (List<Map<String, Object>>) data.get(field);
+        Assert.assertEquals(nodes.size(), expectedNodes);
+        for (Map<String, Object> node : nodes) {
+            Assert.assertEquals(new WrappedNode(node).getKind(), NodeKind.URI);
+        }
+    }
+
+    @Test
+    public void dataset_09_limits_truncate() throws IOException {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        generateDummyQuads(dsg, 100);
+        DatasetExecutor execution = new DatasetExecutor(dsg);
+        execution.setResultLimits(new ResultLimits(10, Long.MAX_VALUE, ResultLimits.OverflowMode.TRUNCATE));
+
+        ExecutionResult result = execution.execute(SIMPLE_QUADS_QUERY);
+
+        Assert.assertEquals(result.getErrors().size(), 1);
+        Assert.assertEquals(result.getErrors().get(0).getExtensions().get("truncated"), true);
+        verifyQuads(result, 10, DatasetSchema.QUADS_FIELD);
+    }
+
+    @Test
+    public void dataset_10_limits_exact() throws IOException {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        generateDummyQuads(dsg, 10);
+        DatasetExecutor execution = new DatasetExecutor(dsg);
+        execution.setResultLimits(new ResultLimits(10, Long.MAX_VALUE, ResultLimits.OverflowMode.ABORT));
+
+        ExecutionResult result = verifyExecution(execution, SIMPLE_QUADS_QUERY);
+
+        verifyQuads(result, 10, DatasetSchema.QUADS_FIELD);
+    }
+
+    @Test
+    public void dataset_11_limits_bytes_abort() throws IOException {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        generateDummyQuads(dsg, 100);
+        DatasetExecutor execution = new DatasetExecutor(dsg);
+        execution.setResultLimits(new ResultLimits(Long.MAX_VALUE, 1_000, ResultLimits.OverflowMode.ABORT));
+
+        ExecutionResult result = execution.execute(SIMPLE_QUADS_QUERY);
+
+        Assert.assertFalse(result.getErrors().isEmpty());
+        Assert.assertNull(result.getData());
+    }
+
+    @Test
+    public void test_resultLimits_defaults() throws IOException {
+        DatasetExecutor execution = new DatasetExecutor(DatasetGraphFactory.create());
+        Assert.assertSame(execution.getResultLimits(), ResultLimits.UNLIMITED);
+
+        execution.setResultLimits(null);
+        Assert.assertSame(execution.getResultLimits(), ResultLimits.UNLIMITED);
+    }
+
+    @Test
+    public void dataset_12_timeout_cancelled() throws IOException {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        generateDummyQuads(dsg, 100);
+        DatasetExecutor execution = new DatasetExecutor(dsg);
+        RequestDeadline deadline = RequestDeadline.create();
+        deadline.cancel();
+
+        ExecutionResult result = execution.execute(dsg, SIMPLE_QUADS_QUERY, null, Map.of(), Map.of(), deadline);
+
+        Assert.assertFalse(result.getErrors().isEmpty());
+        Assert.assertNull(result.getData());
+    }
+
+    @Test
+    public void dataset_13_timeout_generous() throws IOException {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        generateDummyQuads(dsg, 100);
+        DatasetExecutor execution = new DatasetExecutor(dsg);
+        execution.setQueryTimeout(60_000);
+
+        ExecutionResult result = execution.execute(SIMPLE_QUADS_QUERY, null, Map.of(),
+                                                   Map.of(RequestDeadline.TIMEOUT_EXTENSION, 30_000));
+
+        verifyQuads(result, 100, DatasetSchema.QUADS_FIELD);
+    }
+
+    @Test
+    public void dataset_14_timeout_invalid_hint() throws IOException {
+        DatasetExecutor execution = new DatasetExecutor(DatasetGraphFactory.create());
+
+        ExecutionResult result = execution.execute(SIMPLE_QUADS_QUERY, null, Map.of(),
+                                                   Map.of(RequestDeadline.TIMEOUT_EXTENSION, "soon"));
+
+        Assert.assertEquals(result.getErrors().size(), 1);
+        Assert.assertNull(result.getData());
+    }
+
+    @Test
+    public void test_queryTimeout_defaults() throws IOException {
+        DatasetExecutor execution = new DatasetExecutor(DatasetGraphFactory.create());
+        Assert.assertEquals(execution.getQueryTimeout(), 0);
+
+        execution.setQueryTimeout(-5);
+        Assert.assertEquals(execution.getQueryTimeout(), 0);
+        execution.setQueryTimeout(100);
+        Assert.assertEquals(execution.getQueryTimeout(), 100);
+    }
+
     @Test
     public void casting_01() throws IOException {
         DatasetGraph dsg = DatasetGraphFactory.empty();
@@ -269,6 +473,64 @@ public class TestDatasetExecution extends AbstractExecutionTests {
                     getDummyExpected(5));
     }
 
+    @Test
+    public void test_etag_untrackedDataset() throws IOException {
+        // given
+        DatasetExecutor execution = new DatasetExecutor(DatasetGraphFactory.create());
+
+        // when
+        String etag = execution.getETag(SIMPLE_QUADS_QUERY, null, Map.of(), Map.of());
+
+        // then
+        Assert.assertNull(etag);
+        Assert.assertEquals(execution.getCachePolicy(SIMPLE_QUADS_QUERY, null).toHeaderValue(), "public, no-cache");
+    }
+
+    @Test
+    public void test_etag_trackedDataset() throws IOException {
+        // given
+        DatasetGraph dsg = DatasetGeneration.track(DatasetGraphFactory.create());
+        generateDummyQuads(dsg, 10);
+        DatasetExecutor execution = new DatasetExecutor(dsg);
+
+        // when
+        String etag = execution.getETag(SIMPLE_QUADS_QUERY, null, Map.of(), Map.of());
+        String reformatted = execution.getETag("# Comment\n" + SIMPLE_QUADS_QUERY.replace("\n", "\n  "), null,
+                                               Map.of(), Map.of());
+        String otherQuery = execution.getETag(FILTERED_QUADS_QUERY, null, Map.of(), Map.of());
+        String otherVariables = execution.getETag(SIMPLE_QUADS_QUERY, null, Map.of("a", 1), Map.of());
+
+        // then
+        Assert.assertNotNull(etag);
+        Assert.assertEquals(reformatted, etag);
+        Assert.assertNotEquals(otherQuery, etag);
+        Assert.assertNotEquals(otherVariables, etag);
+    }
+
+    @Test
+    public void test_etag_staleAfterWrite() throws IOException {
+        // given
+        DatasetGraph dsg = DatasetGeneration.track(DatasetGraphFactory.createTxnMem());
+        DatasetExecutor execution = new DatasetExecutor(dsg);
+        String etag = execution.getETag(SIMPLE_QUADS_QUERY, null, Map.of(), Map.of());
+
+        // when
+        Txn.executeWrite(dsg, () -> generateDummyQuads(dsg, 1));
+
+        // then
+        Assert.assertNotEquals(execution.getETag(SIMPLE_QUADS_QUERY, null, Map.of(), Map.of()), etag);
+    }
+
+    @Test
+    public void test_etag_invalidQuery() throws IOException {
+        // given
+        DatasetExecutor execution = new DatasetExecutor(DatasetGeneration.track(DatasetGraphFactory.create()));
+
+        // when and then
+        Assert.assertNull(execution.getETag("{ quads {", null, Map.of(), Map.of()));
+        Assert.assertSame(execution.getCachePolicy("{ quads {", null), CachePolicy.NONE);
+    }
+
     private static class NonCoreSchemaDatasetExecutor extends AbstractDatasetExecutor {
 
         public NonCoreSchemaDatasetExecutor(DatasetGraph dsg) throws IOException {
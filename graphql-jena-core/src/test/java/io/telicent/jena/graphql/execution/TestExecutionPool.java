@@ -0,0 +1,266 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestExecutionPool {
+
+    @Test
+    public void test_direct() {
+        Thread caller = Thread.currentThread();
+        Assert.assertTrue(ExecutionPool.DIRECT.isDirect());
+        Assert.assertSame(ExecutionPool.DIRECT.run(Thread::currentThread), caller);
+    }
+
+    @Test
+    public void test_virtual() {
+        try (ExecutionPool pool = ExecutionPool.virtualThreads()) {
+            Assert.assertFalse(pool.isDirect());
+            Assert.assertTrue(pool.run(() -> Thread.currentThread().isVirtual()));
+            Assert.assertEquals(pool.toString(), "virtual");
+        }
+    }
+
+    @Test
+    public void test_platform() {
+        try (ExecutionPool pool = ExecutionPool.platformThreads(2, 4, 8)) {
+            Assert.assertFalse(pool.isDirect());
+            Assert.assertFalse(pool.run(() -> Thread.currentThread().isVirtual()));
+            Assert.assertTrue(pool.run(() -> Thread.currentThread().getName()).startsWith("graphql-worker-"));
+        }
+    }
+
+    @Test
+    public void test_platform_saturated() throws InterruptedException {
+        try (ExecutionPool pool = ExecutionPool.platformThreads(1, 1, 0)) {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Thread blocked = Thread.ofPlatform().start(() -> pool.run(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // The only worker is busy and there is no accept queue so further requests are rejected
+            Assert.assertThrows(RejectedExecutionException.class, () -> pool.run(() -> true));
+
+            release.countDown();
+            blocked.join();
+            Assert.assertTrue(pool.run(() -> true));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "Failed")
+    public void test_errorsPropagated() {
+        try (ExecutionPool pool = ExecutionPool.virtualThreads()) {
+            pool.run(() -> {
+                throw new IllegalStateException("Failed");
+            });
+        }
+    }
+
+    @Test
+    public void test_abandoned() throws Exception {
+        try (ExecutionPool pool = ExecutionPool.virtualThreads()) {
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicBoolean interrupted = new AtomicBoolean();
+            AtomicReference<ExecutionPool.Execution<Boolean>> execution = new AtomicReference<>();
+            long start = System.nanoTime();
+            Assert.assertThrows(CancellationException.class, () -> {
+                execution.set(pool.submit(() -> {
+                    // Simulates a blocking call that doesn't check the deadline
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        interrupted.set(true);
+                    }
+                    return true;
+                }, RequestDeadline.after(50)));
+                execution.get().result().join();
+            });
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assert.assertTrue(elapsed >= ExecutionPool.ABANDON_GRACE_MILLIS, "Abandoned after " + elapsed + "ms");
+            Assert.assertTrue(elapsed < 10_000, "Abandoned after " + elapsed + "ms");
+
+            // The abandoned request is never interrupted, it is still executing until it stops of its own accord
+            Assert.assertFalse(execution.get().finished().isDone());
+            release.countDown();
+            execution.get().finished().get(5, TimeUnit.SECONDS);
+            Assert.assertFalse(interrupted.get());
+        }
+    }
+
+    @Test
+    public void test_abandonedAfterCancel() throws Exception {
+        try (ExecutionPool pool = ExecutionPool.virtualThreads()) {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            RequestDeadline deadline = RequestDeadline.create();
+            ExecutionPool.Execution<Boolean> execution = pool.submit(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }, deadline);
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Without a timeout the request is only abandoned once cancelled, and then only after the grace period
+            Thread.sleep(100);
+            Assert.assertFalse(execution.result().isDone());
+            long start = System.nanoTime();
+            deadline.cancel();
+            Assert.assertThrows(CancellationException.class, () -> execution.result().join());
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assert.assertTrue(elapsed >= ExecutionPool.ABANDON_GRACE_MILLIS - 10, "Abandoned after " + elapsed + "ms");
+            Assert.assertTrue(elapsed < 10_000, "Abandoned after " + elapsed + "ms");
+
+            release.countDown();
+            execution.finished().get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void test_abandonedAfterRestrictedWhileExecuting() throws Exception {
+        try (ExecutionPool pool = ExecutionPool.virtualThreads()) {
+            CountDownLatch release = new CountDownLatch(1);
+            RequestDeadline deadline = RequestDeadline.create();
+            long start = System.nanoTime();
+            ExecutionPool.Execution<Boolean> execution = pool.submit(() -> {
+                // Executors restrict the deadline once the request starts executing
+                deadline.restrict(50);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }, deadline);
+
+            Assert.assertThrows(CancellationException.class, () -> execution.result().join());
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assert.assertTrue(elapsed >= ExecutionPool.ABANDON_GRACE_MILLIS, "Abandoned after " + elapsed + "ms");
+            Assert.assertTrue(elapsed < 10_000, "Abandoned after " + elapsed + "ms");
+
+            release.countDown();
+            execution.finished().get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void test_abandonedBeforeStarting() throws Exception {
+        try (ExecutionPool pool = ExecutionPool.platformThreads(1, 1, 1)) {
+            CountDownLatch release = new CountDownLatch(1);
+            ExecutionPool.Execution<Boolean> busy = pool.submit(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }, RequestDeadline.NONE);
+
+            // The queued request is abandoned without ever executing
+            AtomicBoolean executed = new AtomicBoolean();
+            ExecutionPool.Execution<Boolean> queued = pool.submit(() -> executed.getAndSet(true),
+                                                                  RequestDeadline.after(10));
+            Assert.assertThrows(CancellationException.class, () -> queued.result().join());
+            Assert.assertTrue(queued.finished().isDone());
+
+            release.countDown();
+            Assert.assertTrue(busy.result().get(5, TimeUnit.SECONDS));
+            Assert.assertTrue(pool.run(() -> true));
+            Assert.assertFalse(executed.get());
+        }
+    }
+
+    @Test
+    public void test_submit() throws Exception {
+        try (ExecutionPool pool = ExecutionPool.virtualThreads()) {
+            Thread caller = Thread.currentThread();
+            CountDownLatch release = new CountDownLatch(1);
+            ExecutionPool.Execution<Thread> execution = pool.submit(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Thread.currentThread();
+            }, RequestDeadline.NONE);
+
+            // Submitting doesn't block the caller
+            Assert.assertFalse(execution.result().isDone());
+            release.countDown();
+            Assert.assertNotSame(execution.result().get(5, TimeUnit.SECONDS), caller);
+            Assert.assertTrue(execution.finished().isDone());
+        }
+    }
+
+    @Test
+    public void test_submit_direct() {
+        Thread caller = Thread.currentThread();
+        ExecutionPool.Execution<Thread> execution = ExecutionPool.DIRECT.submit(Thread::currentThread,
+                                                                               RequestDeadline.NONE);
+        Assert.assertSame(execution.result().join(), caller);
+        Assert.assertTrue(execution.finished().isDone());
+    }
+
+    @Test
+    public void test_deadlineRespected() {
+        try (ExecutionPool pool = ExecutionPool.virtualThreads()) {
+            // A request that stops promptly once its deadline passes is not abandoned
+            RequestDeadline deadline = RequestDeadline.after(50);
+            Assert.assertFalse(pool.run(() -> {
+                while (!deadline.isExpired()) {
+                    Thread.onSpinWait();
+                }
+                return false;
+            }, deadline));
+        }
+    }
+
+    @Test(expectedExceptions = RejectedExecutionException.class)
+    public void test_closed() {
+        ExecutionPool pool = ExecutionPool.platformThreads(1, 1, 1);
+        pool.close();
+        pool.run(() -> true);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_platform_invalidWorkers() {
+        ExecutionPool.platformThreads(0, 1, 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_platform_invalidMaxWorkers() {
+        ExecutionPool.platformThreads(4, 2, 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_platform_invalidQueue() {
+        ExecutionPool.platformThreads(1, 1, -1);
+    }
+}
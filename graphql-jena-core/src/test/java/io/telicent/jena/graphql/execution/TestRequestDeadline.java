@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import graphql.execution.AbortExecutionException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class TestRequestDeadline {
+
+    @Test
+    public void test_none() {
+        Assert.assertFalse(RequestDeadline.NONE.hasTimeout());
+        Assert.assertFalse(RequestDeadline.NONE.isExpired());
+        Assert.assertEquals(RequestDeadline.NONE.remainingMillis(), Long.MAX_VALUE);
+
+        // Can't be cancelled
+        RequestDeadline.NONE.cancel();
+        Assert.assertFalse(RequestDeadline.NONE.isCancelled());
+        RequestDeadline.NONE.check();
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void test_none_cannotRestrict() {
+        RequestDeadline.NONE.restrict(100);
+    }
+
+    @Test
+    public void test_restrict_onlyShortens() {
+        RequestDeadline deadline = RequestDeadline.after(60_000);
+        Assert.assertTrue(deadline.hasTimeout());
+        Assert.assertTrue(deadline.remainingMillis() > 50_000);
+
+        deadline.restrict(1_000);
+        Assert.assertTrue(deadline.remainingMillis() <= 1_000);
+
+        deadline.restrict(60_000);
+        Assert.assertTrue(deadline.remainingMillis() <= 1_000);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_restrict_invalid() {
+        RequestDeadline.create().restrict(0);
+    }
+
+    @Test(expectedExceptions = AbortExecutionException.class, expectedExceptionsMessageRegExp = ".*cancelled")
+    public void test_cancel() {
+        RequestDeadline deadline = RequestDeadline.create();
+        deadline.check();
+        deadline.cancel();
+        Assert.assertTrue(deadline.isCancelled());
+        deadline.check();
+    }
+
+    @Test(expectedExceptions = AbortExecutionException.class, expectedExceptionsMessageRegExp = ".*deadline")
+    public void test_expired() throws InterruptedException {
+        RequestDeadline deadline = RequestDeadline.after(1);
+        Thread.sleep(5);
+        Assert.assertTrue(deadline.isExpired());
+        Assert.assertEquals(deadline.remainingMillis(), 0);
+        deadline.check();
+    }
+
+    @Test
+    public void test_guard_stopsStream() {
+        RequestDeadline deadline = RequestDeadline.create();
+        int[] consumed = new int[1];
+        try {
+            deadline.guard(IntStream.range(0, 1_000).boxed()).forEach(i -> {
+                consumed[0]++;
+                if (i == 10) {
+                    deadline.cancel();
+                }
+            });
+            Assert.fail("Expected the stream to be aborted");
+        } catch (AbortExecutionException e) {
+            Assert.assertEquals(consumed[0], 11);
+        }
+    }
+
+    @Test
+    public void test_guard_checksFirstElement() {
+        RequestDeadline deadline = RequestDeadline.after(1);
+        long start = System.nanoTime();
+        while (!deadline.isExpired() && System.nanoTime() - start < 5_000_000_000L) {
+            Thread.onSpinWait();
+        }
+        // A stream much shorter than the clock check interval still notices the deadline has passed
+        Assert.assertThrows(AbortExecutionException.class, () -> deadline.guard(Stream.of(1, 2, 3)).toList());
+    }
+
+    @Test
+    public void test_guard_unaffected() {
+        RequestDeadline deadline = RequestDeadline.after(60_000);
+        Assert.assertEquals(deadline.guard(IntStream.range(0, 1_000).boxed()).count(), 1_000);
+    }
+
+    @Test
+    public void test_parseTimeoutHint() {
+        Assert.assertEquals(RequestDeadline.parseTimeoutHint(null), 0);
+        Assert.assertEquals(RequestDeadline.parseTimeoutHint(Map.of()), 0);
+        Assert.assertEquals(RequestDeadline.parseTimeoutHint(Map.of(RequestDeadline.TIMEOUT_EXTENSION, 250)), 250);
+        Assert.assertEquals(RequestDeadline.parseTimeoutHint(Map.of(RequestDeadline.TIMEOUT_EXTENSION, "500")), 500);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_parseTimeoutHint_notNumeric() {
+        RequestDeadline.parseTimeoutHint(Map.of(RequestDeadline.TIMEOUT_EXTENSION, "soon"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_parseTimeoutHint_notPositive() {
+        RequestDeadline.parseTimeoutHint(Map.of(RequestDeadline.TIMEOUT_EXTENSION, -1));
+    }
+
+    @Test
+    public void test_onChange() {
+        RequestDeadline deadline = RequestDeadline.create();
+        AtomicInteger changes = new AtomicInteger();
+        Runnable remove = deadline.onChange(changes::incrementAndGet);
+
+        // Only changes that actually alter the deadline notify listeners
+        deadline.restrict(60_000);
+        Assert.assertEquals(changes.get(), 1);
+        deadline.restrict(120_000);
+        Assert.assertEquals(changes.get(), 1);
+        deadline.cancel();
+        Assert.assertEquals(changes.get(), 2);
+        deadline.cancel();
+        Assert.assertEquals(changes.get(), 2);
+
+        remove.run();
+        deadline.restrict(10);
+        Assert.assertEquals(changes.get(), 2);
+    }
+
+    @Test
+    public void test_onChange_none() {
+        AtomicInteger changes = new AtomicInteger();
+        RequestDeadline.NONE.onChange(changes::incrementAndGet).run();
+        RequestDeadline.NONE.cancel();
+        Assert.assertEquals(changes.get(), 0);
+    }
+}
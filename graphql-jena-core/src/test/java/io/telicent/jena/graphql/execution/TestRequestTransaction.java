@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import graphql.GraphQLContext;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingEnvironmentImpl;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.system.Txn;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class TestRequestTransaction {
+
+    private static DataFetchingEnvironment environment(RequestTransaction transaction) {
+        GraphQLContext context =
+                transaction != null ? GraphQLContext.of(Map.of(RequestTransaction.CONTEXT_KEY, transaction)) :
+                GraphQLContext.getDefault();
+        return DataFetchingEnvironmentImpl.newDataFetchingEnvironment().graphQLContext(context).build();
+    }
+
+    @Test
+    public void test_calculateRead_noRequestTransaction() {
+        // given
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        DataFetchingEnvironment environment = environment(null);
+
+        // when
+        boolean inTransaction = RequestTransaction.calculateRead(environment, dsg, dsg::isInTransaction);
+
+        // then
+        Assert.assertNull(RequestTransaction.get(environment));
+        Assert.assertTrue(inTransaction);
+        Assert.assertFalse(dsg.isInTransaction());
+    }
+
+    @Test
+    public void test_calculateRead_withinRequestTransaction() {
+        // given
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        RequestTransaction transaction = new RequestTransaction(dsg);
+        DataFetchingEnvironment environment = environment(transaction);
+
+        // when
+        boolean inTransaction = Txn.calculateRead(dsg, () -> RequestTransaction.calculateRead(environment, dsg,
+                                                                                              dsg::isInTransaction));
+
+        // then
+        Assert.assertSame(RequestTransaction.get(environment), transaction);
+        Assert.assertTrue(transaction.covers(dsg));
+        Assert.assertTrue(inTransaction);
+    }
+
+    @Test
+    public void test_calculateRead_coveredReadsDirectly() {
+        // given
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        DataFetchingEnvironment environment = environment(new RequestTransaction(dsg));
+
+        // when
+        // NB - Deliberately not in a transaction so we can observe that a covered read doesn't start its own
+        boolean inTransaction = RequestTransaction.calculateRead(environment, dsg, dsg::isInTransaction);
+
+        // then
+        Assert.assertFalse(inTransaction);
+    }
+
+    @Test
+    public void test_calculateRead_differentDataset() {
+        // given
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        DatasetGraph other = DatasetGraphFactory.createTxnMem();
+        RequestTransaction transaction = new RequestTransaction(dsg);
+        DataFetchingEnvironment environment = environment(transaction);
+
+        // when
+        boolean inTransaction = RequestTransaction.calculateRead(environment, other, other::isInTransaction);
+
+        // then
+        Assert.assertFalse(transaction.covers(other));
+        Assert.assertTrue(inTransaction);
+    }
+
+    @Test
+    public void test_calculateRead_differentThread() {
+        // given
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        RequestTransaction transaction = new RequestTransaction(dsg);
+        DataFetchingEnvironment environment = environment(transaction);
+
+        // when
+        boolean[] results = CompletableFuture.supplyAsync(
+                () -> new boolean[] {
+                        transaction.covers(dsg),
+                        RequestTransaction.calculateRead(environment, dsg, dsg::isInTransaction)
+                }).join();
+
+        // then
+        Assert.assertFalse(results[0]);
+        Assert.assertTrue(results[1]);
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import graphql.ExecutionResult;
+import io.telicent.jena.graphql.schemas.CoreSchema;
+import io.telicent.jena.graphql.schemas.DatasetSchema;
+import io.telicent.jena.graphql.schemas.models.NodeKind;
+import io.telicent.jena.graphql.server.model.GraphQLRequest;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@SuppressWarnings("unchecked")
+public class TestResponseNormaliser extends AbstractExecutionTests {
+
+    private static final String QUERY_BASE = "/queries/dataset/";
+
+    private static final Node PREDICATE = NodeFactory.createURI("https://example.org/predicate");
+
+    private static DatasetExecutor createExecutor(DatasetGraph dsg) throws IOException {
+        DatasetExecutor executor = new DatasetExecutor(dsg);
+        executor.setResponseNormaliser(new ResponseNormaliser(Map.of(CoreSchema.Node_TYPE, CoreSchema.VALUE_FIELD)));
+        return executor;
+    }
+
+    private static DatasetGraph createDataset(int size) {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        for (int i = 1; i <= size; i++) {
+            dsg.add(Quad.defaultGraphIRI, NodeFactory.createURI("https://example.org/" + i), PREDICATE,
+                    NodeFactory.createURI("https://example.org/" + (i + 1)));
+        }
+        return dsg;
+    }
+
+    private static GraphQLRequest createRequest(String queryResource, boolean normalise) {
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery(loadQuery(QUERY_BASE, queryResource));
+        Map<String, Object> extensions = new HashMap<>();
+        if (normalise) {
+            extensions.put(ResponseNormaliser.NORMALISE_EXTENSION, true);
+        }
+        request.setExtensions(extensions);
+        return request;
+    }
+
+    @DataProvider(name = "queries")
+    private Object[][] queries() {
+        return new Object[][] { { "simple-quads.graphql" }, { "fragment-quads.graphql" } };
+    }
+
+    @Test(dataProvider = "queries")
+    public void givenRepeatedNodes_whenExecutingNormalised_thenEachNodeAppearsOnce(String query) throws IOException {
+        // Given
+        DatasetExecutor executor = createExecutor(createDataset(10));
+
+        // When
+        ExecutionResult result = verifyExecution(executor, createRequest(query, true));
+
+        // Then
+        List<Map<String, Object>> quads = (List<Map<String, Object>>) ((Map<String, Object>) result.getData()).get(
+                DatasetSchema.QUADS_FIELD);
+        Assert.assertEquals(quads.size(), 10);
+        for (Map<String, Object> quad : quads) {
+            Assert.assertEquals(quad.get(CoreSchema.PREDICATE_FIELD), PREDICATE.getURI());
+            Assert.assertTrue(quad.get(CoreSchema.SUBJECT_FIELD) instanceof String);
+        }
+        Map<String, Map<String, Object>> entities =
+                (Map<String, Map<String, Object>>) result.getExtensions().get(ResponseNormaliser.ENTITIES_EXTENSION);
+        // 11 distinct subjects/objects plus the predicate
+        Assert.assertEquals(entities.size(), 12);
+        Assert.assertEquals(entities.get(PREDICATE.getURI()),
+                            Map.of(CoreSchema.KIND_FIELD, "URI", CoreSchema.VALUE_FIELD, PREDICATE.getURI()));
+    }
+
+    @Test
+    public void givenNoExtension_whenExecuting_thenNotNormalised() throws IOException {
+        // Given
+        DatasetExecutor executor = createExecutor(createDataset(3));
+
+        // When
+        ExecutionResult result = verifyExecution(executor, createRequest("simple-quads.graphql", false));
+
+        // Then
+        List<Map<String, Object>> quads = (List<Map<String, Object>>) ((Map<String, Object>) result.getData()).get(
+                DatasetSchema.QUADS_FIELD);
+        Assert.assertTrue(quads.get(0).get(CoreSchema.PREDICATE_FIELD) instanceof Map);
+        Assert.assertTrue(result.getExtensions() == null
+                                  || !result.getExtensions().containsKey(ResponseNormaliser.ENTITIES_EXTENSION));
+    }
+
+    @Test
+    public void givenConflictingOccurrences_whenExecutingNormalised_thenConflictLeftInline() throws IOException {
+        // Given
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        dsg.add(Quad.defaultGraphIRI, NodeFactory.createURI("https://example.org/a"), PREDICATE,
+                NodeFactory.createLiteralString("https://example.org/a"));
+        DatasetExecutor executor = createExecutor(dsg);
+
+        // When
+        ExecutionResult result = verifyExecution(executor, createRequest("simple-quads.graphql", true));
+
+        // Then
+        List<Map<String, Object>> quads = (List<Map<String, Object>>) ((Map<String, Object>) result.getData()).get(
+                DatasetSchema.QUADS_FIELD);
+        Assert.assertEquals(quads.get(0).get(CoreSchema.SUBJECT_FIELD), "https://example.org/a");
+        Map<String, Object> object = (Map<String, Object>) quads.get(0).get(CoreSchema.OBJECT_FIELD);
+        // Since Jena 5 a simple literal is an xsd:string so is reported as a typed literal
+        Assert.assertEquals(object.get(CoreSchema.KIND_FIELD), NodeKind.TYPED_LITERAL.name());
+        Assert.assertEquals(object.get(CoreSchema.VALUE_FIELD), "https://example.org/a");
+    }
+
+    @Test
+    public void givenNoNormaliser_whenExecutingNormalised_thenExtensionIgnored() throws IOException {
+        // Given
+        DatasetExecutor executor = new DatasetExecutor(createDataset(3));
+
+        // When
+        ExecutionResult result = verifyExecution(executor, createRequest("simple-quads.graphql", true));
+
+        // Then
+        List<Map<String, Object>> quads = (List<Map<String, Object>>) ((Map<String, Object>) result.getData()).get(
+                DatasetSchema.QUADS_FIELD);
+        Assert.assertTrue(quads.get(0).get(CoreSchema.SUBJECT_FIELD) instanceof Map);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void givenNoEntityTypes_whenCreatingNormaliser_thenIllegalArgument() {
+        // Given, When and Then
+        new ResponseNormaliser(Map.of());
+    }
+
+    @Test
+    public void givenExtensions_whenCheckingRequested_thenCorrectlyDetected() {
+        Assert.assertFalse(ResponseNormaliser.isRequested(null));
+        Assert.assertFalse(ResponseNormaliser.isRequested(Map.of()));
+        Assert.assertFalse(ResponseNormaliser.isRequested(Map.of(ResponseNormaliser.NORMALISE_EXTENSION, false)));
+        Assert.assertTrue(ResponseNormaliser.isRequested(Map.of(ResponseNormaliser.NORMALISE_EXTENSION, true)));
+        Assert.assertTrue(ResponseNormaliser.isRequested(Map.of(ResponseNormaliser.NORMALISE_EXTENSION, "true")));
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution;
+
+import graphql.GraphQLContext;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingEnvironmentImpl;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestResultLimits {
+
+    @Test
+    public void test_unlimited() {
+        Assert.assertTrue(ResultLimits.UNLIMITED.isUnlimited());
+        Assert.assertFalse(ResultLimits.UNLIMITED.hasByteLimit());
+        Assert.assertEquals(ResultLimits.UNLIMITED.getMode(), ResultLimits.OverflowMode.TRUNCATE);
+    }
+
+    @Test
+    public void test_limits() {
+        ResultLimits limits = new ResultLimits(10, 1_000, ResultLimits.OverflowMode.ABORT);
+        Assert.assertFalse(limits.isUnlimited());
+        Assert.assertTrue(limits.hasByteLimit());
+        Assert.assertEquals(limits.getMaxQuads(), 10);
+        Assert.assertEquals(limits.getMaxBytes(), 1_000);
+        Assert.assertEquals(limits.getMode(), ResultLimits.OverflowMode.ABORT);
+    }
+
+    @Test
+    public void test_quadLimitOnly() {
+        ResultLimits limits = new ResultLimits(10, Long.MAX_VALUE, null);
+        Assert.assertFalse(limits.isUnlimited());
+        Assert.assertFalse(limits.hasByteLimit());
+        Assert.assertEquals(limits.getMode(), ResultLimits.OverflowMode.TRUNCATE);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_invalidQuads() {
+        new ResultLimits(0, 1, ResultLimits.OverflowMode.TRUNCATE);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_invalidBytes() {
+        new ResultLimits(1, -1, null);
+    }
+
+    @Test
+    public void test_get_notConfigured() {
+        DataFetchingEnvironment environment =
+                DataFetchingEnvironmentImpl.newDataFetchingEnvironment()
+                                           .graphQLContext(GraphQLContext.newContext().build())
+                                           .build();
+        Assert.assertSame(ResultLimits.get(environment), ResultLimits.UNLIMITED);
+    }
+
+    @Test
+    public void test_get_configured() {
+        ResultLimits limits = new ResultLimits(10, Long.MAX_VALUE, ResultLimits.OverflowMode.ABORT);
+        DataFetchingEnvironment environment =
+                DataFetchingEnvironmentImpl.newDataFetchingEnvironment()
+                                           .graphQLContext(GraphQLContext.newContext()
+                                                                         .of(ResultLimits.CONTEXT_KEY, limits)
+                                                                         .build())
+                                           .build();
+        Assert.assertSame(ResultLimits.get(environment), limits);
+    }
+}
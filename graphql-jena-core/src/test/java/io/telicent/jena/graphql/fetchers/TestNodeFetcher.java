@@ -12,12 +12,14 @@
  */
 package io.telicent.jena.graphql.fetchers;
 
+import graphql.GraphQLContext;
 import graphql.execution.MergedField;
 import graphql.language.Field;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.DataFetchingEnvironmentImpl;
 import io.telicent.jena.graphql.schemas.models.WrappedNode;
 import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.sparql.core.Quad;
 import org.testng.Assert;
@@ -163,6 +165,80 @@ public class TestNodeFetcher {
         Assert.assertEquals(wrappedNode.getValue(), RANDOM_ID);
     }
 
+    @Test
+    public void test_get_quad_reusesWrappersWithinRequest() {
+        // given
+        NodeFetcher fetcher = new NodeFetcher();
+        MergedField mergedField = MergedField.newMergedField().addField(new Field("predicate")).build();
+        GraphQLContext context = GraphQLContext.newContext().build();
+        Node predicate = NodeFactory.createURI("https://example.org/predicate");
+        Quad first = new Quad(Quad.defaultGraphIRI, createBlankNode(), predicate, createBlankNode());
+        Quad second = new Quad(Quad.defaultGraphIRI, createBlankNode(), predicate, createBlankNode());
+
+        // when
+        WrappedNode a = fetcher.get(quadEnvironment(first, mergedField, context));
+        WrappedNode b = fetcher.get(quadEnvironment(second, mergedField, context));
+        WrappedNode c = fetcher.get(quadEnvironment(second, mergedField, GraphQLContext.newContext().build()));
+
+        // then
+        Assert.assertSame(a, b);
+        Assert.assertNotSame(a, c);
+        Assert.assertEquals(a, c);
+        WrappedNodeCache cache = context.get(NodeFetcher.WRAPPED_NODE_CACHE_KEY);
+        Assert.assertNotNull(cache);
+        Assert.assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void test_get_quad_reuseDisabled() {
+        // given
+        NodeFetcher fetcher = new NodeFetcher(false);
+        MergedField mergedField = MergedField.newMergedField().addField(new Field("graph")).build();
+        GraphQLContext context = GraphQLContext.newContext().build();
+        Quad quad = new Quad(Quad.defaultGraphIRI, createBlankNode(), createBlankNode(), createBlankNode());
+
+        // when
+        WrappedNode a = fetcher.get(quadEnvironment(quad, mergedField, context));
+        WrappedNode b = fetcher.get(quadEnvironment(quad, mergedField, context));
+
+        // then
+        Assert.assertNotSame(a, b);
+        Assert.assertEquals(a, b);
+        Assert.assertFalse(context.hasKey(NodeFetcher.WRAPPED_NODE_CACHE_KEY));
+    }
+
+    @Test
+    public void test_wrappedNodeCache_bounded() {
+        // given
+        WrappedNodeCache cache = new WrappedNodeCache(1);
+        Node a = NodeFactory.createURI("https://example.org/a");
+        Node b = NodeFactory.createURI("https://example.org/b");
+
+        // when
+        WrappedNode first = cache.wrap(a);
+        WrappedNode second = cache.wrap(b);
+
+        // then
+        Assert.assertSame(cache.wrap(a), first);
+        Assert.assertNotSame(cache.wrap(b), second);
+        Assert.assertEquals(cache.wrap(b), second);
+        Assert.assertEquals(cache.size(), 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_wrappedNodeCache_negativeSize() {
+        new WrappedNodeCache(-1);
+    }
+
+    private static DataFetchingEnvironment quadEnvironment(Quad quad, MergedField mergedField,
+                                                           GraphQLContext context) {
+        return DataFetchingEnvironmentImpl.newDataFetchingEnvironment()
+                                          .source(quad)
+                                          .mergedField(mergedField)
+                                          .graphQLContext(context)
+                                          .build();
+    }
+
     @DataProvider(name = "invalidMapFieldsAndNodes")
     private static Object[][] invalidMapFieldsAndNodes() {
         return new Object[][] {
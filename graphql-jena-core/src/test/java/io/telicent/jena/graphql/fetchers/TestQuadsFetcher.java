@@ -46,7 +46,7 @@ public class TestQuadsFetcher {
                 .build();
         QuadsFetcher quadsFetcher = new QuadsFetcher();
         // when
-        List<Object> result = quadsFetcher.get(environment);
+        List<Object> result = quadsFetcher.get(environment).getData();
         // then
         Assert.assertNotNull(result);
         Assert.assertTrue(result.isEmpty());
@@ -64,7 +64,7 @@ public class TestQuadsFetcher {
                 .build();
         QuadsFetcher quadsFetcher = new QuadsFetcher();
         // when
-        List<Object> result = quadsFetcher.get(environment);
+        List<Object> result = quadsFetcher.get(environment).getData();
         // then
         Assert.assertNotNull(result);
         Assert.assertTrue(result.isEmpty());
@@ -103,7 +103,7 @@ public class TestQuadsFetcher {
                 .build();
         QuadsFetcher quadsFetcher = new QuadsFetcher();
         // when
-        List<Object> result = quadsFetcher.get(environment);
+        List<Object> result = quadsFetcher.get(environment).getData();
         // then
         Assert.assertNotNull(result);
         Assert.assertFalse(result.isEmpty());
@@ -127,7 +127,7 @@ public class TestQuadsFetcher {
                 .build();
         QuadsFetcher quadsFetcher = new QuadsFetcher();
 
-        List<Object> result = quadsFetcher.get(environment);
+        List<Object> result = quadsFetcher.get(environment).getData();
 
         Assert.assertEquals(result.size(), 1);
         @SuppressWarnings("unchecked")
@@ -136,6 +136,21 @@ public class TestQuadsFetcher {
         Assert.assertNotEquals(quadMap.get(CoreSchema.GRAPH_FIELD), object);
     }
 
+    @Test
+    public void test_estimateBytes() {
+        Node uri = NodeFactory.createURI("https://example.org/subject");
+        Node literal = NodeFactory.createLiteralLang("foo", "en");
+        Quad quad = new Quad(Quad.defaultGraphIRI, uri, uri, literal);
+
+        long subjectOnly = QuadsFetcher.estimateBytes(quad, true, false, false, false);
+        long all = QuadsFetcher.estimateBytes(quad, true, true, true, true);
+
+        Assert.assertEquals(QuadsFetcher.estimateBytes(uri), QuadsFetcher.NODE_OVERHEAD_BYTES + uri.getURI().length());
+        Assert.assertEquals(QuadsFetcher.estimateBytes(literal), QuadsFetcher.NODE_OVERHEAD_BYTES + 5);
+        Assert.assertTrue(all > subjectOnly);
+        Assert.assertTrue(QuadsFetcher.estimateBytes(NodeFactory.createTripleTerm(uri, uri, literal)) > all / 2);
+    }
+
     private static class TestDataFetchingFieldSelectionSet
             implements DataFetchingFieldSelectionSet {
 
@@ -12,10 +12,12 @@
  */
 package io.telicent.jena.graphql.server.model;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import graphql.ExecutionResult;
 import graphql.ExecutionResultImpl;
 import graphql.GraphQLError;
 import graphql.execution.AbortExecutionException;
+import io.telicent.jena.graphql.execution.ResponseNormaliser;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -23,10 +25,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import static io.telicent.jena.graphql.server.model.GraphQLOverHttp.*;
 
@@ -155,4 +160,151 @@ public class TestGraphQLOverHttp {
         String result = outputStream.toString(StandardCharsets.UTF_8); // Specify the encoding used in the conversion
         Assert.assertNotNull(result);
     }
+
+    @Test
+    public void test_write_matchesSpecification() throws IOException {
+        // given
+        //@formatter:off
+        ExecutionResult executionResult = ExecutionResult.newExecutionResult()
+                                                         .data(Map.of("quads", List.of(Map.of("subject", "s"))))
+                                                         .addError(new AbortExecutionException("Truncated"))
+                                                         .extensions(Map.of("normalised", true))
+                                                         .build();
+        //@formatter:on
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // when
+        write(executionResult, outputStream);
+        // then
+        String expected = new ObjectMapper().writeValueAsString(executionResult.toSpecification());
+        Assert.assertEquals(outputStream.toString(StandardCharsets.UTF_8), expected);
+    }
+
+    @Test
+    public void test_write_noData() throws IOException {
+        // given
+        ExecutionResult executionResult = new ExecutionResultImpl(new AbortExecutionException("Aborted"));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // when
+        write(executionResult, outputStream);
+        // then
+        Map<String, Object> written = parseMap(outputStream.toString(StandardCharsets.UTF_8));
+        Assert.assertFalse(written.containsKey("data"));
+        Assert.assertEquals(((List<?>) written.get("errors")).size(), 1);
+    }
+
+    @Test
+    public void test_acceptsNormalised() {
+        // given, when and then
+        Assert.assertFalse(acceptsNormalised(null));
+        Assert.assertFalse(acceptsNormalised(CONTENT_TYPE_GRAPHQL_RESPONSE_JSON));
+        Assert.assertFalse(acceptsNormalised(CONTENT_TYPE_GRAPHQL_RESPONSE_JSON + "; normalised=false"));
+        Assert.assertTrue(acceptsNormalised(CONTENT_TYPE_GRAPHQL_RESPONSE_JSON + "; normalised=true"));
+        Assert.assertTrue(acceptsNormalised(CONTENT_TYPE_GRAPHQL_RESPONSE_JSON + ";q=0.9;normalised=\"TRUE\""));
+        Assert.assertTrue(
+                acceptsNormalised("application/json, " + CONTENT_TYPE_GRAPHQL_RESPONSE_JSON + "; normalised=true"));
+    }
+
+    @Test
+    public void test_applyAccept() {
+        // given
+        Map<String, Object> extensions = Map.of("timeoutMs", 100);
+        // when
+        Map<String, Object> unchanged = applyAccept(extensions, CONTENT_TYPE_GRAPHQL_RESPONSE_JSON);
+        Map<String, Object> normalised =
+                applyAccept(extensions, CONTENT_TYPE_GRAPHQL_RESPONSE_JSON + "; normalised=true");
+        // then
+        Assert.assertSame(unchanged, extensions);
+        Assert.assertEquals(normalised.get(ResponseNormaliser.NORMALISE_EXTENSION), true);
+        Assert.assertEquals(normalised.get("timeoutMs"), 100);
+        Assert.assertTrue(ResponseNormaliser.isRequested(applyAccept(null, "*/*; normalised=true")));
+    }
+
+    @Test
+    public void test_computeETag_deterministic() {
+        // given
+        Map<String, Object> variables = new LinkedHashMap<>();
+        variables.put("a", 1);
+        variables.put("b", List.of("x", "y"));
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("b", List.of("x", "y"));
+        reordered.put("a", 1);
+
+        // when
+        String etag = computeETag("executor", 1, "{quads{subject{kind}}}", null, variables, null);
+        String same = computeETag("executor", 1, "{quads{subject{kind}}}", null, reordered, Map.of());
+
+        // then
+        Assert.assertTrue(etag.startsWith("W/\""));
+        Assert.assertTrue(etag.endsWith("\""));
+        Assert.assertEquals(etag, same);
+    }
+
+    @Test
+    public void test_computeETag_distinguishes() {
+        // given
+        String etag = computeETag("executor", 1, "{quads{subject{kind}}}", null, null, null);
+
+        // when and then
+        Assert.assertNotEquals(computeETag("other", 1, "{quads{subject{kind}}}", null, null, null), etag);
+        Assert.assertNotEquals(computeETag("executor", 2, "{quads{subject{kind}}}", null, null, null), etag);
+        Assert.assertNotEquals(computeETag("executor", 1, "{quads{object{kind}}}", null, null, null), etag);
+        Assert.assertNotEquals(computeETag("executor", 1, "{quads{subject{kind}}}", "Op", null, null), etag);
+        Assert.assertNotEquals(computeETag("executor", 1, "{quads{subject{kind}}}", null, Map.of("a", 1), null), etag);
+        Assert.assertNotEquals(computeETag("executor", 1, "{quads{subject{kind}}}", null, null, Map.of("a", 1)), etag);
+    }
+
+    @Test
+    public void test_computeETag_differsAcrossRestarts() throws Exception {
+        // given
+        String etag = computeETag("executor", 1, "{quads{subject{kind}}}", null, null, null);
+
+        // when
+        // Simulate a restart by loading a fresh copy of the class, which has its own static state
+        String className = GraphQLOverHttp.class.getName();
+        ClassLoader restarted = new ClassLoader(GraphQLOverHttp.class.getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                // Nested classes must be reloaded too so that they can access the reloaded class
+                if (!name.equals(className) && !name.startsWith(className + "$")) {
+                    return super.loadClass(name, resolve);
+                }
+                synchronized (getClassLoadingLock(name)) {
+                    Class<?> loaded = findLoadedClass(name);
+                    if (loaded != null) {
+                        return loaded;
+                    }
+                    try (InputStream input = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        byte[] bytes = Objects.requireNonNull(input).readAllBytes();
+                        return defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+            }
+        };
+        Method method = restarted.loadClass(className)
+                                 .getMethod("computeETag", String.class, long.class, String.class, String.class,
+                                            Map.class, Map.class);
+        String afterRestart = (String) method.invoke(null, "executor", 1L, "{quads{subject{kind}}}", null, null, null);
+
+        // then
+        Assert.assertNotEquals(afterRestart, etag);
+        Assert.assertEquals(computeETag("executor", 1, "{quads{subject{kind}}}", null, null, null), etag);
+    }
+
+    @Test
+    public void test_matchesETag() {
+        // given
+        String etag = "W/\"abc\"";
+
+        // when and then
+        Assert.assertTrue(matchesETag("W/\"abc\"", etag));
+        Assert.assertTrue(matchesETag("\"abc\"", etag));
+        Assert.assertTrue(matchesETag("\"xyz\", W/\"abc\"", etag));
+        Assert.assertTrue(matchesETag("*", etag));
+        Assert.assertFalse(matchesETag("W/\"xyz\"", etag));
+        Assert.assertFalse(matchesETag(null, etag));
+        Assert.assertFalse(matchesETag("", etag));
+        Assert.assertFalse(matchesETag("*", null));
+    }
 }
@@ -0,0 +1,264 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.query.TxnType;
+import org.apache.jena.sparql.JenaTransactionException;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.core.Transactional;
+import org.apache.jena.system.Txn;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class TestCompactDatasetGraph {
+
+    private static final Node G1 = NodeFactory.createURI("https://example.org/g1");
+    private static final Node S1 = NodeFactory.createURI("https://example.org/s1");
+    private static final Node P1 = NodeFactory.createURI("https://example.org/p1");
+    private static final Node O1 = NodeFactory.createLiteralString("o1");
+
+    private static Node node(String prefix, int i) {
+        return NodeFactory.createURI("https://example.org/" + prefix + i);
+    }
+
+    private static List<Quad> randomQuads(int count, long seed) {
+        Random random = new Random(seed);
+        List<Quad> quads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int graph = random.nextInt(5);
+            Node o = random.nextBoolean() ? node("s", random.nextInt(50)) :
+                     NodeFactory.createLiteralString("value " + random.nextInt(20));
+            quads.add(Quad.create(graph == 0 ? Quad.defaultGraphIRI : node("g", graph), node("s", random.nextInt(50)),
+                                  node("p", random.nextInt(5)), o));
+        }
+        return quads;
+    }
+
+    private static void load(DatasetGraph dsg, List<Quad> quads) {
+        Txn.executeWrite(dsg, () -> quads.forEach(dsg::add));
+    }
+
+    private static Set<Quad> find(DatasetGraph dsg, Node g, Node s, Node p, Node o) {
+        return Txn.calculateRead(dsg, () -> new HashSet<>(Iter.toList(dsg.find(g, s, p, o))));
+    }
+
+    private static Set<Quad> findNG(DatasetGraph dsg, Node g, Node s, Node p, Node o) {
+        return Txn.calculateRead(dsg, () -> new HashSet<>(Iter.toList(dsg.findNG(g, s, p, o))));
+    }
+
+    @Test
+    public void givenSameQuads_whenFindingEveryPattern_thenSameAsInMemoryDataset() {
+        // Given
+        List<Quad> quads = randomQuads(5_000, 12345);
+        DatasetGraph expected = DatasetGraphFactory.createTxnMem();
+        CompactDatasetGraph actual = new CompactDatasetGraph();
+        load(expected, quads);
+        load(actual, quads);
+        Assert.assertEquals(actual.getQuadCount(), expected.stream().count());
+
+        // When and Then
+        Quad sample = quads.get(42);
+        Node[] terms = { sample.getGraph(), sample.getSubject(), sample.getPredicate(), sample.getObject() };
+        for (int mask = 0; mask < 16; mask++) {
+            Node[] pattern = new Node[4];
+            for (int i = 0; i < 4; i++) {
+                pattern[i] = (mask & (1 << i)) != 0 ? terms[i] : Node.ANY;
+            }
+            Assert.assertEquals(find(actual, pattern[0], pattern[1], pattern[2], pattern[3]),
+                                find(expected, pattern[0], pattern[1], pattern[2], pattern[3]),
+                                "Pattern " + Arrays.toString(pattern));
+            if (!Quad.isDefaultGraph(pattern[0])) {
+                Assert.assertEquals(findNG(actual, pattern[0], pattern[1], pattern[2], pattern[3]),
+                                    findNG(expected, pattern[0], pattern[1], pattern[2], pattern[3]),
+                                    "Named graph pattern " + Arrays.toString(pattern));
+            }
+        }
+        Assert.assertEquals(find(actual, Quad.unionGraph, Node.ANY, sample.getPredicate(), Node.ANY),
+                            find(expected, Quad.unionGraph, Node.ANY, sample.getPredicate(), Node.ANY));
+        Txn.executeRead(actual, () -> Txn.executeRead(expected, () -> {
+            Assert.assertEquals(new HashSet<>(Iter.toList(actual.listGraphNodes())),
+                                new HashSet<>(Iter.toList(expected.listGraphNodes())));
+            Assert.assertEquals(actual.getDefaultGraph().size(), expected.getDefaultGraph().size());
+            Assert.assertEquals(actual.getGraph(node("g", 1)).size(), expected.getGraph(node("g", 1)).size());
+        }));
+    }
+
+    @Test
+    public void givenUnknownTerm_whenFinding_thenNothingFound() {
+        // Given
+        CompactDatasetGraph dsg = new CompactDatasetGraph();
+        load(dsg, randomQuads(100, 1));
+
+        // When and Then
+        Assert.assertTrue(find(dsg, Node.ANY, node("unknown", 1), Node.ANY, Node.ANY).isEmpty());
+        Assert.assertTrue(find(dsg, node("unknown", 1), Node.ANY, Node.ANY, Node.ANY).isEmpty());
+    }
+
+    @Test
+    public void givenDuplicateQuads_whenAdding_thenStoredOnce() {
+        // Given
+        CompactDatasetGraph dsg = new CompactDatasetGraph();
+
+        // When
+        load(dsg, List.of(Quad.create(G1, S1, P1, O1), Quad.create(G1, S1, P1, O1)));
+        load(dsg, List.of(Quad.create(G1, S1, P1, O1)));
+
+        // Then
+        Assert.assertEquals(dsg.getQuadCount(), 1);
+    }
+
+    @Test
+    public void givenWriteOutsideTransaction_whenAddingAndDeleting_thenAutoCommitted() {
+        // Given
+        CompactDatasetGraph dsg = new CompactDatasetGraph();
+
+        // When
+        dsg.add(Quad.defaultGraphNodeGenerated, S1, P1, O1);
+
+        // Then
+        Assert.assertFalse(dsg.isInTransaction());
+        Assert.assertTrue(dsg.contains(Quad.defaultGraphIRI, S1, P1, O1));
+        Assert.assertTrue(dsg.getDefaultGraph().contains(S1, P1, O1));
+
+        // And
+        dsg.delete(Quad.defaultGraphIRI, S1, P1, O1);
+        Assert.assertTrue(dsg.isEmpty());
+    }
+
+    @Test
+    public void givenWriteTransaction_whenFinding_thenOwnChangesVisible() {
+        // Given
+        CompactDatasetGraph dsg = new CompactDatasetGraph();
+        load(dsg, List.of(Quad.create(G1, S1, P1, O1)));
+
+        // When
+        dsg.begin(ReadWrite.WRITE);
+        try {
+            dsg.delete(G1, S1, P1, O1);
+            dsg.add(G1, S1, P1, NodeFactory.createLiteralString("o2"));
+            dsg.add(G1, S1, P1, NodeFactory.createLiteralString("o2"));
+
+            // Then
+            Assert.assertFalse(dsg.contains(G1, S1, P1, O1));
+            Assert.assertEquals(Iter.count(dsg.find(G1, S1, P1, Node.ANY)), 1);
+            Assert.assertEquals(Iter.toList(dsg.listGraphNodes()), List.of(G1));
+            dsg.commit();
+        } finally {
+            dsg.end();
+        }
+        Assert.assertEquals(dsg.getQuadCount(), 1);
+        Assert.assertTrue(dsg.contains(G1, S1, P1, NodeFactory.createLiteralString("o2")));
+    }
+
+    @Test
+    public void givenAbortedWrite_whenFinding_thenChangesDiscarded() {
+        // Given
+        CompactDatasetGraph dsg = new CompactDatasetGraph();
+        load(dsg, List.of(Quad.create(G1, S1, P1, O1)));
+
+        // When
+        dsg.begin(TxnType.WRITE);
+        dsg.deleteAny(Node.ANY, Node.ANY, Node.ANY, Node.ANY);
+        dsg.add(G1, S1, P1, NodeFactory.createLiteralString("o2"));
+        dsg.abort();
+        dsg.end();
+
+        // Then
+        Assert.assertEquals(find(dsg, Node.ANY, Node.ANY, Node.ANY, Node.ANY), Set.of(Quad.create(G1, S1, P1, O1)));
+    }
+
+    @Test
+    public void givenReadTransaction_whenWriterCommits_thenReaderSeesItsSnapshot() throws Exception {
+        // Given
+        CompactDatasetGraph dsg = new CompactDatasetGraph();
+        load(dsg, List.of(Quad.create(G1, S1, P1, O1)));
+
+        dsg.begin(TxnType.READ);
+        try {
+            // When
+            CompletableFuture.runAsync(() -> load(dsg, List.of(Quad.create(G1, S1, P1, NodeFactory.createLiteralString(
+                    "o2"))))).get(5, TimeUnit.SECONDS);
+
+            // Then
+            Assert.assertEquals(Iter.count(dsg.find()), 1);
+        } finally {
+            dsg.end();
+        }
+        Assert.assertEquals(find(dsg, Node.ANY, Node.ANY, Node.ANY, Node.ANY).size(), 2);
+    }
+
+    @Test
+    public void givenPromotableRead_whenWriting_thenPromoted() {
+        // Given
+        CompactDatasetGraph dsg = new CompactDatasetGraph();
+
+        // When
+        dsg.begin(TxnType.READ_PROMOTE);
+        try {
+            dsg.add(G1, S1, P1, O1);
+            Assert.assertEquals(dsg.transactionMode(), ReadWrite.WRITE);
+            dsg.commit();
+        } finally {
+            dsg.end();
+        }
+
+        // Then
+        Assert.assertEquals(dsg.getQuadCount(), 1);
+    }
+
+    @Test
+    public void givenStaleIsolatedRead_whenPromoting_thenNotPromoted() throws Exception {
+        // Given
+        CompactDatasetGraph dsg = new CompactDatasetGraph();
+        dsg.begin(TxnType.READ_PROMOTE);
+        try {
+            CompletableFuture.runAsync(() -> load(dsg, List.of(Quad.create(G1, S1, P1, O1))))
+                             .get(5, TimeUnit.SECONDS);
+
+            // When and Then
+            Assert.assertFalse(dsg.promote(Transactional.Promote.ISOLATED));
+            Assert.assertTrue(dsg.promote(Transactional.Promote.READ_COMMITTED));
+            Assert.assertTrue(dsg.contains(G1, S1, P1, O1));
+        } finally {
+            dsg.end();
+        }
+    }
+
+    @Test(expectedExceptions = JenaTransactionException.class)
+    public void givenReadTransaction_whenWriting_thenError() {
+        // Given
+        CompactDatasetGraph dsg = new CompactDatasetGraph();
+        dsg.begin(TxnType.READ);
+        try {
+            // When and Then
+            dsg.add(G1, S1, P1, O1);
+        } finally {
+            dsg.end();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void givenNonConcreteQuad_whenAdding_thenError() {
+        new CompactDatasetGraph().add(G1, S1, P1, Node.ANY);
+    }
+}
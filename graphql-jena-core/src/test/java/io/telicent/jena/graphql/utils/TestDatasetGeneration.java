@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.TxnType;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.Txn;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestDatasetGeneration {
+
+    private static final Node SUBJECT = NodeFactory.createURI("https://example.org/s");
+    private static final Node PREDICATE = NodeFactory.createURI("https://example.org/p");
+    private static final Node OBJECT = NodeFactory.createLiteralString("o");
+
+    @Test
+    public void givenUntrackedDataset_whenGettingGeneration_thenNull() {
+        // Given
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+
+        // When and Then
+        Assert.assertNull(DatasetGeneration.get(dsg));
+        Assert.assertNull(DatasetGeneration.get(null));
+    }
+
+    @Test
+    public void givenTrackedDataset_whenCommittingWrite_thenGenerationAdvances() {
+        // Given
+        DatasetGraph dsg = DatasetGeneration.track(DatasetGraphFactory.createTxnMem());
+        DatasetGeneration generation = DatasetGeneration.get(dsg);
+        Assert.assertNotNull(generation);
+        Assert.assertEquals(generation.current(), 0);
+
+        // When
+        Txn.executeWrite(dsg, () -> dsg.add(Quad.defaultGraphIRI, SUBJECT, PREDICATE, OBJECT));
+
+        // Then
+        Assert.assertEquals(generation.current(), 1);
+    }
+
+    @Test
+    public void givenTrackedDataset_whenReadingOrAborting_thenGenerationUnchanged() {
+        // Given
+        DatasetGraph dsg = DatasetGeneration.track(DatasetGraphFactory.createTxnMem());
+        DatasetGeneration generation = DatasetGeneration.get(dsg);
+
+        // When
+        Txn.executeRead(dsg, () -> dsg.find().hasNext());
+        dsg.begin(TxnType.WRITE);
+        dsg.add(Quad.defaultGraphIRI, SUBJECT, PREDICATE, OBJECT);
+        dsg.abort();
+        dsg.end();
+
+        // Then
+        Assert.assertEquals(generation.current(), 0);
+        Assert.assertFalse(Txn.calculateRead(dsg, () -> dsg.find().hasNext()));
+    }
+
+    @Test
+    public void givenTrackedDataset_whenWritingOutsideTransaction_thenGenerationAdvances() {
+        // Given
+        DatasetGraph dsg = DatasetGeneration.track(DatasetGraphFactory.create());
+        DatasetGeneration generation = DatasetGeneration.get(dsg);
+
+        // When
+        dsg.add(Quad.defaultGraphIRI, SUBJECT, PREDICATE, OBJECT);
+        dsg.delete(Quad.defaultGraphIRI, SUBJECT, PREDICATE, OBJECT);
+
+        // Then
+        Assert.assertEquals(generation.current(), 2);
+    }
+
+    @Test
+    public void givenTrackedDataset_whenTrackingAgain_thenGenerationShared() {
+        // Given
+        DatasetGraph base = DatasetGraphFactory.createTxnMem();
+        DatasetGraph dsg = DatasetGeneration.track(base);
+
+        // When
+        DatasetGraph again = DatasetGeneration.track(dsg);
+        DatasetGraph other = DatasetGeneration.track(base);
+        Txn.executeWrite(other, () -> other.add(Quad.defaultGraphIRI, SUBJECT, PREDICATE, OBJECT));
+
+        // Then
+        Assert.assertSame(again, dsg);
+        Assert.assertNotSame(other, dsg);
+        Assert.assertSame(DatasetGeneration.get(other), DatasetGeneration.get(dsg));
+        Assert.assertSame(DatasetGeneration.get(base), DatasetGeneration.get(dsg));
+        Assert.assertEquals(DatasetGeneration.get(dsg).current(), 1);
+    }
+
+    @Test
+    public void givenInitialGeneration_whenTracking_thenGenerationFollowsOn() {
+        // Given
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        dsg.getContext().set(DatasetGeneration.SYMBOL, new DatasetGeneration(42));
+
+        // When
+        DatasetGraph tracked = DatasetGeneration.track(dsg);
+        Txn.executeWrite(tracked, () -> tracked.add(Quad.defaultGraphIRI, SUBJECT, PREDICATE, OBJECT));
+
+        // Then
+        Assert.assertEquals(DatasetGeneration.get(tracked).current(), 43);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void givenNegativeInitialGeneration_whenCreating_thenError() {
+        new DatasetGeneration(-1);
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.datatypes.BaseDatatype;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.Txn;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class TestDatasetSnapshot {
+
+    private static final Node GRAPH = NodeFactory.createURI("https://example.org/graph");
+    private static final Node SUBJECT = NodeFactory.createURI("https://example.org/subject");
+
+    private Path directory;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("snapshots");
+    }
+
+    @AfterMethod
+    public void teardown() throws IOException {
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static DatasetGraph createDataset() {
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        Txn.executeWrite(dsg, () -> {
+            dsg.prefixes().add("ex", "https://example.org/");
+            dsg.prefixes().add("rdfs", RDFS.getURI());
+            dsg.add(Quad.defaultGraphIRI, SUBJECT, RDF.type.asNode(), RDFS.Class.asNode());
+            dsg.add(Quad.defaultGraphIRI, SUBJECT, RDFS.label.asNode(), NodeFactory.createLiteralString("Label"));
+            dsg.add(Quad.defaultGraphIRI, SUBJECT, RDFS.label.asNode(),
+                    NodeFactory.createLiteralLang("Étiquette", "fr"));
+            dsg.add(GRAPH, SUBJECT, RDFS.comment.asNode(), NodeFactory.createLiteralString("x".repeat(100_000)));
+            dsg.add(GRAPH, SUBJECT, RDFS.seeAlso.asNode(), NodeFactory.createBlankNode("b1"));
+            dsg.add(GRAPH, NodeFactory.createBlankNode("b1"), RDFS.member.asNode(),
+                    NodeFactory.createLiteralDT("42", XSDDatatype.XSDinteger));
+            dsg.add(GRAPH, NodeFactory.createBlankNode("b1"), RDFS.member.asNode(),
+                    NodeFactory.createLiteralDT("1.5", XSDDatatype.XSDdecimal));
+            dsg.add(GRAPH, NodeFactory.createBlankNode("b1"), RDFS.member.asNode(),
+                    NodeFactory.createLiteralDT("custom", new BaseDatatype("https://example.org/datatype")));
+            for (int i = 0; i < 1_000; i++) {
+                dsg.add(GRAPH, NodeFactory.createURI("https://example.org/" + i), RDF.type.asNode(),
+                        RDFS.Resource.asNode());
+            }
+        });
+        return dsg;
+    }
+
+    private static Set<Quad> quads(DatasetGraph dsg) {
+        return Txn.calculateRead(dsg, () -> {
+            Set<Quad> quads = new HashSet<>();
+            dsg.find().forEachRemaining(quads::add);
+            return quads;
+        });
+    }
+
+    @Test
+    public void givenDataset_whenWritingAndReadingSnapshot_thenIdentical() throws IOException {
+        // Given
+        DatasetGraph dsg = createDataset();
+        Path snapshot = this.directory.resolve("data.snapshot");
+
+        // When
+        long written = DatasetSnapshot.write(dsg, snapshot, null);
+        DatasetGraph read = DatasetSnapshot.read(snapshot);
+
+        // Then
+        Set<Quad> expected = quads(dsg);
+        Assert.assertEquals(written, expected.size());
+        Assert.assertEquals(quads(read), expected);
+        Assert.assertEquals(Txn.calculateRead(read, () -> read.prefixes().getMapping()),
+                            Txn.calculateRead(dsg, () -> dsg.prefixes().getMapping()));
+        Assert.assertTrue(Txn.calculateRead(read, () -> read.getDefaultGraph().size() == 3));
+        try (Stream<Path> files = Files.list(this.directory)) {
+            Assert.assertEquals(files.count(), 1, "Temporary file should have been removed");
+        }
+    }
+
+    @Test
+    public void givenEmptyDataset_whenWritingAndReadingSnapshot_thenEmpty() throws IOException {
+        // Given
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        Path snapshot = this.directory.resolve("empty.snapshot");
+
+        // When
+        DatasetSnapshot.write(dsg, snapshot, null);
+        DatasetGraph read = DatasetSnapshot.read(snapshot);
+
+        // Then
+        Assert.assertTrue(quads(read).isEmpty());
+    }
+
+    @Test
+    public void givenSnapshotOfSource_whenSourceChanges_thenNoLongerCurrent() throws IOException {
+        // Given
+        Path source = Files.writeString(this.directory.resolve("data.trig"), "# data");
+        Path snapshot = this.directory.resolve("data.snapshot");
+        Assert.assertFalse(DatasetSnapshot.isCurrent(snapshot, source));
+        DatasetSnapshot.write(createDataset(), snapshot, source);
+        Assert.assertTrue(DatasetSnapshot.isCurrent(snapshot, source));
+
+        // When
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 10_000));
+
+        // Then
+        Assert.assertFalse(DatasetSnapshot.isCurrent(snapshot, source));
+        Assert.assertFalse(DatasetSnapshot.isCurrent(snapshot, null));
+    }
+
+    @Test
+    public void givenTruncatedSnapshot_whenReading_thenError() throws IOException {
+        // Given
+        Path snapshot = this.directory.resolve("data.snapshot");
+        DatasetSnapshot.write(createDataset(), snapshot, null);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+
+        // When and Then
+        Assert.assertThrows(IOException.class, () -> DatasetSnapshot.read(snapshot));
+    }
+
+    @Test
+    public void givenNonSnapshotFile_whenReading_thenError() throws IOException {
+        // Given
+        Path file = Files.writeString(this.directory.resolve("data.trig"), "# Not a snapshot");
+
+        // When and Then
+        Assert.assertThrows(IOException.class, () -> DatasetSnapshot.read(file));
+        Assert.assertFalse(DatasetSnapshot.isCurrent(file, file));
+    }
+}
@@ -12,8 +12,13 @@
  */
 package io.telicent.jena.graphql.utils;
 
+import org.apache.jena.datatypes.xsd.XSDDatatype;
 import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.vocabulary.XSD;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.util.List;
@@ -96,4 +101,98 @@ public class TestNodeFilter {
         Assert.assertNotNull(actualList);
         Assert.assertFalse(actualList.isEmpty());
     }
+
+    @Test
+    public void test_parsePattern_empty() {
+        // given
+        // when
+        Quad actual = parsePattern(null);
+        Quad actualEmpty = parsePattern(emptyMap());
+        // then
+        Assert.assertEquals(actual, Quad.ANY);
+        Assert.assertEquals(actualEmpty, Quad.ANY);
+    }
+
+    @Test
+    public void test_parsePattern_partial() {
+        // given
+        Node predicate = NodeFactory.createURI("https://example.org/predicate");
+        // when
+        Quad actual = parsePattern(Map.of("predicate", make(predicate)));
+        // then
+        Assert.assertEquals(actual.getPredicate(), predicate);
+        Assert.assertEquals(actual.getGraph(), Node.ANY);
+        Assert.assertEquals(actual.getSubject(), Node.ANY);
+        Assert.assertEquals(actual.getObject(), Node.ANY);
+    }
+
+    @DataProvider(name = "invalidConditionalFilters")
+    private static Object[][] invalidConditionalFilters() {
+        return new Object[][] {
+                { Map.of("kind", "URI", "value", "https://example.org", "prefix", "https://") },
+                { Map.of("kind", "BLANK", "prefix", "b") },
+                { Map.of("kind", "URI", "language", "en") },
+                { Map.of("kind", "URI", "datatype", XSD.integer.getURI(), "prefix", "https://") },
+                { Map.of("kind", "PLAIN_LITERAL", "gt", "1") },
+                { Map.of("kind", "TYPED_LITERAL", "gt", "1") },
+                { Map.of("kind", "TYPED_LITERAL", "datatype", XSD.integer.getURI(), "lt", "not-a-number") },
+                { Map.of("prefix", "https://") }
+        };
+    }
+
+    @Test(dataProvider = "invalidConditionalFilters", expectedExceptions = IllegalArgumentException.class)
+    public void test_parseMatcher_invalid(Map<String, Object> filter) {
+        parseMatcher(filter);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void test_parse_conditionalUnsupported() {
+        parse(Map.of("kind", "URI", "prefix", "https://"));
+    }
+
+    @Test
+    public void test_parseMatcher_exact() {
+        // given
+        Node n = NodeFactory.createURI("https://example.org/a");
+        // when
+        NodeMatcher matcher = parseMatcher(make(n));
+        // then
+        Assert.assertFalse(matcher.hasConditions());
+        Assert.assertEquals(matcher.getNode(), n);
+        Assert.assertTrue(matcher.test(n));
+        Assert.assertFalse(matcher.test(NodeFactory.createURI("https://example.org/b")));
+        Assert.assertSame(parseMatcher(null), NodeMatcher.ANY);
+    }
+
+    @Test
+    public void test_parseMatcher_range() {
+        // given
+        Map<String, Object> filter =
+                Map.of("kind", "TYPED_LITERAL", "datatype", XSD.dateTime.getURI(), "gt", "2024-01-01T00:00:00Z");
+        // when
+        NodeMatcher matcher = parseMatcher(filter);
+        // then
+        Assert.assertTrue(matcher.hasConditions());
+        Assert.assertEquals(matcher.getNode(), Node.ANY);
+        Assert.assertTrue(matcher.test(NodeFactory.createLiteralDT("2024-06-01T00:00:00Z", XSDDatatype.XSDdateTime)));
+        Assert.assertFalse(matcher.test(NodeFactory.createLiteralDT("2024-01-01T00:00:00Z", XSDDatatype.XSDdateTime)));
+        Assert.assertFalse(matcher.test(NodeFactory.createLiteralDT("2023-06-01T00:00:00Z", XSDDatatype.XSDdateTime)));
+        Assert.assertFalse(matcher.test(NodeFactory.createLiteralString("2024-06-01T00:00:00Z")));
+        Assert.assertFalse(matcher.test(NodeFactory.createURI("https://example.org")));
+        Assert.assertNotNull(matcher.toString());
+    }
+
+    @Test
+    public void test_parseMatcher_language() {
+        // given
+        Map<String, Object> filter = Map.of("kind", "LANGUAGE_LITERAL", "language", "EN");
+        // when
+        NodeMatcher matcher = parseMatcher(filter);
+        // then
+        Assert.assertTrue(matcher.test(NodeFactory.createLiteralLang("colour", "en-GB")));
+        Assert.assertTrue(matcher.test(NodeFactory.createLiteralLang("color", "en")));
+        Assert.assertFalse(matcher.test(NodeFactory.createLiteralLang("couleur", "fr")));
+        Assert.assertFalse(matcher.test(NodeFactory.createLiteralLang("x", "eng")));
+        Assert.assertFalse(matcher.test(NodeFactory.createLiteralString("colour")));
+    }
 }
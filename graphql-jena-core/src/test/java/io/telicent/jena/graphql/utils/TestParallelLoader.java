@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.riot.RDFParserBuilder;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.util.IsoMatcher;
+import org.apache.jena.system.Txn;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class TestParallelLoader {
+
+    private static final Node LABEL = NodeFactory.createURI("http://www.w3.org/2000/01/rdf-schema#label");
+
+    private Path directory;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("loader");
+    }
+
+    @AfterMethod
+    public void teardown() throws IOException {
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private Path writeNQuads(int count) throws IOException {
+        List<String> lines = new ArrayList<>();
+        // The same blank node appears in the first and last chunks
+        lines.add("_:b1 <https://example.org/first> \"true\" <https://example.org/graph> .");
+        for (int i = 0; i < count; i++) {
+            lines.add("<https://example.org/" + i + "> <http://www.w3.org/2000/01/rdf-schema#label> \"Label " +
+                      (i % 10) + "\" <https://example.org/graph" + (i % 3) + "> .");
+            lines.add("<https://example.org/" + i + "> <https://example.org/next> <https://example.org/" + (i + 1) +
+                      "> .");
+        }
+        lines.add("_:b1 <https://example.org/last> \"true\" <https://example.org/graph> .");
+        Path file = this.directory.resolve("data.nq");
+        Files.write(file, lines);
+        return file;
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void givenNoThreads_whenCreatingLoader_thenError() {
+        new ParallelLoader(0, ParallelLoader.DEFAULT_CHUNK_SIZE);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void givenNoChunkSize_whenCreatingLoader_thenError() {
+        new ParallelLoader(1, 0);
+    }
+
+    @Test
+    public void givenChunkedNQuads_whenLoading_thenSameAsParsing() throws Exception {
+        // Given
+        Path file = writeNQuads(5_000);
+        DatasetGraph expected = DatasetGraphFactory.createTxnMem();
+        RDFParserBuilder.create().source(file).parse(expected);
+        ParallelLoader loader = new ParallelLoader(4, 4 * 1024);
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        Assert.assertEquals(loader.getQuadsPerSecond(), 0d);
+
+        // When
+        long quads = loader.load(dsg, List.of(file));
+
+        // Then
+        Assert.assertEquals(quads, 10_002);
+        Assert.assertEquals(loader.getQuadsRead(), 10_002);
+        Assert.assertTrue(loader.getQuadsPerSecond() > 0);
+        Txn.executeRead(dsg, () -> {
+            Txn.executeRead(expected, () -> Assert.assertTrue(IsoMatcher.isomorphic(expected, dsg)));
+            // Blank node labels are scoped to the file rather than the chunk
+            Node first = dsg.find(Node.ANY, Node.ANY, NodeFactory.createURI("https://example.org/first"), Node.ANY)
+                            .next()
+                            .getSubject();
+            Node last = dsg.find(Node.ANY, Node.ANY, NodeFactory.createURI("https://example.org/last"), Node.ANY)
+                           .next()
+                           .getSubject();
+            Assert.assertEquals(first, last);
+        });
+    }
+
+    @Test
+    public void givenRepeatedTerms_whenLoading_thenTermsShared() throws Exception {
+        // Given
+        Path file = writeNQuads(1_000);
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+
+        // When
+        new ParallelLoader(2, 1024).load(dsg, List.of(file));
+
+        // Then
+        Txn.executeRead(dsg, () -> {
+            Node a = dsg.find(Node.ANY, NodeFactory.createURI("https://example.org/0"), LABEL, Node.ANY)
+                        .next()
+                        .getObject();
+            Node b = dsg.find(Node.ANY, NodeFactory.createURI("https://example.org/990"), LABEL, Node.ANY)
+                        .next()
+                        .getObject();
+            Assert.assertEquals(a, b);
+            Assert.assertSame(a, b);
+        });
+    }
+
+    @Test
+    public void givenMultipleFiles_whenLoading_thenAllLoaded() throws Exception {
+        // Given
+        Path trig = this.directory.resolve("data.trig");
+        Files.writeString(trig, """
+                PREFIX ex: <https://example.org/>
+                ex:graph { ex:a ex:p ex:b . }
+                """);
+        Path triples = this.directory.resolve("data.nt");
+        Files.writeString(triples, "<https://example.org/c> <https://example.org/p> <https://example.org/d> .\n");
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+
+        // When
+        long quads = new ParallelLoader().load(dsg, List.of(trig, triples));
+
+        // Then
+        Assert.assertEquals(quads, 2);
+        Txn.executeRead(dsg, () -> {
+            Assert.assertEquals(dsg.prefixes().get("ex"), "https://example.org/");
+            Assert.assertTrue(dsg.contains(NodeFactory.createURI("https://example.org/graph"),
+                                           NodeFactory.createURI("https://example.org/a"),
+                                           NodeFactory.createURI("https://example.org/p"),
+                                           NodeFactory.createURI("https://example.org/b")));
+            Assert.assertTrue(dsg.contains(Quad.defaultGraphIRI, NodeFactory.createURI("https://example.org/c"),
+                                           NodeFactory.createURI("https://example.org/p"),
+                                           NodeFactory.createURI("https://example.org/d")));
+        });
+    }
+
+    @Test
+    public void givenMalformedChunk_whenLoading_thenErrorAndDatasetUnchanged() throws Exception {
+        // Given
+        Path file = writeNQuads(1_000);
+        Files.writeString(file, "<https://example.org/bad> not valid .\n", StandardOpenOption.APPEND);
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+
+        // When and Then
+        try {
+            new ParallelLoader(2, 1024).load(dsg, List.of(file));
+            Assert.fail("Expected the load to fail");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains(file.toString()));
+        }
+        Assert.assertFalse(dsg.isInTransaction());
+        Txn.executeRead(dsg, () -> Assert.assertTrue(dsg.isEmpty()));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void givenUnknownLanguage_whenLoading_thenError() throws Exception {
+        // Given
+        Path file = this.directory.resolve("data.unknown");
+        Files.writeString(file, "unknown");
+
+        // When and Then
+        new ParallelLoader().load(DatasetGraphFactory.createTxnMem(), List.of(file));
+    }
+}
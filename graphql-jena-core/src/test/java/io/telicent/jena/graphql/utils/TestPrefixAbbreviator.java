@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.riot.system.PrefixMap;
+import org.apache.jena.riot.system.PrefixMapFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+public class TestPrefixAbbreviator {
+
+    private static PrefixMap createPrefixes() {
+        return PrefixMapFactory.create(
+                Map.of("rdf", RDF.getURI(), "rdfs", RDFS.getURI(), "ex", "https://example.org/", "exa",
+                       "https://example.org/a/", "ies", "http://ies.data.gov.uk/ontology/ies4#"));
+    }
+
+    @DataProvider(name = "uris")
+    private static Object[][] uris() {
+        return new Object[][] {
+                { RDF.type.getURI() },
+                { RDFS.label.getURI() },
+                { "http://ies.data.gov.uk/ontology/ies4#Person" },
+                { "https://example.org/Thing" },
+                { "https://other.org/Thing" },
+                { "urn:example:thing" },
+                { "http" }
+        };
+    }
+
+    @Test(dataProvider = "uris")
+    public void givenPrefixes_whenAbbreviating_thenSameAsPrefixMap(String uri) {
+        // Given
+        PrefixMap prefixes = createPrefixes();
+        PrefixAbbreviator abbreviator = PrefixAbbreviator.of(prefixes);
+
+        // When
+        String abbreviated = abbreviator.abbreviate(uri);
+
+        // Then
+        Assert.assertEquals(abbreviated, prefixes.abbreviate(uri));
+        Assert.assertEquals(abbreviator.abbreviate(uri), abbreviated);
+    }
+
+    @Test
+    public void givenNestedNamespaces_whenAbbreviating_thenLongestNamespaceUsed() {
+        // Given
+        PrefixAbbreviator abbreviator = PrefixAbbreviator.of(createPrefixes());
+
+        // When and Then
+        Assert.assertEquals(abbreviator.abbreviate("https://example.org/a/Thing"), "exa:Thing");
+        Assert.assertEquals(abbreviator.abbreviate("https://example.org/Thing"), "ex:Thing");
+    }
+
+    @Test
+    public void givenDuplicateNamespaces_whenAbbreviating_thenFirstPrefixLexicallyUsed() {
+        // Given
+        PrefixAbbreviator abbreviator = PrefixAbbreviator.of(
+                PrefixMapFactory.create(Map.of("b", "https://example.org/", "a", "https://example.org/")));
+
+        // When and Then
+        Assert.assertEquals(abbreviator.abbreviate("https://example.org/Thing"), "a:Thing");
+    }
+
+    @Test
+    public void givenNoPrefixes_whenAbbreviating_thenNull() {
+        // Given
+        PrefixAbbreviator abbreviator = PrefixAbbreviator.of(PrefixMapFactory.create());
+
+        // When and Then
+        Assert.assertEquals(abbreviator.size(), 0);
+        Assert.assertNull(abbreviator.abbreviate(RDF.type.getURI()));
+    }
+
+    @Test
+    public void givenMoreUrisThanMemoSize_whenAbbreviating_thenResultsStillCorrect() {
+        // Given
+        PrefixAbbreviator abbreviator = PrefixAbbreviator.of(createPrefixes());
+
+        // When and Then
+        for (int i = 0; i < PrefixAbbreviator.MAX_MEMO_SIZE * 2; i++) {
+            Assert.assertEquals(abbreviator.abbreviate("https://example.org/item" + i), "ex:item" + i);
+        }
+        Assert.assertNull(abbreviator.abbreviate("https://other.org/item"));
+    }
+
+    @Test
+    public void givenDataset_whenGettingAbbreviatorRepeatedly_thenSharedUntilPrefixesChange() {
+        // Given
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        dsg.prefixes().putAll(createPrefixes());
+
+        // When
+        PrefixAbbreviator first = PrefixAbbreviator.forDataset(dsg);
+        PrefixAbbreviator second = PrefixAbbreviator.forDataset(dsg);
+
+        // Then
+        Assert.assertSame(second, first);
+        Assert.assertSame(dsg.getContext().get(PrefixAbbreviator.SYMBOL), first);
+        Assert.assertNull(first.abbreviate("https://example.org/b/Thing"));
+
+        // And
+        dsg.prefixes().add("exb", "https://example.org/b/");
+        PrefixAbbreviator third = PrefixAbbreviator.forDataset(dsg);
+        Assert.assertNotSame(third, first);
+        Assert.assertEquals(third.abbreviate("https://example.org/b/Thing"), "exb:Thing");
+        Assert.assertSame(PrefixAbbreviator.forDataset(dsg), third);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void givenNullDataset_whenGettingAbbreviator_thenNPE() {
+        // Given, When and Then
+        PrefixAbbreviator.forDataset(null);
+    }
+}
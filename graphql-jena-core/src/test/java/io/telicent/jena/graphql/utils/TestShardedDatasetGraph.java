@@ -0,0 +1,267 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.TxnType;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.DatasetGraphWrapper;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.Txn;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class TestShardedDatasetGraph {
+
+    private static final Node G1 = NodeFactory.createURI("https://example.org/g1");
+    private static final Node S1 = NodeFactory.createURI("https://example.org/s1");
+    private static final Node P1 = NodeFactory.createURI("https://example.org/p1");
+    private static final Node O1 = NodeFactory.createLiteralString("o1");
+
+    private static Node node(String prefix, int i) {
+        return NodeFactory.createURI("https://example.org/" + prefix + i);
+    }
+
+    private static List<Quad> randomQuads(int count, long seed) {
+        Random random = new Random(seed);
+        List<Quad> quads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int graph = random.nextInt(5);
+            Node o = random.nextBoolean() ? node("s", random.nextInt(50)) :
+                     NodeFactory.createLiteralString("value " + random.nextInt(20));
+            quads.add(Quad.create(graph == 0 ? Quad.defaultGraphIRI : node("g", graph), node("s", random.nextInt(50)),
+                                  node("p", random.nextInt(5)), o));
+        }
+        return quads;
+    }
+
+    private static ShardedDatasetGraph sharded(ShardedDatasetGraph.Partitioning partitioning, int shards) {
+        List<DatasetGraph> datasets = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            datasets.add(DatasetGraphFactory.createTxnMem());
+        }
+        return new ShardedDatasetGraph(partitioning, datasets);
+    }
+
+    private static void load(DatasetGraph dsg, List<Quad> quads) {
+        Txn.executeWrite(dsg, () -> quads.forEach(dsg::add));
+    }
+
+    private static List<Quad> find(DatasetGraph dsg, Node g, Node s, Node p, Node o) {
+        return Txn.calculateRead(dsg, () -> Iter.toList(dsg.find(g, s, p, o)));
+    }
+
+    private static List<Quad> findNG(DatasetGraph dsg, Node g, Node s, Node p, Node o) {
+        return Txn.calculateRead(dsg, () -> Iter.toList(dsg.findNG(g, s, p, o)));
+    }
+
+    @DataProvider(name = "partitionings")
+    public Object[][] partitionings() {
+        return new Object[][] {
+                { ShardedDatasetGraph.Partitioning.GRAPH }, { ShardedDatasetGraph.Partitioning.SUBJECT }
+        };
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void givenNoShards_whenCreating_thenIllegalArgument() {
+        // Given, When and Then
+        new ShardedDatasetGraph(ShardedDatasetGraph.Partitioning.GRAPH, List.of());
+    }
+
+    @Test(dataProvider = "partitionings")
+    public void givenSameQuads_whenFindingEveryPattern_thenSameAsSingleDataset(
+            ShardedDatasetGraph.Partitioning partitioning) {
+        // Given
+        List<Quad> quads = randomQuads(5_000, 12345);
+        DatasetGraph expected = DatasetGraphFactory.createTxnMem();
+        ShardedDatasetGraph actual = sharded(partitioning, 4);
+        load(expected, quads);
+        load(actual, quads);
+
+        // When and Then
+        Quad sample = quads.get(42);
+        Node[] terms = { sample.getGraph(), sample.getSubject(), sample.getPredicate(), sample.getObject() };
+        for (int mask = 0; mask < 16; mask++) {
+            Node[] pattern = new Node[4];
+            for (int i = 0; i < 4; i++) {
+                pattern[i] = (mask & (1 << i)) != 0 ? terms[i] : Node.ANY;
+            }
+            List<Quad> found = find(actual, pattern[0], pattern[1], pattern[2], pattern[3]);
+            Assert.assertEquals(new HashSet<>(found),
+                                new HashSet<>(find(expected, pattern[0], pattern[1], pattern[2], pattern[3])),
+                                "Pattern " + Arrays.toString(pattern));
+            Assert.assertEquals(found.size(), new HashSet<>(found).size(),
+                                "Duplicates for " + Arrays.toString(pattern));
+            Assert.assertEquals(Txn.calculateRead(actual, () -> actual.count(pattern[0], pattern[1], pattern[2],
+                                                                             pattern[3])), (long) found.size(),
+                                "Count for " + Arrays.toString(pattern));
+            if (!Quad.isDefaultGraph(pattern[0])) {
+                Assert.assertEquals(new HashSet<>(findNG(actual, pattern[0], pattern[1], pattern[2], pattern[3])),
+                                    new HashSet<>(findNG(expected, pattern[0], pattern[1], pattern[2], pattern[3])),
+                                    "Named graph pattern " + Arrays.toString(pattern));
+            }
+        }
+        List<Quad> union = find(actual, Quad.unionGraph, Node.ANY, sample.getPredicate(), Node.ANY);
+        Assert.assertEquals(union.size(), new HashSet<>(union).size());
+        Assert.assertEquals(new HashSet<>(union),
+                            new HashSet<>(find(expected, Quad.unionGraph, Node.ANY, sample.getPredicate(), Node.ANY)));
+        Txn.executeRead(actual, () -> Txn.executeRead(expected, () -> {
+            List<Node> graphs = Iter.toList(actual.listGraphNodes());
+            Assert.assertEquals(graphs.size(), new HashSet<>(graphs).size());
+            Assert.assertEquals(new HashSet<>(graphs), new HashSet<>(Iter.toList(expected.listGraphNodes())));
+            Assert.assertEquals(actual.getDefaultGraph().size(), expected.getDefaultGraph().size());
+        }));
+    }
+
+    @Test(dataProvider = "partitionings")
+    public void givenUnchangedData_whenFindingRepeatedly_thenSameOrder(ShardedDatasetGraph.Partitioning partitioning) {
+        // Given
+        ShardedDatasetGraph dsg = sharded(partitioning, 3);
+        load(dsg, randomQuads(10_000, 1));
+
+        // When
+        List<Quad> first = find(dsg, Node.ANY, Node.ANY, Node.ANY, Node.ANY);
+        List<Quad> second = find(dsg, Node.ANY, Node.ANY, Node.ANY, Node.ANY);
+
+        // Then
+        Assert.assertEquals(second, first);
+    }
+
+    @Test(timeOut = 10_000)
+    public void givenSlowFirstShard_whenFinding_thenResultsStillInShardOrder() {
+        // Given
+        DatasetGraph slow = new DatasetGraphWrapper(DatasetGraphFactory.createTxnMem()) {
+            @Override
+            public Iterator<Quad> find(Node g, Node s, Node p, Node o) {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.find(g, s, p, o);
+            }
+        };
+        ShardedDatasetGraph dsg = new ShardedDatasetGraph(ShardedDatasetGraph.Partitioning.SUBJECT,
+                                                          List.of(slow, DatasetGraphFactory.createTxnMem()));
+        List<Quad> quads = randomQuads(1_000, 4);
+        load(dsg, quads);
+
+        // When
+        List<Quad> found = find(dsg, Node.ANY, Node.ANY, Node.ANY, Node.ANY);
+
+        // Then
+        Assert.assertEquals(new HashSet<>(found), new HashSet<>(quads));
+        int shard = 0;
+        for (Quad quad : found) {
+            Assert.assertTrue(dsg.shardFor(quad) >= shard, "Quad out of shard order " + quad);
+            shard = dsg.shardFor(quad);
+        }
+        Assert.assertEquals(shard, 1);
+    }
+
+    @Test
+    public void givenQuad_whenFindingShard_thenStableAcrossInstances() {
+        // Given
+        ShardedDatasetGraph first = sharded(ShardedDatasetGraph.Partitioning.SUBJECT, 7);
+        ShardedDatasetGraph second = sharded(ShardedDatasetGraph.Partitioning.SUBJECT, 7);
+        Quad quad = Quad.create(G1, S1, P1, O1);
+
+        // When
+        int shard = first.shardFor(quad);
+
+        // Then
+        Assert.assertEquals(second.shardFor(quad), shard);
+        Assert.assertEquals(shard, (int) Math.floorMod(new Hash128().putNode(S1).finish()[0], 7L));
+    }
+
+    @Test(dataProvider = "partitionings")
+    public void givenQuad_whenAdding_thenHeldOnlyByItsShard(ShardedDatasetGraph.Partitioning partitioning) {
+        // Given
+        ShardedDatasetGraph dsg = sharded(partitioning, 4);
+        Quad quad = Quad.create(G1, S1, P1, O1);
+
+        // When
+        load(dsg, List.of(quad));
+
+        // Then
+        int shard = dsg.shardFor(quad);
+        for (int i = 0; i < dsg.getShards().size(); i++) {
+            DatasetGraph s = dsg.getShards().get(i);
+            Assert.assertEquals(Txn.calculateRead(s, () -> s.contains(quad)), i == shard);
+        }
+        Txn.executeWrite(dsg, () -> dsg.delete(quad));
+        Assert.assertTrue(find(dsg, Node.ANY, Node.ANY, Node.ANY, Node.ANY).isEmpty());
+    }
+
+    @Test
+    public void givenWriteTransaction_whenFinding_thenUncommittedChangesVisible() {
+        // Given
+        ShardedDatasetGraph dsg = sharded(ShardedDatasetGraph.Partitioning.SUBJECT, 4);
+        load(dsg, randomQuads(1_000, 2));
+
+        // When
+        long count = Txn.calculateWrite(dsg, () -> {
+            for (int i = 0; i < 100; i++) {
+                dsg.add(Quad.create(G1, node("new", i), P1, O1));
+            }
+            return Iter.count(dsg.find(Node.ANY, Node.ANY, P1, O1));
+        });
+
+        // Then
+        Assert.assertEquals(count, 100);
+    }
+
+    @Test
+    public void givenPartialIteration_whenClosing_thenScansStop() throws Exception {
+        // Given
+        ShardedDatasetGraph dsg = sharded(ShardedDatasetGraph.Partitioning.SUBJECT, 4);
+        load(dsg, randomQuads(100_000, 3));
+
+        // When
+        Txn.executeRead(dsg, () -> {
+            Iterator<Quad> quads = dsg.find();
+            for (int i = 0; i < 10 && quads.hasNext(); i++) {
+                quads.next();
+            }
+            Iter.close(quads);
+        });
+
+        // Then
+        CompletableFuture.runAsync(() -> Txn.executeWrite(dsg, dsg::clear)).get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(find(dsg, Node.ANY, Node.ANY, Node.ANY, Node.ANY).isEmpty());
+    }
+
+    @Test
+    public void givenAbortedWrite_whenFinding_thenNothingChanged() {
+        // Given
+        ShardedDatasetGraph dsg = sharded(ShardedDatasetGraph.Partitioning.GRAPH, 2);
+
+        // When
+        dsg.begin(TxnType.WRITE);
+        dsg.add(Quad.create(G1, S1, P1, O1));
+        dsg.abort();
+        dsg.end();
+
+        // Then
+        Assert.assertFalse(dsg.isInTransaction());
+        Assert.assertTrue(find(dsg, Node.ANY, Node.ANY, Node.ANY, Node.ANY).isEmpty());
+    }
+}
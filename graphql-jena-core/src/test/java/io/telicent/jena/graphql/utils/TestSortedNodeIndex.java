@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.utils;
+
+import io.telicent.jena.graphql.schemas.CoreSchema;
+import io.telicent.jena.graphql.schemas.models.NodeKind;
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.vocabulary.RDFS;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class TestSortedNodeIndex {
+
+    private static final Node VALUE = NodeFactory.createURI("https://example.org/value");
+
+    private static DatasetGraph createDataset() {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        for (int i = 1; i <= 50; i++) {
+            Node subject = NodeFactory.createURI("https://example.org/" + (i % 2 == 0 ? "even/" : "odd/") + i);
+            dsg.add(Quad.defaultGraphIRI, subject, VALUE,
+                    NodeFactory.createLiteralDT(Integer.toString(i), XSDDatatype.XSDinteger));
+            dsg.add(Quad.defaultGraphIRI, subject, RDFS.label.asNode(),
+                    NodeFactory.createLiteralLang("Item " + i, i % 3 == 0 ? "en-GB" : "fr"));
+            dsg.add(Quad.defaultGraphIRI, subject, RDFS.comment.asNode(),
+                    NodeFactory.createLiteralString("comment " + i));
+        }
+        return dsg;
+    }
+
+    private static Map<String, Object> filter(NodeKind kind, Object... fields) {
+        Map<String, Object> filter = new HashMap<>();
+        filter.put(CoreSchema.KIND_FIELD, kind.name());
+        for (int i = 0; i < fields.length; i += 2) {
+            filter.put((String) fields[i], fields[i + 1]);
+        }
+        return filter;
+    }
+
+    @DataProvider(name = "conditionalFilters")
+    private static Object[][] conditionalFilters() {
+        String integer = XSDDatatype.XSDinteger.getURI();
+        return new Object[][] {
+                { CoreSchema.OBJECT_FIELD, filter(NodeKind.TYPED_LITERAL, CoreSchema.DATATYPE_FIELD, integer,
+                                                  CoreSchema.GT_FIELD, "10", CoreSchema.LT_FIELD, "20"), 9 },
+                { CoreSchema.OBJECT_FIELD, filter(NodeKind.TYPED_LITERAL, CoreSchema.DATATYPE_FIELD, integer,
+                                                  CoreSchema.GT_FIELD, "45"), 5 },
+                { CoreSchema.OBJECT_FIELD, filter(NodeKind.TYPED_LITERAL, CoreSchema.DATATYPE_FIELD, integer,
+                                                  CoreSchema.LT_FIELD, "1"), 0 },
+                { CoreSchema.OBJECT_FIELD, filter(NodeKind.LANGUAGE_LITERAL, CoreSchema.LANGUAGE_FIELD, "en"), 16 },
+                { CoreSchema.OBJECT_FIELD, filter(NodeKind.LANGUAGE_LITERAL, CoreSchema.LANGUAGE_FIELD, "fr"), 34 },
+                { CoreSchema.OBJECT_FIELD, filter(NodeKind.PLAIN_LITERAL, CoreSchema.PREFIX_FIELD, "comment 1"), 11 },
+                { CoreSchema.OBJECT_FIELD, filter(NodeKind.LANGUAGE_LITERAL, CoreSchema.PREFIX_FIELD, "Item 4"), 11 },
+                { CoreSchema.SUBJECT_FIELD, filter(NodeKind.URI, CoreSchema.PREFIX_FIELD, "https://example.org/even/"),
+                  75 },
+                { CoreSchema.SUBJECT_FIELD, filter(NodeKind.URI, CoreSchema.PREFIX_FIELD, "https://other.org/"), 0 }
+        };
+    }
+
+    private static QuadMatcher matcher(String field, Map<String, Object> filter) {
+        return NodeFilter.parsePatternMatcher(Map.of(field, filter));
+    }
+
+    @Test(dataProvider = "conditionalFilters")
+    public void givenConditionalFilter_whenMatchingWithoutIndex_thenExpectedQuads(String field,
+                                                                                   Map<String, Object> filter,
+                                                                                   int expected) {
+        // Given
+        DatasetGraph dsg = createDataset();
+        QuadMatcher matcher = matcher(field, filter);
+
+        // When
+        List<Quad> quads = matcher.stream(dsg).toList();
+
+        // Then
+        Assert.assertEquals(quads.size(), expected);
+    }
+
+    @Test(dataProvider = "conditionalFilters")
+    public void givenConditionalFilter_whenMatchingWithIndex_thenSameQuadsAsWithout(String field,
+                                                                                     Map<String, Object> filter,
+                                                                                     int expected) {
+        // Given
+        DatasetGraph dsg = createDataset();
+        QuadMatcher matcher = matcher(field, filter);
+        Set<Quad> unindexed = matcher.stream(dsg).collect(Collectors.toSet());
+
+        // When
+        SortedNodeIndex index = SortedNodeIndex.attach(dsg);
+        Set<Quad> indexed = matcher.stream(dsg).collect(Collectors.toSet());
+
+        // Then
+        Assert.assertSame(SortedNodeIndex.get(dsg), index);
+        Assert.assertEquals(indexed.size(), expected);
+        Assert.assertEquals(indexed, unindexed);
+    }
+
+    @Test
+    public void givenIndex_whenFindingCandidatesForRange_thenOnlyNodesInRange() {
+        // Given
+        SortedNodeIndex index = SortedNodeIndex.build(createDataset());
+        NodeMatcher matcher = NodeFilter.parseMatcher(
+                filter(NodeKind.TYPED_LITERAL, CoreSchema.DATATYPE_FIELD, XSDDatatype.XSDinteger.getURI(),
+                       CoreSchema.GT_FIELD, "40", CoreSchema.LT_FIELD, "43"));
+
+        // When
+        List<Node> candidates = index.candidates(matcher);
+
+        // Then
+        Assert.assertNotNull(candidates);
+        Assert.assertEquals(candidates.stream().map(Node::getLiteralLexicalForm).toList(), List.of("41", "42"));
+    }
+
+    @Test
+    public void givenIndex_whenGettingDistinctSubjectsAndPredicates_thenSameAsDataset() {
+        // Given
+        DatasetGraph dsg = createDataset();
+        Node blank = NodeFactory.createBlankNode();
+        dsg.add(Quad.defaultGraphIRI, blank, RDFS.label.asNode(), VALUE);
+
+        // When
+        SortedNodeIndex index = SortedNodeIndex.build(dsg);
+
+        // Then
+        List<Quad> quads = Iter.toList(dsg.find());
+        Assert.assertEquals(index.subjects(), quads.stream().map(Quad::getSubject).distinct().toList());
+        Assert.assertEquals(index.predicates(), quads.stream().map(Quad::getPredicate).distinct().toList());
+        Assert.assertTrue(index.subjects().contains(blank));
+    }
+
+    @Test
+    public void givenIndex_whenFindingCandidatesForUnsupportedMatcher_thenNull() {
+        // Given
+        SortedNodeIndex index = SortedNodeIndex.build(createDataset());
+
+        // When and Then
+        Assert.assertNull(index.candidates(NodeMatcher.ANY));
+        Assert.assertNull(index.candidates(NodeMatcher.exact(VALUE)));
+        Assert.assertTrue(index.size() > 0);
+    }
+
+    @Test
+    public void givenNoIndex_whenGetting_thenNull() {
+        Assert.assertNull(SortedNodeIndex.get(null));
+        Assert.assertNull(SortedNodeIndex.get(DatasetGraphFactory.create()));
+    }
+}
@@ -19,6 +19,9 @@ import com.github.rvesse.airline.annotations.Command;
 import com.github.rvesse.airline.annotations.Option;
 import com.github.rvesse.airline.annotations.restrictions.*;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import io.telicent.jena.graphql.execution.AdmissionController;
+import io.telicent.jena.graphql.execution.ResultLimits;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.IdStrategy;
 import io.telicent.jena.graphql.server.application.DatasetInitializer;
 import io.telicent.jena.graphql.server.application.GraphQLApplication;
 import io.telicent.jena.graphql.utils.ExcludeFromJacocoGeneratedReport;
@@ -27,6 +30,9 @@ import io.telicent.smart.cache.server.jaxrs.applications.CorsConfigurationBuilde
 import io.telicent.smart.cache.server.jaxrs.applications.ServerBuilder;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * The CLI entrypoint for the standalone GraphQL server
@@ -34,6 +40,8 @@ import java.io.File;
 @Command(name = "graphql-jena-server", description = "Runs a standalone HTTP Server offering a GraphQL API over a Jena Dataset")
 public class GraphQLEntrypoint extends AbstractAppEntrypoint {
 
+    private static final List<String> EXECUTOR_NAMES = List.of("dataset", "traversal", "telicent");
+
     @Option(name = {
             "-l",
             "--loc",
@@ -53,10 +61,110 @@ public class GraphQLEntrypoint extends AbstractAppEntrypoint {
     @Option(name = {
             "-d",
             "--data"
-    }, title = "RdfFile", description = "Specifies a path to a pre-existing RDF file to use as the basis of an in-memory dataset to provide GraphQL access over")
+    }, title = "RdfFile", description = "Specifies a path to a pre-existing RDF file to use as the basis of an in-memory dataset to provide GraphQL access over.  May be specified multiple times to load several files.  N-Quads and N-Triples files are split into chunks that are parsed in parallel, other files are each parsed in parallel with one another.")
     @com.github.rvesse.airline.annotations.restrictions.File(mustExist = true)
     @MutuallyExclusiveWith(tag = "data-source")
-    private File data;
+    private List<File> data = new ArrayList<>();
+
+    @Option(name = {
+            "--load-threads"
+    }, title = "LoadThreads", description = "Specifies the number of threads used to parse the RDF files given via --data.  Defaults to the number of available processors.")
+    private Integer loadThreads;
+
+    @Option(name = {
+            "--background-load"
+    }, description = "Specifies that the RDF files given via --data, or the --snapshot, should be loaded in the background so that the server starts immediately.  The /healthz endpoint reports the progress of the load, GraphQL requests receive a 503 Service Unavailable response until it completes.")
+    private boolean backgroundLoad = false;
+
+    @Option(name = {
+            "--compact-dataset"
+    }, description = "Specifies that the in-memory dataset should use a compact read optimised representation, this uses several times less memory and speeds up queries, at the cost of much more expensive updates")
+    private boolean compactDataset = false;
+
+    @Option(name = {
+            "--allow-reload"
+    }, description = "Specifies that the RDF files given via --data, or the --snapshot, may be reloaded without restarting the server by POSTing to the /dataset/reload endpoint.  The reloaded dataset is loaded in the background and atomically swapped in, requests in progress complete against the previous dataset.")
+    private boolean allowReload = false;
+
+    @Option(name = {
+            "--watch"
+    }, description = "Specifies that the dataset should be reloaded automatically whenever the RDF files given via --data, or the --snapshot if no files are given, change.  Implies --allow-reload.")
+    private boolean watch = false;
+
+    @Option(name = {
+            "--snapshot"
+    }, title = "SnapshotFile", description = "Specifies a path to a binary dataset snapshot.  When used with --data the snapshot is loaded instead of the RDF file if it is current, otherwise the RDF file is read and the snapshot written for subsequent starts.  When used without --data the snapshot must already exist and is loaded.  Loading a snapshot is substantially faster than reading an RDF file.")
+    private File snapshot;
+
+    @Option(name = {
+            "--sorted-index"
+    }, description = "Specifies that a sorted secondary index over the URIs and literals in the dataset should be built, this speeds up range, prefix and language node filters at the cost of additional memory and startup time")
+    private boolean sortedIndex = false;
+
+    @Option(name = {
+            "--state-index"
+    }, description = "Specifies that an interval index over the time periods of IES states should be built, this speeds up states queries that specify a from and/or to time window at the cost of additional memory and startup time")
+    private boolean stateIndex = false;
+
+    @Option(name = {
+            "--max-quads"
+    }, title = "MaxQuads", description = "Specifies the maximum number of quads that may be returned for a single field of a single request.  Defaults to unlimited.")
+    private Long maxQuads;
+
+    @Option(name = {
+            "--max-result-bytes"
+    }, title = "MaxBytes", description = "Specifies the maximum estimated number of bytes that may be materialised for a single field of a single request.  Defaults to unlimited.")
+    private Long maxResultBytes;
+
+    @Option(name = {
+            "--result-overflow"
+    }, title = "OverflowMode", description = "Specifies the behaviour when a request exceeds the result limits, TRUNCATE returns partial results with an error while ABORT returns only an error.  Defaults to TRUNCATE.")
+    private ResultLimits.OverflowMode resultOverflow = ResultLimits.OverflowMode.TRUNCATE;
+
+    @Option(name = {
+            "--query-timeout"
+    }, title = "TimeoutMilliseconds", description = "Specifies the maximum time in milliseconds that a single request may execute for, requests that exceed this are stopped and return an error.  Clients may request a shorter timeout via the timeoutMs extension.  Defaults to no timeout.")
+    private Long queryTimeout;
+
+    @Option(name = {
+            "--approximate-threshold"
+    }, title = "Degree", description = "Specifies that relationship facets and counts, and instance counts, for nodes with more than this many relationships or instances may be approximated in the Telicent Graph schema.  Clients may still request exact answers via the exact argument.  Defaults to never approximating.")
+    private Long approximateThreshold;
+
+    @Option(name = {
+            "--approximate-sample-size"
+    }, title = "SampleSize", description = "Specifies the number of relationships sampled when approximating.  Defaults to 4096.")
+    private Integer approximateSampleSize;
+
+    @Option(name = {
+            "--id-strategy"
+    }, title = "IdStrategy", description = "Specifies the strategy used to compute relationship IDs and URI hashes in the Telicent Graph schema, SHA1 produces IDs that are stable with previous releases while FAST uses a much cheaper 128-bit non-cryptographic hash.  Defaults to SHA1.")
+    private IdStrategy idStrategy = IdStrategy.SHA1;
+
+    @Option(name = {
+            "--virtual-threads"
+    }, description = "Specifies that each request should be executed on its own virtual thread rather than on the HTTP server's request threads, this prevents a burst of slow requests from occupying every request thread")
+    private boolean virtualThreads = false;
+
+    @Option(name = {
+            "--worker-threads"
+    }, title = "WorkerThreads", description = "Specifies that requests should be executed on a dedicated pool of platform threads of this size.  Defaults to the number of available processors when --max-worker-threads or --accept-queue is specified, otherwise requests execute on the HTTP server's request threads.")
+    private Integer workerThreads;
+
+    @Option(name = {
+            "--max-worker-threads"
+    }, title = "MaxWorkerThreads", description = "Specifies the maximum number of platform threads the request pool may grow to when its accept queue is full.  Defaults to the value of --worker-threads.")
+    private Integer maxWorkerThreads;
+
+    @Option(name = {
+            "--accept-queue"
+    }, title = "QueueLength", description = "Specifies the maximum number of requests that may wait for a platform thread from the request pool, requests beyond this receive a 503 Service Unavailable response.  Defaults to 256.")
+    private Integer acceptQueue;
+
+    @Option(name = {
+            "--admission"
+    }, title = "ExecutorAdmission", description = "Specifies admission control for an executor as executor:spec where executor is one of dataset, traversal or telicent, and spec is a comma separated list of concurrent, queue, wait, cheap and cheap-cost key value pairs, e.g. telicent:concurrent=8,queue=32,wait=500,cheap=2.  Requests that can't be admitted receive a 503 Service Unavailable response.  May be specified multiple times.  Defaults to admitting all requests.")
+    private List<String> admission = new ArrayList<>();
 
     @AirlineModule
     private HelpOption<GraphQLEntrypoint> help = new HelpOption<>();
@@ -95,8 +203,84 @@ public class GraphQLEntrypoint extends AbstractAppEntrypoint {
 
             if (entrypoint.location != null) {
                 System.setProperty("tdb.location", entrypoint.location.getAbsolutePath());
-            } else if (entrypoint.data != null) {
-                System.setProperty("data.location", entrypoint.data.getAbsolutePath());
+            } else if (!entrypoint.data.isEmpty()) {
+                System.setProperty("data.location", entrypoint.data.stream()
+                                                                   .map(File::getAbsolutePath)
+                                                                   .collect(Collectors.joining(File.pathSeparator)));
+            }
+            if (entrypoint.loadThreads != null) {
+                if (entrypoint.loadThreads < 1) {
+                    System.err.println("Invalid --load-threads value " + entrypoint.loadThreads +
+                                       ", expected at least 1");
+                    System.exit(1);
+                }
+                System.setProperty("data.threads", Integer.toString(entrypoint.loadThreads));
+            }
+            if (entrypoint.compactDataset) {
+                System.setProperty("data.compact", "true");
+            }
+            if (entrypoint.backgroundLoad) {
+                System.setProperty("data.background", "true");
+            }
+            if (entrypoint.allowReload) {
+                System.setProperty("data.reload", "true");
+            }
+            if (entrypoint.watch) {
+                System.setProperty("data.watch", "true");
+            }
+            if (entrypoint.snapshot != null) {
+                System.setProperty("data.snapshot", entrypoint.snapshot.getAbsolutePath());
+            }
+            if (entrypoint.sortedIndex) {
+                System.setProperty("sorted.index", "true");
+            }
+            if (entrypoint.stateIndex) {
+                System.setProperty("state.index", "true");
+            }
+            if (entrypoint.maxQuads != null) {
+                System.setProperty("limits.quads", Long.toString(entrypoint.maxQuads));
+            }
+            if (entrypoint.maxResultBytes != null) {
+                System.setProperty("limits.bytes", Long.toString(entrypoint.maxResultBytes));
+            }
+            System.setProperty("limits.overflow", entrypoint.resultOverflow.name());
+            if (entrypoint.queryTimeout != null) {
+                System.setProperty("query.timeout", Long.toString(entrypoint.queryTimeout));
+            }
+            if (entrypoint.approximateThreshold != null) {
+                System.setProperty("approximate.threshold", Long.toString(entrypoint.approximateThreshold));
+            }
+            if (entrypoint.approximateSampleSize != null) {
+                System.setProperty("approximate.sample", Integer.toString(entrypoint.approximateSampleSize));
+            }
+            System.setProperty("ids.strategy", entrypoint.idStrategy.name());
+            if (entrypoint.virtualThreads) {
+                System.setProperty("threads.virtual", "true");
+            }
+            if (entrypoint.workerThreads != null) {
+                System.setProperty("threads.workers", Integer.toString(entrypoint.workerThreads));
+            }
+            if (entrypoint.maxWorkerThreads != null) {
+                System.setProperty("threads.max", Integer.toString(entrypoint.maxWorkerThreads));
+            }
+            if (entrypoint.acceptQueue != null) {
+                System.setProperty("threads.queue", Integer.toString(entrypoint.acceptQueue));
+            }
+            for (String admission : entrypoint.admission) {
+                String[] parts = admission.split(":", 2);
+                if (parts.length != 2 || !EXECUTOR_NAMES.contains(parts[0])) {
+                    System.err.println("Invalid --admission value " + admission +
+                                       ", expected executor:spec where executor is one of " + EXECUTOR_NAMES);
+                    System.exit(1);
+                }
+                try {
+                    // Validate eagerly so that errors are reported before the server starts
+                    AdmissionController.parse(parts[1]);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Invalid --admission value " + admission + ": " + e.getMessage());
+                    System.exit(1);
+                }
+                System.setProperty("admission." + parts[0], parts[1]);
             }
 
             entrypoint.run(true);
@@ -12,21 +12,40 @@
  */
 package io.telicent.jena.graphql.server.application;
 
+import io.telicent.jena.graphql.execution.AbstractDatasetExecutor;
+import io.telicent.jena.graphql.execution.AdmissionController;
 import io.telicent.jena.graphql.execution.DatasetExecutor;
+import io.telicent.jena.graphql.execution.ExecutionPool;
+import io.telicent.jena.graphql.execution.ResultLimits;
 import io.telicent.jena.graphql.execution.TraversalExecutor;
+import io.telicent.jena.graphql.execution.telicent.graph.ApproximationPolicy;
 import io.telicent.jena.graphql.execution.telicent.graph.TelicentGraphExecutor;
+import io.telicent.jena.graphql.fetchers.telicent.graph.StateIntervalIndex;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.IdStrategy;
+import io.telicent.jena.graphql.server.application.resources.AbstractGraphQLResource;
+import io.telicent.jena.graphql.utils.CompactDatasetGraph;
+import io.telicent.jena.graphql.utils.DatasetGeneration;
+import io.telicent.jena.graphql.utils.DatasetSnapshot;
 import io.telicent.jena.graphql.utils.ExcludeFromJacocoGeneratedReport;
+import io.telicent.jena.graphql.utils.ParallelLoader;
+import io.telicent.jena.graphql.utils.PrefixAbbreviator;
+import io.telicent.jena.graphql.utils.SortedNodeIndex;
+import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.ServletRegistration;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.jena.riot.RDFParserBuilder;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
 import org.apache.jena.tdb2.TDB2Factory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * A servlet context listener that configures the GraphQL executors for the server
@@ -34,8 +53,13 @@ import java.io.IOException;
 public class DatasetInitializer implements ServletContextListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DatasetInitializer.class);
+    private static final long LOADER_STOP_TIMEOUT_MILLIS = 5_000;
 
     private DatasetGraph dsg;
+    private ExecutionPool executionPool;
+    private Thread loaderThread;
+    private ReloadableDataset datasets;
+    private DatasetReloader reloader;
 
     /**
      * Creates a new servlet context listener that will initialise the RDF Dataset that GraphQL queries will operate over
@@ -49,37 +73,428 @@ public class DatasetInitializer implements ServletContextListener {
     public void contextInitialized(ServletContextEvent sce) {
         // Determine from our System properties what dataset (if any) we are using
         String location = System.getProperty("tdb.location");
-        String data = System.getProperty("data.location");
+        List<Path> data = dataFiles(System.getProperty("data.location"));
+        String snapshot = System.getProperty("data.snapshot");
+        boolean reloadable = Boolean.parseBoolean(System.getProperty("data.reload")) || Boolean.parseBoolean(
+                System.getProperty("data.watch"));
+        DatasetLoad load;
         if (StringUtils.isNotBlank(location)) {
             LOGGER.info("Using persistent TDB Dataset at {}", location);
-            this.dsg = TDB2Factory.connectDataset(location).asDatasetGraph();
-        } else if (StringUtils.isNotBlank(data)) {
-            LOGGER.info("Using non-persistent In-Memory Dataset read from file {}", data);
-            this.dsg = DatasetGraphFactory.createTxnMem();
-            RDFParserBuilder.create().source(data).build().parse(this.dsg);
+            if (StringUtils.isNotBlank(snapshot)) {
+                LOGGER.warn("Ignoring dataset snapshot {} as a persistent TDB Dataset is being used", snapshot);
+            }
+            if (Boolean.parseBoolean(System.getProperty("data.compact"))) {
+                LOGGER.warn("Ignoring compact dataset option as a persistent TDB Dataset is being used");
+            }
+            if (reloadable) {
+                LOGGER.warn("Ignoring reload options as a persistent TDB Dataset is being used");
+            }
+            // Track writes so that HTTP clients can revalidate cached responses with a conditional request
+            this.dsg = DatasetGeneration.track(TDB2Factory.connectDataset(location).asDatasetGraph());
+            buildIndexes(this.dsg);
+            load = DatasetLoad.ready();
+        } else if (!data.isEmpty() || StringUtils.isNotBlank(snapshot)) {
+            if (data.size() > 1 && StringUtils.isNotBlank(snapshot)) {
+                LOGGER.warn("Ignoring dataset snapshot {} as multiple data files are being loaded", snapshot);
+                snapshot = null;
+            }
+            this.dsg = DatasetGeneration.track(createInMemoryDataset());
+            ParallelLoader loader = new ParallelLoader(loaderThreads(), ParallelLoader.DEFAULT_CHUNK_SIZE);
+            load = new DatasetLoad(loader);
+            Path snapshotFile = StringUtils.isNotBlank(snapshot) ? Path.of(snapshot) : null;
+            if (Boolean.parseBoolean(System.getProperty("data.background"))) {
+                LOGGER.info("Loading dataset in the background, GraphQL requests will be rejected until it is loaded");
+                DatasetLoad backgroundLoad = load;
+                this.loaderThread = Thread.ofPlatform().name("graphql-dataset-loader").daemon().start(() -> {
+                    try {
+                        loadData(this.dsg, data, snapshotFile, loader);
+                        buildIndexes(this.dsg);
+                        backgroundLoad.completed();
+                        LOGGER.info("Dataset loaded, now accepting GraphQL requests");
+                    } catch (InterruptedException e) {
+                        backgroundLoad.failed(e);
+                        LOGGER.warn("Abandoned loading dataset as the server is stopping");
+                    } catch (Throwable e) {
+                        backgroundLoad.failed(e);
+                        LOGGER.error("Failed to load dataset: {}", e.getMessage(), e);
+                    }
+                });
+            } else {
+                try {
+                    loadData(this.dsg, data, snapshotFile, loader);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to load dataset", e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while loading dataset", e);
+                }
+                buildIndexes(this.dsg);
+                load.completed();
+            }
+            if (reloadable) {
+                configureReload(sce.getServletContext(), load, data, snapshotFile);
+            }
         } else {
             LOGGER.info("Using non-persistent In-Memory Dataset");
-            this.dsg = DatasetGraphFactory.createTxnMem();
+            if (reloadable) {
+                LOGGER.warn("Ignoring reload options as no data files are being loaded");
+            }
+            this.dsg = DatasetGeneration.track(createInMemoryDataset());
+            load = DatasetLoad.ready();
         }
+        sce.getServletContext().setAttribute(DatasetLoad.class.getCanonicalName(), load);
+
+        // Decide which threads requests will be executed on
+        this.executionPool = executionPool();
+        sce.getServletContext().setAttribute(ExecutionPool.class.getCanonicalName(), this.executionPool);
+        enableAsyncSupport(sce.getServletContext());
 
         // Then create the necessary executors so that the various endpoints can retrieve these later when they actually
         // handle queries
+        ResultLimits limits = resultLimits();
+        long queryTimeout = queryTimeout();
         try {
             sce.getServletContext()
-               .setAttribute(DatasetExecutor.class.getCanonicalName(), new DatasetExecutor(this.dsg));
-            sce.getServletContext()
-               .setAttribute(TraversalExecutor.class.getCanonicalName(), new TraversalExecutor(this.dsg));
+               .setAttribute(DatasetExecutor.class.getCanonicalName(),
+                             withLimits(new DatasetExecutor(this.dsg), limits, queryTimeout));
             sce.getServletContext()
-               .setAttribute(TelicentGraphExecutor.class.getCanonicalName(), new TelicentGraphExecutor(this.dsg));
+               .setAttribute(TraversalExecutor.class.getCanonicalName(),
+                             withLimits(new TraversalExecutor(this.dsg), limits, queryTimeout));
+            TelicentGraphExecutor telicentGraph =
+                    withLimits(new TelicentGraphExecutor(this.dsg), limits, queryTimeout);
+            telicentGraph.setApproximationPolicy(approximationPolicy());
+            telicentGraph.setIdStrategy(idStrategy());
+            sce.getServletContext().setAttribute(TelicentGraphExecutor.class.getCanonicalName(), telicentGraph);
         } catch (IOException e) {
             throw new RuntimeException("Failed to initialise Dataset GraphQL Executors", e);
         }
+
+        // Finally configure admission control for each executor, if any
+        configureAdmission(sce.getServletContext(), DatasetExecutor.class, "dataset");
+        configureAdmission(sce.getServletContext(), TraversalExecutor.class, "traversal");
+        configureAdmission(sce.getServletContext(), TelicentGraphExecutor.class, "telicent");
+    }
+
+    /**
+     * Creates the in-memory dataset, either a compact read optimised dataset or a transactional in-memory dataset
+     * depending on the System properties
+     *
+     * @return In-memory dataset
+     */
+    static DatasetGraph createInMemoryDataset() {
+        if (Boolean.parseBoolean(System.getProperty("data.compact"))) {
+            LOGGER.info("Using compact read optimised In-Memory Dataset");
+            return new CompactDatasetGraph();
+        }
+        return DatasetGraphFactory.createTxnMem();
+    }
+
+    private void configureReload(ServletContext context, DatasetLoad load, List<Path> data, Path snapshot) {
+        // Requests acquire whichever dataset is current from the reloadable dataset, so the executors created over the
+        // initial dataset continue to be used, with their caches, after a reload
+        this.datasets = new ReloadableDataset(this.dsg);
+        this.reloader = new DatasetReloader(this.datasets, load, data, snapshot, loaderThreads(),
+                                            reloaded -> context.setAttribute(DatasetLoad.class.getCanonicalName(),
+                                                                             reloaded));
+        context.setAttribute(ReloadableDataset.class.getCanonicalName(), this.datasets);
+        context.setAttribute(DatasetReloader.class.getCanonicalName(), this.reloader);
+        LOGGER.info("Dataset may be reloaded via POST /dataset/reload");
+        if (Boolean.parseBoolean(System.getProperty("data.watch"))) {
+            try {
+                this.reloader.watch();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to watch data files for changes", e);
+            }
+        }
+    }
+
+    /**
+     * Warms a reloaded dataset before it is served, building any configured indexes and the prefix abbreviator, so
+     * that the first requests against it don't pay these costs
+     *
+     * @param dsg Dataset
+     */
+    static void warm(DatasetGraph dsg) {
+        buildIndexes(dsg);
+        PrefixAbbreviator.forDataset(dsg);
+    }
+
+    /**
+     * Builds the optional indexes over the dataset, if configured to do so by the System properties
+     *
+     * @param dsg Dataset
+     */
+    private static void buildIndexes(DatasetGraph dsg) {
+        if (Boolean.parseBoolean(System.getProperty("sorted.index"))) {
+            LOGGER.info("Building sorted node index...");
+            SortedNodeIndex index = SortedNodeIndex.attach(dsg);
+            LOGGER.info("Built sorted node index over {} nodes", index.size());
+        }
+        if (Boolean.parseBoolean(System.getProperty("state.index"))) {
+            LOGGER.info("Building state interval index...");
+            StateIntervalIndex index = StateIntervalIndex.attach(dsg);
+            LOGGER.info("Built state interval index over {} states", index.size());
+        }
+    }
+
+    /**
+     * Determines the RDF files to load from the System properties
+     *
+     * @param locations RDF file locations, separated by the platform path separator
+     * @return RDF files
+     */
+    static List<Path> dataFiles(String locations) {
+        if (StringUtils.isBlank(locations)) {
+            return List.of();
+        }
+        return Arrays.stream(locations.split(File.pathSeparator))
+                     .filter(StringUtils::isNotBlank)
+                     .map(Path::of)
+                     .toList();
+    }
+
+    /**
+     * Determines the number of threads to use for parsing RDF files from the System properties
+     *
+     * @return Loader threads
+     */
+    static int loaderThreads() {
+        String threads = System.getProperty("data.threads");
+        return StringUtils.isNotBlank(threads) ? Integer.parseInt(threads) :
+               Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Loads the in-memory dataset from RDF files and/or a dataset snapshot
+     * <p>
+     * If a snapshot is given and is current with respect to the RDF file, or no RDF files are given, then the dataset
+     * is loaded from the snapshot.  Otherwise the RDF files are parsed by the given loader and, if a snapshot is given,
+     * a new snapshot is written so that subsequent starts can load it instead.  Snapshots may only be used with at most
+     * one RDF file.
+     * </p>
+     *
+     * @param dsg      In-memory dataset to load into
+     * @param data     RDF files, may be empty if a snapshot is given
+     * @param snapshot Dataset snapshot, may be {@code null}
+     * @param loader   Loader used to parse the RDF files
+     * @return Number of quads loaded
+     * @throws IOException          Thrown if the dataset cannot be loaded
+     * @throws InterruptedException Thrown if interrupted while loading
+     */
+    static long loadData(DatasetGraph dsg, List<Path> data, Path snapshot, ParallelLoader loader) throws
+            IOException, InterruptedException {
+        if (snapshot != null && data.size() > 1) {
+            throw new IllegalArgumentException("Dataset snapshots may only be used with a single data file");
+        }
+        Path source = data.isEmpty() ? null : data.get(0);
+        if (snapshot != null && (source == null || DatasetSnapshot.isCurrent(snapshot, source))) {
+            LOGGER.info("Using non-persistent In-Memory Dataset read from snapshot {}", snapshot);
+            long start = System.currentTimeMillis();
+            try {
+                long quads = DatasetSnapshot.read(snapshot, dsg);
+                LOGGER.info("Read {} quads from snapshot in {} milliseconds", quads,
+                            System.currentTimeMillis() - start);
+                return quads;
+            } catch (IOException e) {
+                if (source == null) {
+                    throw new IOException("Failed to read dataset snapshot " + snapshot, e);
+                }
+                LOGGER.warn("Failed to read dataset snapshot {}, reading file {} instead: {}", snapshot, source,
+                            e.getMessage());
+            }
+        }
+
+        LOGGER.info("Using non-persistent In-Memory Dataset read from files {} using {} parser threads", data,
+                    loader.getThreads());
+        long start = System.currentTimeMillis();
+        long quads = loader.load(dsg, data);
+        LOGGER.info("Read {} quads in {} milliseconds ({} quads/second)", quads, System.currentTimeMillis() - start,
+                    Math.round(loader.getQuadsPerSecond()));
+        if (snapshot != null) {
+            start = System.currentTimeMillis();
+            try {
+                quads = DatasetSnapshot.write(dsg, snapshot, source);
+                LOGGER.info("Wrote {} quads to snapshot {} in {} milliseconds", quads, snapshot,
+                            System.currentTimeMillis() - start);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to write dataset snapshot {}: {}", snapshot, e.getMessage());
+            }
+        }
+        return quads;
+    }
+
+    private static void configureAdmission(ServletContext context, Class<?> executorType, String name) {
+        AdmissionController admission = admissionController(name);
+        if (admission != null) {
+            context.setAttribute(AbstractGraphQLResource.admissionControllerAttribute(executorType), admission);
+        }
+    }
+
+    /**
+     * Determines the result limits to apply from the System properties
+     *
+     * @return Result limits
+     */
+    static ResultLimits resultLimits() {
+        String quads = System.getProperty("limits.quads");
+        String bytes = System.getProperty("limits.bytes");
+        if (StringUtils.isBlank(quads) && StringUtils.isBlank(bytes)) {
+            return ResultLimits.UNLIMITED;
+        }
+        String overflow = System.getProperty("limits.overflow");
+        ResultLimits limits = new ResultLimits(StringUtils.isNotBlank(quads) ? Long.parseLong(quads) : Long.MAX_VALUE,
+                                               StringUtils.isNotBlank(bytes) ? Long.parseLong(bytes) : Long.MAX_VALUE,
+                                               StringUtils.isNotBlank(overflow) ?
+                                               ResultLimits.OverflowMode.valueOf(overflow) :
+                                               ResultLimits.OverflowMode.TRUNCATE);
+        LOGGER.info("Using result limits {}", limits);
+        return limits;
+    }
+
+    /**
+     * Determines the query timeout to apply from the System properties
+     *
+     * @return Query timeout in milliseconds, {@code 0} for no timeout
+     */
+    static long queryTimeout() {
+        String timeout = System.getProperty("query.timeout");
+        if (StringUtils.isBlank(timeout)) {
+            return 0;
+        }
+        long queryTimeout = Long.parseLong(timeout);
+        LOGGER.info("Using query timeout of {} milliseconds", queryTimeout);
+        return queryTimeout;
+    }
+
+    /**
+     * Determines the approximation policy to apply from the System properties
+     *
+     * @return Approximation policy
+     */
+    static ApproximationPolicy approximationPolicy() {
+        String threshold = System.getProperty("approximate.threshold");
+        if (StringUtils.isBlank(threshold)) {
+            return ApproximationPolicy.DISABLED;
+        }
+        String sample = System.getProperty("approximate.sample");
+        ApproximationPolicy policy = new ApproximationPolicy(Long.parseLong(threshold),
+                                                             StringUtils.isNotBlank(sample) ? Integer.parseInt(sample) :
+                                                             ApproximationPolicy.DEFAULT_SAMPLE_SIZE);
+        LOGGER.info("Using approximation policy {}", policy);
+        return policy;
+    }
+
+    /**
+     * Determines the ID strategy to apply from the System properties
+     *
+     * @return ID strategy
+     */
+    static IdStrategy idStrategy() {
+        String strategy = System.getProperty("ids.strategy");
+        if (StringUtils.isBlank(strategy)) {
+            return IdStrategy.SHA1;
+        }
+        IdStrategy idStrategy = IdStrategy.valueOf(strategy);
+        LOGGER.info("Using ID strategy {}", idStrategy);
+        return idStrategy;
+    }
+
+    /**
+     * Enables asynchronous processing on the servlets of the context so that GraphQL requests may be suspended while
+     * they execute on the execution pool, rather than holding a container thread
+     *
+     * @param context Servlet context
+     */
+    static void enableAsyncSupport(ServletContext context) {
+        for (ServletRegistration registration : context.getServletRegistrations().values()) {
+            if (registration instanceof ServletRegistration.Dynamic dynamic) {
+                try {
+                    dynamic.setAsyncSupported(true);
+                } catch (IllegalStateException e) {
+                    LOGGER.warn("Unable to enable asynchronous processing for servlet {}: {}", registration.getName(),
+                                e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines the execution pool to use from the System properties
+     *
+     * @return Execution pool
+     */
+    static ExecutionPool executionPool() {
+        String workers = System.getProperty("threads.workers");
+        String maxWorkers = System.getProperty("threads.max");
+        String queue = System.getProperty("threads.queue");
+        boolean poolSized =
+                StringUtils.isNotBlank(workers) || StringUtils.isNotBlank(maxWorkers) || StringUtils.isNotBlank(queue);
+        ExecutionPool pool;
+        if (Boolean.parseBoolean(System.getProperty("threads.virtual"))) {
+            if (poolSized) {
+                LOGGER.warn("Worker thread and accept queue sizes are ignored when using virtual threads");
+            }
+            pool = ExecutionPool.virtualThreads();
+        } else if (poolSized) {
+            int workerThreads = StringUtils.isNotBlank(workers) ? Integer.parseInt(workers) :
+                                Runtime.getRuntime().availableProcessors();
+            int maxWorkerThreads =
+                    StringUtils.isNotBlank(maxWorkers) ? Integer.parseInt(maxWorkers) : workerThreads;
+            pool = ExecutionPool.platformThreads(workerThreads, maxWorkerThreads,
+                                                 StringUtils.isNotBlank(queue) ? Integer.parseInt(queue) :
+                                                 ExecutionPool.DEFAULT_ACCEPT_QUEUE);
+        } else {
+            return ExecutionPool.DIRECT;
+        }
+        LOGGER.info("Using execution pool {}", pool);
+        return pool;
+    }
+
+    /**
+     * Determines the admission controller to apply to an executor from the System properties
+     *
+     * @param name Executor name, e.g. {@code telicent}
+     * @return Admission controller, or {@code null} if requests to the executor are always admitted
+     */
+    static AdmissionController admissionController(String name) {
+        String spec = System.getProperty("admission." + name);
+        if (StringUtils.isBlank(spec)) {
+            return null;
+        }
+        AdmissionController admission = AdmissionController.parse(spec);
+        LOGGER.info("Using admission control {} for {} executor", admission, name);
+        return admission;
+    }
+
+    private static <T extends AbstractDatasetExecutor> T withLimits(T executor, ResultLimits limits,
+                                                                    long queryTimeout) {
+        executor.setResultLimits(limits);
+        executor.setQueryTimeout(queryTimeout);
+        return executor;
     }
 
     @ExcludeFromJacocoGeneratedReport
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
-        if (this.dsg != null) {
+        if (this.executionPool != null) {
+            this.executionPool.close();
+        }
+        if (this.loaderThread != null && this.loaderThread.isAlive()) {
+            // Abandon any background load in progress, this aborts its write transaction
+            this.loaderThread.interrupt();
+            try {
+                this.loaderThread.join(LOADER_STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (this.reloader != null) {
+            this.reloader.close();
+        }
+        if (this.datasets != null) {
+            // Closes whichever dataset is current once any requests still using it complete
+            this.datasets.close();
+        } else if (this.dsg != null) {
             this.dsg.close();
         }
     }
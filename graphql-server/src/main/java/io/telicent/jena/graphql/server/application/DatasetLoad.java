@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.server.application;
+
+import io.telicent.jena.graphql.utils.ParallelLoader;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tracks the progress of loading the server's dataset, which may continue in the background after the server has
+ * started
+ */
+public final class DatasetLoad {
+
+    /**
+     * States of a dataset load
+     */
+    public enum State {
+        /**
+         * Dataset is still being loaded
+         */
+        LOADING,
+        /**
+         * Dataset is loaded and ready to be queried
+         */
+        READY,
+        /**
+         * Loading the dataset failed
+         */
+        FAILED
+    }
+
+    private final ParallelLoader loader;
+    private volatile State state = State.LOADING;
+    private volatile String failure;
+
+    /**
+     * Creates a new dataset load that is in progress
+     *
+     * @param loader Loader that is loading the dataset, may be {@code null} if the dataset is not loaded via a
+     *               {@link ParallelLoader}
+     */
+    public DatasetLoad(ParallelLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Creates a dataset load that has already completed
+     *
+     * @return Completed dataset load
+     */
+    public static DatasetLoad ready() {
+        DatasetLoad load = new DatasetLoad(null);
+        load.completed();
+        return load;
+    }
+
+    /**
+     * Gets the state of the load
+     *
+     * @return State
+     */
+    public State getState() {
+        return this.state;
+    }
+
+    /**
+     * Gets whether the dataset is ready to be queried
+     *
+     * @return True if ready
+     */
+    public boolean isReady() {
+        return this.state == State.READY;
+    }
+
+    /**
+     * Gets the reason loading failed
+     *
+     * @return Failure reason, or {@code null} if loading has not failed
+     */
+    public String getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * Marks the load as completed
+     */
+    public void completed() {
+        this.state = State.READY;
+    }
+
+    /**
+     * Marks the load as failed
+     *
+     * @param e Error that caused the failure
+     */
+    public void failed(Throwable e) {
+        this.failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        this.state = State.FAILED;
+    }
+
+    /**
+     * Gets a summary of the load suitable for returning as a JSON object
+     *
+     * @return Summary
+     */
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("healthy", this.state != State.FAILED);
+        summary.put("status", this.state.name());
+        if (this.loader != null) {
+            summary.put("quadsRead", this.loader.getQuadsRead());
+            summary.put("quadsPerSecond", Math.round(this.loader.getQuadsPerSecond()));
+        }
+        if (this.failure != null) {
+            summary.put("failure", this.failure);
+        }
+        return summary;
+    }
+}
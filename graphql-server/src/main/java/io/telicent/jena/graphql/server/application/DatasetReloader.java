@@ -0,0 +1,238 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.server.application;
+
+import io.telicent.jena.graphql.utils.DatasetGeneration;
+import io.telicent.jena.graphql.utils.ParallelLoader;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reloads the server's in-memory dataset in the background, then atomically swaps it in via a
+ * {@link ReloadableDataset}
+ * <p>
+ * The data is loaded into a fresh dataset, from the same files and snapshot as at startup, and warmed by building any
+ * configured indexes before being swapped in.  The executors are not recreated so their caches remain warm, and the
+ * current dataset continues to be served throughout.  If reloading fails the current dataset continues to be served.
+ * A reload may be requested via {@link #reload()}, or automatically when the data files change via {@link #watch()}.
+ * </p>
+ */
+public final class DatasetReloader implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatasetReloader.class);
+    private static final long DEBOUNCE_MILLIS = 1_000;
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+
+    private final ReloadableDataset datasets;
+    private final List<Path> data;
+    private final Path snapshot;
+    private final int loaderThreads;
+    private final Consumer<DatasetLoad> onReloaded;
+    private volatile DatasetLoad served, lastReload;
+    private Thread reloading, watching;
+    private WatchService watcher;
+    private boolean pending, closed;
+
+    /**
+     * Creates a new reloader
+     *
+     * @param datasets      Reloadable dataset to swap reloaded datasets into
+     * @param served        Load of the dataset currently served, no reload is started while this is still loading
+     * @param data          RDF files to load
+     * @param snapshot      Dataset snapshot, may be {@code null}
+     * @param loaderThreads Number of threads used to parse RDF files
+     * @param onReloaded    Callback invoked with the completed load after a reloaded dataset has been swapped in
+     */
+    public DatasetReloader(ReloadableDataset datasets, DatasetLoad served, List<Path> data, Path snapshot,
+                           int loaderThreads, Consumer<DatasetLoad> onReloaded) {
+        this.datasets = Objects.requireNonNull(datasets, "Reloadable dataset cannot be null");
+        this.served = Objects.requireNonNull(served, "Served dataset load cannot be null");
+        this.data = List.copyOf(data);
+        this.snapshot = snapshot;
+        this.loaderThreads = loaderThreads;
+        this.onReloaded = Objects.requireNonNull(onReloaded, "Reloaded callback cannot be null");
+    }
+
+    /**
+     * Gets the most recent reload, if any
+     *
+     * @return Most recent reload, or {@code null} if no reload has been started
+     */
+    public DatasetLoad getLastReload() {
+        return this.lastReload;
+    }
+
+    /**
+     * Starts reloading the dataset in the background
+     * <p>
+     * If a reload is already in progress then another reload is started once it completes, so that changes made to the
+     * data files during a reload are not missed.
+     * </p>
+     *
+     * @return True if a reload was started, false if a reload is already in progress, the dataset is still being
+     * loaded at startup, or the reloader is closed
+     */
+    public synchronized boolean reload() {
+        if (this.closed) {
+            return false;
+        } else if (this.reloading != null) {
+            this.pending = true;
+            return false;
+        } else if (this.served.getState() == DatasetLoad.State.LOADING) {
+            LOGGER.warn("Ignoring reload request as the dataset is still being loaded");
+            return false;
+        }
+        ParallelLoader loader = new ParallelLoader(this.loaderThreads, ParallelLoader.DEFAULT_CHUNK_SIZE);
+        DatasetLoad load = new DatasetLoad(loader);
+        this.lastReload = load;
+        LOGGER.info("Reloading dataset in the background, the current dataset will be served until it completes");
+        this.reloading = Thread.ofPlatform().name("graphql-dataset-reloader").daemon().start(() -> run(load, loader));
+        return true;
+    }
+
+    private void run(DatasetLoad load, ParallelLoader loader) {
+        DatasetGraph fresh = DatasetInitializer.createInMemoryDataset();
+        try {
+            DatasetInitializer.loadData(fresh, this.data, this.snapshot, loader);
+
+            // Generations of the reloaded dataset follow on from the current one so existing ETags become stale
+            DatasetGeneration current = DatasetGeneration.get(this.datasets.get());
+            fresh.getContext()
+                 .set(DatasetGeneration.SYMBOL, new DatasetGeneration(current != null ? current.current() + 1 : 0));
+            DatasetGraph tracked = DatasetGeneration.track(fresh);
+            DatasetInitializer.warm(tracked);
+
+            this.datasets.swap(tracked);
+            load.completed();
+            this.served = load;
+            this.onReloaded.accept(load);
+            LOGGER.info("Reloaded dataset, requests that started before the reload will complete against the " +
+                        "previous dataset");
+        } catch (InterruptedException e) {
+            load.failed(e);
+            fresh.close();
+            LOGGER.warn("Abandoned reloading dataset as the server is stopping");
+        } catch (Throwable e) {
+            load.failed(e);
+            fresh.close();
+            LOGGER.error("Failed to reload dataset, continuing to serve the current dataset: {}", e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                this.reloading = null;
+                if (this.pending) {
+                    this.pending = false;
+                    reload();
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts watching the data files, or the snapshot if there are no data files, and reloads the dataset whenever
+     * they change
+     *
+     * @throws IOException Thrown if the files cannot be watched
+     */
+    public synchronized void watch() throws IOException {
+        if (this.watcher != null) {
+            return;
+        }
+        Set<Path> files = new HashSet<>();
+        for (Path file : this.data.isEmpty() && this.snapshot != null ? List.of(this.snapshot) : this.data) {
+            files.add(file.toAbsolutePath().normalize());
+        }
+        WatchService watchService = FileSystems.getDefault().newWatchService();
+        Set<Path> directories = new HashSet<>();
+        for (Path file : files) {
+            if (directories.add(file.getParent())) {
+                file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                          StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+        this.watcher = watchService;
+        LOGGER.info("Watching {} for changes", files);
+        this.watching = Thread.ofPlatform().name("graphql-dataset-watcher").daemon().start(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    if (!isChanged(watchService.take(), files)) {
+                        continue;
+                    }
+                    // Wait for the changes to settle so a file that is still being written isn't loaded
+                    WatchKey next;
+                    while ((next = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                        isChanged(next, files);
+                    }
+                    LOGGER.info("Data files changed");
+                    reload();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Stopping
+            }
+        });
+    }
+
+    private static boolean isChanged(WatchKey key, Set<Path> files) {
+        boolean changed = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path file && files.contains(directory.resolve(file).normalize())) {
+                changed = true;
+            } else if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Stops watching for changes and abandons any reload in progress
+     */
+    @Override
+    public void close() {
+        Thread reloadThread, watchThread;
+        synchronized (this) {
+            this.closed = true;
+            this.pending = false;
+            reloadThread = this.reloading;
+            watchThread = this.watching;
+            if (this.watcher != null) {
+                try {
+                    this.watcher.close();
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to stop watching data files: {}", e.getMessage());
+                }
+            }
+        }
+        for (Thread thread : new Thread[] { watchThread, reloadThread }) {
+            if (thread != null) {
+                thread.interrupt();
+                try {
+                    thread.join(STOP_TIMEOUT_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -14,6 +14,8 @@ package io.telicent.jena.graphql.server.application;
 
 import io.telicent.jena.graphql.server.application.errors.UnknownOperationMapper;
 import io.telicent.jena.graphql.server.application.resources.DatasetResource;
+import io.telicent.jena.graphql.server.application.resources.HealthResource;
+import io.telicent.jena.graphql.server.application.resources.ReloadResource;
 import io.telicent.smart.cache.server.jaxrs.applications.AbstractApplication;
 import io.telicent.smart.cache.server.jaxrs.resources.AbstractHealthResource;
 
@@ -38,12 +40,14 @@ public class GraphQLApplication extends AbstractApplication {
         classes.add(UnknownOperationMapper.class);
         // Resources
         classes.add(DatasetResource.class);
+        classes.add(HealthResource.class);
+        classes.add(ReloadResource.class);
         return classes;
     }
 
     @Override
     protected Class<? extends AbstractHealthResource> getHealthResourceClass() {
-        // No /healthz endpoint will be provided in this demo server
+        // Our own HealthResource provides the /healthz endpoint since it reports the progress of loading the dataset
         return null;
     }
 }
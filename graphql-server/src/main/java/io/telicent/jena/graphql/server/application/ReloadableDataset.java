@@ -0,0 +1,167 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.server.application;
+
+import org.apache.jena.sparql.core.DatasetGraph;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the dataset that the server currently serves, allowing it to be atomically replaced by a freshly loaded dataset
+ * without interrupting requests that are already executing
+ * <p>
+ * Requests {@link #acquire()} a lease on the current dataset for the duration of their execution.  When the dataset
+ * is {@link #swap(DatasetGraph)}ped new requests receive the replacement, while the replaced dataset is closed only
+ * once every lease on it has been released, so in-flight requests complete against the data they started with.
+ * </p>
+ */
+public final class ReloadableDataset implements AutoCloseable {
+
+    private final AtomicReference<Holder> current;
+
+    /**
+     * Creates a new reloadable dataset
+     *
+     * @param dsg Initial dataset
+     */
+    public ReloadableDataset(DatasetGraph dsg) {
+        this.current = new AtomicReference<>(new Holder(Objects.requireNonNull(dsg, "Dataset Graph cannot be null")));
+    }
+
+    /**
+     * Gets the current dataset without acquiring a lease on it
+     * <p>
+     * The returned dataset may be replaced, and closed, at any time so this <strong>MUST NOT</strong> be used to
+     * access the data, only for inspecting it e.g. finding its
+     * {@link io.telicent.jena.graphql.utils.DatasetGeneration}.
+     * </p>
+     *
+     * @return Current dataset
+     */
+    public DatasetGraph get() {
+        return this.current.get().dsg;
+    }
+
+    /**
+     * Acquires a lease on the current dataset, the dataset will not be closed until the lease is closed
+     *
+     * @return Lease
+     * @throws IllegalStateException Thrown if this reloadable dataset has been closed
+     */
+    public Lease acquire() {
+        while (true) {
+            Holder holder = this.current.get();
+            if (holder.retain()) {
+                return new Lease(holder);
+            } else if (holder == this.current.get()) {
+                throw new IllegalStateException("Reloadable dataset has been closed");
+            }
+            // The holder was retired and closed between reading it and retaining it, so a newer one must be current
+        }
+    }
+
+    /**
+     * Replaces the current dataset
+     * <p>
+     * The replaced dataset is closed once all leases on it have been released.
+     * </p>
+     *
+     * @param dsg Replacement dataset
+     * @return Replaced dataset
+     */
+    public DatasetGraph swap(DatasetGraph dsg) {
+        Objects.requireNonNull(dsg, "Dataset Graph cannot be null");
+        Holder replaced = this.current.getAndSet(new Holder(dsg));
+        replaced.retire();
+        return replaced.dsg;
+    }
+
+    /**
+     * Closes the current dataset once all leases on it have been released
+     */
+    @Override
+    public void close() {
+        this.current.get().retire();
+    }
+
+    /**
+     * A dataset along with a count of the references to it, the holder itself counts as one reference until the
+     * dataset is replaced
+     */
+    private static final class Holder {
+        private final DatasetGraph dsg;
+        private final AtomicInteger references = new AtomicInteger(1);
+        private final AtomicBoolean retired = new AtomicBoolean();
+
+        private Holder(DatasetGraph dsg) {
+            this.dsg = dsg;
+        }
+
+        private boolean retain() {
+            while (true) {
+                int references = this.references.get();
+                if (references == 0) {
+                    return false;
+                } else if (this.references.compareAndSet(references, references + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void retire() {
+            if (this.retired.compareAndSet(false, true)) {
+                release();
+            }
+        }
+
+        private void release() {
+            if (this.references.decrementAndGet() == 0) {
+                this.dsg.close();
+            }
+        }
+    }
+
+    /**
+     * A lease on a dataset, the dataset will not be closed until the lease is closed
+     */
+    public static final class Lease implements AutoCloseable {
+        private final Holder holder;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Lease(Holder holder) {
+            this.holder = holder;
+        }
+
+        /**
+         * Gets the leased dataset
+         *
+         * @return Dataset
+         */
+        public DatasetGraph dataset() {
+            return this.holder.dsg;
+        }
+
+        /**
+         * Releases the lease
+         */
+        @Override
+        public void close() {
+            if (this.closed.compareAndSet(false, true)) {
+                this.holder.release();
+            }
+        }
+    }
+}
@@ -16,11 +16,28 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 
 import graphql.ExecutionResult;
 import graphql.ParseAndValidateResult;
+import graphql.execution.AbortExecutionException;
+import io.telicent.jena.graphql.execution.AbstractDatasetExecutor;
+import io.telicent.jena.graphql.execution.AdmissionController;
+import io.telicent.jena.graphql.execution.CachePolicy;
+import io.telicent.jena.graphql.execution.ExecutionPool;
 import io.telicent.jena.graphql.execution.GraphQLExecutor;
+import io.telicent.jena.graphql.execution.GraphQLOverDatasetExecutor;
+import io.telicent.jena.graphql.execution.RequestDeadline;
+import io.telicent.jena.graphql.server.application.DatasetLoad;
+import io.telicent.jena.graphql.server.application.ReloadableDataset;
 import io.telicent.jena.graphql.server.model.GraphQLOverHttp;
 import io.telicent.smart.cache.server.jaxrs.model.Problem;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.ConnectionCallback;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.riot.web.HttpNames;
@@ -30,6 +47,11 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 /**
  * Abstract JAX-RS resource for handling GraphQL requests
@@ -38,6 +60,17 @@ public class AbstractGraphQLResource {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractGraphQLResource.class);
 
+    /**
+     * Value of the {@code Retry-After} header sent when the server is too busy to accept a request
+     */
+    static final long RETRY_AFTER_SECONDS = 1;
+
+    @Context
+    private Request request;
+
+    @Context
+    private HttpServletRequest servletRequest;
+
     /**
      * Creates an abstract resource for handling GraphQL requests
      */
@@ -99,6 +132,72 @@ public class AbstractGraphQLResource {
         }
     }
 
+    /**
+     * Executes the given GraphQL query (and associated variables/extensions), resuming the suspended response once
+     * execution completes
+     * <p>
+     * Unlike {@link #executeOrValidateGraphQL(HttpHeaders, String, String, String, String, ServletContext, Class,
+     * boolean)} this does not block the container thread while the query executes on the configured
+     * {@link ExecutionPool}, leaving the container thread free to serve other requests.
+     * </p>
+     *
+     * @param asyncResponse  Suspended response to resume with the outcome
+     * @param headers        HTTP Headers for the request
+     * @param query          query to execute
+     * @param operationName  operation Name
+     * @param variables      variables to make available to the query
+     * @param extensions     query extensions
+     * @param servletContext for communicating with surrounding container (session management etc...)
+     * @param executorType   relevant class to execute the operation
+     */
+    protected final void executeGraphQL(AsyncResponse asyncResponse, HttpHeaders headers, String query,
+                                        String operationName, String variables, String extensions,
+                                        ServletContext servletContext, Class<?> executorType) {
+        boolean variable = true;
+        try {
+            Map<String, Object> parsedVariables = parseJSONStringIntoMap(variables);
+            variable = false;
+            Map<String, Object> parsedExtensions = parseJSONStringIntoMap(extensions);
+            executeGraphQL(asyncResponse, headers, query, operationName, parsedVariables, parsedExtensions,
+                           servletContext, executorType);
+        } catch (JsonProcessingException exception) {
+            if (variable) {
+                asyncResponse.resume(badRequest(headers, exception, "Invalid GraphQL Variables",
+                                                GraphQLOverHttp.PARAMETER_VARIABLES));
+            } else {
+                asyncResponse.resume(badRequest(headers, exception, "Invalid GraphQL Extensions",
+                                                GraphQLOverHttp.PARAMETER_EXTENSIONS));
+            }
+        }
+    }
+
+    /**
+     * Executes the given GraphQL query (and associated variables/extensions), resuming the suspended response once
+     * execution completes
+     *
+     * @param asyncResponse  Suspended response to resume with the outcome
+     * @param headers        HTTP Headers for the request
+     * @param query          query to execute
+     * @param operationName  operation Name
+     * @param variables      variables to make available to the query
+     * @param extensions     query extensions
+     * @param servletContext for communicating with surrounding container (session management etc...)
+     * @param executorType   relevant class to execute the operation
+     */
+    protected final void executeGraphQL(AsyncResponse asyncResponse, HttpHeaders headers, String query,
+                                        String operationName, Map<String, Object> variables,
+                                        Map<String, Object> extensions, ServletContext servletContext,
+                                        Class<?> executorType) {
+        CompletableFuture<Response> response;
+        try {
+            response = executeGraphQL(headers, query, operationName, variables, extensions, servletContext,
+                                      executorType, asyncResponse);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((r, e) -> asyncResponse.resume(e != null ? unwrap(e) : r));
+    }
+
     /**
      * Validate or execute the given Graph QL query (and associate variables/extensions).
      *
@@ -122,16 +221,14 @@ public class AbstractGraphQLResource {
         if (extensions == null) {
             extensions = Collections.emptyMap();
         }
+        if (headers != null) {
+            // Clients may request a normalised response via the Accept header as well as via an extension
+            extensions = GraphQLOverHttp.applyAccept(extensions, headers.getHeaderString(HttpHeaders.ACCEPT));
+        }
 
         GraphQLExecutor executor = (GraphQLExecutor) servletContext.getAttribute(executorType.getCanonicalName());
         if (executor == null) {
-            //@formatter:off
-            return new Problem("ServiceUnavailable",
-                               "No " + executorType.getSimpleName() + " Configured",
-                               HttpSC.INTERNAL_SERVER_ERROR_500,
-                               "No GraphQL Executor configured for this API",
-                               null).toResponse(headers);
-            //@formatter:on
+            return noExecutor(headers, executorType);
         }
 
         if (validate) {
@@ -141,17 +238,383 @@ public class AbstractGraphQLResource {
             } else {
                 return Response.status(200).entity("Query is valid").build();
             }
-        } else {
-            LOGGER.info("Starting GraphQL Query with executor {}...", executor.getClass().getSimpleName());
-            ExecutionResult result = executor.execute(query, operationName, variables, extensions);
+        }
+        try {
+            return executeGraphQL(executor, headers, query, operationName, variables, extensions, servletContext,
+                                  executorType, null).join();
+        } catch (CompletionException e) {
+            if (unwrap(e) instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Executes a query, the returned future completes once the query has been executed on the configured
+     * {@link ExecutionPool}
+     */
+    private CompletableFuture<Response> executeGraphQL(HttpHeaders headers, String query, String operationName,
+                                                       Map<String, Object> variables, Map<String, Object> extensions,
+                                                       ServletContext servletContext, Class<?> executorType,
+                                                       AsyncResponse asyncResponse) {
+        if (variables == null) {
+            variables = Collections.emptyMap();
+        }
+        if (extensions == null) {
+            extensions = Collections.emptyMap();
+        }
+        if (headers != null) {
+            // Clients may request a normalised response via the Accept header as well as via an extension
+            extensions = GraphQLOverHttp.applyAccept(extensions, headers.getHeaderString(HttpHeaders.ACCEPT));
+        }
+
+        GraphQLExecutor executor = (GraphQLExecutor) servletContext.getAttribute(executorType.getCanonicalName());
+        if (executor == null) {
+            return CompletableFuture.completedFuture(noExecutor(headers, executorType));
+        }
+        return executeGraphQL(executor, headers, query, operationName, variables, extensions, servletContext,
+                              executorType, asyncResponse);
+    }
+
+    /**
+     * Executes a query with the given executor, the returned future completes once the query has been executed on the
+     * configured {@link ExecutionPool}, if the response is suspended the request is cancelled should the client
+     * disconnect
+     */
+    private CompletableFuture<Response> executeGraphQL(GraphQLExecutor executor, HttpHeaders headers, String query,
+                                                       String operationName, Map<String, Object> variables,
+                                                       Map<String, Object> extensions, ServletContext servletContext,
+                                                       Class<?> executorType, AsyncResponse asyncResponse) {
+        DatasetLoad load = HealthResource.getDatasetLoad(servletContext);
+        if (!load.isReady()) {
+            return CompletableFuture.completedFuture(datasetNotReady(headers, load));
+        }
+
+        // Obtain the ETag before executing so that a write committed during execution leaves it stale, equally a
+        // reload during execution leaves it stale since reloaded datasets continue the generation sequence
+        ReloadableDataset datasets = getReloadableDataset(servletContext);
+        CachePolicy cachePolicy = CachePolicy.NONE;
+        String etag = null;
+        if (isCacheableRequest() && executor instanceof AbstractDatasetExecutor datasetExecutor) {
+            cachePolicy = datasetExecutor.getCachePolicy(query, operationName);
+            etag = datasets != null ?
+                   datasetExecutor.getETag(datasets.get(), query, operationName, variables, extensions) :
+                   datasetExecutor.getETag(query, operationName, variables, extensions);
+            if (etag != null && headers != null && GraphQLOverHttp.matchesETag(
+                    headers.getHeaderString(HttpHeaders.IF_NONE_MATCH), etag)) {
+                LOGGER.info("GraphQL Query with executor {} not modified", executor.getClass().getSimpleName());
+                return CompletableFuture.completedFuture(
+                        cacheHeaders(Response.notModified(), etag, cachePolicy).build());
+            }
+        }
+
+        LOGGER.info("Starting GraphQL Query with executor {}...", executor.getClass().getSimpleName());
+        RequestDeadline deadline = createDeadline(headers, servletContext);
+        if (asyncResponse != null) {
+            cancelOnDisconnect(asyncResponse, deadline);
+        }
+        AdmissionController admission = getAdmissionController(servletContext, executorType);
+        ExecutionPool pool = getExecutionPool(servletContext);
+        ExecutionPool.Execution<ExecutionResult> execution;
+        AdmissionController.Permit permit = null;
+        try {
+            Supplier<ExecutionResult> request =
+                    () -> execute(executor, datasets, query, operationName, variables, extensions, deadline);
+            permit = admission != null ? admission.tryAdmit(query) : null;
+            if (admission != null && permit == null) {
+                if (asyncResponse != null && !pool.isDirect()) {
+                    // Wait to be admitted on the pool rather than blocking the container thread, the permit is
+                    // released once the request stops executing
+                    Supplier<ExecutionResult> admitted = request;
+                    request = () -> {
+                        try (AdmissionController.Permit ignored = admission.admit(query)) {
+                            return admitted.get();
+                        }
+                    };
+                } else {
+                    permit = admission.admit(query);
+                }
+            }
+            execution = pool.submit(request, deadline);
+        } catch (RejectedExecutionException e) {
+            if (permit != null) {
+                permit.close();
+            }
+            return CompletableFuture.completedFuture(serverBusy(headers, executor, admission, e));
+        }
+        if (permit != null) {
+            // Release the permit only once the request stops executing, an abandoned request may still be executing
+            // after its result has completed and must continue to count towards the concurrency limit
+            AdmissionController.Permit admitted = permit;
+            execution.finished().whenComplete((r, e) -> admitted.close());
+        }
+
+        String finalEtag = etag;
+        CachePolicy finalCachePolicy = cachePolicy;
+        return execution.result().handle((executed, error) -> {
+            ExecutionResult result = executed;
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                if (cause instanceof RejectedExecutionException rejected) {
+                    // Request waited on the pool to be admitted and was not
+                    return serverBusy(headers, executor, admission, rejected);
+                }
+                if (!(cause instanceof CancellationException)) {
+                    throw new CompletionException(cause);
+                }
+                result = ExecutionResult.newExecutionResult()
+                                        .addError(new AbortExecutionException(cause.getMessage()))
+                                        .build();
+            }
             Map<String, Object> specResponse = result.toSpecification();
             int status = GraphQLOverHttp.selectHttpStatus(result);
             LOGGER.info("Finished GraphQL Query with executor {}, returning status {}",
                         executor.getClass().getSimpleName(), status);
-            return Response.status(status)
-                           .entity(specResponse)
-                           .header(HttpNames.hContentType, GraphQLOverHttp.CONTENT_TYPE_GRAPHQL_RESPONSE_JSON)
-                           .build();
+            Response.ResponseBuilder builder =
+                    Response.status(status)
+                            .entity(specResponse)
+                            .header(HttpNames.hContentType, GraphQLOverHttp.CONTENT_TYPE_GRAPHQL_RESPONSE_JSON);
+            if (result.getErrors().isEmpty()) {
+                // Only complete results may be cached, errors such as timeouts may not recur
+                cacheHeaders(builder, finalEtag, finalCachePolicy);
+            }
+            return builder.build();
+        });
+    }
+
+    /**
+     * Creates a 503 Service Unavailable response to a request that was rejected because the server is saturated
+     *
+     * @param headers   HTTP Headers for the request
+     * @param executor  Executor the request was for
+     * @param admission Admission controller, may be {@code null}
+     * @param e         Rejection
+     * @return 503 Service Unavailable response
+     */
+    private static Response serverBusy(HttpHeaders headers, GraphQLExecutor executor, AdmissionController admission,
+                                       RejectedExecutionException e) {
+        LOGGER.warn("Rejected GraphQL Query with executor {} as the server is saturated: {}",
+                    executor.getClass().getSimpleName(), e.getMessage());
+        //@formatter:off
+        return Response.fromResponse(new Problem("ServiceUnavailable",
+                                                 "Server Busy",
+                                                 HttpSC.SERVICE_UNAVAILABLE_503,
+                                                 "Server is too busy to execute this request, retry later",
+                                                 null).toResponse(headers))
+                       .header(HttpHeaders.RETRY_AFTER,
+                               admission != null ? admission.getRetryAfterSeconds() : RETRY_AFTER_SECONDS)
+                       .build();
+        //@formatter:on
+    }
+
+    /**
+     * Unwraps the cause of a {@link CompletionException}
+     *
+     * @param e Error
+     * @return Underlying error
+     */
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    /**
+     * Creates a 500 Internal Server Error response to a request for an executor type that isn't configured
+     *
+     * @param headers      HTTP Headers for the request
+     * @param executorType Executor type
+     * @return 500 Internal Server Error response
+     */
+    private static Response noExecutor(HttpHeaders headers, Class<?> executorType) {
+        //@formatter:off
+        return new Problem("ServiceUnavailable",
+                           "No " + executorType.getSimpleName() + " Configured",
+                           HttpSC.INTERNAL_SERVER_ERROR_500,
+                           "No GraphQL Executor configured for this API",
+                           null).toResponse(headers);
+        //@formatter:on
+    }
+
+    /**
+     * Executes a request, against the current dataset if the dataset is reloadable
+     * <p>
+     * The current dataset is leased for the duration of the execution so that, if the dataset is reloaded meanwhile,
+     * the request completes against a consistent dataset that isn't closed until the request completes.
+     * </p>
+     */
+    private static ExecutionResult execute(GraphQLExecutor executor, ReloadableDataset datasets, String query,
+                                           String operationName, Map<String, Object> variables,
+                                           Map<String, Object> extensions, RequestDeadline deadline) {
+        if (datasets != null && executor instanceof GraphQLOverDatasetExecutor datasetExecutor) {
+            try (ReloadableDataset.Lease lease = datasets.acquire()) {
+                return datasetExecutor.execute(lease.dataset(), query, operationName, variables, extensions,
+                                               deadline);
+            }
+        }
+        return executor.execute(query, operationName, variables, extensions, deadline);
+    }
+
+    /**
+     * Creates a 503 Service Unavailable response to a request received before the dataset has loaded
+     *
+     * @param headers HTTP Headers for the request
+     * @param load    Dataset load
+     * @return 503 Service Unavailable response
+     */
+    private static Response datasetNotReady(HttpHeaders headers, DatasetLoad load) {
+        if (load.getState() == DatasetLoad.State.FAILED) {
+            //@formatter:off
+            return new Problem("ServiceUnavailable",
+                               "Dataset Load Failed",
+                               HttpSC.SERVICE_UNAVAILABLE_503,
+                               "Failed to load the dataset: " + load.getFailure(),
+                               null).toResponse(headers);
+            //@formatter:on
+        }
+        //@formatter:off
+        return Response.fromResponse(new Problem("ServiceUnavailable",
+                                                 "Dataset Loading",
+                                                 HttpSC.SERVICE_UNAVAILABLE_503,
+                                                 "The dataset is still being loaded, retry later",
+                                                 null).toResponse(headers))
+                       .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                       .build();
+        //@formatter:on
+    }
+
+    /**
+     * Gets whether the request being handled is eligible for HTTP caching, only {@code GET} requests are eligible
+     *
+     * @return True if eligible for HTTP caching
+     */
+    protected boolean isCacheableRequest() {
+        return this.request != null && HttpMethod.GET.equals(this.request.getMethod());
+    }
+
+    /**
+     * Adds the HTTP caching headers to a response
+     *
+     * @param builder     Response builder
+     * @param etag        Entity tag, may be {@code null}
+     * @param cachePolicy Caching policy
+     * @return Response builder
+     */
+    private static Response.ResponseBuilder cacheHeaders(Response.ResponseBuilder builder, String etag,
+                                                         CachePolicy cachePolicy) {
+        if (etag != null) {
+            builder.header(HttpHeaders.ETAG, etag);
+        }
+        String cacheControl = cachePolicy.toHeaderValue();
+        if (cacheControl != null) {
+            builder.header(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        return builder;
+    }
+
+    /**
+     * Gets the name of the servlet context attribute that holds the admission controller, if any, for an executor type
+     *
+     * @param executorType Executor type
+     * @return Attribute name
+     */
+    public static String admissionControllerAttribute(Class<?> executorType) {
+        return AdmissionController.class.getCanonicalName() + "/" + executorType.getCanonicalName();
+    }
+
+    /**
+     * Gets the admission controller, if any, that controls admission of requests to an executor
+     *
+     * @param servletContext Servlet context
+     * @param executorType   Executor type
+     * @return Admission controller, or {@code null} if requests are always admitted
+     */
+    protected AdmissionController getAdmissionController(ServletContext servletContext, Class<?> executorType) {
+        Object admission = servletContext.getAttribute(admissionControllerAttribute(executorType));
+        return admission instanceof AdmissionController controller ? controller : null;
+    }
+
+    /**
+     * Gets the execution pool that determines which threads requests are executed on
+     * <p>
+     * If no pool has been configured for the servlet context then requests are executed directly on the container
+     * thread that is handling the request.
+     * </p>
+     *
+     * @param servletContext Servlet context
+     * @return Execution pool
+     */
+    protected ExecutionPool getExecutionPool(ServletContext servletContext) {
+        Object pool = servletContext.getAttribute(ExecutionPool.class.getCanonicalName());
+        return pool instanceof ExecutionPool executionPool ? executionPool : ExecutionPool.DIRECT;
+    }
+
+    /**
+     * Gets the reloadable dataset, if any, that requests are executed against
+     * <p>
+     * If the dataset is not reloadable then requests are executed against the dataset their executor was created
+     * with.
+     * </p>
+     *
+     * @param servletContext Servlet context
+     * @return Reloadable dataset, or {@code null} if the dataset is not reloadable
+     */
+    protected ReloadableDataset getReloadableDataset(ServletContext servletContext) {
+        Object datasets = servletContext.getAttribute(ReloadableDataset.class.getCanonicalName());
+        return datasets instanceof ReloadableDataset reloadable ? reloadable : null;
+    }
+
+    /**
+     * Creates the deadline for a request
+     * <p>
+     * The executor further restricts this deadline with its configured query timeout and any client supplied timeout
+     * hint.  The default implementation returns a new cancellable deadline, for requests whose response is suspended
+     * the deadline is then cancelled if the client disconnects, see
+     * {@link #cancelOnDisconnect(AsyncResponse, RequestDeadline)}.
+     * </p>
+     *
+     * @param headers        HTTP Headers for the request
+     * @param servletContext Servlet context
+     * @return Request deadline
+     */
+    protected RequestDeadline createDeadline(HttpHeaders headers, ServletContext servletContext) {
+        return RequestDeadline.create();
+    }
+
+    /**
+     * Links the deadline of a request to its connection so that the request is cancelled, and stops promptly, if the
+     * client disconnects while the response is suspended
+     * <p>
+     * The deadline is cancelled via a JAX-RS {@link ConnectionCallback} and, where the container processes the
+     * suspended response asynchronously, a Servlet {@link AsyncListener} that is notified of connection errors.
+     * </p>
+     *
+     * @param asyncResponse Suspended response
+     * @param deadline      Request deadline
+     */
+    protected void cancelOnDisconnect(AsyncResponse asyncResponse, RequestDeadline deadline) {
+        asyncResponse.register((ConnectionCallback) disconnected -> deadline.cancel());
+        if (this.servletRequest != null && this.servletRequest.isAsyncStarted()) {
+            this.servletRequest.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    // Nothing to do, the request has already completed
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    deadline.cancel();
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    deadline.cancel();
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                    // Nothing to do
+                }
+            });
         }
     }
 
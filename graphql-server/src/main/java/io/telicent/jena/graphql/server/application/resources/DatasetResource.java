@@ -20,6 +20,8 @@ import io.telicent.jena.graphql.server.model.GraphQLRequest;
 import jakarta.servlet.ServletContext;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
@@ -48,18 +50,19 @@ public class DatasetResource extends AbstractGraphQLResource {
      * @param extensions     GraphQL extensions
      * @param headers        HTTP Headers for the request
      * @param servletContext Servlet context
-     * @return Response
+     * @param asyncResponse  Suspended response
      */
     @Path("/graphql")
     @GET
     @Produces({ GraphQLOverHttp.CONTENT_TYPE_GRAPHQL_RESPONSE_JSON, "application/problem+json" })
-    public Response quads(@QueryParam(GraphQLOverHttp.PARAMETER_QUERY) @NotNull String query,
-                          @QueryParam(GraphQLOverHttp.PARAMETER_OPERATION_NAME) String operationName,
-                          @QueryParam(GraphQLOverHttp.PARAMETER_VARIABLES) String variables,
-                          @QueryParam(GraphQLOverHttp.PARAMETER_EXTENSIONS) String extensions,
-                          @Context HttpHeaders headers, @Context ServletContext servletContext) {
-        return executeOrValidateGraphQL(headers, query, operationName, variables, extensions, servletContext,
-                                        DatasetExecutor.class, false);
+    public void quads(@QueryParam(GraphQLOverHttp.PARAMETER_QUERY) @NotNull String query,
+                      @QueryParam(GraphQLOverHttp.PARAMETER_OPERATION_NAME) String operationName,
+                      @QueryParam(GraphQLOverHttp.PARAMETER_VARIABLES) String variables,
+                      @QueryParam(GraphQLOverHttp.PARAMETER_EXTENSIONS) String extensions,
+                      @Context HttpHeaders headers, @Context ServletContext servletContext,
+                      @Suspended AsyncResponse asyncResponse) {
+        executeGraphQL(asyncResponse, headers, query, operationName, variables, extensions, servletContext,
+                       DatasetExecutor.class);
     }
 
     /**
@@ -68,16 +71,16 @@ public class DatasetResource extends AbstractGraphQLResource {
      * @param request        GraphQL Request
      * @param headers        HTTP Headers for the request
      * @param servletContext Servlet context
-     * @return Response
+     * @param asyncResponse  Suspended response
      */
     @Path("/graphql")
     @POST
     @Consumes({ MediaType.APPLICATION_JSON })
     @Produces({ GraphQLOverHttp.CONTENT_TYPE_GRAPHQL_RESPONSE_JSON, "application/problem+json" })
-    public Response postQuads(GraphQLRequest request, @Context HttpHeaders headers,
-                              @Context ServletContext servletContext) {
-        return executeOrValidateGraphQL(headers, request.getQuery(), request.getOperationName(), request.getVariables(),
-                                        request.getExtensions(), servletContext, DatasetExecutor.class, false);
+    public void postQuads(GraphQLRequest request, @Context HttpHeaders headers,
+                          @Context ServletContext servletContext, @Suspended AsyncResponse asyncResponse) {
+        executeGraphQL(asyncResponse, headers, request.getQuery(), request.getOperationName(),
+                       request.getVariables(), request.getExtensions(), servletContext, DatasetExecutor.class);
     }
 
     /**
@@ -89,18 +92,19 @@ public class DatasetResource extends AbstractGraphQLResource {
      * @param extensions     GraphQL extensions
      * @param headers        HTTP Headers for the request
      * @param servletContext Servlet context
-     * @return Response
+     * @param asyncResponse  Suspended response
      */
     @Path("/traversal/graphql")
     @GET
     @Produces({ GraphQLOverHttp.CONTENT_TYPE_GRAPHQL_RESPONSE_JSON, "application/problem+json" })
-    public Response traverse(@QueryParam(GraphQLOverHttp.PARAMETER_QUERY) @NotNull String query,
-                             @QueryParam(GraphQLOverHttp.PARAMETER_OPERATION_NAME) String operationName,
-                             @QueryParam(GraphQLOverHttp.PARAMETER_VARIABLES) String variables,
-                             @QueryParam(GraphQLOverHttp.PARAMETER_EXTENSIONS) String extensions,
-                             @Context HttpHeaders headers, @Context ServletContext servletContext) {
-        return executeOrValidateGraphQL(headers, query, operationName, variables, extensions, servletContext,
-                                        TraversalExecutor.class, false);
+    public void traverse(@QueryParam(GraphQLOverHttp.PARAMETER_QUERY) @NotNull String query,
+                         @QueryParam(GraphQLOverHttp.PARAMETER_OPERATION_NAME) String operationName,
+                         @QueryParam(GraphQLOverHttp.PARAMETER_VARIABLES) String variables,
+                         @QueryParam(GraphQLOverHttp.PARAMETER_EXTENSIONS) String extensions,
+                         @Context HttpHeaders headers, @Context ServletContext servletContext,
+                         @Suspended AsyncResponse asyncResponse) {
+        executeGraphQL(asyncResponse, headers, query, operationName, variables, extensions, servletContext,
+                       TraversalExecutor.class);
     }
 
     /**
@@ -109,16 +113,16 @@ public class DatasetResource extends AbstractGraphQLResource {
      * @param request        GraphQL Request
      * @param headers        HTTP Headers for the request
      * @param servletContext Servlet context
-     * @return Response
+     * @param asyncResponse  Suspended response
      */
     @Path("/traversal/graphql")
     @POST
     @Consumes({ MediaType.APPLICATION_JSON })
     @Produces({ GraphQLOverHttp.CONTENT_TYPE_GRAPHQL_RESPONSE_JSON, "application/problem+json" })
-    public Response postTraversal(GraphQLRequest request, @Context HttpHeaders headers,
-                                  @Context ServletContext servletContext) {
-        return executeOrValidateGraphQL(headers, request.getQuery(), request.getOperationName(), request.getVariables(),
-                                        request.getExtensions(), servletContext, TraversalExecutor.class, false);
+    public void postTraversal(GraphQLRequest request, @Context HttpHeaders headers,
+                              @Context ServletContext servletContext, @Suspended AsyncResponse asyncResponse) {
+        executeGraphQL(asyncResponse, headers, request.getQuery(), request.getOperationName(),
+                       request.getVariables(), request.getExtensions(), servletContext, TraversalExecutor.class);
     }
 
 
@@ -131,18 +135,19 @@ public class DatasetResource extends AbstractGraphQLResource {
      * @param extensions     GraphQL extensions
      * @param headers        HTTP Headers for the request
      * @param servletContext Servlet context
-     * @return Response
+     * @param asyncResponse  Suspended response
      */
     @Path("/telicent/graphql")
     @GET
     @Produces({ GraphQLOverHttp.CONTENT_TYPE_GRAPHQL_RESPONSE_JSON, "application/problem+json" })
-    public Response telicent(@QueryParam(GraphQLOverHttp.PARAMETER_QUERY) @NotNull String query,
-                             @QueryParam(GraphQLOverHttp.PARAMETER_OPERATION_NAME) String operationName,
-                             @QueryParam(GraphQLOverHttp.PARAMETER_VARIABLES) String variables,
-                             @QueryParam(GraphQLOverHttp.PARAMETER_EXTENSIONS) String extensions,
-                             @Context HttpHeaders headers, @Context ServletContext servletContext) {
-        return executeOrValidateGraphQL(headers, query, operationName, variables, extensions, servletContext,
-                                        TelicentGraphExecutor.class, false);
+    public void telicent(@QueryParam(GraphQLOverHttp.PARAMETER_QUERY) @NotNull String query,
+                         @QueryParam(GraphQLOverHttp.PARAMETER_OPERATION_NAME) String operationName,
+                         @QueryParam(GraphQLOverHttp.PARAMETER_VARIABLES) String variables,
+                         @QueryParam(GraphQLOverHttp.PARAMETER_EXTENSIONS) String extensions,
+                         @Context HttpHeaders headers, @Context ServletContext servletContext,
+                         @Suspended AsyncResponse asyncResponse) {
+        executeGraphQL(asyncResponse, headers, query, operationName, variables, extensions, servletContext,
+                       TelicentGraphExecutor.class);
     }
 
     /**
@@ -151,16 +156,16 @@ public class DatasetResource extends AbstractGraphQLResource {
      * @param request        GraphQL Request
      * @param headers        HTTP Headers for the request
      * @param servletContext Servlet context
-     * @return Response
+     * @param asyncResponse  Suspended response
      */
     @Path("/telicent/graphql")
     @POST
     @Consumes({ MediaType.APPLICATION_JSON })
     @Produces({ GraphQLOverHttp.CONTENT_TYPE_GRAPHQL_RESPONSE_JSON, "application/problem+json" })
-    public Response postTelicent(GraphQLRequest request, @Context HttpHeaders headers,
-                                 @Context ServletContext servletContext) {
-        return executeOrValidateGraphQL(headers, request.getQuery(), request.getOperationName(), request.getVariables(),
-                                        request.getExtensions(), servletContext, TelicentGraphExecutor.class, false);
+    public void postTelicent(GraphQLRequest request, @Context HttpHeaders headers,
+                             @Context ServletContext servletContext, @Suspended AsyncResponse asyncResponse) {
+        executeGraphQL(asyncResponse, headers, request.getQuery(), request.getOperationName(),
+                       request.getVariables(), request.getExtensions(), servletContext, TelicentGraphExecutor.class);
     }
 
     /**
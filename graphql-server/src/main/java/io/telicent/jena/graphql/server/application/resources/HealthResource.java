@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.server.application.resources;
+
+import io.telicent.jena.graphql.server.application.DatasetLoad;
+import io.telicent.jena.graphql.server.application.DatasetReloader;
+import jakarta.servlet.ServletContext;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.apache.jena.web.HttpSC;
+
+import java.util.Map;
+
+/**
+ * A JAX-RS resource that reports the health of the server, including the progress of loading its dataset
+ * <p>
+ * The server is healthy while its dataset is still loading, so that orchestrators don't restart it during a long load,
+ * but GraphQL requests receive a {@code 503 Service Unavailable} response until loading completes.  If the dataset
+ * may be reloaded then the progress of the most recent reload is also reported, a failed reload doesn't affect the
+ * health of the server since it continues to serve the previous dataset.
+ * </p>
+ */
+@Path("/healthz")
+public class HealthResource {
+
+    /**
+     * Creates a new health resource
+     */
+    public HealthResource() {
+
+    }
+
+    /**
+     * Reports the health of the server
+     *
+     * @param servletContext Servlet context
+     * @return 200 OK if healthy, 503 Service Unavailable if loading the dataset failed
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response healthz(@Context ServletContext servletContext) {
+        DatasetLoad load = getDatasetLoad(servletContext);
+        Map<String, Object> summary = load.toSummary();
+        if (servletContext.getAttribute(DatasetReloader.class.getCanonicalName()) instanceof DatasetReloader reloader
+            && reloader.getLastReload() != null) {
+            summary.put("reload", reloader.getLastReload().toSummary());
+        }
+        return Response.status(load.getState() == DatasetLoad.State.FAILED ? HttpSC.SERVICE_UNAVAILABLE_503 :
+                               HttpSC.OK_200).entity(summary).build();
+    }
+
+    /**
+     * Gets the progress of loading the dataset
+     *
+     * @param servletContext Servlet context
+     * @return Dataset load, if none has been recorded the dataset is assumed to be ready
+     */
+    static DatasetLoad getDatasetLoad(ServletContext servletContext) {
+        Object load = servletContext.getAttribute(DatasetLoad.class.getCanonicalName());
+        return load instanceof DatasetLoad datasetLoad ? datasetLoad : DatasetLoad.ready();
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.server.application.resources;
+
+import io.telicent.jena.graphql.server.application.DatasetReloader;
+import io.telicent.smart.cache.server.jaxrs.model.Problem;
+import jakarta.servlet.ServletContext;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.apache.jena.web.HttpSC;
+
+/**
+ * A JAX-RS resource that reloads the server's dataset from its data files
+ * <p>
+ * The dataset is reloaded in the background and atomically swapped in once loaded, the current dataset continues to
+ * be served until then.  Progress of the reload is reported by the {@code /healthz} endpoint.
+ * </p>
+ */
+@Path("/dataset/reload")
+public class ReloadResource {
+
+    /**
+     * Creates a new reload resource
+     */
+    public ReloadResource() {
+
+    }
+
+    /**
+     * Requests that the dataset is reloaded
+     *
+     * @param headers        HTTP Headers for the request
+     * @param servletContext Servlet context
+     * @return 202 Accepted if a reload was started, 409 Conflict if a reload could not be started now, or 404 Not Found
+     * if reloading is not enabled
+     */
+    @POST
+    @Produces({ MediaType.APPLICATION_JSON, "application/problem+json" })
+    public Response reload(@Context HttpHeaders headers, @Context ServletContext servletContext) {
+        Object reloader = servletContext.getAttribute(DatasetReloader.class.getCanonicalName());
+        if (!(reloader instanceof DatasetReloader datasetReloader)) {
+            //@formatter:off
+            return new Problem("NotFound",
+                               "Reload Not Enabled",
+                               HttpSC.NOT_FOUND_404,
+                               "Reloading the dataset is not enabled for this server",
+                               null).toResponse(headers);
+            //@formatter:on
+        }
+        if (!datasetReloader.reload()) {
+            //@formatter:off
+            return new Problem("Conflict",
+                               "Reload Not Started",
+                               HttpSC.CONFLICT_409,
+                               "The dataset is already being loaded or reloaded, another reload will follow any " +
+                               "reload in progress",
+                               null).toResponse(headers);
+            //@formatter:on
+        }
+        return Response.status(HttpSC.ACCEPTED_202).entity(datasetReloader.getLastReload().toSummary()).build();
+    }
+}
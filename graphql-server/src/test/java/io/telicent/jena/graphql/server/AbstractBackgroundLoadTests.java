@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.server;
+
+import io.telicent.jena.graphql.server.model.GraphQLRequest;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Abstract tests for the server when its dataset is loaded in the background
+ */
+public abstract class AbstractBackgroundLoadTests extends AbstractResourceTests {
+
+    /**
+     * Number of valid quads in the data the server loads
+     */
+    protected static final int QUADS = 1_000;
+
+    private Path data;
+
+    /**
+     * Writes the data file that the server loads
+     *
+     * @param valid Whether the data should be valid
+     * @return Data file
+     * @throws IOException Thrown if the file cannot be written
+     */
+    protected Path writeData(boolean valid) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < QUADS; i++) {
+            lines.add("<https://example.org/" + i + "> <https://example.org/p> \"" + i +
+                      "\" <https://example.org/graph> .");
+        }
+        if (!valid) {
+            lines.add("<https://example.org/bad> not valid .");
+        }
+        Path file = Files.createTempFile("background", ".nq");
+        Files.write(file, lines);
+        return file;
+    }
+
+    /**
+     * Gets the data file that the server loads
+     *
+     * @return Data file
+     */
+    protected Path getData() {
+        return this.data;
+    }
+
+    /**
+     * Whether the data the server loads should be valid
+     *
+     * @return True if valid
+     */
+    protected abstract boolean isValidData();
+
+    @BeforeClass
+    @Override
+    public void setUpServer() throws IOException {
+        this.data = writeData(isValidData());
+        System.setProperty("data.location", this.data.toAbsolutePath().toString());
+        System.setProperty("data.background", "true");
+        System.setProperty("data.threads", "2");
+        super.setUpServer();
+    }
+
+    @AfterClass
+    @Override
+    public void shutdownServer() {
+        super.shutdownServer();
+        System.clearProperty("data.location");
+        System.clearProperty("data.background");
+        System.clearProperty("data.threads");
+        try {
+            Files.deleteIfExists(this.data);
+        } catch (IOException e) {
+            // Ignored, the file is temporary
+        }
+    }
+
+    /**
+     * Waits for the background load to finish
+     *
+     * @return Final health response
+     * @throws InterruptedException Thrown if interrupted while waiting
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<String, Object> awaitLoaded() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline) {
+            try (Response response = getTargetForEndpoint("/healthz").request(MediaType.APPLICATION_JSON).get()) {
+                Map<String, Object> health = response.readEntity(Map.class);
+                if (!"LOADING".equals(health.get("status"))) {
+                    health.put("httpStatus", response.getStatus());
+                    return health;
+                }
+                Assert.assertEquals(response.getStatus(), 200);
+                Assert.assertEquals(health.get("healthy"), true);
+            }
+            Thread.sleep(50);
+        }
+        Assert.fail("Background load did not finish");
+        return null;
+    }
+
+    /**
+     * Issues a query for all the quads in the dataset
+     *
+     * @return Response
+     */
+    protected Response query() {
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery("{ quads { subject { value } } }");
+        return getTargetForEndpoint("/dataset/graphql").request()
+                                                       .post(Entity.entity(request, MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.server;
+
+import jakarta.ws.rs.core.Response;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the server when its dataset is loaded in the background
+ */
+public class DatasetResourceBackgroundLoadTests extends AbstractBackgroundLoadTests {
+
+    @Override
+    protected boolean isValidData() {
+        return true;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void givenBackgroundLoad_whenLoaded_thenHealthyAndQueryable() throws InterruptedException {
+        // Given
+        Map<String, Object> health = awaitLoaded();
+
+        // Then
+        Assert.assertEquals(health.get("status"), "READY");
+        Assert.assertEquals(health.get("httpStatus"), 200);
+        Assert.assertEquals(((Number) health.get("quadsRead")).intValue(), QUADS);
+        try (Response response = query()) {
+            Assert.assertEquals(response.getStatus(), 200);
+            Map<String, Object> result = response.readEntity(Map.class);
+            Map<String, Object> data = (Map<String, Object>) result.get("data");
+            Assert.assertEquals(((List<Object>) data.get("quads")).size(), QUADS);
+        }
+    }
+
+    @Test
+    public void givenReloadNotEnabled_whenReloading_thenNotFound() {
+        // Given, When and Then
+        try (Response response = getTargetForEndpoint("/dataset/reload").request().post(null)) {
+            Assert.assertEquals(response.getStatus(), 404);
+        }
+    }
+}
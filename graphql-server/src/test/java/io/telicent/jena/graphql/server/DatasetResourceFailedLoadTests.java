@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.server;
+
+import jakarta.ws.rs.core.Response;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+/**
+ * Tests the server when loading its dataset in the background fails
+ */
+public class DatasetResourceFailedLoadTests extends AbstractBackgroundLoadTests {
+
+    @Override
+    protected boolean isValidData() {
+        return false;
+    }
+
+    @Test
+    public void givenBackgroundLoad_whenLoadFails_thenUnhealthyAndUnavailable() throws InterruptedException {
+        // Given
+        Map<String, Object> health = awaitLoaded();
+
+        // Then
+        Assert.assertEquals(health.get("status"), "FAILED");
+        Assert.assertEquals(health.get("healthy"), false);
+        Assert.assertEquals(health.get("httpStatus"), 503);
+        Assert.assertNotNull(health.get("failure"));
+        try (Response response = query()) {
+            Assert.assertEquals(response.getStatus(), 503);
+        }
+    }
+}
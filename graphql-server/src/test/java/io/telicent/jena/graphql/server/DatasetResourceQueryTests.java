@@ -16,8 +16,10 @@ import io.telicent.jena.graphql.server.model.GraphQLRequest;
 import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.client.Invocation;
 import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.net.URLEncoder;
@@ -209,4 +211,52 @@ public class DatasetResourceQueryTests extends AbstractResourceTests{
         verifyResponse(response, Response.Status.OK);
     }
 
+    @Test
+    public void test_getDataset_notModified() {
+        WebTarget target = getTargetForEndpoint(DATASET_ENDPOINT).queryParam("query", URLEncoder.encode(
+                VALID_QUAD_QUERY, StandardCharsets.UTF_8));
+        Response response = target.request(CONTENT_TYPE_GRAPHQL_RESPONSE_JSON).get();
+        String etag = response.getHeaderString(HttpHeaders.ETAG);
+        Assert.assertNotNull(etag);
+        Assert.assertEquals(response.getHeaderString(HttpHeaders.CACHE_CONTROL), "public, no-cache");
+        verifyResponse(response, Response.Status.OK);
+
+        Response revalidated =
+                target.request(CONTENT_TYPE_GRAPHQL_RESPONSE_JSON).header(HttpHeaders.IF_NONE_MATCH, etag).get();
+        Assert.assertEquals(revalidated.getHeaderString(HttpHeaders.ETAG), etag);
+        verifyResponse(revalidated, Response.Status.NOT_MODIFIED);
+    }
+
+    @Test
+    public void test_getDataset_staleETag() {
+        WebTarget target = getTargetForEndpoint(DATASET_ENDPOINT).queryParam("query", URLEncoder.encode(
+                VALID_QUAD_QUERY, StandardCharsets.UTF_8));
+        Response response = target.request(CONTENT_TYPE_GRAPHQL_RESPONSE_JSON)
+                                  .header(HttpHeaders.IF_NONE_MATCH, "W/\"stale\"")
+                                  .get();
+        Assert.assertNotNull(response.getHeaderString(HttpHeaders.ETAG));
+        verifyResponse(response, Response.Status.OK);
+    }
+
+    @Test
+    public void test_postDataset_noETag() {
+        WebTarget target = getTargetForEndpoint(DATASET_ENDPOINT);
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery(VALID_QUAD_QUERY);
+        Response response = target.request().post(Entity.entity(request, MediaType.APPLICATION_JSON));
+        Assert.assertNull(response.getHeaderString(HttpHeaders.ETAG));
+        Assert.assertNull(response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        verifyResponse(response, Response.Status.OK);
+    }
+
+    @Test
+    public void test_getTelicent_privateCacheControl() {
+        WebTarget target = getTargetForEndpoint(TELICENT_ENDPOINT);
+        Invocation.Builder invocation = target.queryParam("query", URLEncoder.encode(
+                VALID_TELICENT_QUERY, StandardCharsets.UTF_8).replace("+", "%20")).request(CONTENT_TYPE_GRAPHQL_RESPONSE_JSON);
+        Response response = invocation.get();
+        Assert.assertNotNull(response.getHeaderString(HttpHeaders.ETAG));
+        Assert.assertEquals(response.getHeaderString(HttpHeaders.CACHE_CONTROL), "private, no-cache");
+        verifyResponse(response, Response.Status.OK);
+    }
 }
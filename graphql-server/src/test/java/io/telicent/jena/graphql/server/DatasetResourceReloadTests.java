@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.server;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the server when its dataset may be reloaded
+ */
+public class DatasetResourceReloadTests extends AbstractBackgroundLoadTests {
+
+    @Override
+    protected boolean isValidData() {
+        return true;
+    }
+
+    @BeforeClass
+    @Override
+    public void setUpServer() throws IOException {
+        System.setProperty("data.reload", "true");
+        super.setUpServer();
+    }
+
+    @AfterClass
+    @Override
+    public void shutdownServer() {
+        super.shutdownServer();
+        System.clearProperty("data.reload");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> awaitReloaded() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline) {
+            try (Response response = getTargetForEndpoint("/healthz").request(MediaType.APPLICATION_JSON).get()) {
+                Map<String, Object> health = response.readEntity(Map.class);
+                Assert.assertEquals(response.getStatus(), 200);
+                Map<String, Object> reload = (Map<String, Object>) health.get("reload");
+                if (reload != null && !"LOADING".equals(reload.get("status"))) {
+                    return reload;
+                }
+            }
+            Thread.sleep(50);
+        }
+        Assert.fail("Reload did not finish");
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int countQuads() {
+        try (Response response = query()) {
+            Assert.assertEquals(response.getStatus(), 200);
+            Map<String, Object> result = response.readEntity(Map.class);
+            Map<String, Object> data = (Map<String, Object>) result.get("data");
+            return ((List<Object>) data.get("quads")).size();
+        }
+    }
+
+    @Test
+    public void givenChangedData_whenReloading_thenNewDataServed() throws InterruptedException, IOException {
+        // Given
+        awaitLoaded();
+        Assert.assertEquals(countQuads(), QUADS);
+        List<String> lines = Files.readAllLines(getData());
+        Files.write(getData(), lines.subList(0, QUADS / 2));
+
+        // When
+        try (Response response = getTargetForEndpoint("/dataset/reload").request().post(null)) {
+            Assert.assertEquals(response.getStatus(), 202);
+        }
+        Map<String, Object> reload = awaitReloaded();
+
+        // Then
+        Assert.assertEquals(reload.get("status"), "READY");
+        Assert.assertEquals(((Number) reload.get("quadsRead")).intValue(), QUADS / 2);
+        Assert.assertEquals(countQuads(), QUADS / 2);
+    }
+
+    @Test(dependsOnMethods = "givenChangedData_whenReloading_thenNewDataServed")
+    public void givenInvalidData_whenReloading_thenPreviousDataServed() throws InterruptedException, IOException {
+        // Given
+        Files.writeString(getData(), "<https://example.org/bad> not valid .\n");
+
+        // When
+        try (Response response = getTargetForEndpoint("/dataset/reload").request().post(null)) {
+            Assert.assertEquals(response.getStatus(), 202);
+        }
+        Map<String, Object> reload = awaitReloaded();
+
+        // Then
+        Assert.assertEquals(reload.get("status"), "FAILED");
+        Assert.assertEquals(countQuads(), QUADS / 2);
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.server;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+
+import java.io.IOException;
+
+/**
+ * Runs the query tests with each request executed on its own virtual thread
+ */
+public class DatasetResourceVirtualQueryTests extends DatasetResourceQueryTests {
+
+    @BeforeClass
+    @Override
+    public void setUpServer() throws IOException {
+        System.setProperty("threads.virtual", "true");
+        super.setUpServer();
+    }
+
+    @AfterClass
+    @Override
+    public void shutdownServer() {
+        super.shutdownServer();
+        System.clearProperty("threads.virtual");
+    }
+}
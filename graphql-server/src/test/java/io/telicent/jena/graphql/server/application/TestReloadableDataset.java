@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.server.application;
+
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.DatasetGraphWrapper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestReloadableDataset {
+
+    private static final class CloseTracking extends DatasetGraphWrapper {
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private CloseTracking() {
+            super(DatasetGraphFactory.createTxnMem());
+        }
+
+        @Override
+        public void close() {
+            Assert.assertFalse(this.closed.getAndSet(true), "Dataset closed more than once");
+            super.close();
+        }
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void givenNoDataset_whenCreating_thenNPE() {
+        // Given, When and Then
+        new ReloadableDataset(null);
+    }
+
+    @Test
+    public void givenNoLeases_whenSwapping_thenReplacedDatasetClosed() {
+        // Given
+        CloseTracking initial = new CloseTracking();
+        CloseTracking replacement = new CloseTracking();
+        ReloadableDataset datasets = new ReloadableDataset(initial);
+
+        // When
+        DatasetGraph replaced = datasets.swap(replacement);
+
+        // Then
+        Assert.assertSame(replaced, initial);
+        Assert.assertTrue(initial.closed.get());
+        Assert.assertFalse(replacement.closed.get());
+        Assert.assertSame(datasets.get(), replacement);
+    }
+
+    @Test
+    public void givenLease_whenSwapping_thenReplacedDatasetClosedOnlyOnceReleased() {
+        // Given
+        CloseTracking initial = new CloseTracking();
+        CloseTracking replacement = new CloseTracking();
+        ReloadableDataset datasets = new ReloadableDataset(initial);
+        ReloadableDataset.Lease lease = datasets.acquire();
+
+        // When
+        datasets.swap(replacement);
+
+        // Then
+        Assert.assertSame(lease.dataset(), initial);
+        Assert.assertFalse(initial.closed.get());
+        try (ReloadableDataset.Lease next = datasets.acquire()) {
+            Assert.assertSame(next.dataset(), replacement);
+        }
+        lease.close();
+        Assert.assertTrue(initial.closed.get());
+        lease.close();
+        Assert.assertFalse(replacement.closed.get());
+    }
+
+    @Test
+    public void givenLease_whenClosing_thenDatasetClosedOnlyOnceReleased() {
+        // Given
+        CloseTracking initial = new CloseTracking();
+        ReloadableDataset datasets = new ReloadableDataset(initial);
+        ReloadableDataset.Lease lease = datasets.acquire();
+
+        // When
+        datasets.close();
+        datasets.close();
+
+        // Then
+        Assert.assertFalse(initial.closed.get());
+        lease.close();
+        Assert.assertTrue(initial.closed.get());
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void givenClosed_whenAcquiring_thenIllegalState() {
+        // Given
+        ReloadableDataset datasets = new ReloadableDataset(new CloseTracking());
+        datasets.close();
+
+        // When and Then
+        datasets.acquire();
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.server.application.resources;
+
+import graphql.ExecutionResult;
+import io.telicent.jena.graphql.execution.AdmissionController;
+import io.telicent.jena.graphql.execution.ExecutionPool;
+import io.telicent.jena.graphql.execution.GraphQLExecutor;
+import io.telicent.jena.graphql.execution.RequestDeadline;
+import jakarta.servlet.ServletContext;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.ConnectionCallback;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.mockito.ArgumentCaptor;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestAbstractGraphQLResource {
+
+    private static final String QUERY = "{ quads { subject { value } } }";
+
+    private ExecutionPool pool;
+    private CountDownLatch release;
+    private ServletContext context;
+    private AdmissionController admission;
+    private GraphQLExecutor executor;
+
+    private static final class TestResource extends AbstractGraphQLResource {
+        private final RequestDeadline deadline;
+
+        private TestResource(RequestDeadline deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected RequestDeadline createDeadline(HttpHeaders headers, ServletContext servletContext) {
+            return this.deadline;
+        }
+
+        private void execute(AsyncResponse asyncResponse, ServletContext context) {
+            executeGraphQL(asyncResponse, null, QUERY, null, Collections.emptyMap(), Collections.emptyMap(), context,
+                           GraphQLExecutor.class);
+        }
+
+        private Response execute(ServletContext context) {
+            return executeOrValidateGraphQL(null, QUERY, null, Collections.emptyMap(), Collections.emptyMap(), context,
+                                            GraphQLExecutor.class, false);
+        }
+    }
+
+    @BeforeMethod
+    public void setup() {
+        this.pool = ExecutionPool.virtualThreads();
+        this.release = new CountDownLatch(1);
+        this.admission = new AdmissionController(1, 0, 0);
+
+        // An executor that simulates a blocking call that doesn't check the deadline
+        this.executor = mock(GraphQLExecutor.class);
+        doAnswer(x -> {
+            this.release.await();
+            return ExecutionResult.newExecutionResult().data(Collections.emptyMap()).build();
+        }).when(this.executor).execute(anyString(), any(), anyMap(), anyMap(), any(RequestDeadline.class));
+
+        this.context = mock(ServletContext.class);
+        when(this.context.getAttribute(GraphQLExecutor.class.getCanonicalName())).thenReturn(this.executor);
+        when(this.context.getAttribute(ExecutionPool.class.getCanonicalName())).thenReturn(this.pool);
+        when(this.context.getAttribute(AbstractGraphQLResource.admissionControllerAttribute(GraphQLExecutor.class)))
+                .thenReturn(this.admission);
+    }
+
+    @AfterMethod
+    public void teardown() {
+        this.release.countDown();
+        this.pool.close();
+    }
+
+    @Test
+    public void givenAbandonedRequest_whenResponding_thenAdmissionPermitHeldUntilRequestStops() throws
+            InterruptedException {
+        // Given
+        TestResource resource = new TestResource(RequestDeadline.after(10));
+
+        // When
+        try (Response response = resource.execute(this.context)) {
+            // Then
+            Assert.assertNotEquals(response.getStatus(), 503);
+        }
+
+        // The abandoned request is still executing so continues to hold its slot
+        Assert.assertEquals(this.admission.getActive(), 1);
+        try (Response response = new TestResource(RequestDeadline.create()).execute(this.context)) {
+            Assert.assertEquals(response.getStatus(), 503);
+        }
+
+        // Once it stops its slot is released
+        this.release.countDown();
+        awaitIdle();
+    }
+
+    @Test
+    public void givenCompletedRequest_whenResponding_thenAdmissionPermitReleased() throws InterruptedException {
+        // Given
+        TestResource resource = new TestResource(RequestDeadline.create());
+        this.release.countDown();
+
+        // When
+        try (Response response = resource.execute(this.context)) {
+            // Then
+            Assert.assertEquals(response.getStatus(), 200);
+        }
+        awaitIdle();
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (this.admission.getActive() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(this.admission.getActive(), 0);
+    }
+
+    @Test
+    public void givenSuspendedResponse_whenClientDisconnects_thenDeadlineCancelled() {
+        // Given
+        RequestDeadline deadline = RequestDeadline.create();
+        doAnswer(x -> {
+            // Simulates a query that stops cooperatively once its deadline is cancelled
+            RequestDeadline requestDeadline = x.getArgument(4);
+            long start = System.nanoTime();
+            while (!requestDeadline.isCancelled() && TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5) {
+                Thread.onSpinWait();
+            }
+            return ExecutionResult.newExecutionResult().data(Collections.emptyMap()).build();
+        }).when(this.executor).execute(anyString(), any(), anyMap(), anyMap(), any(RequestDeadline.class));
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        TestResource resource = new TestResource(deadline);
+        resource.execute(asyncResponse, this.context);
+        ArgumentCaptor<ConnectionCallback> callback = ArgumentCaptor.forClass(ConnectionCallback.class);
+        verify(asyncResponse).register(callback.capture());
+        Assert.assertFalse(deadline.isCancelled());
+
+        // When
+        callback.getValue().onDisconnect(asyncResponse);
+
+        // Then
+        Assert.assertTrue(deadline.isCancelled());
+        verify(asyncResponse, timeout(5_000)).resume(any(Response.class));
+    }
+
+    @Test
+    public void givenSaturatedServer_whenExecutingSuspendedResponse_thenWaitsOnPoolNotContainerThread() {
+        // Given
+        AdmissionController admission = new AdmissionController(1, 1, 10_000);
+        when(this.context.getAttribute(AbstractGraphQLResource.admissionControllerAttribute(GraphQLExecutor.class)))
+                .thenReturn(admission);
+        AsyncResponse first = mock(AsyncResponse.class);
+        new TestResource(RequestDeadline.create()).execute(first, this.context);
+        Assert.assertEquals(admission.getActive(), 1);
+
+        // When
+        AsyncResponse second = mock(AsyncResponse.class);
+        long start = System.nanoTime();
+        new TestResource(RequestDeadline.create()).execute(second, this.context);
+
+        // Then
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (admission.getQueued() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        Assert.assertEquals(admission.getQueued(), 1);
+        this.release.countDown();
+        ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(first, timeout(5_000)).resume(response.capture());
+        Assert.assertEquals(response.getValue().getStatus(), 200);
+        verify(second, timeout(5_000)).resume(response.capture());
+        Assert.assertEquals(response.getValue().getStatus(), 200);
+    }
+
+    @Test
+    public void givenSaturatedServer_whenSuspendedResponseNotAdmitted_thenResumedWithServiceUnavailable() {
+        // Given
+        AdmissionController admission = new AdmissionController(1, 1, 50);
+        when(this.context.getAttribute(AbstractGraphQLResource.admissionControllerAttribute(GraphQLExecutor.class)))
+                .thenReturn(admission);
+        new TestResource(RequestDeadline.create()).execute(mock(AsyncResponse.class), this.context);
+
+        // When
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        new TestResource(RequestDeadline.create()).execute(asyncResponse, this.context);
+
+        // Then
+        ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(asyncResponse, timeout(5_000)).resume(response.capture());
+        Assert.assertEquals(response.getValue().getStatus(), 503);
+        Assert.assertNotNull(response.getValue().getHeaderString(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void givenSuspendedResponse_whenExecuted_thenResumedWithResponse() {
+        // Given
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        TestResource resource = new TestResource(RequestDeadline.create());
+        this.release.countDown();
+
+        // When
+        resource.execute(asyncResponse, this.context);
+
+        // Then
+        ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(asyncResponse, timeout(5_000)).resume(response.capture());
+        Assert.assertEquals(response.getValue().getStatus(), 200);
+    }
+}
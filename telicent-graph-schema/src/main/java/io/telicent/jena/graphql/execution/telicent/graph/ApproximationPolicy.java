@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.execution.telicent.graph;
+
+/**
+ * Policy controlling when relationship facets and counts may be approximated rather than computed exactly
+ * <p>
+ * Approximation is opt-in, it is configured on an executor via
+ * {@link TelicentGraphExecutor#setApproximationPolicy(ApproximationPolicy)} and only applies to nodes whose degree,
+ * i.e. the number of relationships or instances being counted, exceeds the configured threshold.  Above the threshold
+ * the relevant fetchers stream rather than materialise the relationships, and where computing an exact answer would
+ * require a lookup per relationship they instead estimate from a uniform random sample of the configured size, or
+ * from a HyperLogLog sketch for distinct counts.  Clients may always request exact answers by supplying
+ * {@code exact: true} on the relevant fields.
+ * </p>
+ */
+public final class ApproximationPolicy {
+
+    /**
+     * Default sample size used when estimating from a sample
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 4096;
+
+    /**
+     * Policy that disables approximation, this is the default
+     */
+    public static final ApproximationPolicy DISABLED = new ApproximationPolicy(Long.MAX_VALUE, DEFAULT_SAMPLE_SIZE);
+
+    private final long degreeThreshold;
+    private final int sampleSize;
+
+    /**
+     * Creates a new policy
+     *
+     * @param degreeThreshold Degree above which approximation applies, must be positive
+     * @param sampleSize      Number of relationships sampled when estimating from a sample, must be positive
+     */
+    public ApproximationPolicy(long degreeThreshold, int sampleSize) {
+        if (degreeThreshold <= 0) {
+            throw new IllegalArgumentException("degreeThreshold must be positive");
+        }
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("sampleSize must be positive");
+        }
+        this.degreeThreshold = degreeThreshold;
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Creates a new policy with the default sample size
+     *
+     * @param degreeThreshold Degree above which approximation applies, must be positive
+     */
+    public ApproximationPolicy(long degreeThreshold) {
+        this(degreeThreshold, DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * Gets whether approximation is enabled by this policy
+     *
+     * @return True if enabled, false otherwise
+     */
+    public boolean isEnabled() {
+        return this.degreeThreshold != Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets the degree above which approximation applies
+     *
+     * @return Degree threshold
+     */
+    public long getDegreeThreshold() {
+        return this.degreeThreshold;
+    }
+
+    /**
+     * Gets the number of relationships sampled when estimating from a sample
+     *
+     * @return Sample size
+     */
+    public int getSampleSize() {
+        return this.sampleSize;
+    }
+
+    @Override
+    public String toString() {
+        return this.isEnabled() ?
+               "ApproximationPolicy{degreeThreshold=" + this.degreeThreshold + ", sampleSize=" + this.sampleSize + "}" :
+               "ApproximationPolicy{disabled}";
+    }
+}
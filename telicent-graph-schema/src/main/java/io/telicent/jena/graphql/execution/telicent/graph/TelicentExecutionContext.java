@@ -12,7 +12,11 @@
  */
 package io.telicent.jena.graphql.execution.telicent.graph;
 
+import io.telicent.jena.graphql.schemas.telicent.graph.models.IdStrategy;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
+import io.telicent.jena.graphql.utils.PrefixAbbreviator;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.DatasetGraph;
 
 import java.util.Map;
@@ -29,7 +33,10 @@ public class TelicentExecutionContext {
 
     private final DatasetGraph dsg;
     private final String authToken;
+    private final ApproximationPolicy approximationPolicy;
+    private final IdStrategy idStrategy;
     private final Map<Object, Object> requestCache = new ConcurrentHashMap<>();
+    private final Map<Node, TelicentGraphNode> nodes = new ConcurrentHashMap<>();
 
     /**
      * Creates a new execution context
@@ -38,9 +45,40 @@ public class TelicentExecutionContext {
      * @param authToken The users authentication token for passing onwards to other Telicent Core services where needed
      */
     public TelicentExecutionContext(DatasetGraph dsg, String authToken) {
+        this(dsg, authToken, ApproximationPolicy.DISABLED);
+    }
+
+    /**
+     * Creates a new execution context
+     *
+     * @param dsg                 Dataset Graph the query executes over
+     * @param authToken           The users authentication token for passing onwards to other Telicent Core services
+     *                            where needed
+     * @param approximationPolicy Policy controlling when facets and counts may be approximated, {@code null} is
+     *                            treated as {@link ApproximationPolicy#DISABLED}
+     */
+    public TelicentExecutionContext(DatasetGraph dsg, String authToken, ApproximationPolicy approximationPolicy) {
+        this(dsg, authToken, approximationPolicy, IdStrategy.SHA1);
+    }
+
+    /**
+     * Creates a new execution context
+     *
+     * @param dsg                 Dataset Graph the query executes over
+     * @param authToken           The users authentication token for passing onwards to other Telicent Core services
+     *                            where needed
+     * @param approximationPolicy Policy controlling when facets and counts may be approximated, {@code null} is
+     *                            treated as {@link ApproximationPolicy#DISABLED}
+     * @param idStrategy          Strategy for computing relationship IDs and URI hashes, {@code null} is treated as
+     *                            {@link IdStrategy#SHA1}
+     */
+    public TelicentExecutionContext(DatasetGraph dsg, String authToken, ApproximationPolicy approximationPolicy,
+                                    IdStrategy idStrategy) {
         Objects.requireNonNull(dsg, "DatasetGraph cannot be null");
         this.dsg = dsg;
         this.authToken = authToken;
+        this.approximationPolicy = approximationPolicy != null ? approximationPolicy : ApproximationPolicy.DISABLED;
+        this.idStrategy = idStrategy != null ? idStrategy : IdStrategy.SHA1;
     }
 
     /**
@@ -70,6 +108,52 @@ public class TelicentExecutionContext {
         return StringUtils.isNotBlank(this.authToken);
     }
 
+    /**
+     * Gets the policy controlling when facets and counts may be approximated
+     *
+     * @return Approximation policy
+     */
+    public ApproximationPolicy getApproximationPolicy() {
+        return this.approximationPolicy;
+    }
+
+    /**
+     * Gets the strategy for computing relationship IDs and URI hashes
+     *
+     * @return ID strategy
+     */
+    public IdStrategy getIdStrategy() {
+        return this.idStrategy;
+    }
+
+    /**
+     * Gets the shared prefix abbreviator for the dataset the query is executing over
+     * <p>
+     * The abbreviator is looked up, and checked against the datasets current prefixes, once per request, see
+     * {@link PrefixAbbreviator#forDataset(DatasetGraph)}.
+     * </p>
+     *
+     * @return Prefix abbreviator
+     */
+    public PrefixAbbreviator getPrefixAbbreviator() {
+        return this.getOrCompute(PrefixAbbreviator.class, () -> PrefixAbbreviator.forDataset(this.dsg));
+    }
+
+    /**
+     * Gets the interned wrapper for a node
+     * <p>
+     * The same wrapper is returned for a given node for the lifetime of this execution context so a node that appears
+     * many times in a response is only wrapped once, and its derived strings, e.g. its short URI, only computed once.
+     * </p>
+     *
+     * @param node Node
+     * @return Node wrapper
+     */
+    public TelicentGraphNode getNode(Node node) {
+        Objects.requireNonNull(node, "Node cannot be null");
+        return this.nodes.computeIfAbsent(node, n -> new TelicentGraphNode(n, this.dsg.prefixes()));
+    }
+
     /**
      * Gets an existing cached value for the given key, or computes and caches it for the lifetime of this execution
      * context if absent.
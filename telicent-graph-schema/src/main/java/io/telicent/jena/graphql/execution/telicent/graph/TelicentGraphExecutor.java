@@ -17,9 +17,12 @@ import graphql.schema.idl.NaturalEnumValuesProvider;
 import graphql.schema.idl.RuntimeWiring;
 import graphql.schema.idl.TypeDefinitionRegistry;
 import io.telicent.jena.graphql.execution.AbstractDatasetExecutor;
+import io.telicent.jena.graphql.execution.ResponseNormaliser;
 import io.telicent.jena.graphql.fetchers.telicent.graph.*;
 import io.telicent.jena.graphql.schemas.models.EdgeDirection;
 import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.FacetOrder;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.IdStrategy;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.SearchType;
 import org.apache.jena.sparql.core.DatasetGraph;
 
@@ -31,14 +34,63 @@ import java.util.Map;
  */
 public class TelicentGraphExecutor extends AbstractDatasetExecutor {
 
+    private volatile ApproximationPolicy approximationPolicy = ApproximationPolicy.DISABLED;
+    private volatile IdStrategy idStrategy = IdStrategy.SHA1;
+
     /**
      * Creates a new execution
+     * <p>
+     * Clients may request a normalised response, see {@link ResponseNormaliser}, in which each {@code Node} appears
+     * once in an entity table keyed by its {@code uri}.
+     * </p>
      *
      * @param dsg The default dataset over which the execution operates
      * @throws IOException Thrown if the schema cannot be loaded
      */
     public TelicentGraphExecutor(DatasetGraph dsg) throws IOException {
         super(dsg);
+        this.setResponseNormaliser(
+                new ResponseNormaliser(Map.of(TelicentGraphSchema.TYPE_NODE, TelicentGraphSchema.FIELD_URI)));
+    }
+
+    /**
+     * Gets the policy controlling when relationship facets and counts may be approximated
+     *
+     * @return Approximation policy
+     */
+    public ApproximationPolicy getApproximationPolicy() {
+        return this.approximationPolicy;
+    }
+
+    /**
+     * Sets the policy controlling when relationship facets and counts may be approximated
+     *
+     * @param policy Approximation policy, {@code null} is treated as {@link ApproximationPolicy#DISABLED}
+     */
+    public void setApproximationPolicy(ApproximationPolicy policy) {
+        this.approximationPolicy = policy != null ? policy : ApproximationPolicy.DISABLED;
+    }
+
+    /**
+     * Gets the strategy for computing relationship IDs and URI hashes
+     *
+     * @return ID strategy
+     */
+    public IdStrategy getIdStrategy() {
+        return this.idStrategy;
+    }
+
+    /**
+     * Sets the strategy for computing relationship IDs and URI hashes
+     * <p>
+     * The default {@link IdStrategy#SHA1} strategy produces IDs that are stable with previous releases, changing this
+     * changes the IDs clients see so should only be done if clients do not depend upon them being stable.
+     * </p>
+     *
+     * @param strategy ID strategy, {@code null} is treated as {@link IdStrategy#SHA1}
+     */
+    public void setIdStrategy(IdStrategy strategy) {
+        this.idStrategy = strategy != null ? strategy : IdStrategy.SHA1;
     }
 
     @Override
@@ -55,6 +107,7 @@ public class TelicentGraphExecutor extends AbstractDatasetExecutor {
     protected RuntimeWiring.Builder buildRuntimeWiring() {
         final StatePeriodFetcher periodFetcher = new StatePeriodFetcher();
         final NodePlaceholderFetcher nodePlaceholderFetcher = new NodePlaceholderFetcher();
+        final ShortUriFetcher shortUriFetcher = new ShortUriFetcher();
         NaturalEnumValuesProvider<SearchType> nodeKinds = new NaturalEnumValuesProvider<>(SearchType.class);
         //@formatter:off
         return RuntimeWiring.newRuntimeWiring()
@@ -74,12 +127,15 @@ public class TelicentGraphExecutor extends AbstractDatasetExecutor {
                                         .dataFetcher(TelicentGraphSchema.FIELD_INSTANCES, new InstancesFetcher())
                                         .dataFetcher(TelicentGraphSchema.FIELD_RELATIONSHIP_COUNTS, nodePlaceholderFetcher)
                                         .dataFetcher(TelicentGraphSchema.FIELD_RELATIONSHIP_FACETS, nodePlaceholderFetcher)
+                                        .dataFetcher(TelicentGraphSchema.FIELD_URI_HASH, new UriHashFetcher())
+                                        .dataFetcher(TelicentGraphSchema.FIELD_SHORT_URI, shortUriFetcher)
                             )
                             .type(TelicentGraphSchema.TYPE_RELATIONSHIP,
                                   // The Telicent Graph schema uses underscores in these property names which defeats
                                   // graphql-java's default logic of looking for an equivalent Java property name so
                                   // have to explicitly declare the fetchers for these
-                                  t -> t.dataFetcher(TelicentGraphSchema.FIELD_DOMAIN_ID, new PropertyDataFetcher<String>("domainId"))
+                                  t -> t.dataFetcher(TelicentGraphSchema.FIELD_ID, new RelationshipIdFetcher())
+                                        .dataFetcher(TelicentGraphSchema.FIELD_DOMAIN_ID, new PropertyDataFetcher<String>("domainId"))
                                         .dataFetcher(TelicentGraphSchema.FIELD_RANGE_ID, new PropertyDataFetcher<String>("rangeId"))
                             )
                             .type(TelicentGraphSchema.TYPE_RELATIONSHIP_COUNTS,
@@ -108,6 +164,15 @@ public class TelicentGraphExecutor extends AbstractDatasetExecutor {
                                         t -> t.dataFetcher(TelicentGraphSchema.FIELD_TYPES, new FacetsFetcher())
                                                      .dataFetcher(TelicentGraphSchema.FIELD_PREDICATES, new FacetsFetcher())
                             )
+                            .type(TelicentGraphSchema.TYPE_FACET_INFO,
+                                  t -> t.dataFetcher(TelicentGraphSchema.FIELD_SHORT_URI, shortUriFetcher)
+                            )
+                            .type(TelicentGraphSchema.TYPE_FACET_ORDER,
+                                  t -> t.enumValues(new NaturalEnumValuesProvider<>(FacetOrder.class))
+                            )
+                            .type(TelicentGraphSchema.TYPE_PROPERTY,
+                                  t -> t.dataFetcher(TelicentGraphSchema.FIELD_SHORT_PREDICATE, new ShortPredicateFetcher())
+                            )
                             .type(TelicentGraphSchema.TYPE_STATE,
                                   t -> t.dataFetcher(TelicentGraphSchema.FIELD_TYPE, new StateTypeFetcher())
                                         .dataFetcher(TelicentGraphSchema.FIELD_RELATIONS, new StateRelationshipsFetcher())
@@ -126,6 +191,6 @@ public class TelicentGraphExecutor extends AbstractDatasetExecutor {
     protected Object createLocalContext(DatasetGraph dsg, Map<String, Object> extensions) {
         // Get the auth token for the request (if any)
         String authToken = (String) extensions.get(TelicentGraphSchema.EXTENSION_AUTH_TOKEN);
-        return new TelicentExecutionContext(dsg, authToken);
+        return new TelicentExecutionContext(dsg, authToken, this.approximationPolicy, this.idStrategy);
     }
 }
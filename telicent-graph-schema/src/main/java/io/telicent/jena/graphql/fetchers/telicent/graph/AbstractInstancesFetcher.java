@@ -42,9 +42,20 @@ public abstract class AbstractInstancesFetcher<TOutput>
     @Override
     protected Stream<Node> select(DataFetchingEnvironment environment, DatasetGraph dsg, TelicentGraphNode node, List<Filter> filters) {
         // NB - Filters not enabled for instances (wouldn't make sense anyway!)
+        return instances(dsg, node).distinct();
+    }
+
+    /**
+     * Streams the instances of a type, a node may appear multiple times if it is declared as an instance of the type
+     * in multiple graphs
+     *
+     * @param dsg  Dataset graph
+     * @param node Type node
+     * @return Instances
+     */
+    protected static Stream<Node> instances(DatasetGraph dsg, TelicentGraphNode node) {
         return dsg.stream(Node.ANY, Node.ANY, RDF_TYPE, node.getNode())
                   .filter(q -> q.getSubject().isURI() || q.getSubject().isBlank())
-                  .map(Quad::getSubject)
-                  .distinct();
+                  .map(Quad::getSubject);
     }
 }
@@ -14,13 +14,14 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.RequestDeadline;
+import io.telicent.jena.graphql.execution.RequestTransaction;
 import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
 import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.inputs.*;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Quad;
-import org.apache.jena.system.Txn;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -31,6 +32,14 @@ import java.util.stream.Stream;
 /**
  * Abstract base class for GraphQL {@link graphql.schema.DataFetcher} implementations that support paging on their
  * results using {@code limit} and {@code offset} arguments
+ * <p>
+ * The initial selection is checked against the {@link RequestDeadline} for the request as it is consumed so that a
+ * timed out or cancelled request stops promptly.
+ * </p>
+ * <p>
+ * Implementations may call {@link #getProjection(DataFetchingEnvironment)} when mapping their output to find out which
+ * parts of it the request actually selects, and skip building the rest.
+ * </p>
  *
  * @param <TInput>  Input type that will be {@link #select(DataFetchingEnvironment, DatasetGraph, Object, List)}'d
  * @param <TSource> Source type
@@ -68,14 +77,35 @@ public abstract class AbstractPagingFetcher<TSource, TInput, TOutput> implements
             createFilters(environment, filters);
             filters.removeIf(f -> f instanceof IncludeAllFilter);
         }
+        RequestDeadline deadline = RequestDeadline.get(environment);
+        deadline.check();
 
-        return Txn.calculateRead(dsg, () -> {
-            Stream<TInput> input = select(environment, dsg, source, filters);
+        return RequestTransaction.calculateRead(environment, dsg, () -> {
+            Stream<TInput> input = deadline.guard(select(environment, dsg, source, filters));
             Stream<TInput> paged = applyLimitAndOffset(environment, input);
             return map(environment, dsg, source, paged);
         });
     }
 
+    /**
+     * Gets the projection of this fetcher's output selected by the request
+     * <p>
+     * The selection set is analysed once per field of the query and the resulting projection is cached for the
+     * lifetime of the request, so sibling fetches of the same field, e.g. for each node in a list, share it.
+     * </p>
+     *
+     * @param environment Data Fetching environment
+     * @return Selection projection, {@link SelectionProjection#ALL} if no selection set is available
+     */
+    protected final SelectionProjection getProjection(DataFetchingEnvironment environment) {
+        TelicentExecutionContext context = environment.getLocalContext();
+        if (context == null || environment.getField() == null) {
+            return SelectionProjection.of(environment.getSelectionSet());
+        }
+        return context.getOrCompute(new ProjectionCacheKey(environment.getField()),
+                                    () -> SelectionProjection.of(environment.getSelectionSet()));
+    }
+
     /**
      * Creates filters, called only if {@link #enableFilters()} returns {@code true}
      * <p>
@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.schemas.models.EdgeDirection;
+import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.FacetInfo;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.FacetInfoPlaceholder;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.FacetOrder;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
+import org.apache.jena.graph.Node;
+import org.apache.jena.riot.system.PrefixMap;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Abstract data fetcher for computing facets of the incoming/outgoing relationships for a node
+ * <p>
+ * Facets may be limited, via the {@value TelicentGraphSchema#ARGUMENT_LIMIT} argument, and ordered, via the
+ * {@value TelicentGraphSchema#ARGUMENT_ORDER_BY} argument, in which case only the selected facets are materialised.
+ * </p>
+ */
+public abstract class AbstractRelationshipFacetsFetcher extends AbstractRelationshipsFetcher<List<FacetInfo>> {
+
+    /**
+     * Creates a new facets fetcher
+     *
+     * @param direction Direction of relationships to compute facets for
+     */
+    protected AbstractRelationshipFacetsFetcher(EdgeDirection direction) {
+        super(direction);
+    }
+
+    @Override
+    protected TelicentGraphNode getSource(DataFetchingEnvironment environment) {
+        FacetInfoPlaceholder placeholder = environment.getSource();
+        return placeholder.node();
+    }
+
+    @Override
+    protected boolean supportsApproximation() {
+        return true;
+    }
+
+    @Override
+    protected Stream<Quad> applyLimitAndOffset(DataFetchingEnvironment environment, Stream<Quad> stream) {
+        // Want the full facets information so don't apply paging, the limit applies to the facets themselves
+        return stream;
+    }
+
+    /**
+     * Gets the maximum number of facets requested
+     *
+     * @param environment Data fetching environment
+     * @return Limit, or {@code null} if all facets are requested
+     * @throws IllegalArgumentException Thrown if the limit is negative
+     */
+    protected static Integer getFacetLimit(DataFetchingEnvironment environment) {
+        Integer limit = environment.getArgument(TelicentGraphSchema.ARGUMENT_LIMIT);
+        if (limit != null && limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        return limit;
+    }
+
+    /**
+     * Gets the requested order of facets
+     *
+     * @param environment Data fetching environment
+     * @return Facet order, defaults to {@link FacetOrder#COUNT_DESC}
+     */
+    protected static FacetOrder getFacetOrder(DataFetchingEnvironment environment) {
+        Object order = environment.getArgument(TelicentGraphSchema.ARGUMENT_ORDER_BY);
+        if (order == null) {
+            return FacetOrder.COUNT_DESC;
+        }
+        return order instanceof FacetOrder facetOrder ? facetOrder : FacetOrder.valueOf(order.toString());
+    }
+
+    /**
+     * Counts the relationships by a key, splitting the work across fork-join tasks if there are many relationships
+     *
+     * @param input Relationships
+     * @param key   Function that extracts the node to count from a relationship
+     * @return Counts
+     */
+    static FacetCounter count(Stream<Quad> input, Function<Quad, Node> key) {
+        Spliterator<Quad> spliterator = input.spliterator();
+        long size = spliterator.estimateSize();
+        boolean parallel = size >= FacetCounter.PARALLEL_THRESHOLD && size != Long.MAX_VALUE;
+        return StreamSupport.stream(spliterator, parallel)
+                            .onClose(input::close)
+                            .collect(FacetCounter::new, (c, q) -> c.add(key.apply(q), 1), FacetCounter::merge);
+    }
+
+    /**
+     * Selects the requested facets from the counts
+     * <p>
+     * Only the selected facets are materialised, and they only use the prefixes of the dataset if their short URIs are
+     * selected.
+     * </p>
+     *
+     * @param environment Data fetching environment
+     * @param dsg         Dataset graph
+     * @param counts      Counts
+     * @param sample      Sample the counts were derived from if they are to be scaled up to estimates, or {@code null}
+     *                    if the counts are exact
+     * @return Facets
+     */
+    final List<FacetInfo> select(DataFetchingEnvironment environment, DatasetGraph dsg, FacetCounter counts,
+                                 Approximation.Sample<?> sample) {
+        PrefixMap prefixes = getProjection(environment).prefixes(dsg, TelicentGraphSchema.FIELD_SHORT_URI);
+        return counts.top(getFacetLimit(environment), getFacetOrder(environment))
+                     .stream()
+                     .map(f -> sample == null ? new FacetInfo(f.node(), prefixes, f.count()) :
+                               new FacetInfo(f.node(), prefixes, Math.toIntExact(sample.scale(f.count())),
+                                             sample.error(f.count())))
+                     .toList();
+    }
+}
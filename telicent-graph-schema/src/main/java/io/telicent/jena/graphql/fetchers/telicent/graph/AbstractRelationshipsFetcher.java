@@ -79,9 +79,65 @@ public abstract class AbstractRelationshipsFetcher<TOutput>
                new SubjectFilter(mode, values);
     }
 
+    /**
+     * Indicates whether this fetcher supports approximating its results for high degree nodes, default {@code false}
+     * <p>
+     * Fetchers that return this should check {@link #isApproximated(DataFetchingEnvironment, DatasetGraph,
+     * TelicentGraphNode)} in their {@code map()} implementation, when it is true the input they receive is a lazy
+     * stream of the relationships with any type filters deferred, see
+     * {@link #deferredFilters(DataFetchingEnvironment)}.
+     * </p>
+     *
+     * @return True if approximation is supported, false otherwise
+     */
+    protected boolean supportsApproximation() {
+        return false;
+    }
+
+    /**
+     * Determines whether the results for a node are being approximated for the current request
+     *
+     * @param environment Data fetching environment
+     * @param dsg         Dataset graph
+     * @param node        Node
+     * @return True if approximated, false otherwise
+     */
+    protected final boolean isApproximated(DataFetchingEnvironment environment, DatasetGraph dsg,
+                                           TelicentGraphNode node) {
+        return this.supportsApproximation() && Approximation.applies(environment,
+                                                                      this.direction == EdgeDirection.IN ?
+                                                                      NodeKind.INBOUND_DEGREE :
+                                                                      NodeKind.OUTBOUND_DEGREE, node.getNode(),
+                                                                      () -> stream(dsg, node));
+    }
+
+    /**
+     * Gets the filters whose application is deferred when approximating, these are the type filters since they
+     * require a lookup per relationship and so are applied only to a sample of the relationships
+     *
+     * @param environment Data fetching environment
+     * @return Deferred filters
+     */
+    protected final List<Filter> deferredFilters(DataFetchingEnvironment environment) {
+        List<Filter> filters = new ArrayList<>();
+        createFilters(environment, filters);
+        filters.removeIf(f -> !isDeferred(f));
+        return filters;
+    }
+
+    private static boolean isDeferred(Filter filter) {
+        return filter instanceof InboundTypeFilter || filter instanceof OutboundTypeFilter;
+    }
+
     @Override
     protected Stream<Quad> select(DataFetchingEnvironment environment, DatasetGraph dsg, TelicentGraphNode node,
                                   List<Filter> filters) {
+        if (this.isApproximated(environment, dsg, node)) {
+            // Stream rather than materialise the relationships, deferring the expensive filters to the fetcher
+            List<Filter> immediate = new ArrayList<>(filters);
+            immediate.removeIf(AbstractRelationshipsFetcher::isDeferred);
+            return streamRelationships(dsg, node, immediate);
+        }
         RelationshipSelectionCacheKey cacheKey = new RelationshipSelectionCacheKey(node.getNode(), this.direction,
                                                                                    environment.getArgument(
                                                                                            TelicentGraphSchema.ARGUMENT_PREDICATE_FILTER),
@@ -103,13 +159,25 @@ public abstract class AbstractRelationshipsFetcher<TOutput>
      * @return Materialised list of relationships
      */
     protected List<Quad> generateRelationships(DatasetGraph dsg, TelicentGraphNode node, List<Filter> filters) {
+        return streamRelationships(dsg, node, filters).toList();
+    }
+
+    /**
+     * Streams the filtered relationships for this fetcher
+     *
+     * @param dsg     Dataset graph
+     * @param node    Source node
+     * @param filters Filters to apply
+     * @return Lazy stream of relationships
+     */
+    protected Stream<Quad> streamRelationships(DatasetGraph dsg, TelicentGraphNode node, List<Filter> filters) {
         // If a Predicate INCLUDE filter can do a more targeted initial stream
         List<Tuple4<Node>> quadPatterns = getPreFilter(filters, node);
         Stream<Quad> quads = quadPatterns != null ? streamPreFiltered(dsg, node, quadPatterns) : stream(dsg, node);
         for (Filter filter : filters) {
             quads = filter.filter(quads, dsg);
         }
-        return quads.toList();
+        return quads;
     }
 
     /**
@@ -15,6 +15,7 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.RequestTransaction;
 import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
 import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.SearchType;
@@ -27,7 +28,6 @@ import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.DatasetGraph;
-import org.apache.jena.system.Txn;
 import org.apache.jena.web.HttpSC;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -202,13 +202,14 @@ public abstract class AbstractSearchFetcher<T> implements DataFetcher<T> {
                     "searchTerm") + ".  Search service may be unavailable in your environment.", e);
         }
 
-        List<TelicentGraphNode> nodes = Txn.calculateRead(dsg, () -> startFilters.stream()
-                                                                                 .distinct()
-                                                                                 .filter(n -> StartingNodesFetcher.usedAsSubjectOrObject(
-                                                                                         n, dsg, graphFilter))
-                                                                                 .map(n -> new TelicentGraphNode(n,
-                                                                                                                 dsg.prefixes()))
-                                                                                 .toList());
+        List<TelicentGraphNode> nodes =
+                RequestTransaction.calculateRead(environment, dsg,
+                                                 () -> startFilters.stream()
+                                                                   .distinct()
+                                                                   .filter(n -> StartingNodesFetcher.usedAsSubjectOrObject(
+                                                                           n, dsg, graphFilter))
+                                                                   .map(context::getNode)
+                                                                   .toList());
         telicentResults.setNodes(nodes);
         return telicentResults;
     }
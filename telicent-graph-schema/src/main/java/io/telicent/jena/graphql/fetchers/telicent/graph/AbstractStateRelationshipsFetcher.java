@@ -14,6 +14,7 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 
 import graphql.com.google.common.collect.Streams;
 import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.State;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.inputs.Filter;
 import org.apache.jena.graph.Node;
@@ -46,17 +47,18 @@ public abstract class AbstractStateRelationshipsFetcher<TOutput>
                                                                                 .equals(target.getEntityNode()));
     }
 
-    private static Stream<Quad> inbound(DatasetGraph dsg, State target) {
-        return dsg.stream(Node.ANY, Node.ANY, Node.ANY, target.getStateNode())
-                  .filter(q -> q.getSubject().isURI() || q.getSubject().isBlank())
-                  .filter(q -> dsg.contains(Node.ANY, q.getSubject(), RDF.type.asNode(), Node.ANY));
-
+    private static Stream<Quad> inbound(DatasetGraph dsg, TypedNodes typed, State target) {
+        // Only typed subjects are considered, their typed status is checked in batches and shared across the request
+        return typed.filterTyped(dsg, dsg.stream(Node.ANY, Node.ANY, Node.ANY, target.getStateNode())
+                                         .filter(q -> q.getSubject().isURI() || q.getSubject().isBlank()),
+                                 Quad::getSubject);
     }
 
     @Override
     protected Stream<Quad> select(DataFetchingEnvironment environment, DatasetGraph dsg, State state, List<Filter> filters) {
         // NB - Filters not enabled for state relationships
+        TelicentExecutionContext context = environment.getLocalContext();
         return Streams.concat(AbstractStateRelationshipsFetcher.outbound(dsg, state),
-                              AbstractStateRelationshipsFetcher.inbound(dsg, state));
+                              AbstractStateRelationshipsFetcher.inbound(dsg, TypedNodes.get(context), state));
     }
 }
@@ -14,6 +14,7 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.RequestTransaction;
 import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
 import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
@@ -21,7 +22,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Quad;
-import org.apache.jena.system.Txn;
 import org.apache.jena.vocabulary.RDF;
 
 import java.util.List;
@@ -46,15 +46,16 @@ public class AllEntitiesFetcher implements DataFetcher<List<TelicentGraphNode>>
         String rawGraph = environment.getArgument(TelicentGraphSchema.ARGUMENT_GRAPH);
         Node graphFilter = StringUtils.isNotBlank(rawGraph) ? StartingNodesFetcher.parseStart(rawGraph) : Node.ANY;
 
-        return Txn.calculateRead(dsg, () -> findEntities(dsg, graphFilter));
+        return RequestTransaction.calculateRead(environment, dsg, () -> findEntities(context, dsg, graphFilter));
     }
 
-    private static List<TelicentGraphNode> findEntities(DatasetGraph dsg, Node graphFilter) {
+    private static List<TelicentGraphNode> findEntities(TelicentExecutionContext context, DatasetGraph dsg,
+                                                        Node graphFilter) {
         return dsg.stream(graphFilter, Node.ANY, RDF.type.asNode(), Node.ANY)
                   .filter(q -> q.getSubject().isURI() || q.getSubject().isBlank())
                   .map(Quad::getSubject)
                   .distinct()
-                  .map(n -> new TelicentGraphNode(n, dsg.prefixes()))
+                  .map(context::getNode)
                   .collect(Collectors.toList());
     }
 }
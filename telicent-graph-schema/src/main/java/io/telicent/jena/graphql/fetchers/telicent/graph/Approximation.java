@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.telicent.graph.ApproximationPolicy;
+import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
+import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
+import org.apache.jena.graph.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Helpers for fetchers that may approximate their results in accordance with an {@link ApproximationPolicy}
+ */
+final class Approximation {
+
+    /**
+     * Fixed seed for sampling so that repeated requests over unchanged data produce identical estimates
+     */
+    private static final long SEED = 0x5EED_FACE7L;
+
+    private Approximation() {
+    }
+
+    /**
+     * A uniform random sample of a stream
+     *
+     * @param items      Sampled items
+     * @param population Total number of items in the stream
+     * @param <T>        Item type
+     */
+    record Sample<T>(List<T> items, long population) {
+
+        /**
+         * Gets whether the sample contains the entire population, in which case any counts derived from it are exact
+         *
+         * @return True if complete, false otherwise
+         */
+        boolean complete() {
+            return this.items.size() >= this.population;
+        }
+
+        /**
+         * Scales a count of hits within the sample up to an estimate for the population
+         *
+         * @param hits Number of hits in the sample
+         * @return Estimated number of hits in the population
+         */
+        long scale(long hits) {
+            if (this.complete() || this.items.isEmpty()) {
+                return hits;
+            }
+            return Math.round((double) hits * this.population / this.items.size());
+        }
+
+        /**
+         * Calculates the relative standard error of an estimate derived from a count of hits within the sample
+         *
+         * @param hits Number of hits in the sample
+         * @return Relative standard error, or {@code null} if the sample is complete and so the estimate is exact
+         */
+        Double error(long hits) {
+            if (this.complete()) {
+                return null;
+            }
+            if (hits <= 0) {
+                return 1.0;
+            }
+            double k = this.items.size();
+            double p = hits / k;
+            // Finite population correction since we sample without replacement
+            double fpc = (this.population - k) / (this.population - 1);
+            return Math.sqrt((1 - p) / hits * fpc);
+        }
+    }
+
+    /**
+     * Determines whether a fetcher should approximate its result for a node
+     * <p>
+     * This is the case only if the request's policy enables approximation, the client did not request an exact result
+     * via the {@value TelicentGraphSchema#ARGUMENT_EXACT} argument, and the degree of the node exceeds the policy's
+     * threshold.  The degree is determined by consuming at most threshold + 1 items of the candidates stream, and is
+     * cached for the request.
+     * </p>
+     *
+     * @param environment Data fetching environment
+     * @param kind        Kind of degree being measured
+     * @param node        Node whose degree is measured
+     * @param candidates  Supplier of the candidate stream whose size is the degree
+     * @return True if the result should be approximated, false otherwise
+     */
+    static boolean applies(DataFetchingEnvironment environment, NodeKind kind, Node node,
+                           Supplier<Stream<?>> candidates) {
+        TelicentExecutionContext context = environment.getLocalContext();
+        ApproximationPolicy policy = context.getApproximationPolicy();
+        if (!policy.isEnabled() || Boolean.TRUE.equals(environment.getArgument(TelicentGraphSchema.ARGUMENT_EXACT))) {
+            return false;
+        }
+        long threshold = policy.getDegreeThreshold();
+        return context.getOrCompute(new NodeCacheKey(kind, node), () -> {
+            try (Stream<?> stream = candidates.get()) {
+                return stream.limit(threshold + 1).count() > threshold;
+            }
+        });
+    }
+
+    /**
+     * Gets the sample size for the request
+     *
+     * @param environment Data fetching environment
+     * @return Sample size
+     */
+    static int sampleSize(DataFetchingEnvironment environment) {
+        TelicentExecutionContext context = environment.getLocalContext();
+        return context.getApproximationPolicy().getSampleSize();
+    }
+
+    /**
+     * Takes a uniform random sample of a stream via reservoir sampling, consuming the stream in its entirety but only
+     * retaining at most {@code size} items
+     *
+     * @param stream Stream
+     * @param size   Sample size
+     * @param <T>    Item type
+     * @return Sample
+     */
+    static <T> Sample<T> sample(Stream<T> stream, int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<T> reservoir = new ArrayList<>(Math.min(size, 1024));
+        long[] seen = { 0 };
+        stream.forEachOrdered(item -> {
+            long n = seen[0]++;
+            if (n < size) {
+                reservoir.add(item);
+            } else {
+                long j = random.nextLong(n + 1);
+                if (j < size) {
+                    reservoir.set((int) j, item);
+                }
+            }
+        });
+        return new Sample<>(reservoir, seen[0]);
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import io.telicent.jena.graphql.schemas.telicent.graph.models.FacetOrder;
+import org.apache.jena.graph.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts occurrences of nodes for the purposes of computing facets
+ * <p>
+ * Each distinct node is assigned a dense integer id on first occurrence and its count is held in a primitive array
+ * indexed by that id, so incrementing the count for an already seen node allocates nothing.  Counters built over
+ * separate portions of the input may be {@link #merge(FacetCounter)}'d, allowing counting to be split across fork-join
+ * tasks.  The top facets are selected with a bounded heap so the full facet list is never sorted or materialised.
+ * </p>
+ */
+final class FacetCounter {
+
+    /**
+     * Input size above which facet computations split their work across fork-join tasks
+     */
+    static final int PARALLEL_THRESHOLD = 8192;
+
+    private final Map<Node, Integer> ids = new HashMap<>();
+    private Node[] nodes = new Node[16];
+    private int[] counts = new int[16];
+    private int size;
+
+    /**
+     * A selected facet
+     *
+     * @param node  Node that identifies the facet
+     * @param count Count for the facet
+     */
+    record Facet(Node node, int count) {
+    }
+
+    /**
+     * Adds to the count for a node
+     *
+     * @param node   Node
+     * @param amount Amount to add
+     */
+    void add(Node node, int amount) {
+        Integer id = this.ids.get(node);
+        if (id == null) {
+            id = this.size++;
+            this.ids.put(node, id);
+            if (id == this.nodes.length) {
+                this.nodes = Arrays.copyOf(this.nodes, id * 2);
+                this.counts = Arrays.copyOf(this.counts, id * 2);
+            }
+            this.nodes[id] = node;
+        }
+        this.counts[id] += amount;
+    }
+
+    /**
+     * Merges the counts from another counter into this counter
+     *
+     * @param other Other counter
+     * @return This counter
+     */
+    FacetCounter merge(FacetCounter other) {
+        for (int i = 0; i < other.size; i++) {
+            this.add(other.nodes[i], other.counts[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Gets the number of distinct nodes counted
+     *
+     * @return Number of distinct nodes
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the node with the given id
+     *
+     * @param id Id
+     * @return Node
+     */
+    Node node(int id) {
+        return this.nodes[id];
+    }
+
+    /**
+     * Gets the count for the node with the given id
+     *
+     * @param id Id
+     * @return Count
+     */
+    int count(int id) {
+        return this.counts[id];
+    }
+
+    /**
+     * Gets the count for a node
+     *
+     * @param node Node
+     * @return Count, {@code 0} if the node was never counted
+     */
+    int count(Node node) {
+        Integer id = this.ids.get(node);
+        return id != null ? this.counts[id] : 0;
+    }
+
+    /**
+     * Selects the top facets in the given order
+     *
+     * @param limit Maximum number of facets to select, {@code null} for all facets
+     * @param order Order of the facets
+     * @return Selected facets, in order
+     */
+    List<Facet> top(Integer limit, FacetOrder order) {
+        int k = limit != null ? Math.min(limit, this.size) : this.size;
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+
+        // Bounded heap whose root is the "worst" selected facet so far, so a candidate need only be compared against
+        // the root to decide whether it displaces it
+        int[] heap = new int[k];
+        int heapSize = 0;
+        for (int id = 0; id < this.size; id++) {
+            if (heapSize < k) {
+                heap[heapSize] = id;
+                siftUp(heap, heapSize++, order);
+            } else if (compare(id, heap[0], order) < 0) {
+                heap[0] = id;
+                siftDown(heap, heapSize, order);
+            }
+        }
+
+        // Draining the heap yields the selected facets worst first
+        Facet[] selected = new Facet[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            int id = heap[0];
+            selected[i] = new Facet(this.nodes[id], this.counts[id]);
+            heap[0] = heap[i];
+            siftDown(heap, i, order);
+        }
+        return new ArrayList<>(Arrays.asList(selected));
+    }
+
+    // Compares two facets by id, a negative value means the first facet precedes the second in the given order
+    private int compare(int a, int b, FacetOrder order) {
+        int c = switch (order) {
+            case COUNT_DESC -> Integer.compare(this.counts[b], this.counts[a]);
+            case COUNT_ASC -> Integer.compare(this.counts[a], this.counts[b]);
+            case URI -> 0;
+        };
+        return c != 0 ? c : label(this.nodes[a]).compareTo(label(this.nodes[b]));
+    }
+
+    private static String label(Node node) {
+        return node.isURI() ? node.getURI() : node.toString();
+    }
+
+    private void siftUp(int[] heap, int index, FacetOrder order) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            // Max-heap w.r.t. the order i.e. the root is the facet that sorts last
+            if (compare(heap[index], heap[parent], order) <= 0) {
+                return;
+            }
+            swap(heap, index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int heapSize, FacetOrder order) {
+        int index = 0;
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int right = left + 1;
+            int largest = right < heapSize && compare(heap[right], heap[left], order) > 0 ? right : left;
+            if (compare(heap[largest], heap[index], order) <= 0) {
+                return;
+            }
+            swap(heap, index, largest);
+            index = largest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import org.apache.jena.graph.Node;
+
+/**
+ * A HyperLogLog sketch for estimating the number of distinct nodes in a stream in constant memory
+ * <p>
+ * Uses {@value #PRECISION} bits of precision, i.e. 2<sup>{@value #PRECISION}</sup> single byte registers, giving a
+ * relative standard error of approximately 0.8%.  Small cardinalities are corrected using linear counting.
+ * </p>
+ */
+final class HyperLogLog {
+
+    /**
+     * Number of bits of the hash used to select a register
+     */
+    static final int PRECISION = 14;
+
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers = new byte[REGISTERS];
+
+    /**
+     * Adds a node to the sketch
+     *
+     * @param node Node
+     */
+    void add(Node node) {
+        long hash = hash(node);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // Rank is the position of the leftmost 1 bit in the remaining bits, the sentinel bit bounds it
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        if (rank > this.registers[index]) {
+            this.registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Estimates the number of distinct nodes added to the sketch
+     *
+     * @return Estimated cardinality
+     */
+    long estimate() {
+        double sum = 0;
+        int zeroes = 0;
+        for (byte register : this.registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeroes++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeroes > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeroes);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Gets the relative standard error of estimates from this sketch
+     *
+     * @return Relative standard error
+     */
+    static double relativeError() {
+        return 1.04 / Math.sqrt(REGISTERS);
+    }
+
+    /**
+     * Computes a well distributed 64-bit hash of a node
+     *
+     * @param node Node
+     * @return Hash
+     */
+    static long hash(Node node) {
+        String label = node.isURI() ? node.getURI() : node.isBlank() ? node.getBlankNodeLabel() : node.toString();
+        // FNV-1a over the label, seeded by the kind of node so a URI and blank node with the same label differ, then
+        // finalised with the MurmurHash3 mixer for good avalanche behaviour
+        long h = node.isBlank() ? 0x9E3779B97F4A7C15L : 0xCBF29CE484222325L;
+        for (int i = 0; i < label.length(); i++) {
+            h ^= label.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -15,13 +15,19 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 import graphql.schema.DataFetchingEnvironment;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.NodePlaceholder;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.inputs.Filter;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.DatasetGraph;
 
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
  * A data fetcher that calculates the total number of instances available
+ * <p>
+ * When approximating, per the request's {@link io.telicent.jena.graphql.execution.telicent.graph.ApproximationPolicy},
+ * the distinct instances are counted with a {@link HyperLogLog} sketch rather than being remembered individually.
+ * </p>
  */
 public class InstancesCountFetcher extends AbstractInstancesFetcher<Integer> {
 
@@ -38,12 +44,33 @@ public class InstancesCountFetcher extends AbstractInstancesFetcher<Integer> {
         return counts.parent();
     }
 
+    @Override
+    protected Stream<Node> select(DataFetchingEnvironment environment, DatasetGraph dsg, TelicentGraphNode node,
+                                  List<Filter> filters) {
+        if (isApproximated(environment, dsg, node)) {
+            // Skip the distinct() since that has to remember every instance, instead we count via a sketch
+            return instances(dsg, node);
+        }
+        return super.select(environment, dsg, node, filters);
+    }
+
     @Override
     protected Integer map(DataFetchingEnvironment environment, DatasetGraph dsg, TelicentGraphNode node,
                           Stream<Node> input) {
+        if (isApproximated(environment, dsg, node)) {
+            HyperLogLog sketch = new HyperLogLog();
+            input.forEach(sketch::add);
+            return Math.toIntExact(sketch.estimate());
+        }
         return Math.toIntExact(input.count());
     }
 
+    private static boolean isApproximated(DataFetchingEnvironment environment, DatasetGraph dsg,
+                                          TelicentGraphNode node) {
+        return Approximation.applies(environment, NodeKind.INSTANCES_DEGREE, node.getNode(),
+                                     () -> instances(dsg, node));
+    }
+
     @Override
     protected Stream<Node> applyLimitAndOffset(DataFetchingEnvironment environment, Stream<Node> stream) {
         // Want the full count so don't apply paging
@@ -14,6 +14,7 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.DatasetGraph;
@@ -38,6 +39,7 @@ public class InstancesFetcher
     @Override
     protected List<TelicentGraphNode> map(DataFetchingEnvironment environment, DatasetGraph dsg,
                                           TelicentGraphNode source, Stream<Node> input) {
-        return input.map(n -> new TelicentGraphNode(n, dsg.prefixes())).collect(Collectors.toList());
+        TelicentExecutionContext context = environment.getLocalContext();
+        return input.map(context::getNode).collect(Collectors.toList());
     }
 }
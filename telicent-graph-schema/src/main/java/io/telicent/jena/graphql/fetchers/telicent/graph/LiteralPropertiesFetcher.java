@@ -14,8 +14,10 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.LiteralProperty;
+import org.apache.jena.riot.system.PrefixMap;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Quad;
 
@@ -39,7 +41,8 @@ public class LiteralPropertiesFetcher
     @Override
     protected List<LiteralProperty> map(DataFetchingEnvironment environment, DatasetGraph dsg, TelicentGraphNode node,
                                         Stream<Quad> input) {
-        return input.map(q -> new LiteralProperty(q.getPredicate(), q.getObject(), dsg.prefixes()))
+        PrefixMap prefixes = getProjection(environment).prefixes(dsg, TelicentGraphSchema.FIELD_SHORT_PREDICATE);
+        return input.map(q -> new LiteralProperty(q.getPredicate(), q.getObject(), prefixes))
                     .collect(Collectors.toList());
     }
 }
@@ -17,5 +17,8 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
  */
 enum NodeKind {
     TYPES,
-    LITERALS
+    LITERALS,
+    INBOUND_DEGREE,
+    OUTBOUND_DEGREE,
+    INSTANCES_DEGREE
 }
@@ -0,0 +1,27 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import graphql.language.Field;
+
+/**
+ * Cache key for request-scoped {@link SelectionProjection}s
+ * <p>
+ * Query document nodes use identity equality, so this keys on the specific occurrence of the field within the query
+ * and the projection is shared by every fetch of that field, regardless of which parent object it is fetched for.
+ * </p>
+ *
+ * @param field Field within the query document
+ */
+record ProjectionCacheKey(Field field) {
+}
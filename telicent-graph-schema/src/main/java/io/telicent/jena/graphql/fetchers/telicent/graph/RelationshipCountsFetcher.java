@@ -17,13 +17,19 @@ import graphql.schema.DataFetchingEnvironment;
 import io.telicent.jena.graphql.schemas.models.EdgeDirection;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.NodePlaceholder;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.inputs.Filter;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Quad;
 
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
  * A GraphQL {@link DataFetcher} that finds the counts of incoming/outgoing relationships for a node
+ * <p>
+ * When approximating, per the request's {@link io.telicent.jena.graphql.execution.telicent.graph.ApproximationPolicy},
+ * relationships are counted without being materialised and any type filters are applied to a sample of them only.
+ * </p>
  */
 public class RelationshipCountsFetcher extends AbstractRelationshipsFetcher<Integer> {
 
@@ -48,9 +54,26 @@ public class RelationshipCountsFetcher extends AbstractRelationshipsFetcher<Inte
         return counts.parent();
     }
 
+    @Override
+    protected boolean supportsApproximation() {
+        return true;
+    }
+
     @Override
     protected Integer map(DataFetchingEnvironment environment, DatasetGraph dsg, TelicentGraphNode node,
                           Stream<Quad> input) {
+        if (isApproximated(environment, dsg, node)) {
+            List<Filter> deferred = deferredFilters(environment);
+            if (!deferred.isEmpty()) {
+                // Apply the type filters to a sample only and scale up the number of relationships that pass them
+                Approximation.Sample<Quad> sample = Approximation.sample(input, Approximation.sampleSize(environment));
+                Stream<Quad> hits = sample.items().stream();
+                for (Filter filter : deferred) {
+                    hits = filter.filter(hits, dsg);
+                }
+                return Math.toIntExact(sample.scale(hits.count()));
+            }
+        }
         return Math.toIntExact(input.count());
     }
 
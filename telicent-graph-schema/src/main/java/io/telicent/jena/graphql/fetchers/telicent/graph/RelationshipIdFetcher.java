@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.IdStrategy;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.Relationship;
+
+/**
+ * A GraphQL {@link DataFetcher} that computes the ID of a {@link Relationship} using the {@link IdStrategy} configured
+ * for the request
+ */
+public class RelationshipIdFetcher implements DataFetcher<String> {
+
+    /**
+     * Creates a new fetcher
+     */
+    public RelationshipIdFetcher() {
+
+    }
+
+    @Override
+    public String get(DataFetchingEnvironment environment) throws Exception {
+        Relationship source = environment.getSource();
+        return source.getId(idStrategy(environment));
+    }
+
+    /**
+     * Gets the ID strategy for the request
+     *
+     * @param environment Data fetching environment
+     * @return ID strategy, {@link IdStrategy#SHA1} if none is configured
+     */
+    static IdStrategy idStrategy(DataFetchingEnvironment environment) {
+        TelicentExecutionContext context = environment.getLocalContext();
+        return context != null ? context.getIdStrategy() : IdStrategy.SHA1;
+    }
+}
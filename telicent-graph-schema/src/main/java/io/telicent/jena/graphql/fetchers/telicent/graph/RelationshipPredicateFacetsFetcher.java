@@ -16,19 +16,23 @@ import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 import io.telicent.jena.graphql.schemas.models.EdgeDirection;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.FacetInfo;
-import io.telicent.jena.graphql.schemas.telicent.graph.models.FacetInfoPlaceholder;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.inputs.Filter;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Quad;
 
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * A GraphQL {@link DataFetcher} that finds the predicate facets of incoming/outgoing relationships for a node
+ * <p>
+ * When approximating, per the request's {@link io.telicent.jena.graphql.execution.telicent.graph.ApproximationPolicy},
+ * the relationships are counted without being materialised, any type filters are applied to a sample of them only in
+ * which case the counts are estimated from the sample and marked as approximate.
+ * </p>
  */
-public class RelationshipPredicateFacetsFetcher extends AbstractRelationshipsFetcher<List<FacetInfo>> {
+public class RelationshipPredicateFacetsFetcher extends AbstractRelationshipFacetsFetcher {
 
     /**
      * Creates a new relationship counts fetcher
@@ -39,25 +43,23 @@ public class RelationshipPredicateFacetsFetcher extends AbstractRelationshipsFet
         super(direction);
     }
 
-    @Override
-    protected TelicentGraphNode getSource(DataFetchingEnvironment environment) {
-        FacetInfoPlaceholder placeholder = environment.getSource();
-        return placeholder.node();
-    }
-
     @Override
     protected List<FacetInfo> map(DataFetchingEnvironment environment, DatasetGraph dsg, TelicentGraphNode node,
                                   Stream<Quad> input) {
-        return input.collect(Collectors.groupingBy(Quad::getPredicate, Collectors.counting()))
-                    .entrySet()
-                    .stream()
-                    .map(e -> new FacetInfo(e.getKey(), dsg.prefixes(), e.getValue().intValue()))
-                    .toList();
-    }
-
-    @Override
-    protected Stream<Quad> applyLimitAndOffset(DataFetchingEnvironment environment, Stream<Quad> stream) {
-        // Want the full facets information so don't apply paging
-        return stream;
+        if (isApproximated(environment, dsg, node)) {
+            List<Filter> deferred = deferredFilters(environment);
+            if (!deferred.isEmpty()) {
+                // Apply the type filters to a sample only and estimate the predicate counts from that
+                Approximation.Sample<Quad> sample = Approximation.sample(input, Approximation.sampleSize(environment));
+                Stream<Quad> hits = sample.items().stream();
+                for (Filter filter : deferred) {
+                    hits = filter.filter(hits, dsg);
+                }
+                return select(environment, dsg, count(hits, Quad::getPredicate), sample);
+            }
+            // Otherwise counting predicates requires no lookups so count exactly, the input is streamed rather than
+            // materialised in this case
+        }
+        return select(environment, dsg, count(input, Quad::getPredicate), null);
     }
 }
@@ -14,24 +14,33 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.RequestDeadline;
+import io.telicent.jena.graphql.execution.RequestTransaction;
 import io.telicent.jena.graphql.schemas.models.EdgeDirection;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.FacetInfo;
-import io.telicent.jena.graphql.schemas.telicent.graph.models.FacetInfoPlaceholder;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.inputs.Filter;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Quad;
 import org.apache.jena.vocabulary.RDF;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Stream;
 
 /**
  * A GraphQL {@link DataFetcher} that finds the type facets of incoming/outgoing relationships for a node
+ * <p>
+ * Computing type facets requires looking up the types of every related node, so when approximating, per the request's
+ * {@link io.telicent.jena.graphql.execution.telicent.graph.ApproximationPolicy}, only the related nodes of a uniform
+ * random sample of the relationships are looked up and the resulting counts are scaled up and marked as approximate.
+ * </p>
+ * <p>
+ * The type lookups are made on the request thread within the request's read transaction, so that every lookup reads the
+ * same snapshot of the dataset as the relationships themselves.
+ * </p>
  */
-public class RelationshipTypeFacetsFetcher extends AbstractRelationshipsFetcher<List<FacetInfo>> {
+public class RelationshipTypeFacetsFetcher extends AbstractRelationshipFacetsFetcher {
 
     /**
      * Creates a new relationship counts fetcher
@@ -42,28 +51,57 @@ public class RelationshipTypeFacetsFetcher extends AbstractRelationshipsFetcher<
         super(direction);
     }
 
-    @Override
-    protected TelicentGraphNode getSource(DataFetchingEnvironment environment) {
-        FacetInfoPlaceholder placeholder = environment.getSource();
-        return placeholder.node();
-    }
-
     @Override
     protected List<FacetInfo> map(DataFetchingEnvironment environment, DatasetGraph dsg, TelicentGraphNode node,
                                   Stream<Quad> input) {
-        Map<Node, Integer> relatedNodeCounts = new HashMap<>();
-        input.forEach(q -> relatedNodeCounts.merge(getRelatedNode(q), 1, Integer::sum));
+        if (isApproximated(environment, dsg, node)) {
+            return estimate(environment, dsg, input);
+        }
+        return select(environment, dsg, countTypes(environment, dsg, input), null);
+    }
 
-        Map<Node, Integer> typeFacetCounts = new HashMap<>();
-        for (Map.Entry<Node, Integer> entry : relatedNodeCounts.entrySet()) {
-            streamTypes(dsg, entry.getKey()).forEach(q -> typeFacetCounts.merge(q.getObject(), entry.getValue(),
-                                                                                Integer::sum));
+    /**
+     * Estimates the type facets by looking up the types of the related nodes for a sample of the relationships only
+     *
+     * @param environment Data fetching environment
+     * @param dsg         Dataset graph
+     * @param input       Relationships, with any type filters deferred
+     * @return Estimated type facets
+     */
+    private List<FacetInfo> estimate(DataFetchingEnvironment environment, DatasetGraph dsg, Stream<Quad> input) {
+        Approximation.Sample<Quad> sample = Approximation.sample(input, Approximation.sampleSize(environment));
+        Stream<Quad> sampled = sample.items().stream();
+        for (Filter filter : deferredFilters(environment)) {
+            sampled = filter.filter(sampled, dsg);
         }
+        return select(environment, dsg, countTypes(environment, dsg, sampled), sample);
+    }
 
-        return typeFacetCounts.entrySet()
-                              .stream()
-                              .map(e -> new FacetInfo(e.getKey(), dsg.prefixes(), e.getValue()))
-                              .toList();
+    /**
+     * Counts the types of the related nodes of the given relationships, looking up the types of each distinct related
+     * node only once
+     *
+     * @param environment Data fetching environment
+     * @param dsg         Dataset graph
+     * @param input       Relationships
+     * @return Type counts
+     */
+    private FacetCounter countTypes(DataFetchingEnvironment environment, DatasetGraph dsg, Stream<Quad> input) {
+        FacetCounter relatedNodes = count(input, this::getRelatedNode);
+        RequestDeadline deadline = RequestDeadline.get(environment);
+        // Every lookup is made on the request thread within the request's read transaction, rather than being forked
+        // onto other threads, since Jena transactions are bound to threads so each thread would read its own snapshot
+        return RequestTransaction.calculateRead(environment, dsg, () -> {
+            FacetCounter types = new FacetCounter();
+            for (int id = 0; id < relatedNodes.size(); id++) {
+                deadline.check();
+                int weight = relatedNodes.count(id);
+                try (Stream<Quad> stream = deadline.guard(streamTypes(dsg, relatedNodes.node(id)))) {
+                    stream.forEach(q -> types.add(q.getObject(), weight));
+                }
+            }
+            return types;
+        });
     }
 
     /**
@@ -86,10 +124,4 @@ public class RelationshipTypeFacetsFetcher extends AbstractRelationshipsFetcher<
     protected Stream<Quad> streamTypes(DatasetGraph dsg, Node relatedNode) {
         return dsg.stream(Node.ANY, relatedNode, RDF.type.asNode(), Node.ANY);
     }
-
-    @Override
-    protected Stream<Quad> applyLimitAndOffset(DataFetchingEnvironment environment, Stream<Quad> stream) {
-        // Want the full facets information so don't apply paging
-        return stream;
-    }
 }
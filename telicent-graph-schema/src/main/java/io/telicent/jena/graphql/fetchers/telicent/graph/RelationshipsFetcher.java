@@ -14,9 +14,11 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
-import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
-import io.telicent.jena.graphql.schemas.telicent.graph.models.Relationship;
+import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
 import io.telicent.jena.graphql.schemas.models.EdgeDirection;
+import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.Relationship;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Quad;
 
@@ -42,9 +44,15 @@ public class RelationshipsFetcher
     @Override
     protected List<Relationship> map(DataFetchingEnvironment environment, DatasetGraph dsg, TelicentGraphNode source,
                                      Stream<Quad> input) {
-        return input.map(q -> new Relationship(new TelicentGraphNode(q.getSubject(), dsg.prefixes()),
-                                               new TelicentGraphNode(q.getPredicate(), dsg.prefixes()),
-                                               new TelicentGraphNode(q.getObject(), dsg.prefixes())))
+        // Relationships only wrap their domain and range if selected, in which case they use the interned wrappers
+        SelectionProjection projection = getProjection(environment);
+        if (!projection.includesAny(TelicentGraphSchema.FIELD_DOMAIN, TelicentGraphSchema.FIELD_RANGE)) {
+            return input.map(q -> new Relationship(q.getSubject(), q.getPredicate(), q.getObject(), null))
+                        .collect(Collectors.toList());
+        }
+        TelicentExecutionContext context = environment.getLocalContext();
+        return input.map(q -> new Relationship(context.getNode(q.getSubject()), context.getNode(q.getPredicate()),
+                                               context.getNode(q.getObject())))
                     .collect(Collectors.toList());
     }
 
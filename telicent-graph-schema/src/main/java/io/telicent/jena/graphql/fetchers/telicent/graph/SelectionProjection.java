@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
+import org.apache.jena.riot.system.PrefixMap;
+import org.apache.jena.sparql.core.DatasetGraph;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The minimal projection of a fetcher's output that a request actually selects
+ * <p>
+ * This is derived from the {@link DataFetchingFieldSelectionSet} of the field being fetched and records the qualified
+ * names, e.g. {@code domain/shortUri}, of all the selected sub-fields.  Fetchers use it to avoid building parts of
+ * their output, e.g. related nodes or prefix lookups, that the client never asked for.  The analysis is computed once
+ * per field of the query and shared across all the fetches for that field, e.g. the {@code inRels} of every node in a
+ * {@code nodes} query, see {@link AbstractPagingFetcher#getProjection(graphql.schema.DataFetchingEnvironment)}.
+ * </p>
+ */
+public final class SelectionProjection {
+
+    /**
+     * A projection that includes every field, used when no selection set is available
+     */
+    public static final SelectionProjection ALL = new SelectionProjection(null);
+
+    private final Set<String> fields;
+
+    private SelectionProjection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Analyses a selection set to produce a projection
+     *
+     * @param selectionSet Selection set, may be {@code null} in which case {@link #ALL} is returned
+     * @return Projection
+     */
+    public static SelectionProjection of(DataFetchingFieldSelectionSet selectionSet) {
+        if (selectionSet == null) {
+            return ALL;
+        }
+        Set<String> fields = new HashSet<>();
+        for (SelectedField field : selectionSet.getFields()) {
+            fields.add(field.getQualifiedName());
+        }
+        return new SelectionProjection(fields);
+    }
+
+    /**
+     * Indicates whether a field is selected
+     *
+     * @param field Qualified field name, e.g. {@code domain} or {@code domain/shortUri}
+     * @return True if selected
+     */
+    public boolean includes(String field) {
+        return this.fields == null || this.fields.contains(field);
+    }
+
+    /**
+     * Indicates whether any of the given fields are selected
+     *
+     * @param fields Qualified field names
+     * @return True if any are selected
+     */
+    public boolean includesAny(String... fields) {
+        for (String field : fields) {
+            if (this.includes(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the prefixes of the dataset only if any of the given fields, which require prefixes to compute shortened
+     * URIs, are selected
+     *
+     * @param dsg    Dataset graph
+     * @param fields Qualified names of the fields that require prefixes
+     * @return Prefixes, or {@code null} if none of the fields are selected
+     */
+    public PrefixMap prefixes(DatasetGraph dsg, String... fields) {
+        return this.includesAny(fields) ? dsg.prefixes() : null;
+    }
+
+    /**
+     * Builds a qualified field name
+     *
+     * @param fields Field names, from outermost to innermost
+     * @return Qualified field name
+     */
+    public static String path(String... fields) {
+        return String.join("/", fields);
+    }
+
+    @Override
+    public String toString() {
+        return this.fields == null ? "SelectionProjection{ALL}" : "SelectionProjection" + this.fields;
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
+import io.telicent.jena.graphql.utils.PrefixAbbreviator;
+
+/**
+ * A GraphQL {@link DataFetcher} that computes the short URI of a {@link TelicentGraphNode}, or a
+ * {@link io.telicent.jena.graphql.schemas.telicent.graph.models.FacetInfo}, using the shared {@link PrefixAbbreviator}
+ * for the dataset
+ */
+public class ShortUriFetcher implements DataFetcher<String> {
+
+    /**
+     * Creates a new fetcher
+     */
+    public ShortUriFetcher() {
+
+    }
+
+    @Override
+    public String get(DataFetchingEnvironment environment) throws Exception {
+        TelicentGraphNode source = environment.getSource();
+        return source.getShortUri(abbreviator(environment));
+    }
+
+    /**
+     * Gets the shared prefix abbreviator for the request
+     *
+     * @param environment Data fetching environment
+     * @return Prefix abbreviator, {@code null} if there is no execution context
+     */
+    static PrefixAbbreviator abbreviator(DataFetchingEnvironment environment) {
+        TelicentExecutionContext context = environment.getLocalContext();
+        return context != null ? context.getPrefixAbbreviator() : null;
+    }
+}
@@ -14,6 +14,7 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.RequestTransaction;
 import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
 import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
@@ -21,12 +22,10 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.sparql.core.DatasetGraph;
-import org.apache.jena.system.Txn;
 
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -55,9 +54,9 @@ public class StartingNodesFetcher implements DataFetcher<Object> {
                                              environment.getArgument(TelicentGraphSchema.ARGUMENT_URI));
 
 
-        return Txn.calculateRead(dsg, () -> {
-            List<TelicentGraphNode> nodes = select(environment, startFilters, dsg, graphFilter).map(
-                    n -> new TelicentGraphNode(n, dsg.prefixes())).collect(Collectors.toList());
+        return RequestTransaction.calculateRead(environment, dsg, () -> {
+            List<TelicentGraphNode> nodes = select(environment, startFilters, dsg, graphFilter).map(context::getNode)
+                                                                                                .toList();
             return multiSelect ? nodes : (!nodes.isEmpty() ? nodes.get(0) : null);
         });
     }
@@ -14,14 +14,14 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import io.telicent.jena.graphql.execution.RequestTransaction;
 import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
 import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.State;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Quad;
-import org.apache.jena.system.Txn;
-import org.apache.jena.vocabulary.RDF;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -29,6 +29,16 @@ import java.util.stream.Stream;
 
 /**
  * A GraphQL {@link DataFetcher} that finds the starting states for a states query
+ * <p>
+ * If the optional {@code from} and/or {@code to} arguments are supplied then only states whose time interval overlaps
+ * that window are returned, ordered by their start.  These are answered from the {@link StateIntervalIndex} attached to
+ * the dataset, if any.
+ * </p>
+ * <p>
+ * When the query selects the {@code type}, {@code start}, {@code end} or {@code period} of the states then these are
+ * resolved for the whole page up front, within the same read transaction, and cached for the request so the
+ * individual field fetchers don't each have to repeat lookups.
+ * </p>
  */
 public class StartingStatesFetcher implements DataFetcher<List<State>> {
 
@@ -44,28 +54,74 @@ public class StartingStatesFetcher implements DataFetcher<List<State>> {
         TelicentExecutionContext context = environment.getLocalContext();
         DatasetGraph dsg = context.getDatasetGraph();
         Node node = StartingNodesFetcher.parseStart(environment.getArgument(TelicentGraphSchema.ARGUMENT_URI));
+        String from = environment.getArgument(TelicentGraphSchema.ARGUMENT_FROM);
+        String to = environment.getArgument(TelicentGraphSchema.ARGUMENT_TO);
+        boolean windowed = from != null || to != null;
+        long fromInstant = from != null ? parseBound(TelicentGraphSchema.ARGUMENT_FROM, from)[0] : Long.MIN_VALUE;
+        long toInstant = to != null ? parseBound(TelicentGraphSchema.ARGUMENT_TO, to)[1] : Long.MAX_VALUE;
 
-        return Txn.calculateRead(dsg, () -> AbstractPagingFetcher.applyLimitAndOffset(environment,
-                                                                                      findStates(dsg, node),
-                                                                                      TelicentGraphSchema.DEFAULT_LIMIT,
-                                                                                      TelicentGraphSchema.MAX_LIMIT)
-                                                                 .collect(Collectors.toList()));
+        return RequestTransaction.calculateRead(environment, dsg, () -> {
+            Stream<State> states = windowed ? findStates(context, dsg, node, fromInstant, toInstant) :
+                                   findStates(context, dsg, node);
+            List<State> page =
+                    AbstractPagingFetcher.applyLimitAndOffset(environment, states, TelicentGraphSchema.DEFAULT_LIMIT,
+                                                              TelicentGraphSchema.MAX_LIMIT)
+                                         .collect(Collectors.toList());
+            if (selectsResolvedFields(environment)) {
+                // Resolve the details of the whole page now, within this transaction, rather than state by state
+                StateResolver.resolveAll(context, dsg, page);
+            }
+            return page;
+        });
     }
 
-    private static Stream<State> findStates(DatasetGraph dsg, Node node) {
-        return IesFetchers.STATE_PREDICATES.stream()
-                                           .flatMap(p -> dsg.stream(Node.ANY, Node.ANY, p,
-                                                                    node)
-                                                            .filter(q -> (q.getSubject()
-                                                                           .isURI() || q.getSubject()
-                                                                                        .isBlank()) && dsg.contains(
-                                                                    Node.ANY,
-                                                                    q.getSubject(),
-                                                                    RDF.type.asNode(),
-                                                                    Node.ANY))
-                                                            .map(Quad::getSubject)
-                                                            .distinct()
-                                                            .map(n -> new State(n, p,
-                                                                                node)));
+    /**
+     * Determines whether the query selects any state fields that are computed by the {@link StateResolver}
+     *
+     * @param environment Data fetching environment
+     * @return True if any resolved fields are selected, false otherwise
+     */
+    private static boolean selectsResolvedFields(DataFetchingEnvironment environment) {
+        DataFetchingFieldSelectionSet selectionSet = environment.getSelectionSet();
+        return selectionSet != null && selectionSet.containsAnyOf(TelicentGraphSchema.FIELD_START,
+                                                                  TelicentGraphSchema.FIELD_END,
+                                                                  TelicentGraphSchema.FIELD_PERIOD,
+                                                                  TelicentGraphSchema.FIELD_TYPE);
+    }
+
+    /**
+     * Parses a time window bound
+     *
+     * @param argument Argument name
+     * @param value    ISO 8601 value
+     * @return First and last instants covered by the value
+     * @throws IllegalArgumentException Thrown if the value is not a valid ISO 8601 period representation
+     */
+    private static long[] parseBound(String argument, String value) {
+        long[] bounds = StateIntervalIndex.parsePeriod(value);
+        if (bounds == null) {
+            throw new IllegalArgumentException(
+                    argument + " argument '" + value + "' is not a valid ISO 8601 period representation");
+        }
+        return bounds;
+    }
+
+    private static Stream<State> findStates(TelicentExecutionContext context, DatasetGraph dsg, Node node, long from,
+                                            long to) {
+        List<State> candidates =
+                StateIntervalIndex.get(dsg) != null ? List.of() : findStates(context, dsg, node).toList();
+        return StateIntervalIndex.query(dsg, candidates, node, from, to).stream().map(i -> i.toState(node));
+    }
+
+    private static Stream<State> findStates(TelicentExecutionContext context, DatasetGraph dsg, Node node) {
+        // The candidates remain lazy, and are checked for types in batches, so that paging stops probing candidates
+        // once the page is filled rather than probing every candidate up front
+        Stream<State> candidates = IesFetchers.STATE_PREDICATES.stream()
+                                                               .flatMap(p -> dsg.stream(Node.ANY, Node.ANY, p, node)
+                                                                                .map(Quad::getSubject)
+                                                                                .filter(s -> s.isURI() || s.isBlank())
+                                                                                .distinct()
+                                                                                .map(s -> new State(s, p, node)));
+        return TypedNodes.get(context).filterTyped(dsg, candidates, State::getStateNode);
     }
 }
@@ -0,0 +1,28 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import org.apache.jena.graph.Node;
+
+/**
+ * Cache key for request-scoped resolved state details
+ * <p>
+ * The predicate forms part of the key because the {@code start} and {@code end} of a state depend upon how the state
+ * is connected to its entity.
+ * </p>
+ *
+ * @param state     State node
+ * @param predicate Predicate by which the state is connected to its entity
+ */
+record StateCacheKey(Node state, Node predicate) {
+}
@@ -0,0 +1,341 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import io.telicent.jena.graphql.schemas.telicent.graph.models.State;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sparql.util.Symbol;
+import org.apache.jena.system.Txn;
+import org.apache.jena.vocabulary.RDF;
+
+import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * An interval index that maps entities to the time intervals of their IES states
+ * <p>
+ * The start and end of each state are resolved in the same way as the {@link StatePeriodFetcher} resolves the
+ * {@code start}, {@code end} and {@code period} fields of a state, i.e. from the {@code inPeriod} of the state itself
+ * or of its bounding {@code isStartOf}/{@code isEndOf} states, and parsed into instants.  States for which no temporal
+ * information is available are not indexed.  For each entity the intervals are held in an implicit augmented interval
+ * tree, a sorted array where each node also records the maximum end instant of its subtree, so that finding the states
+ * that overlap a time window costs {@code O(log n + k)} rather than a chain of lookups per state.
+ * </p>
+ * <p>
+ * The index is a snapshot of the dataset at the time it was built, it is used to answer {@code states(...)} queries
+ * with {@code from} and/or {@code to} arguments when attached to a dataset via {@link #attach(DatasetGraph)}.  When no
+ * index is attached such queries are answered by resolving the intervals of the entity's states on demand.
+ * </p>
+ */
+public final class StateIntervalIndex {
+
+    /**
+     * Context symbol used to attach an index to a dataset
+     */
+    public static final Symbol SYMBOL = Symbol.create("graphql:stateIntervalIndex");
+
+    /**
+     * An indexed state interval
+     *
+     * @param state     State node
+     * @param predicate Predicate by which the state is connected to its entity
+     * @param period    Period node of the state, or {@link Node#ANY} if it has none
+     * @param start     Start instant in epoch milliseconds, {@link Long#MIN_VALUE} if open-ended
+     * @param end       End instant in epoch milliseconds, {@link Long#MAX_VALUE} if open-ended
+     */
+    public record Interval(Node state, Node predicate, Node period, long start, long end) {
+
+        /**
+         * Gets whether this interval overlaps the given time window
+         *
+         * @param from Start of the window in epoch milliseconds
+         * @param to   End of the window in epoch milliseconds
+         * @return True if overlapping, false otherwise
+         */
+        public boolean overlaps(long from, long to) {
+            return this.start <= to && this.end >= from;
+        }
+
+        /**
+         * Converts this interval into a state of the given entity, the state is pre-populated with the period that was
+         * resolved when the interval was created
+         *
+         * @param entity Entity
+         * @return State
+         */
+        public State toState(Node entity) {
+            State state = new State(this.state, this.predicate, entity);
+            state.setPeriod(this.period);
+            return state;
+        }
+    }
+
+    private final Map<Node, IntervalTree> trees;
+    private final int size;
+
+    private StateIntervalIndex(Map<Node, List<Interval>> intervals) {
+        this.trees = new HashMap<>(intervals.size());
+        int total = 0;
+        for (Map.Entry<Node, List<Interval>> entry : intervals.entrySet()) {
+            this.trees.put(entry.getKey(), new IntervalTree(entry.getValue()));
+            total += entry.getValue().size();
+        }
+        this.size = total;
+    }
+
+    /**
+     * Builds a new index over the given dataset
+     *
+     * @param dsg Dataset Graph
+     * @return Index
+     */
+    public static StateIntervalIndex build(DatasetGraph dsg) {
+        Objects.requireNonNull(dsg, "Dataset Graph cannot be null");
+        return Txn.calculateRead(dsg, () -> {
+            Map<Node, List<Interval>> intervals = new HashMap<>();
+            Map<Node, Boolean> typed = new HashMap<>();
+            for (Node predicate : IesFetchers.STATE_PREDICATES) {
+                Set<List<Node>> seen = new HashSet<>();
+                dsg.stream(Node.ANY, Node.ANY, predicate, Node.ANY)
+                   .filter(q -> q.getSubject().isURI() || q.getSubject().isBlank())
+                   .filter(q -> seen.add(List.of(q.getSubject(), q.getObject())))
+                   .filter(q -> typed.computeIfAbsent(q.getSubject(),
+                                                      s -> dsg.contains(Node.ANY, s, RDF.type.asNode(), Node.ANY)))
+                   .forEach(q -> {
+                       Interval interval = resolve(dsg, q.getSubject(), predicate);
+                       if (interval != null) {
+                           intervals.computeIfAbsent(q.getObject(), e -> new ArrayList<>()).add(interval);
+                       }
+                   });
+            }
+            return new StateIntervalIndex(intervals);
+        });
+    }
+
+    /**
+     * Builds an index over the given dataset and attaches it to the datasets context, replacing any previously attached
+     * index
+     *
+     * @param dsg Dataset Graph
+     * @return Index
+     */
+    public static StateIntervalIndex attach(DatasetGraph dsg) {
+        StateIntervalIndex index = build(dsg);
+        dsg.getContext().set(SYMBOL, index);
+        return index;
+    }
+
+    /**
+     * Gets the index attached to the given dataset, if any
+     *
+     * @param dsg Dataset Graph
+     * @return Index, or {@code null} if none attached
+     */
+    public static StateIntervalIndex get(DatasetGraph dsg) {
+        if (dsg == null) {
+            return null;
+        }
+        Context context = dsg.getContext();
+        if (context == null) {
+            return null;
+        }
+        Object index = context.get(SYMBOL);
+        return index instanceof StateIntervalIndex ? (StateIntervalIndex) index : null;
+    }
+
+    /**
+     * Gets the number of state intervals in the index
+     *
+     * @return Size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Finds the states of an entity whose intervals overlap the given time window
+     *
+     * @param entity Entity
+     * @param from   Start of the window in epoch milliseconds
+     * @param to     End of the window in epoch milliseconds
+     * @return Overlapping intervals, ordered by start instant
+     */
+    public List<Interval> query(Node entity, long from, long to) {
+        IntervalTree tree = this.trees.get(entity);
+        return tree != null ? tree.query(from, to) : List.of();
+    }
+
+    /**
+     * Finds the states of an entity whose intervals overlap the given time window, using the index attached to the
+     * dataset if any, otherwise resolving the intervals of the entity's states on demand
+     *
+     * @param dsg    Dataset Graph
+     * @param states The states of the entity, only used if no index is attached
+     * @param entity Entity
+     * @param from   Start of the window in epoch milliseconds
+     * @param to     End of the window in epoch milliseconds
+     * @return Overlapping intervals, ordered by start instant
+     */
+    static List<Interval> query(DatasetGraph dsg, Collection<State> states, Node entity, long from, long to) {
+        StateIntervalIndex index = get(dsg);
+        if (index != null) {
+            return index.query(entity, from, to);
+        }
+        List<Interval> intervals = new ArrayList<>();
+        for (State state : states) {
+            Interval interval = resolve(dsg, state.getStateNode(), state.getPredicateNode());
+            if (interval != null) {
+                intervals.add(interval);
+            }
+        }
+        return new IntervalTree(intervals).query(from, to);
+    }
+
+    /**
+     * Resolves the interval of a state
+     *
+     * @param dsg       Dataset Graph
+     * @param state     State node
+     * @param predicate Predicate by which the state is connected to its entity
+     * @return Interval, or {@code null} if the state has no temporal information
+     */
+    static Interval resolve(DatasetGraph dsg, Node state, Node predicate) {
+        Node period = StatePeriodFetcher.findPeriodNode(dsg, state);
+        String periodValue = StatePeriodFetcher.findPeriodValue(dsg, period);
+        boolean hasPeriodValue = StringUtils.isNotBlank(periodValue);
+        String startValue = hasPeriodValue && predicate.equals(IesFetchers.IS_START_OF) ? periodValue :
+                            StatePeriodFetcher.findPeriodValue(dsg, StatePeriodFetcher.findPeriodNode(dsg,
+                                    StatePeriodFetcher.findSubState(dsg, IesFetchers.IS_START_OF, state)));
+        String endValue = hasPeriodValue && predicate.equals(IesFetchers.IS_END_OF) ? periodValue :
+                          StatePeriodFetcher.findPeriodValue(dsg, StatePeriodFetcher.findPeriodNode(dsg,
+                                  StatePeriodFetcher.findSubState(dsg, IesFetchers.IS_END_OF, state)));
+
+        long[] periodBounds = parsePeriod(periodValue);
+        long[] startBounds = parsePeriod(startValue);
+        long[] endBounds = parsePeriod(endValue);
+        if (periodBounds == null && startBounds == null && endBounds == null) {
+            return null;
+        }
+        long start = startBounds != null ? startBounds[0] : periodBounds != null ? periodBounds[0] : Long.MIN_VALUE;
+        long end = endBounds != null ? endBounds[1] : periodBounds != null ? periodBounds[1] : Long.MAX_VALUE;
+        return new Interval(state, predicate, period != null ? period : Node.ANY, start, end);
+    }
+
+    /**
+     * Parses an ISO 8601 period representation into the first and last instants it covers
+     * <p>
+     * Supports years ({@code 1982}), year months ({@code 1982-04}), dates ({@code 1982-04-02}), date times with or
+     * without an offset, where those without an offset are treated as UTC, and intervals of any of these separated by
+     * a {@code /}.
+     * </p>
+     *
+     * @param value Period representation
+     * @return Array of the first and last instants covered in epoch milliseconds, or {@code null} if not parseable
+     */
+    public static long[] parsePeriod(String value) {
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        value = value.trim();
+        int slash = value.indexOf('/');
+        if (slash > 0) {
+            long[] first = parsePeriod(value.substring(0, slash));
+            long[] last = parsePeriod(value.substring(slash + 1));
+            return first != null && last != null ? new long[] { first[0], last[1] } : null;
+        }
+        try {
+            return switch (value.length()) {
+                case 4 -> bounds(Year.parse(value).atDay(1), Year.parse(value).plusYears(1).atDay(1));
+                case 7 -> bounds(YearMonth.parse(value).atDay(1), YearMonth.parse(value).plusMonths(1).atDay(1));
+                case 10 -> bounds(LocalDate.parse(value), LocalDate.parse(value).plusDays(1));
+                default -> {
+                    long instant = parseDateTime(value);
+                    yield new long[] { instant, instant };
+                }
+            };
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static long[] bounds(LocalDate first, LocalDate next) {
+        return new long[] {
+                first.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli(),
+                next.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli() - 1
+        };
+    }
+
+    private static long parseDateTime(String value) {
+        try {
+            return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(value).toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+    }
+
+    /**
+     * An implicit augmented interval tree over a sorted array of intervals
+     */
+    private static final class IntervalTree {
+        private final Interval[] intervals;
+        private final long[] maxEnd;
+
+        IntervalTree(List<Interval> intervals) {
+            this.intervals = intervals.toArray(new Interval[0]);
+            Arrays.sort(this.intervals, Comparator.comparingLong(Interval::start).thenComparingLong(Interval::end));
+            this.maxEnd = new long[this.intervals.length];
+            computeMaxEnd(0, this.intervals.length);
+        }
+
+        private long computeMaxEnd(int lo, int hi) {
+            if (lo >= hi) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (lo + hi) >>> 1;
+            long max = Math.max(this.intervals[mid].end(),
+                                Math.max(computeMaxEnd(lo, mid), computeMaxEnd(mid + 1, hi)));
+            this.maxEnd[mid] = max;
+            return max;
+        }
+
+        List<Interval> query(long from, long to) {
+            List<Interval> results = new ArrayList<>();
+            collect(0, this.intervals.length, from, to, results);
+            return results;
+        }
+
+        private void collect(int lo, int hi, long from, long to, List<Interval> results) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (this.maxEnd[mid] < from) {
+                // Nothing in this subtree ends after the window starts
+                return;
+            }
+            collect(lo, mid, from, to, results);
+            if (this.intervals[mid].start() > to) {
+                // Everything to the right starts after the window ends
+                return;
+            }
+            if (this.intervals[mid].end() >= from) {
+                results.add(this.intervals[mid]);
+            }
+            collect(mid + 1, hi, from, to, results);
+        }
+    }
+}
@@ -14,17 +14,20 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.RequestTransaction;
 import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
 import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.State;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Quad;
-import org.apache.jena.system.Txn;
 
 /**
  * A GraphQL {@link DataFetcher} that finds the period information for a state
+ * <p>
+ * The {@code start}, {@code end} and {@code period} of a state are resolved in a single combined pass and cached for
+ * the lifetime of the request, so this fetcher may be wired to all three fields without repeating lookups.
+ * </p>
  */
 public class StatePeriodFetcher implements DataFetcher<String> {
 
@@ -41,55 +44,48 @@ public class StatePeriodFetcher implements DataFetcher<String> {
         DatasetGraph dsg = context.getDatasetGraph();
         State state = environment.getSource();
 
-        return Txn.calculateRead(dsg, () -> {
-            // Get the period associated with the state (using cached value if available)
-            Node period = state.hasPeriod() ? state.getPeriod() : findPeriodNode(dsg, state.getStateNode());
-            state.setPeriod(period != null ? period : Node.ANY);
-            String periodValue = findPeriodValue(dsg, period);
+        String field = environment.getField().getName();
+        if (!TelicentGraphSchema.FIELD_START.equals(field) && !TelicentGraphSchema.FIELD_END.equals(field)
+                && !TelicentGraphSchema.FIELD_PERIOD.equals(field)) {
+            throw new IllegalArgumentException("Field " + field + " not handled by this DataFetcher");
+        }
 
-            switch (environment.getField().getName()) {
-                case TelicentGraphSchema.FIELD_START -> {
-                    if (StringUtils.isNotBlank(periodValue) && state.getPredicateNode()
-                                                                    .equals(IesFetchers.IS_START_OF)) {
-                        return periodValue;
-                    } else {
-                        // Is there a bounding state of this state that declares a start?
-                        Node startState = findSubState(dsg, IesFetchers.IS_START_OF, state);
-                        return findPeriodValue(dsg, findPeriodNode(dsg, startState));
-                    }
-                }
-                case TelicentGraphSchema.FIELD_END -> {
-                    if (StringUtils.isNotBlank(periodValue) && state.getPredicateNode().equals(IesFetchers.IS_END_OF)) {
-                        return periodValue;
-                    } else {
-                        // Is there a bounding state of this state that declares an end?
-                        Node endState = findSubState(dsg, IesFetchers.IS_END_OF, state);
-                        return findPeriodValue(dsg, findPeriodNode(dsg, endState));
-                    }
-                }
-                case TelicentGraphSchema.FIELD_PERIOD -> {
-                    // This is only relevant when the period is attached directly to the state and not via any bounding
-                    // states
-                    if (StringUtils.isNotBlank(periodValue)) {
-                        return periodValue;
-                    }
-                }
-                default -> throw new IllegalArgumentException(
-                        "Field " + environment.getField().getName() + " not handled by this DataFetcher");
-            }
-            return null;
-        });
+        // All the temporal attributes are resolved together, and cached, so selecting several of them on the same
+        // state only costs a single set of lookups
+        StateResolver.Resolved resolved =
+                RequestTransaction.calculateRead(environment, dsg, () -> StateResolver.resolve(context, dsg, state));
+        return switch (field) {
+            case TelicentGraphSchema.FIELD_START -> resolved.start();
+            case TelicentGraphSchema.FIELD_END -> resolved.end();
+            default -> resolved.value();
+        };
     }
 
-    private static Node findSubState(DatasetGraph dsg, Node subStateRelationship, State state) {
-        return dsg.stream(Node.ANY, Node.ANY, subStateRelationship, state.getStateNode())
+    /**
+     * Finds a bounding sub-state of a state, if any
+     *
+     * @param dsg                  Dataset Graph
+     * @param subStateRelationship Sub-state relationship i.e. {@link IesFetchers#IS_START_OF} or
+     *                             {@link IesFetchers#IS_END_OF}
+     * @param state                State
+     * @return Sub-state, or {@code null} if none
+     */
+    static Node findSubState(DatasetGraph dsg, Node subStateRelationship, Node state) {
+        return dsg.stream(Node.ANY, Node.ANY, subStateRelationship, state)
                   .filter(q -> q.getSubject().isURI() || q.getSubject().isBlank())
                   .map(Quad::getSubject)
                   .findFirst()
                   .orElse(null);
     }
 
-    private static String findPeriodValue(DatasetGraph dsg, Node period) {
+    /**
+     * Finds the ISO 8601 representation of a period, if any
+     *
+     * @param dsg    Dataset Graph
+     * @param period Period node
+     * @return Period representation, or {@code null} if none
+     */
+    static String findPeriodValue(DatasetGraph dsg, Node period) {
         if (period == null || period == Node.ANY) {
             return null;
         }
@@ -100,7 +96,14 @@ public class StatePeriodFetcher implements DataFetcher<String> {
                   .orElse(null);
     }
 
-    private static Node findPeriodNode(DatasetGraph dsg, Node state) {
+    /**
+     * Finds the period node of a state, if any
+     *
+     * @param dsg   Dataset Graph
+     * @param state State node
+     * @return Period node, or {@code null} if none
+     */
+    static Node findPeriodNode(DatasetGraph dsg, Node state) {
         if (state == null) {
             return null;
         }
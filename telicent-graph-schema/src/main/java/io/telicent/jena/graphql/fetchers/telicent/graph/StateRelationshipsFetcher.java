@@ -14,7 +14,7 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
-import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
+import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.NonDirectionalRelationship;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.State;
 import org.apache.jena.sparql.core.DatasetGraph;
@@ -40,10 +40,9 @@ public class StateRelationshipsFetcher
     @Override
     protected List<NonDirectionalRelationship> map(DataFetchingEnvironment environment, DatasetGraph dsg, State source,
                                                    Stream<Quad> input) {
-        return input.map(q -> new NonDirectionalRelationship(new TelicentGraphNode(q.getPredicate(), dsg.prefixes()),
-                                                             new TelicentGraphNode(
-                                                                     source.getStateNode().equals(q.getSubject()) ?
-                                                                     q.getObject() : q.getSubject(), dsg.prefixes())))
+        TelicentExecutionContext context = environment.getLocalContext();
+        return input.map(q -> new NonDirectionalRelationship(context.getNode(q.getPredicate()), context.getNode(
+                            source.getStateNode().equals(q.getSubject()) ? q.getObject() : q.getSubject())))
                     .collect(Collectors.toList());
     }
 
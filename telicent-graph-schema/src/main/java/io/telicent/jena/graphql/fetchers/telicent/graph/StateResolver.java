@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.State;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.vocabulary.RDF;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves all the details of a {@link State} that are derived from the dataset, i.e. its primary type and its
+ * temporal attributes, in a single combined pass
+ * <p>
+ * Resolved details are cached per state in the {@link TelicentExecutionContext} so that selecting several of
+ * {@code type}, {@code start}, {@code end} and {@code period} on the same state only looks the state up once.  The
+ * {@link #resolveAll(TelicentExecutionContext, DatasetGraph, Collection)} method allows a whole page of states to be
+ * resolved up front within a single read transaction, sharing period lookups between states.
+ * </p>
+ */
+final class StateResolver {
+
+    private StateResolver() {
+    }
+
+    /**
+     * The resolved details of a state
+     *
+     * @param type   Primary type of the state, or {@code null} if it declares no types
+     * @param period Period node of the state, or {@link Node#ANY} if none
+     * @param start  ISO 8601 start of the state, or {@code null} if unknown
+     * @param end    ISO 8601 end of the state, or {@code null} if unknown
+     * @param value  ISO 8601 period of the state, or {@code null} if it is not directly attached to a period
+     */
+    record Resolved(Node type, Node period, String start, String end, String value) {
+    }
+
+    /**
+     * Resolves the details of a state, using a request-scoped cached value if available
+     * <p>
+     * Callers <strong>MUST</strong> hold a read transaction on the dataset.
+     * </p>
+     *
+     * @param context Execution context
+     * @param dsg     Dataset Graph
+     * @param state   State
+     * @return Resolved details
+     */
+    static Resolved resolve(TelicentExecutionContext context, DatasetGraph dsg, State state) {
+        return resolve(context, dsg, state, new HashMap<>());
+    }
+
+    /**
+     * Resolves the details of many states, populating the request-scoped cache so that subsequent calls to
+     * {@link #resolve(TelicentExecutionContext, DatasetGraph, State)} for these states are free
+     * <p>
+     * Callers <strong>MUST</strong> hold a read transaction on the dataset.
+     * </p>
+     *
+     * @param context Execution context
+     * @param dsg     Dataset Graph
+     * @param states  States
+     */
+    static void resolveAll(TelicentExecutionContext context, DatasetGraph dsg, Collection<State> states) {
+        // States on the same page frequently share periods, or bound one another, so share period lookups
+        Map<Node, Optional<String>> periodValues = new HashMap<>();
+        for (State state : states) {
+            resolve(context, dsg, state, periodValues);
+        }
+    }
+
+    private static Resolved resolve(TelicentExecutionContext context, DatasetGraph dsg, State state,
+                                    Map<Node, Optional<String>> periodValues) {
+        Resolved resolved = context.getOrCompute(new StateCacheKey(state.getStateNode(), state.getPredicateNode()),
+                                                 () -> load(dsg, state, periodValues));
+        if (!state.hasPeriod()) {
+            state.setPeriod(resolved.period());
+        }
+        if (resolved.type() != null) {
+            TypedNodes.get(context).record(state.getStateNode(), true);
+        }
+        return resolved;
+    }
+
+    /**
+     * Loads the details of a state from the dataset
+     *
+     * @param dsg          Dataset Graph
+     * @param state        State
+     * @param periodValues Memoised period values
+     * @return Resolved details
+     */
+    private static Resolved load(DatasetGraph dsg, State state, Map<Node, Optional<String>> periodValues) {
+        // Single scan over the outgoing triples of the state to find both its primary type and its period
+        Node type = null;
+        Node period = state.hasPeriod() ? state.getPeriod() : null;
+        boolean needPeriod = !state.hasPeriod();
+        Iterator<Quad> quads = dsg.find(Node.ANY, state.getStateNode(), Node.ANY, Node.ANY);
+        try {
+            while (quads.hasNext() && (type == null || needPeriod)) {
+                Quad q = quads.next();
+                Node o = q.getObject();
+                if (!o.isURI() && !o.isBlank()) {
+                    continue;
+                }
+                if (type == null && RDF.type.asNode().equals(q.getPredicate())) {
+                    type = o;
+                } else if (needPeriod && IesFetchers.IN_PERIOD.equals(q.getPredicate())) {
+                    period = o;
+                    needPeriod = false;
+                }
+            }
+        } finally {
+            Iter.close(quads);
+        }
+
+        String periodValue = periodValue(dsg, period, periodValues);
+        boolean hasValue = StringUtils.isNotBlank(periodValue);
+        Node predicate = state.getPredicateNode();
+        String start = hasValue && predicate.equals(IesFetchers.IS_START_OF) ? periodValue :
+                       boundValue(dsg, IesFetchers.IS_START_OF, state.getStateNode(), periodValues);
+        String end = hasValue && predicate.equals(IesFetchers.IS_END_OF) ? periodValue :
+                     boundValue(dsg, IesFetchers.IS_END_OF, state.getStateNode(), periodValues);
+        return new Resolved(type, period != null ? period : Node.ANY, start, end, hasValue ? periodValue : null);
+    }
+
+    // Finds the period value of a bounding sub-state of a state, if any
+    private static String boundValue(DatasetGraph dsg, Node relationship, Node state,
+                                     Map<Node, Optional<String>> periodValues) {
+        Node subState = StatePeriodFetcher.findSubState(dsg, relationship, state);
+        if (subState == null) {
+            return null;
+        }
+        return periodValue(dsg, StatePeriodFetcher.findPeriodNode(dsg, subState), periodValues);
+    }
+
+    private static String periodValue(DatasetGraph dsg, Node period, Map<Node, Optional<String>> periodValues) {
+        if (period == null || period == Node.ANY) {
+            return null;
+        }
+        return periodValues.computeIfAbsent(period,
+                                            p -> Optional.ofNullable(StatePeriodFetcher.findPeriodValue(dsg, p)))
+                           .orElse(null);
+    }
+}
@@ -14,16 +14,12 @@ package io.telicent.jena.graphql.fetchers.telicent.graph;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.execution.RequestTransaction;
 import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
 import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.State;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.DatasetGraph;
-import org.apache.jena.sparql.core.Quad;
-import org.apache.jena.system.Txn;
-import org.apache.jena.vocabulary.RDF;
-
-import java.util.List;
 
 /**
  * A GraphQL {@link DataFetcher} that finds the {@code rdf:type}'s for a state
@@ -42,20 +38,20 @@ public class StateTypeFetcher implements DataFetcher<String> {
         DatasetGraph dsg = context.getDatasetGraph();
         State state = environment.getSource();
 
-        return Txn.calculateRead(dsg, () -> {
-            List<Node> types = dsg.stream(Node.ANY, state.getStateNode(), RDF.type.asNode(), Node.ANY)
-                                  .map(Quad::getObject)
-                                  .filter(t -> t.isURI() || t.isBlank())
-                                  .toList();
-            if (types.isEmpty()) {
-                throw new IllegalStateException("No types available for state " + state.getUri());
-            }
-            Node primaryType = types.get(0);
-            if (primaryType.isURI()) {
-                return primaryType.getURI();
-            } else {
-                return TelicentGraphSchema.BLANK_NODE_PREFIX + primaryType.getBlankNodeLabel();
-            }
-        });
+        // If state discovery already established that the state is untyped there's no need to resolve it
+        if (Boolean.FALSE.equals(TypedNodes.get(context).known(state.getStateNode()))) {
+            throw new IllegalStateException("No types available for state " + state.getUri());
+        }
+        Node primaryType =
+                RequestTransaction.calculateRead(environment, dsg, () -> StateResolver.resolve(context, dsg, state))
+                                  .type();
+        if (primaryType == null) {
+            throw new IllegalStateException("No types available for state " + state.getUri());
+        }
+        if (primaryType.isURI()) {
+            return primaryType.getURI();
+        } else {
+            return TelicentGraphSchema.BLANK_NODE_PREFIX + primaryType.getBlankNodeLabel();
+        }
     }
 }
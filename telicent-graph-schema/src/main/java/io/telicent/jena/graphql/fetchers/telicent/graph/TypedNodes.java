@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.vocabulary.RDF;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Request-scoped record of which nodes declare at least one {@code rdf:type}
+ * <p>
+ * State discovery only considers nodes that are typed, rather than probing the dataset for the types of each candidate
+ * as it is encountered candidates are gathered into batches, de-duplicated, and any whose typed status is not already
+ * known for the request are checked in a single pass over the batch.  The outcome is kept in the
+ * {@link TelicentExecutionContext} so that subsequent state, state relationship, state relationship count and state
+ * type lookups within the same request reuse it.
+ * </p>
+ */
+final class TypedNodes {
+
+    /**
+     * Number of candidates gathered into the first batch when filtering a stream
+     */
+    static final int FIRST_BATCH_SIZE = 16;
+    /**
+     * Maximum number of candidates gathered into a batch when filtering a stream
+     */
+    static final int BATCH_SIZE = 256;
+
+    private final Map<Node, Boolean> typed = new ConcurrentHashMap<>();
+
+    private TypedNodes() {
+    }
+
+    /**
+     * Gets the typed nodes for the request
+     *
+     * @param context Execution context
+     * @return Typed nodes
+     */
+    static TypedNodes get(TelicentExecutionContext context) {
+        return context.getOrCompute(TypedNodes.class, TypedNodes::new);
+    }
+
+    /**
+     * Records whether a node is known to be typed
+     *
+     * @param node  Node
+     * @param typed Whether the node is typed
+     */
+    void record(Node node, boolean typed) {
+        this.typed.put(node, typed);
+    }
+
+    /**
+     * Gets whether a node is already known to be typed
+     *
+     * @param node Node
+     * @return True if known to be typed, false if known to be untyped, {@code null} if not yet known
+     */
+    Boolean known(Node node) {
+        return this.typed.get(node);
+    }
+
+    /**
+     * Filters a stream to only those items whose key node is typed
+     * <p>
+     * The stream is consumed lazily in batches so that paging over a large stream does not require it to be consumed,
+     * and its candidates probed, in its entirety.  Batches start at {@link #FIRST_BATCH_SIZE} items and double up to
+     * {@link #BATCH_SIZE} items, so a small page stops probing candidates close to its boundary.  Callers
+     * <strong>MUST</strong> hold a read transaction on the dataset while the returned stream is consumed.
+     * </p>
+     *
+     * @param dsg    Dataset Graph
+     * @param stream Stream to filter
+     * @param key    Function that extracts the node whose typed status determines whether an item is retained
+     * @param <T>    Item type
+     * @return Filtered stream
+     */
+    <T> Stream<T> filterTyped(DatasetGraph dsg, Stream<T> stream, Function<T, Node> key) {
+        Iterator<T> input = stream.iterator();
+        Iterator<T> output = new Iterator<>() {
+            private final Deque<T> buffer = new ArrayDeque<>();
+            private int batchSize = FIRST_BATCH_SIZE;
+
+            @Override
+            public boolean hasNext() {
+                while (this.buffer.isEmpty() && input.hasNext()) {
+                    List<T> batch = new ArrayList<>(this.batchSize);
+                    Set<Node> nodes = new HashSet<>();
+                    while (batch.size() < this.batchSize && input.hasNext()) {
+                        T item = input.next();
+                        batch.add(item);
+                        nodes.add(key.apply(item));
+                    }
+                    this.batchSize = Math.min(this.batchSize * 2, BATCH_SIZE);
+                    resolveUnknown(dsg, nodes);
+                    for (T item : batch) {
+                        if (TypedNodes.this.typed.get(key.apply(item))) {
+                            this.buffer.add(item);
+                        }
+                    }
+                }
+                return !this.buffer.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return this.buffer.poll();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(output, Spliterator.ORDERED), false)
+                            .onClose(stream::close);
+    }
+
+    /**
+     * Probes the dataset for whether each node whose typed status is not yet known for the request is typed
+     *
+     * @param dsg   Dataset Graph
+     * @param nodes Distinct nodes
+     */
+    private void resolveUnknown(DatasetGraph dsg, Collection<Node> nodes) {
+        for (Node node : nodes) {
+            if (!this.typed.containsKey(node)) {
+                this.typed.put(node, dsg.contains(Node.ANY, node, RDF.type.asNode(), Node.ANY));
+            }
+        }
+    }
+}
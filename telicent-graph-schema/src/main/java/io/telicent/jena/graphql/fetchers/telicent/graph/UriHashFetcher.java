@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.IdStrategy;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
+
+/**
+ * A GraphQL {@link DataFetcher} that computes the URI hash of a {@link TelicentGraphNode} using the {@link IdStrategy}
+ * configured for the request
+ */
+public class UriHashFetcher implements DataFetcher<String> {
+
+    /**
+     * Creates a new fetcher
+     */
+    public UriHashFetcher() {
+
+    }
+
+    @Override
+    public String get(DataFetchingEnvironment environment) throws Exception {
+        TelicentGraphNode source = environment.getSource();
+        return source.getUriHash(RelationshipIdFetcher.idStrategy(environment));
+    }
+}
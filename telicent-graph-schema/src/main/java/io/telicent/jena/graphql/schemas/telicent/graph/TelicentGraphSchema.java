@@ -47,7 +47,7 @@ public class TelicentGraphSchema {
      * @throws graphql.schema.idl.errors.SchemaProblem If the schema is invalid
      */
     public static TypeDefinitionRegistry loadTelicentGraphSchema() throws IOException {
-        return GraphQLJenaSchemas.loadSchema(SCHEMA_RESOURCE);
+        return GraphQLJenaSchemas.loadSchema(GraphQLJenaSchemas.CACHE_CONTROL_SCHEMA, SCHEMA_RESOURCE);
     }
 
     /**
@@ -70,6 +70,10 @@ public class TelicentGraphSchema {
      * Relationship facet information type
      */
     public static final String TYPE_RELATIONSHIP_FACET_INFO = "RelFacetInfo";
+    /**
+     * Facet information type
+     */
+    public static final String TYPE_FACET_INFO = "FacetInfo";
     /**
      * Property type
      */
@@ -90,6 +94,10 @@ public class TelicentGraphSchema {
      * Non-directional relationship type
      */
     public static final String TYPE_NON_DIRECTIONAL_RELATIONSHIP = "NonDirectionalRel";
+    /**
+     * Facet order enum type
+     */
+    public static final String TYPE_FACET_ORDER = "FacetOrder";
     /**
      * Search query
      */
@@ -122,6 +130,14 @@ public class TelicentGraphSchema {
      * URIs argument used to specify the nodes of interest
      */
     public static final String ARGUMENT_URIS = "uris";
+    /**
+     * From argument used to specify the start of a time window of interest, as an ISO 8601 period representation
+     */
+    public static final String ARGUMENT_FROM = "from";
+    /**
+     * To argument used to specify the end of a time window of interest, as an ISO 8601 period representation
+     */
+    public static final String ARGUMENT_TO = "to";
     /**
      * Graph argument used to specify the graph of interest
      */
@@ -162,6 +178,14 @@ public class TelicentGraphSchema {
      * Node filter argument used to specify a node filter on relationships
      */
     public static final String ARGUMENT_NODE_FILTER = "nodeFilter";
+    /**
+     * Exact argument used to request exact, rather than approximate, facets and counts
+     */
+    public static final String ARGUMENT_EXACT = "exact";
+    /**
+     * Order by argument used to control the order of facets
+     */
+    public static final String ARGUMENT_ORDER_BY = "orderBy";
     /**
      * Type field
      */
@@ -206,6 +230,30 @@ public class TelicentGraphSchema {
      * Short URI field, contains a prefixed name form of the URI if available
      */
     public static final String FIELD_SHORT_URI = "shortUri";
+    /**
+     * URI hash field
+     */
+    public static final String FIELD_URI_HASH = "uriHash";
+    /**
+     * Domain field
+     */
+    public static final String FIELD_DOMAIN = "domain";
+    /**
+     * Range field
+     */
+    public static final String FIELD_RANGE = "range";
+    /**
+     * Predicate field
+     */
+    public static final String FIELD_PREDICATE = "predicate";
+    /**
+     * Short predicate field
+     */
+    public static final String FIELD_SHORT_PREDICATE = "shortPredicate";
+    /**
+     * Entity field
+     */
+    public static final String FIELD_ENTITY = "entity";
     /**
      * Instances field, contains the URIs of instances of a type
      */
@@ -238,6 +286,14 @@ public class TelicentGraphSchema {
      * Value field
      */
     public static final String FIELD_VALUE = "value";
+    /**
+     * Approximate field
+     */
+    public static final String FIELD_APPROXIMATE = "approximate";
+    /**
+     * Error field
+     */
+    public static final String FIELD_ERROR = "error";
     /**
      * Extension property used to supply the users authentication token that may be passed on by some
      * {@link graphql.schema.DataFetcher} instances when they need to query other Telicent services
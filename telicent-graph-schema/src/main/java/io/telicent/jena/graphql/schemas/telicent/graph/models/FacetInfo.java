@@ -21,6 +21,7 @@ import org.apache.jena.riot.system.PrefixMap;
 public class FacetInfo extends TelicentGraphNode {
 
     private final int count;
+    private final Double error;
 
     /**
      * Creates new facet information
@@ -30,8 +31,21 @@ public class FacetInfo extends TelicentGraphNode {
      * @param count    Count for the facet
      */
     public FacetInfo(Node node, PrefixMap prefixes, int count) {
+        this(node, prefixes, count, null);
+    }
+
+    /**
+     * Creates new facet information whose count may be an estimate
+     *
+     * @param node     Node that identifies the facet
+     * @param prefixes Prefixes map, used to provide the shortened URI if possible
+     * @param count    Count for the facet
+     * @param error    Relative standard error of the count if it is an estimate, or {@code null} if it is exact
+     */
+    public FacetInfo(Node node, PrefixMap prefixes, int count, Double error) {
         super(node, prefixes);
         this.count = count;
+        this.error = error;
     }
 
     /**
@@ -43,4 +57,22 @@ public class FacetInfo extends TelicentGraphNode {
         return this.count;
     }
 
+    /**
+     * Gets whether the count for this facet is an estimate
+     *
+     * @return True if an estimate, false if exact
+     */
+    public boolean isApproximate() {
+        return this.error != null;
+    }
+
+    /**
+     * Gets the relative standard error of the count for this facet
+     *
+     * @return Relative standard error, or {@code null} if the count is exact
+     */
+    public Double getError() {
+        return this.error;
+    }
+
 }
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.schemas.telicent.graph.models;
+
+import io.telicent.jena.graphql.utils.Hash128;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.jena.atlas.io.StringWriterI;
+import org.apache.jena.graph.Node;
+import org.apache.jena.riot.out.NodeFormatterNT;
+
+/**
+ * Strategies for computing the {@code id} of relationships, and the {@code uriHash} of nodes, in the Telicent Graph
+ * schema
+ */
+public enum IdStrategy {
+    /**
+     * SHA-1 of the N-Triples form of the relationship, and of the URI of the node, this is the default and produces
+     * IDs that are stable with those from previous releases
+     */
+    SHA1 {
+        @Override
+        String relationshipId(Node subject, Node predicate, Node object) {
+            try (StringWriterI writer = new StringWriterI()) {
+                FORMATTER.format(writer, subject);
+                writer.print(' ');
+                FORMATTER.format(writer, predicate);
+                writer.print(' ');
+                FORMATTER.format(writer, object);
+                writer.print('.');
+                return DigestUtils.sha1Hex(writer.toString());
+            }
+        }
+
+        @Override
+        String uriHash(String uri) {
+            return DigestUtils.sha1Hex(uri);
+        }
+    },
+    /**
+     * 128-bit MurmurHash3 computed directly over the contents of the nodes without intermediate strings, this is
+     * considerably cheaper than {@link #SHA1} but produces different IDs so should only be used where clients do not
+     * depend upon IDs being stable across releases or configurations
+     */
+    FAST {
+        @Override
+        String relationshipId(Node subject, Node predicate, Node object) {
+            return new Hash128().putNode(subject).putNode(predicate).putNode(object).finishHex();
+        }
+
+        @Override
+        String uriHash(String uri) {
+            return new Hash128().putChars(uri).finishHex();
+        }
+    };
+
+    private static final NodeFormatterNT FORMATTER = new NodeFormatterNT();
+
+    /**
+     * Computes the ID of a relationship
+     *
+     * @param subject   Subject
+     * @param predicate Predicate
+     * @param object    Object
+     * @return Relationship ID
+     */
+    abstract String relationshipId(Node subject, Node predicate, Node object);
+
+    /**
+     * Computes the hash of a URI
+     *
+     * @param uri URI
+     * @return URI hash
+     */
+    abstract String uriHash(String uri);
+}
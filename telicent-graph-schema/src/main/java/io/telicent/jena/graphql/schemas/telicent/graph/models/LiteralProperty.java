@@ -13,6 +13,7 @@
 package io.telicent.jena.graphql.schemas.telicent.graph.models;
 
 import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
+import io.telicent.jena.graphql.utils.PrefixAbbreviator;
 import org.apache.jena.graph.Node;
 import org.apache.jena.riot.system.PrefixMap;
 
@@ -85,6 +86,23 @@ public class LiteralProperty {
         }
     }
 
+    /**
+     * Gets the shortened form of the predicate using a shared abbreviator rather than this properties own prefix map
+     *
+     * @param abbreviator Prefix abbreviator, if {@code null} behaves as {@link #getShortPredicate()}
+     * @return Shortened URI if possible, otherwise the full URI
+     */
+    public String getShortPredicate(PrefixAbbreviator abbreviator) {
+        if (abbreviator == null) {
+            return this.getShortPredicate();
+        } else if (!this.predicate.isURI()) {
+            return this.getPredicate();
+        } else {
+            String shortened = abbreviator.abbreviate(this.getPredicate());
+            return shortened != null ? shortened : this.getPredicate();
+        }
+    }
+
     /**
      * Gets the literal value
      *
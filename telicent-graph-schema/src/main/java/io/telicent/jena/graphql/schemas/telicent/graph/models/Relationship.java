@@ -12,12 +12,17 @@
  */
 package io.telicent.jena.graphql.schemas.telicent.graph.models;
 
-import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.jena.atlas.io.StringWriterI;
-import org.apache.jena.riot.out.NodeFormatterNT;
+import org.apache.jena.graph.Node;
+import org.apache.jena.riot.system.PrefixMap;
+
+import java.util.Objects;
 
 /**
  * Represents a relationship
+ * <p>
+ * When created directly from nodes the {@link TelicentGraphNode} wrappers for the domain and range are only created if
+ * they are actually requested, and the ID is only computed if requested.
+ * </p>
  */
 public class Relationship {
 
@@ -32,10 +37,11 @@ public class Relationship {
     }
      */
 
-    private static final NodeFormatterNT FORMATTER = new NodeFormatterNT();
-
-    private final TelicentGraphNode subject, predicate, object;
+    private final Node subject, predicate, object;
+    private final PrefixMap prefixes;
+    private TelicentGraphNode domain, range;
     private String id = null;
+    private IdStrategy idStrategy = null;
 
     /**
      * Creates a new relationship
@@ -45,9 +51,28 @@ public class Relationship {
      * @param object    Object
      */
     public Relationship(TelicentGraphNode subject, TelicentGraphNode predicate, TelicentGraphNode object) {
-        this.subject = subject;
-        this.predicate = predicate;
-        this.object = object;
+        this.subject = subject.getNode();
+        this.predicate = predicate.getNode();
+        this.object = object.getNode();
+        this.prefixes = null;
+        this.domain = subject;
+        this.range = object;
+    }
+
+    /**
+     * Creates a new relationship
+     *
+     * @param subject   Subject
+     * @param predicate Predicate
+     * @param object    Object
+     * @param prefixes  Prefix map, used to provide the shortened URIs of the domain and range if possible, may be
+     *                  {@code null} if those are not needed
+     */
+    public Relationship(Node subject, Node predicate, Node object, PrefixMap prefixes) {
+        this.subject = Objects.requireNonNull(subject, "Subject cannot be null");
+        this.predicate = Objects.requireNonNull(predicate, "Predicate cannot be null");
+        this.object = Objects.requireNonNull(object, "Object cannot be null");
+        this.prefixes = prefixes;
     }
 
     /**
@@ -56,7 +81,10 @@ public class Relationship {
      * @return Domain
      */
     public TelicentGraphNode getDomain() {
-        return this.subject;
+        if (this.domain == null) {
+            this.domain = new TelicentGraphNode(this.subject, this.prefixes);
+        }
+        return this.domain;
     }
 
     /**
@@ -65,7 +93,7 @@ public class Relationship {
      * @return Domain ID
      */
     public String getDomainId() {
-        return this.subject.getId();
+        return TelicentGraphNode.uri(this.subject);
     }
 
     /**
@@ -74,7 +102,7 @@ public class Relationship {
      * @return Predicate
      */
     public String getPredicate() {
-        return this.predicate.getUri();
+        return TelicentGraphNode.uri(this.predicate);
     }
 
     /**
@@ -83,7 +111,10 @@ public class Relationship {
      * @return Range
      */
     public TelicentGraphNode getRange() {
-        return this.object;
+        if (this.range == null) {
+            this.range = new TelicentGraphNode(this.object, this.prefixes);
+        }
+        return this.range;
     }
 
     /**
@@ -92,25 +123,30 @@ public class Relationship {
      * @return Range ID
      */
     public String getRangeId() {
-        return this.object.getId();
+        return TelicentGraphNode.uri(this.object);
     }
 
     /**
-     * Gets the ID of the relationship which is a hash of the triple
+     * Gets the ID of the relationship which is a hash of the triple, computed with the default {@link IdStrategy#SHA1}
+     * strategy
      *
      * @return Relationship ID
      */
     public String getId() {
-        if (this.id == null) {
-            try (StringWriterI writer = new StringWriterI()) {
-                FORMATTER.format(writer, this.subject.getNode());
-                writer.print(' ');
-                FORMATTER.format(writer, this.predicate.getNode());
-                writer.print(' ');
-                FORMATTER.format(writer, this.object.getNode());
-                writer.print('.');
-                this.id = DigestUtils.sha1Hex(writer.toString());
-            }
+        return this.getId(IdStrategy.SHA1);
+    }
+
+    /**
+     * Gets the ID of the relationship which is a hash of the triple, computed with the given strategy
+     *
+     * @param strategy ID strategy
+     * @return Relationship ID
+     */
+    public String getId(IdStrategy strategy) {
+        Objects.requireNonNull(strategy, "ID strategy cannot be null");
+        if (this.id == null || this.idStrategy != strategy) {
+            this.id = strategy.relationshipId(this.subject, this.predicate, this.object);
+            this.idStrategy = strategy;
         }
         return this.id;
     }
@@ -13,7 +13,7 @@
 package io.telicent.jena.graphql.schemas.telicent.graph.models;
 
 import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
-import org.apache.commons.codec.digest.DigestUtils;
+import io.telicent.jena.graphql.utils.PrefixAbbreviator;
 import org.apache.jena.graph.Node;
 import org.apache.jena.riot.system.PrefixMap;
 
@@ -21,6 +21,11 @@ import java.util.Objects;
 
 /**
  * A wrapper around a Jena {@link Node} that maps it into the basic data structure used for the Telicent GraphQL Schema
+ * <p>
+ * The derived strings, i.e. the URI, short URI and URI hash, are computed on first use and remembered.  Within a
+ * request nodes are interned via {@code TelicentExecutionContext.getNode()} so a node that appears many times in a
+ * response is only wrapped, and has its derived strings computed, once.
+ * </p>
  */
 public class TelicentGraphNode {
 
@@ -34,6 +39,9 @@ public class TelicentGraphNode {
 
     private final Node node;
     private final PrefixMap prefixes;
+    private String uri, shortUri;
+    private Derived<PrefixAbbreviator> abbreviated;
+    private Derived<IdStrategy> uriHash;
 
     /**
      * Creates a new node
@@ -62,22 +70,52 @@ public class TelicentGraphNode {
      * @return URI of the node
      */
     public String getUri() {
-        if (this.node.isURI()) {
-            return this.node.getURI();
-        } else if (this.node.isBlank()) {
-            return TelicentGraphSchema.BLANK_NODE_PREFIX + this.node.getBlankNodeLabel();
+        if (this.uri == null) {
+            this.uri = uri(this.node);
+        }
+        return this.uri;
+    }
+
+    /**
+     * Gets the URI of a node
+     *
+     * @param node Node
+     * @return URI of the node
+     * @throws IllegalStateException Thrown if the node is neither a URI nor a blank node
+     */
+    static String uri(Node node) {
+        if (node.isURI()) {
+            return node.getURI();
+        } else if (node.isBlank()) {
+            return TelicentGraphSchema.BLANK_NODE_PREFIX + node.getBlankNodeLabel();
         } else {
             throw new IllegalStateException("Not a node with a URI");
         }
     }
 
     /**
-     * Gets the SHA1 hash of the URI
+     * Gets the SHA1 hash of the URI, computed with the default {@link IdStrategy#SHA1} strategy
      *
      * @return URI hash
      */
     public String getUriHash() {
-        return DigestUtils.sha1Hex(this.getUri());
+        return this.getUriHash(IdStrategy.SHA1);
+    }
+
+    /**
+     * Gets the hash of the URI computed with the given strategy
+     *
+     * @param strategy ID strategy
+     * @return URI hash
+     */
+    public String getUriHash(IdStrategy strategy) {
+        Objects.requireNonNull(strategy, "ID strategy cannot be null");
+        Derived<IdStrategy> hash = this.uriHash;
+        if (hash == null || hash.key() != strategy) {
+            hash = new Derived<>(strategy, strategy.uriHash(this.getUri()));
+            this.uriHash = hash;
+        }
+        return hash.value();
     }
 
     /**
@@ -100,8 +138,44 @@ public class TelicentGraphNode {
         } else if (!this.node.isURI()) {
             return this.getUri();
         } else {
-            String shortened = this.prefixes.abbreviate(this.getUri());
-            return shortened != null ? shortened : this.getUri();
+            if (this.shortUri == null) {
+                String shortened = this.prefixes.abbreviate(this.getUri());
+                this.shortUri = shortened != null ? shortened : this.getUri();
+            }
+            return this.shortUri;
         }
     }
+
+    /**
+     * Gets the short URI of the node using a shared abbreviator rather than this nodes own prefix map
+     *
+     * @param abbreviator Prefix abbreviator, if {@code null} behaves as {@link #getShortUri()}
+     * @return Short URI if available, otherwise the full URI
+     */
+    public String getShortUri(PrefixAbbreviator abbreviator) {
+        if (abbreviator == null) {
+            return this.getShortUri();
+        } else if (!this.node.isURI()) {
+            return this.getUri();
+        } else {
+            Derived<PrefixAbbreviator> shortened = this.abbreviated;
+            if (shortened == null || shortened.key() != abbreviator) {
+                String abbreviation = abbreviator.abbreviate(this.getUri());
+                shortened = new Derived<>(abbreviator, abbreviation != null ? abbreviation : this.getUri());
+                this.abbreviated = shortened;
+            }
+            return shortened.value();
+        }
+    }
+
+    /**
+     * A derived string along with the key it was derived with, held together so that concurrent readers never see a
+     * value paired with the wrong key
+     *
+     * @param key   Key
+     * @param value Derived value
+     * @param <K>   Key type
+     */
+    private record Derived<K>(K key, String value) {
+    }
 }
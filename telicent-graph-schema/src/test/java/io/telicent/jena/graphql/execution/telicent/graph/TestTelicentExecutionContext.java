@@ -12,7 +12,11 @@
  */
 package io.telicent.jena.graphql.execution.telicent.graph;
 
+import io.telicent.jena.graphql.schemas.telicent.graph.models.TelicentGraphNode;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -51,4 +55,38 @@ public class TestTelicentExecutionContext {
         Assert.assertTrue(actual);
         Assert.assertEquals(RANDOM_STRING, context.getAuthToken());
     }
+
+    @Test
+    public void test_getNode_interned() {
+        // given
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        dsg.prefixes().add("ex", "https://example.org/");
+        TelicentExecutionContext context = new TelicentExecutionContext(dsg, null);
+        // when
+        TelicentGraphNode first = context.getNode(NodeFactory.createURI("https://example.org/" + RANDOM_STRING));
+        TelicentGraphNode second = context.getNode(NodeFactory.createURI("https://example.org/" + RANDOM_STRING));
+        TelicentGraphNode other = context.getNode(NodeFactory.createURI("https://example.org/other"));
+        // then
+        Assert.assertSame(second, first);
+        Assert.assertNotSame(other, first);
+        Assert.assertEquals(first.getShortUri(), "ex:" + RANDOM_STRING);
+    }
+
+    @Test
+    public void test_getNode_notSharedBetweenContexts() {
+        // given
+        Node node = NodeFactory.createURI("https://example.org/" + RANDOM_STRING);
+        TelicentExecutionContext a = new TelicentExecutionContext(DatasetGraphFactory.empty(), null);
+        TelicentExecutionContext b = new TelicentExecutionContext(DatasetGraphFactory.empty(), null);
+        // when and then
+        Assert.assertNotSame(b.getNode(node), a.getNode(node));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void test_getNode_null() {
+        // given
+        TelicentExecutionContext context = new TelicentExecutionContext(DatasetGraphFactory.empty(), null);
+        // when and then
+        context.getNode(null);
+    }
 }
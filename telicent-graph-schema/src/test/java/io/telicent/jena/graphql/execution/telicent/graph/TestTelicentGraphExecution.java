@@ -14,15 +14,23 @@ package io.telicent.jena.graphql.execution.telicent.graph;
 
 import graphql.ExecutionResult;
 import io.telicent.jena.graphql.execution.AbstractExecutionTests;
+import io.telicent.jena.graphql.execution.ResponseNormaliser;
 import io.telicent.jena.graphql.fetchers.telicent.graph.IesFetchers;
+import io.telicent.jena.graphql.fetchers.telicent.graph.StateIntervalIndex;
 import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.IdStrategy;
 import io.telicent.jena.graphql.schemas.telicent.graph.models.inputs.FilterMode;
 import io.telicent.jena.graphql.server.model.GraphQLRequest;
+import io.telicent.jena.graphql.utils.PrefixAbbreviator;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFParserBuilder;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
 import org.apache.jena.sys.JenaSystem;
 import org.apache.jena.vocabulary.RDF;
 import org.testng.Assert;
@@ -68,6 +76,24 @@ public class TestTelicentGraphExecution extends AbstractExecutionTests {
 
     public static final String STATES_QUERY = loadQuery("states.graphql");
 
+    public static final String STATES_WINDOW_QUERY = loadQuery("states-window.graphql");
+
+    public static final String WOODWARD = "http://telicent.io/data#AdmiralWoodward";
+
+    public static final String APPROXIMATE_FACETS_QUERY = loadQuery("approximate-facets.graphql");
+
+    public static final String TOP_FACETS_QUERY = loadQuery("top-facets.graphql");
+
+    public static final String PROJECTED_RELATIONSHIPS_QUERY = loadQuery("projected-relationships.graphql");
+
+    public static final String RELATIONSHIP_IDS_QUERY = loadQuery("relationship-ids.graphql");
+
+    public static final String SHORT_URIS_QUERY = loadQuery("short-uris.graphql");
+
+    public static final String HUB = "https://example.org/hub";
+    public static final String HUB_TYPE_A = "https://example.org/A";
+    public static final String HUB_TYPE_B = "https://example.org/B";
+
     public static final String SEARCH_QUERY = loadQuery("search.graphql");
 
     private final TelicentGraphExecutor starwars, falklands;
@@ -512,4 +538,423 @@ public class TestTelicentGraphExecution extends AbstractExecutionTests {
                                 .anyMatch(s -> Objects.equals(s.get(TelicentGraphSchema.FIELD_URI),
                                                               "http://telicent.io/data#4cf1a38a-8c6f-45c9-be8f-915120279399")));
     }
+
+    private static DatasetGraph loadFalklands() {
+        return RDFParserBuilder.create()
+                               .lang(Lang.TURTLE)
+                               .source(TestTelicentGraphExecution.class.getResourceAsStream(
+                                       "/data/sandy_woodward.ttl"))
+                               .toDatasetGraph();
+    }
+
+    private static GraphQLRequest windowRequest(String from, String to) {
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery(STATES_WINDOW_QUERY);
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("stateUri", WOODWARD);
+        variables.put("from", from);
+        variables.put("to", to);
+        request.setVariables(variables);
+        request.setOperationName("StateWindow");
+        return request;
+    }
+
+    @DataProvider(name = "stateIndex")
+    public Object[][] stateIndex() {
+        return new Object[][] { { false }, { true } };
+    }
+
+    @Test(dataProvider = "stateIndex")
+    public void givenFalklandsData_whenQueryingForStatesInWindow_thenOnlyOverlappingStatesAreReturned(
+            boolean useIndex) throws IOException {
+        // Given
+        DatasetGraph dsg = loadFalklands();
+        if (useIndex) {
+            StateIntervalIndex.attach(dsg);
+        }
+        TelicentGraphExecutor executor = new TelicentGraphExecutor(dsg);
+
+        // When
+        ExecutionResult result = verifyExecution(executor, windowRequest("1950", "1950"));
+
+        // Then
+        Map<String, Object> data = result.getData();
+        List<Map<String, Object>> states = (List<Map<String, Object>>) data.get(TelicentGraphSchema.QUERY_STATES);
+        Set<Object> uris = new HashSet<>();
+        states.forEach(s -> uris.add(s.get(TelicentGraphSchema.FIELD_URI)));
+        Assert.assertTrue(uris.contains("http://telicent.io/data#180a7abf-e6d1-4f12-8f1f-c6fbf10714f4"));
+        Assert.assertFalse(uris.contains("http://telicent.io/data#AdmiralWoodward_BIRTH"));
+        Assert.assertFalse(uris.contains("http://telicent.io/data#AdmiralWoodward_DEATH"));
+        // States without any temporal information are never in a window
+        Assert.assertFalse(uris.contains("http://telicent.io/data#e8d61113-1776-4c0c-9348-e48cf9f68b51"));
+        Assert.assertTrue(states.size() < 13);
+    }
+
+    @Test(dataProvider = "stateIndex")
+    public void givenFalklandsData_whenQueryingForStatesFromDate_thenLaterStatesAreReturned(boolean useIndex)
+            throws IOException {
+        // Given
+        DatasetGraph dsg = loadFalklands();
+        if (useIndex) {
+            StateIntervalIndex.attach(dsg);
+        }
+        TelicentGraphExecutor executor = new TelicentGraphExecutor(dsg);
+
+        // When
+        ExecutionResult result = verifyExecution(executor, windowRequest("2013-08-04", null));
+
+        // Then
+        Map<String, Object> data = result.getData();
+        List<Map<String, Object>> states = (List<Map<String, Object>>) data.get(TelicentGraphSchema.QUERY_STATES);
+        Assert.assertTrue(states.stream()
+                                .anyMatch(s -> Objects.equals(s.get(TelicentGraphSchema.FIELD_URI),
+                                                              "http://telicent.io/data#AdmiralWoodward_DEATH")));
+        Assert.assertFalse(states.stream()
+                                 .anyMatch(s -> Objects.equals(s.get(TelicentGraphSchema.FIELD_URI),
+                                                               "http://telicent.io/data#AdmiralWoodward_BIRTH")));
+    }
+
+    @Test
+    public void givenFalklandsData_whenQueryingForStatesWithInvalidWindow_thenError() {
+        // Given and When
+        ExecutionResult result = verifyExecutionErrors(this.falklands, windowRequest("not-a-date", null));
+
+        // Then
+        Assert.assertFalse(result.getErrors().isEmpty());
+    }
+
+    private static TelicentGraphExecutor createHubExecutor(ApproximationPolicy policy) throws IOException {
+        // A hub node with 2000 inbound relationships from nodes equally split between two types
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        Node hub = NodeFactory.createURI(HUB);
+        Node links = NodeFactory.createURI("https://example.org/linksTo");
+        for (int i = 0; i < 2000; i++) {
+            Node subject = NodeFactory.createURI("https://example.org/node" + i);
+            dsg.add(Quad.defaultGraphIRI, subject, links, hub);
+            dsg.add(Quad.defaultGraphIRI, subject, RDF.type.asNode(),
+                    NodeFactory.createURI(i % 2 == 0 ? HUB_TYPE_A : HUB_TYPE_B));
+        }
+        TelicentGraphExecutor executor = new TelicentGraphExecutor(dsg);
+        executor.setApproximationPolicy(policy);
+        return executor;
+    }
+
+    private static GraphQLRequest approximateRequest(String uri, boolean exact) {
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery(APPROXIMATE_FACETS_QUERY);
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("uri", uri);
+        variables.put("exact", exact);
+        variables.put("typeFilter", createFilter("INCLUDE", List.of(HUB_TYPE_A)));
+        request.setVariables(variables);
+        return request;
+    }
+
+    private static Map<String, Object> singleNode(ExecutionResult result) {
+        Map<String, Object> data = result.getData();
+        return (Map<String, Object>) data.get(TelicentGraphSchema.QUERY_SINGLE_NODE);
+    }
+
+    private static Map<String, Object> findFacet(Map<String, Object> node, String facet, String uri) {
+        Map<String, Object> relFacets = (Map<String, Object>) node.get(TelicentGraphSchema.FIELD_RELATIONSHIP_FACETS);
+        Map<String, Object> facets =
+                (Map<String, Object>) relFacets.get(TelicentGraphSchema.FIELD_INBOUND_RELATIONSHIPS);
+        return ((List<Map<String, Object>>) facets.get(facet)).stream()
+                                                              .filter(f -> Objects.equals(f.get("uri"), uri))
+                                                              .findFirst()
+                                                              .orElseThrow();
+    }
+
+    private static void verifyEstimate(Object actual, long expected, double tolerance) {
+        long value = ((Number) actual).longValue();
+        Assert.assertTrue(Math.abs(value - expected) <= expected * tolerance,
+                          "Estimate " + value + " not within " + tolerance + " of " + expected);
+    }
+
+    @Test
+    public void givenHubNodeAndApproximationEnabled_whenQueryingFacets_thenEstimatesAreMarkedApproximate()
+            throws IOException {
+        // Given
+        TelicentGraphExecutor executor = createHubExecutor(new ApproximationPolicy(100, 500));
+
+        // When
+        ExecutionResult result = verifyExecution(executor, approximateRequest(HUB, false));
+
+        // Then
+        Map<String, Object> node = singleNode(result);
+        Map<String, Object> counts = (Map<String, Object>) node.get(TelicentGraphSchema.FIELD_RELATIONSHIP_COUNTS);
+        // Unfiltered counts need no lookups so are still exact
+        Assert.assertEquals(counts.get(TelicentGraphSchema.FIELD_INBOUND_RELATIONSHIPS), 2000);
+        verifyEstimate(counts.get("filteredInRels"), 1000, 0.15);
+        for (String type : List.of(HUB_TYPE_A, HUB_TYPE_B)) {
+            Map<String, Object> facet = findFacet(node, TelicentGraphSchema.FIELD_TYPES, type);
+            Assert.assertEquals(facet.get(TelicentGraphSchema.FIELD_APPROXIMATE), true);
+            Assert.assertNotNull(facet.get(TelicentGraphSchema.FIELD_ERROR));
+            verifyEstimate(facet.get("count"), 1000, 0.15);
+        }
+        Map<String, Object> predicate =
+                findFacet(node, TelicentGraphSchema.FIELD_PREDICATES, "https://example.org/linksTo");
+        Assert.assertEquals(predicate.get(TelicentGraphSchema.FIELD_APPROXIMATE), false);
+        Assert.assertEquals(predicate.get("count"), 2000);
+    }
+
+    @Test
+    public void givenHubNodeAndApproximationEnabled_whenQueryingExactFacets_thenExactCountsReturned()
+            throws IOException {
+        // Given
+        TelicentGraphExecutor executor = createHubExecutor(new ApproximationPolicy(100, 500));
+
+        // When
+        ExecutionResult result = verifyExecution(executor, approximateRequest(HUB, true));
+
+        // Then
+        Map<String, Object> node = singleNode(result);
+        Map<String, Object> counts = (Map<String, Object>) node.get(TelicentGraphSchema.FIELD_RELATIONSHIP_COUNTS);
+        Assert.assertEquals(counts.get("filteredInRels"), 1000);
+        for (String type : List.of(HUB_TYPE_A, HUB_TYPE_B)) {
+            Map<String, Object> facet = findFacet(node, TelicentGraphSchema.FIELD_TYPES, type);
+            Assert.assertEquals(facet.get(TelicentGraphSchema.FIELD_APPROXIMATE), false);
+            Assert.assertNull(facet.get(TelicentGraphSchema.FIELD_ERROR));
+            Assert.assertEquals(facet.get("count"), 1000);
+        }
+    }
+
+    @Test
+    public void givenHubNodeAndApproximationDisabled_whenQueryingFacets_thenExactCountsReturned()
+            throws IOException {
+        // Given
+        TelicentGraphExecutor executor = createHubExecutor(null);
+
+        // When
+        ExecutionResult result = verifyExecution(executor, approximateRequest(HUB, false));
+
+        // Then
+        Assert.assertFalse(executor.getApproximationPolicy().isEnabled());
+        Map<String, Object> node = singleNode(result);
+        Map<String, Object> facet = findFacet(node, TelicentGraphSchema.FIELD_TYPES, HUB_TYPE_A);
+        Assert.assertEquals(facet.get(TelicentGraphSchema.FIELD_APPROXIMATE), false);
+        Assert.assertEquals(facet.get("count"), 1000);
+    }
+
+    @Test
+    public void givenTypeWithManyInstancesAndApproximationEnabled_whenCountingInstances_thenEstimateReturned()
+            throws IOException {
+        // Given
+        TelicentGraphExecutor executor = createHubExecutor(new ApproximationPolicy(100));
+
+        // When
+        ExecutionResult approximate = verifyExecution(executor, approximateRequest(HUB_TYPE_A, false));
+        ExecutionResult exact = verifyExecution(executor, approximateRequest(HUB_TYPE_A, true));
+
+        // Then
+        Map<String, Object> counts =
+                (Map<String, Object>) singleNode(approximate).get(TelicentGraphSchema.FIELD_RELATIONSHIP_COUNTS);
+        verifyEstimate(counts.get(TelicentGraphSchema.FIELD_INSTANCES), 1000, 0.05);
+        counts = (Map<String, Object>) singleNode(exact).get(TelicentGraphSchema.FIELD_RELATIONSHIP_COUNTS);
+        Assert.assertEquals(counts.get(TelicentGraphSchema.FIELD_INSTANCES), 1000);
+    }
+
+    private static List<Map<String, Object>> topFacets(TelicentGraphExecutor executor, Integer limit, String orderBy) {
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery(TOP_FACETS_QUERY);
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("uri", HUB);
+        variables.put("limit", limit);
+        variables.put("orderBy", orderBy);
+        request.setVariables(variables);
+        Map<String, Object> relFacets = (Map<String, Object>) singleNode(verifyExecution(executor, request)).get(
+                TelicentGraphSchema.FIELD_RELATIONSHIP_FACETS);
+        Map<String, Object> facets =
+                (Map<String, Object>) relFacets.get(TelicentGraphSchema.FIELD_INBOUND_RELATIONSHIPS);
+        return (List<Map<String, Object>>) facets.get(TelicentGraphSchema.FIELD_TYPES);
+    }
+
+    @Test
+    public void givenHubNode_whenQueryingTopFacets_thenLimitAndOrderApplied() throws IOException {
+        // Given
+        TelicentGraphExecutor executor = createHubExecutor(null);
+
+        // When
+        List<Map<String, Object>> all = topFacets(executor, null, null);
+        List<Map<String, Object>> first = topFacets(executor, 1, "URI");
+        List<Map<String, Object>> none = topFacets(executor, 0, "COUNT_ASC");
+
+        // Then
+        Assert.assertEquals(all.stream().map(f -> f.get("uri")).toList(), List.of(HUB_TYPE_A, HUB_TYPE_B));
+        Assert.assertEquals(first.size(), 1);
+        Assert.assertEquals(first.get(0).get("uri"), HUB_TYPE_A);
+        Assert.assertEquals(first.get(0).get("count"), 1000);
+        Assert.assertTrue(none.isEmpty());
+    }
+
+    @Test
+    public void givenHubNode_whenQueryingTopFacetsWithNegativeLimit_thenError() throws IOException {
+        // Given
+        TelicentGraphExecutor executor = createHubExecutor(null);
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery(TOP_FACETS_QUERY);
+        request.setVariables(Map.of("uri", HUB, "limit", -1));
+
+        // When
+        ExecutionResult result = verifyExecutionErrors(executor, request);
+
+        // Then
+        Assert.assertFalse(result.getErrors().isEmpty());
+    }
+
+    @Test
+    public void givenNodesWithRelationships_whenSelectingPartOfRelationships_thenSelectedFieldsReturned()
+            throws IOException {
+        // Given
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        dsg.prefixes().add("ex", "https://example.org/");
+        Node links = NodeFactory.createURI("https://example.org/linksTo");
+        Node a = NodeFactory.createURI("https://example.org/a");
+        Node b = NodeFactory.createURI("https://example.org/b");
+        Node c = NodeFactory.createURI("https://example.org/c");
+        dsg.add(Quad.defaultGraphIRI, a, links, b);
+        dsg.add(Quad.defaultGraphIRI, b, links, c);
+        TelicentGraphExecutor executor = new TelicentGraphExecutor(dsg);
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery(PROJECTED_RELATIONSHIPS_QUERY);
+        request.setVariables(Map.of("uris", List.of(a.getURI(), b.getURI())));
+
+        // When
+        ExecutionResult result = verifyExecution(executor, request);
+
+        // Then
+        Map<String, Object> data = result.getData();
+        List<Map<String, Object>> nodes =
+                (List<Map<String, Object>>) data.get(TelicentGraphSchema.QUERY_MULTIPLE_NODES);
+        Assert.assertEquals(nodes.size(), 2);
+        for (Map<String, Object> node : nodes) {
+            List<Map<String, Object>> outRels =
+                    (List<Map<String, Object>>) node.get(TelicentGraphSchema.FIELD_OUTBOUND_RELATIONSHIPS);
+            Assert.assertEquals(outRels.size(), 1);
+            Map<String, Object> outRel = outRels.get(0);
+            Assert.assertEquals(outRel.keySet(), Set.of(TelicentGraphSchema.FIELD_PREDICATE,
+                                                        TelicentGraphSchema.FIELD_RANGE));
+            Assert.assertEquals(outRel.get(TelicentGraphSchema.FIELD_PREDICATE), links.getURI());
+            Map<String, Object> range = (Map<String, Object>) outRel.get(TelicentGraphSchema.FIELD_RANGE);
+            String expected = Objects.equals(node.get(TelicentGraphSchema.FIELD_URI), a.getURI()) ? "b" : "c";
+            Assert.assertEquals(range.get(TelicentGraphSchema.FIELD_URI), "https://example.org/" + expected);
+            Assert.assertEquals(range.get(TelicentGraphSchema.FIELD_SHORT_URI), "ex:" + expected);
+        }
+        List<Map<String, Object>> inRels =
+                (List<Map<String, Object>>) nodes.get(1).get(TelicentGraphSchema.FIELD_INBOUND_RELATIONSHIPS);
+        Assert.assertEquals(inRels, List.of(Map.of(TelicentGraphSchema.FIELD_DOMAIN_ID, a.getURI())));
+    }
+
+    private static Map<String, Object> relationshipIds(IdStrategy strategy) throws IOException {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        dsg.add(Quad.defaultGraphIRI, NodeFactory.createURI("https://example.org/a"),
+                NodeFactory.createURI("https://example.org/linksTo"), NodeFactory.createURI("https://example.org/b"));
+        TelicentGraphExecutor executor = new TelicentGraphExecutor(dsg);
+        executor.setIdStrategy(strategy);
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery(RELATIONSHIP_IDS_QUERY);
+        request.setVariables(Map.of("uri", "https://example.org/a"));
+        return singleNode(verifyExecution(executor, request));
+    }
+
+    @Test
+    public void givenIdStrategies_whenQueryingRelationshipIds_thenIdsComputedWithStrategy() throws IOException {
+        // Given and When
+        Map<String, Object> sha1 = relationshipIds(null);
+        Map<String, Object> fast = relationshipIds(IdStrategy.FAST);
+
+        // Then
+        Assert.assertEquals(sha1.get(TelicentGraphSchema.FIELD_URI_HASH),
+                            DigestUtils.sha1Hex("https://example.org/a"));
+        String sha1Id = (String) ((List<Map<String, Object>>) sha1.get(
+                TelicentGraphSchema.FIELD_OUTBOUND_RELATIONSHIPS)).get(0).get(TelicentGraphSchema.FIELD_ID);
+        Assert.assertEquals(sha1Id, DigestUtils.sha1Hex(
+                "<https://example.org/a> <https://example.org/linksTo> <https://example.org/b>."));
+
+        String fastId = (String) ((List<Map<String, Object>>) fast.get(
+                TelicentGraphSchema.FIELD_OUTBOUND_RELATIONSHIPS)).get(0).get(TelicentGraphSchema.FIELD_ID);
+        Assert.assertEquals(fastId.length(), 32);
+        Assert.assertNotEquals(fastId, sha1Id);
+        Assert.assertEquals(((String) fast.get(TelicentGraphSchema.FIELD_URI_HASH)).length(), 32);
+    }
+
+    private static Map<String, Object> shortUris(TelicentGraphExecutor executor) throws IOException {
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery(SHORT_URIS_QUERY);
+        request.setVariables(Map.of("uri", "https://example.org/a"));
+        return singleNode(verifyExecution(executor, request));
+    }
+
+    private static void verifyShortUris(Map<String, Object> node, String prefix) {
+        Assert.assertEquals(node.get(TelicentGraphSchema.FIELD_SHORT_URI), prefix + "a");
+        List<Map<String, Object>> properties =
+                (List<Map<String, Object>>) node.get(TelicentGraphSchema.FIELD_PROPERTIES);
+        Assert.assertEquals(properties.get(0).get(TelicentGraphSchema.FIELD_SHORT_PREDICATE), prefix + "name");
+        List<Map<String, Object>> outRels =
+                (List<Map<String, Object>>) node.get(TelicentGraphSchema.FIELD_OUTBOUND_RELATIONSHIPS);
+        Map<String, Object> range = (Map<String, Object>) outRels.get(0).get(TelicentGraphSchema.FIELD_RANGE);
+        Assert.assertEquals(range.get(TelicentGraphSchema.FIELD_SHORT_URI), prefix + "b");
+        Map<String, Object> facets = (Map<String, Object>) ((Map<String, Object>) node.get(
+                TelicentGraphSchema.FIELD_RELATIONSHIP_FACETS)).get(TelicentGraphSchema.FIELD_OUTBOUND_RELATIONSHIPS);
+        List<Map<String, Object>> predicates =
+                (List<Map<String, Object>>) facets.get(TelicentGraphSchema.FIELD_PREDICATES);
+        Assert.assertEquals(predicates.get(0).get(TelicentGraphSchema.FIELD_SHORT_URI), prefix + "linksTo");
+    }
+
+    @Test
+    public void givenPrefixesChanged_whenQueryingShortUris_thenShortUrisReflectCurrentPrefixes() throws IOException {
+        // Given
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        Node a = NodeFactory.createURI("https://example.org/a");
+        dsg.add(Quad.defaultGraphIRI, a, NodeFactory.createURI("https://example.org/linksTo"),
+                NodeFactory.createURI("https://example.org/b"));
+        dsg.add(Quad.defaultGraphIRI, a, NodeFactory.createURI("https://example.org/name"),
+                NodeFactory.createLiteralString("A"));
+        TelicentGraphExecutor executor = new TelicentGraphExecutor(dsg);
+
+        // When and Then
+        verifyShortUris(shortUris(executor), "https://example.org/");
+
+        // And
+        dsg.prefixes().add("ex", "https://example.org/");
+        verifyShortUris(shortUris(executor), "ex:");
+        Assert.assertNotNull(dsg.getContext().get(PrefixAbbreviator.SYMBOL));
+    }
+
+    @Test
+    public void givenNodesWithRelationships_whenQueryingNormalised_thenNodesAppearOnceInEntities() throws IOException {
+        // Given
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        dsg.prefixes().add("ex", "https://example.org/");
+        Node links = NodeFactory.createURI("https://example.org/linksTo");
+        Node a = NodeFactory.createURI("https://example.org/a");
+        Node b = NodeFactory.createURI("https://example.org/b");
+        Node c = NodeFactory.createURI("https://example.org/c");
+        dsg.add(Quad.defaultGraphIRI, a, links, b);
+        dsg.add(Quad.defaultGraphIRI, b, links, c);
+        TelicentGraphExecutor executor = new TelicentGraphExecutor(dsg);
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery(PROJECTED_RELATIONSHIPS_QUERY);
+        request.setVariables(Map.of("uris", List.of(a.getURI(), b.getURI())));
+        request.setExtensions(Map.of(ResponseNormaliser.NORMALISE_EXTENSION, true));
+
+        // When
+        ExecutionResult result = verifyExecution(executor, request);
+
+        // Then
+        Map<String, Object> data = result.getData();
+        Assert.assertEquals(data.get(TelicentGraphSchema.QUERY_MULTIPLE_NODES), List.of(a.getURI(), b.getURI()));
+        Map<String, Map<String, Object>> entities =
+                (Map<String, Map<String, Object>>) result.getExtensions().get(ResponseNormaliser.ENTITIES_EXTENSION);
+        Assert.assertEquals(entities.keySet(), Set.of(a.getURI(), b.getURI(), c.getURI()));
+        Map<String, Object> entityB = entities.get(b.getURI());
+        Assert.assertEquals(entityB.get(TelicentGraphSchema.FIELD_SHORT_URI), "ex:b");
+        List<Map<String, Object>> outRels =
+                (List<Map<String, Object>>) entityB.get(TelicentGraphSchema.FIELD_OUTBOUND_RELATIONSHIPS);
+        Assert.assertEquals(outRels.get(0).get(TelicentGraphSchema.FIELD_RANGE), c.getURI());
+        Map<String, Object> entityA = entities.get(a.getURI());
+        List<Map<String, Object>> aOutRels =
+                (List<Map<String, Object>>) entityA.get(TelicentGraphSchema.FIELD_OUTBOUND_RELATIONSHIPS);
+        Assert.assertEquals(aOutRels.get(0).get(TelicentGraphSchema.FIELD_RANGE), b.getURI());
+    }
 }
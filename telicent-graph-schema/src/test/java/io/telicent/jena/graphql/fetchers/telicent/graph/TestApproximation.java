@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+public class TestApproximation {
+
+    @Test
+    public void givenStreamSmallerThanSampleSize_whenSampling_thenSampleIsComplete() {
+        // Given and When
+        Approximation.Sample<Integer> sample = Approximation.sample(IntStream.range(0, 10).boxed(), 100);
+
+        // Then
+        Assert.assertTrue(sample.complete());
+        Assert.assertEquals(sample.items(), IntStream.range(0, 10).boxed().toList());
+        Assert.assertEquals(sample.population(), 10);
+        Assert.assertEquals(sample.scale(4), 4);
+        Assert.assertNull(sample.error(4));
+    }
+
+    @Test
+    public void givenStreamLargerThanSampleSize_whenSampling_thenSampleIsUniform() {
+        // Given and When
+        Approximation.Sample<Integer> sample = Approximation.sample(IntStream.range(0, 100_000).boxed(), 1_000);
+
+        // Then
+        Assert.assertFalse(sample.complete());
+        Assert.assertEquals(sample.items().size(), 1_000);
+        Assert.assertEquals(sample.population(), 100_000);
+        Assert.assertEquals(new HashSet<>(sample.items()).size(), 1_000);
+        // Roughly half of a uniform sample should fall in the lower half of the population
+        long lower = sample.items().stream().filter(i -> i < 50_000).count();
+        Assert.assertTrue(lower > 400 && lower < 600, "Sample not uniform, " + lower + " items from lower half");
+        long estimate = sample.scale(lower);
+        Assert.assertTrue(Math.abs(estimate - 50_000) < 10_000);
+        Double error = sample.error(lower);
+        Assert.assertNotNull(error);
+        Assert.assertTrue(error > 0 && error < 0.1);
+    }
+
+    @Test
+    public void givenSameStream_whenSamplingRepeatedly_thenSameSample() {
+        // Given and When
+        List<Integer> first = Approximation.sample(IntStream.range(0, 10_000).boxed(), 50).items();
+        List<Integer> second = Approximation.sample(IntStream.range(0, 10_000).boxed(), 50).items();
+
+        // Then
+        Assert.assertEquals(first, second);
+    }
+
+    @Test
+    public void givenSample_whenNoHits_thenMaximalError() {
+        // Given
+        Approximation.Sample<Integer> sample = Approximation.sample(IntStream.range(0, 1_000).boxed(), 10);
+
+        // When and Then
+        Assert.assertEquals(sample.scale(0), 0);
+        Assert.assertEquals(sample.error(0), 1.0);
+        Assert.assertEquals(sample.error(10), 0.0);
+    }
+
+    @DataProvider(name = "cardinalities")
+    public Object[][] cardinalities() {
+        return new Object[][] { { 0 }, { 1 }, { 100 }, { 10_000 }, { 250_000 } };
+    }
+
+    @Test(dataProvider = "cardinalities")
+    public void givenDistinctNodes_whenEstimatingWithHyperLogLog_thenEstimateWithinErrorBounds(int cardinality) {
+        // Given
+        HyperLogLog sketch = new HyperLogLog();
+
+        // When
+        // Each node is added twice to verify duplicates don't inflate the estimate
+        LongStream.range(0, cardinality * 2L)
+                  .forEach(i -> sketch.add(NodeFactory.createURI("https://example.org/node" + (i % cardinality))));
+
+        // Then
+        long estimate = sketch.estimate();
+        double tolerance = Math.max(2, cardinality * HyperLogLog.relativeError() * 4);
+        Assert.assertTrue(Math.abs(estimate - cardinality) <= tolerance,
+                          "Estimate " + estimate + " for cardinality " + cardinality);
+    }
+
+    @Test
+    public void givenUriAndBlankNodeWithSameLabel_whenHashing_thenHashesDiffer() {
+        // Given
+        Node uri = NodeFactory.createURI("label");
+        Node blank = NodeFactory.createBlankNode("label");
+
+        // When and Then
+        Assert.assertNotEquals(HyperLogLog.hash(uri), HyperLogLog.hash(blank));
+        Assert.assertEquals(HyperLogLog.hash(uri), HyperLogLog.hash(NodeFactory.createURI("label")));
+    }
+
+    @Test
+    public void givenManyNodes_whenHashing_thenHashesAreDistinct() {
+        // Given
+        Set<Long> hashes = new HashSet<>();
+
+        // When
+        IntStream.range(0, 100_000).forEach(i -> hashes.add(HyperLogLog.hash(NodeFactory.createURI("n" + i))));
+
+        // Then
+        Assert.assertEquals(hashes.size(), 100_000);
+    }
+}
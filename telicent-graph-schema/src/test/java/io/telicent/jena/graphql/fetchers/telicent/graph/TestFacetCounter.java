@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import io.telicent.jena.graphql.schemas.telicent.graph.models.FacetOrder;
+import org.apache.jena.graph.Node;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.apache.jena.graph.NodeFactory.createURI;
+
+public class TestFacetCounter {
+
+    private static FacetCounter counter(int... counts) {
+        FacetCounter counter = new FacetCounter();
+        for (int i = 0; i < counts.length; i++) {
+            counter.add(createURI("urn:" + (char) ('a' + i)), counts[i]);
+        }
+        return counter;
+    }
+
+    private static List<String> uris(List<FacetCounter.Facet> facets) {
+        return facets.stream().map(f -> f.node().getURI()).toList();
+    }
+
+    @Test
+    public void givenRepeatedNodes_whenCounting_thenCountsAccumulate() {
+        // Given
+        FacetCounter counter = new FacetCounter();
+        Node a = createURI("urn:a");
+        Node b = createURI("urn:b");
+
+        // When
+        IntStream.range(0, 100).forEach(i -> counter.add(i % 3 == 0 ? a : b, 1));
+
+        // Then
+        Assert.assertEquals(counter.size(), 2);
+        Assert.assertEquals(counter.count(a), 34);
+        Assert.assertEquals(counter.count(b), 66);
+        Assert.assertEquals(counter.count(createURI("urn:c")), 0);
+    }
+
+    @Test
+    public void givenCounts_whenSelectingTopByCountDescending_thenHighestCountsFirst() {
+        // Given
+        FacetCounter counter = counter(5, 1, 9, 3, 7);
+
+        // When and Then
+        Assert.assertEquals(uris(counter.top(null, FacetOrder.COUNT_DESC)),
+                            List.of("urn:c", "urn:e", "urn:a", "urn:d", "urn:b"));
+        Assert.assertEquals(uris(counter.top(2, FacetOrder.COUNT_DESC)), List.of("urn:c", "urn:e"));
+    }
+
+    @Test
+    public void givenCounts_whenSelectingTopByCountAscending_thenLowestCountsFirst() {
+        // Given
+        FacetCounter counter = counter(5, 1, 9, 3, 7);
+
+        // When and Then
+        Assert.assertEquals(uris(counter.top(3, FacetOrder.COUNT_ASC)), List.of("urn:b", "urn:d", "urn:a"));
+    }
+
+    @Test
+    public void givenCounts_whenSelectingTopByUri_thenLexicalOrder() {
+        // Given
+        FacetCounter counter = new FacetCounter();
+        counter.add(createURI("urn:z"), 10);
+        counter.add(createURI("urn:m"), 1);
+        counter.add(createURI("urn:a"), 5);
+
+        // When and Then
+        Assert.assertEquals(uris(counter.top(null, FacetOrder.URI)), List.of("urn:a", "urn:m", "urn:z"));
+        Assert.assertEquals(uris(counter.top(1, FacetOrder.URI)), List.of("urn:a"));
+    }
+
+    @Test
+    public void givenTiedCounts_whenSelectingTop_thenTiesBrokenByUri() {
+        // Given
+        FacetCounter counter = counter(2, 2, 2, 2);
+
+        // When and Then
+        Assert.assertEquals(uris(counter.top(2, FacetOrder.COUNT_DESC)), List.of("urn:a", "urn:b"));
+    }
+
+    @Test
+    public void givenZeroLimit_whenSelectingTop_thenEmpty() {
+        // Given
+        FacetCounter counter = counter(1, 2);
+
+        // When and Then
+        Assert.assertTrue(counter.top(0, FacetOrder.COUNT_DESC).isEmpty());
+        Assert.assertTrue(new FacetCounter().top(null, FacetOrder.COUNT_DESC).isEmpty());
+    }
+
+    @Test
+    public void givenSplitInput_whenMerging_thenSameAsCountingTogether() {
+        // Given
+        Random random = new Random(12345);
+        int[] values = IntStream.range(0, 10_000).map(i -> random.nextInt(500)).toArray();
+        FacetCounter all = new FacetCounter();
+        FacetCounter left = new FacetCounter();
+        FacetCounter right = new FacetCounter();
+
+        // When
+        for (int i = 0; i < values.length; i++) {
+            Node node = createURI("urn:" + values[i]);
+            all.add(node, 1);
+            (i < values.length / 2 ? left : right).add(node, 1);
+        }
+        FacetCounter merged = left.merge(right);
+
+        // Then
+        Assert.assertEquals(merged.size(), all.size());
+        Assert.assertEquals(merged.top(null, FacetOrder.COUNT_DESC), all.top(null, FacetOrder.COUNT_DESC));
+        Assert.assertEquals(merged.top(25, FacetOrder.COUNT_ASC), all.top(25, FacetOrder.COUNT_ASC));
+    }
+}
@@ -27,6 +27,8 @@ import org.testng.annotations.Test;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
@@ -83,4 +85,47 @@ public class TestRelationshipTypeFacetsFetcher extends AbstractFetcherTests {
                                                                                       FacetInfo::getCount)),
                             Map.of("type1", 3, "type2", 2));
     }
+
+    @Test
+    public void givenManyRelatedNodes_whenFetchingTopTypeFacets_thenLookupsAreOnRequestThreadAndTopFacetsReturned()
+            throws Exception {
+        // Given
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        Node subject = createURI("subject");
+        Node predicate = createURI("predicate");
+        int relatedNodes = 2048;
+        for (int i = 0; i < relatedNodes; i++) {
+            Node object = createURI("object" + i);
+            dsg.add(new Quad(GRAPH, subject, predicate, object));
+            dsg.add(new Quad(GRAPH, object, RDF.type.asNode(), createURI("type" + (i % 4))));
+            if (i % 2 == 0) {
+                dsg.add(new Quad(GRAPH, object, RDF.type.asNode(), createURI("even")));
+            }
+        }
+        AtomicInteger typeLookupCount = new AtomicInteger();
+        Set<Thread> lookupThreads = ConcurrentHashMap.newKeySet();
+        RelationshipTypeFacetsFetcher fetcher = new RelationshipTypeFacetsFetcher(EdgeDirection.OUT) {
+            @Override
+            protected Stream<Quad> streamTypes(DatasetGraph dsg, Node relatedNode) {
+                typeLookupCount.incrementAndGet();
+                lookupThreads.add(Thread.currentThread());
+                return super.streamTypes(dsg, relatedNode);
+            }
+        };
+        DataFetchingEnvironment environment = prepareFetchingEnvironment(dsg,
+                                                                         new FacetInfoPlaceholder(
+                                                                                 new TelicentGraphNode(subject, null),
+                                                                                 null, null),
+                                                                         Map.of("limit", 2, "orderBy", "COUNT_DESC"));
+
+        // When
+        List<FacetInfo> facets = fetcher.get(environment);
+
+        // Then
+        Assert.assertEquals(typeLookupCount.get(), relatedNodes);
+        Assert.assertEquals(lookupThreads, Set.of(Thread.currentThread()));
+        Assert.assertEquals(facets.stream().map(FacetInfo::getUri).toList(), List.of("even", "type0"));
+        Assert.assertEquals(facets.get(0).getCount(), relatedNodes / 2);
+        Assert.assertEquals(facets.get(1).getCount(), relatedNodes / 4);
+    }
 }
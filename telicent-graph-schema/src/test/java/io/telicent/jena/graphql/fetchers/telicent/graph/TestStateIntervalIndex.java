@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import io.telicent.jena.graphql.schemas.telicent.graph.models.State;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.vocabulary.RDF;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static io.telicent.jena.graphql.fetchers.telicent.graph.IesFetchers.*;
+
+public class TestStateIntervalIndex extends AbstractFetcherTests {
+
+    private static final Node ENTITY = NodeFactory.createURI("https://example.org/entity");
+    private static final Node STATE_TYPE = NodeFactory.createURI("https://example.org/State");
+
+    private static long millis(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+
+    private static Node addPeriod(DatasetGraph dsg, String value) {
+        Node period = NodeFactory.createURI("http://iso.org/iso8601#" + value);
+        dsg.add(Quad.defaultGraphIRI, period, PERIOD_REPRESENTATION, NodeFactory.createLiteralString(value));
+        return period;
+    }
+
+    private static Node addState(DatasetGraph dsg, String name, String start, String end) {
+        Node state = NodeFactory.createURI("https://example.org/" + name);
+        dsg.add(Quad.defaultGraphIRI, state, RDF.type.asNode(), STATE_TYPE);
+        dsg.add(Quad.defaultGraphIRI, state, IS_STATE_OF, ENTITY);
+        if (start != null) {
+            Node bounding = NodeFactory.createURI("https://example.org/" + name + "_start");
+            dsg.add(Quad.defaultGraphIRI, bounding, IS_START_OF, state);
+            dsg.add(Quad.defaultGraphIRI, bounding, IN_PERIOD, addPeriod(dsg, start));
+        }
+        if (end != null) {
+            Node bounding = NodeFactory.createURI("https://example.org/" + name + "_end");
+            dsg.add(Quad.defaultGraphIRI, bounding, IS_END_OF, state);
+            dsg.add(Quad.defaultGraphIRI, bounding, IN_PERIOD, addPeriod(dsg, end));
+        }
+        return state;
+    }
+
+    private static DatasetGraph createTimeline() {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        addState(dsg, "a", "1990", "1995");
+        addState(dsg, "b", "1994-06", "2001-02-03");
+        addState(dsg, "c", "2010", null);
+        addState(dsg, "d", null, "1980");
+        addState(dsg, "e", null, null);
+        // A period attached directly to the state
+        Node f = NodeFactory.createURI("https://example.org/f");
+        dsg.add(Quad.defaultGraphIRI, f, RDF.type.asNode(), STATE_TYPE);
+        dsg.add(Quad.defaultGraphIRI, f, IS_START_OF, ENTITY);
+        dsg.add(Quad.defaultGraphIRI, f, IN_PERIOD, addPeriod(dsg, "1970-01-01"));
+        return dsg;
+    }
+
+    private static List<String> names(List<StateIntervalIndex.Interval> intervals) {
+        return intervals.stream().map(i -> i.state().getURI().substring("https://example.org/".length())).toList();
+    }
+
+    @Test
+    public void test_parsePeriod() {
+        Assert.assertEquals(StateIntervalIndex.parsePeriod("1982"),
+                            new long[] { millis("1982-01-01T00:00:00Z"), millis("1983-01-01T00:00:00Z") - 1 });
+        Assert.assertEquals(StateIntervalIndex.parsePeriod("1982-02"),
+                            new long[] { millis("1982-02-01T00:00:00Z"), millis("1982-03-01T00:00:00Z") - 1 });
+        Assert.assertEquals(StateIntervalIndex.parsePeriod("1982-02-03"),
+                            new long[] { millis("1982-02-03T00:00:00Z"), millis("1982-02-04T00:00:00Z") - 1 });
+        Assert.assertEquals(StateIntervalIndex.parsePeriod("1982-02-03T10:15:30"),
+                            new long[] { millis("1982-02-03T10:15:30Z"), millis("1982-02-03T10:15:30Z") });
+        Assert.assertEquals(StateIntervalIndex.parsePeriod("1982-02-03T10:15:30+01:00"),
+                            new long[] { millis("1982-02-03T09:15:30Z"), millis("1982-02-03T09:15:30Z") });
+        Assert.assertEquals(StateIntervalIndex.parsePeriod("1982/1984-06"),
+                            new long[] { millis("1982-01-01T00:00:00Z"), millis("1984-07-01T00:00:00Z") - 1 });
+    }
+
+    @Test
+    public void test_parsePeriod_invalid() {
+        Assert.assertNull(StateIntervalIndex.parsePeriod(null));
+        Assert.assertNull(StateIntervalIndex.parsePeriod(" "));
+        Assert.assertNull(StateIntervalIndex.parsePeriod("soon"));
+        Assert.assertNull(StateIntervalIndex.parsePeriod("1982-13"));
+        Assert.assertNull(StateIntervalIndex.parsePeriod("1982/never"));
+    }
+
+    @Test
+    public void test_build() {
+        DatasetGraph dsg = createTimeline();
+        StateIntervalIndex index = StateIntervalIndex.build(dsg);
+
+        // State e has no temporal information so is not indexed
+        Assert.assertEquals(index.size(), 5);
+        Assert.assertNull(StateIntervalIndex.get(dsg));
+        Assert.assertTrue(index.query(NodeFactory.createURI("https://example.org/other"), Long.MIN_VALUE,
+                                      Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void test_query_orderedByStart() {
+        StateIntervalIndex index = StateIntervalIndex.build(createTimeline());
+
+        Assert.assertEquals(names(index.query(ENTITY, Long.MIN_VALUE, Long.MAX_VALUE)),
+                            List.of("d", "f", "a", "b", "c"));
+        long instant = millis("1995-01-01T00:00:00Z");
+        Assert.assertEquals(names(index.query(ENTITY, instant, instant)), List.of("a", "b"));
+        Assert.assertEquals(
+                names(index.query(ENTITY, millis("2002-01-01T00:00:00Z"), millis("2009-01-01T00:00:00Z"))),
+                List.of());
+        Assert.assertEquals(names(index.query(ENTITY, millis("2020-01-01T00:00:00Z"), Long.MAX_VALUE)), List.of("c"));
+        Assert.assertEquals(names(index.query(ENTITY, Long.MIN_VALUE, millis("1970-01-01T12:00:00Z"))),
+                            List.of("d", "f"));
+    }
+
+    @Test
+    public void test_query_matchesOnDemandResolution() {
+        DatasetGraph dsg = createTimeline();
+        List<State> states = IesFetchers.STATE_PREDICATES.stream()
+                                                         .flatMap(p -> dsg.stream(Node.ANY, Node.ANY, p, ENTITY)
+                                                                          .map(q -> new State(q.getSubject(), p,
+                                                                                              ENTITY)))
+                                                         .toList();
+        long from = millis("1992-01-01T00:00:00Z");
+        long to = millis("1994-07-01T00:00:00Z");
+
+        List<StateIntervalIndex.Interval> onDemand = StateIntervalIndex.query(dsg, states, ENTITY, from, to);
+        StateIntervalIndex.attach(dsg);
+        Assert.assertNotNull(StateIntervalIndex.get(dsg));
+        List<StateIntervalIndex.Interval> indexed = StateIntervalIndex.query(dsg, List.of(), ENTITY, from, to);
+
+        Assert.assertEquals(names(onDemand), List.of("a", "b"));
+        Assert.assertEquals(indexed, onDemand);
+    }
+
+    @Test
+    public void test_toState_prepopulatesPeriod() {
+        StateIntervalIndex index = StateIntervalIndex.build(createTimeline());
+        List<StateIntervalIndex.Interval> intervals =
+                index.query(ENTITY, Long.MIN_VALUE, millis("1970-01-01T12:00:00Z"));
+
+        State withPeriod = intervals.get(1).toState(ENTITY);
+        Assert.assertTrue(withPeriod.hasPeriod());
+        Assert.assertEquals(withPeriod.getPeriod().getURI(), "http://iso.org/iso8601#1970-01-01");
+        Assert.assertEquals(withPeriod.getPredicateNode(), IS_START_OF);
+
+        State withoutPeriod = intervals.get(0).toState(ENTITY);
+        Assert.assertEquals(withoutPeriod.getPeriod(), Node.ANY);
+    }
+}
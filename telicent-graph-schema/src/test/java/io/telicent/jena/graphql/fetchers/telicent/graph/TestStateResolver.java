@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.State;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.vocabulary.RDF;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.apache.jena.graph.NodeFactory.createLiteralString;
+import static org.apache.jena.graph.NodeFactory.createURI;
+
+public class TestStateResolver {
+
+    private static final Node GRAPH = createURI("graph");
+    private static final Node ENTITY = createURI("entity");
+
+    private static DatasetGraph prepareDataset() {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        // A state with a directly attached period, bounded by start and end sub-states
+        dsg.add(new Quad(GRAPH, createURI("state"), IesFetchers.IS_STATE_OF, ENTITY));
+        dsg.add(new Quad(GRAPH, createURI("state"), RDF.type.asNode(), createURI("type")));
+        dsg.add(new Quad(GRAPH, createURI("state"), IesFetchers.IN_PERIOD, createURI("period")));
+        dsg.add(new Quad(GRAPH, createURI("period"), IesFetchers.PERIOD_REPRESENTATION, createLiteralString("2024")));
+        dsg.add(new Quad(GRAPH, createURI("start"), IesFetchers.IS_START_OF, createURI("state")));
+        dsg.add(new Quad(GRAPH, createURI("start"), IesFetchers.IN_PERIOD, createURI("startPeriod")));
+        dsg.add(new Quad(GRAPH, createURI("startPeriod"), IesFetchers.PERIOD_REPRESENTATION,
+                         createLiteralString("2024-01")));
+        dsg.add(new Quad(GRAPH, createURI("end"), IesFetchers.IS_END_OF, createURI("state")));
+        dsg.add(new Quad(GRAPH, createURI("end"), IesFetchers.IN_PERIOD, createURI("endPeriod")));
+        dsg.add(new Quad(GRAPH, createURI("endPeriod"), IesFetchers.PERIOD_REPRESENTATION,
+                         createLiteralString("2024-12")));
+        // A state that is itself the start of an entity
+        dsg.add(new Quad(GRAPH, createURI("birth"), IesFetchers.IS_START_OF, ENTITY));
+        dsg.add(new Quad(GRAPH, createURI("birth"), RDF.type.asNode(), createURI("Birth")));
+        dsg.add(new Quad(GRAPH, createURI("birth"), IesFetchers.IN_PERIOD, createURI("birthPeriod")));
+        dsg.add(new Quad(GRAPH, createURI("birthPeriod"), IesFetchers.PERIOD_REPRESENTATION,
+                         createLiteralString("1990-05-01")));
+        return dsg;
+    }
+
+    @Test
+    public void givenStateWithPeriodAndBounds_whenResolving_thenAllDetailsResolved() {
+        // Given
+        DatasetGraph dsg = prepareDataset();
+        TelicentExecutionContext context = new TelicentExecutionContext(dsg, "");
+        State state = new State(createURI("state"), IesFetchers.IS_STATE_OF, ENTITY);
+
+        // When
+        StateResolver.Resolved resolved = StateResolver.resolve(context, dsg, state);
+
+        // Then
+        Assert.assertEquals(resolved.type(), createURI("type"));
+        Assert.assertEquals(resolved.period(), createURI("period"));
+        Assert.assertEquals(resolved.value(), "2024");
+        Assert.assertEquals(resolved.start(), "2024-01");
+        Assert.assertEquals(resolved.end(), "2024-12");
+        Assert.assertEquals(state.getPeriod(), createURI("period"));
+    }
+
+    @Test
+    public void givenStartState_whenResolving_thenStartIsItsOwnPeriod() {
+        // Given
+        DatasetGraph dsg = prepareDataset();
+        TelicentExecutionContext context = new TelicentExecutionContext(dsg, "");
+        State state = new State(createURI("birth"), IesFetchers.IS_START_OF, ENTITY);
+
+        // When
+        StateResolver.Resolved resolved = StateResolver.resolve(context, dsg, state);
+
+        // Then
+        Assert.assertEquals(resolved.type(), createURI("Birth"));
+        Assert.assertEquals(resolved.start(), "1990-05-01");
+        Assert.assertNull(resolved.end());
+        Assert.assertEquals(resolved.value(), "1990-05-01");
+    }
+
+    @Test
+    public void givenStateWithoutDetails_whenResolving_thenNothingResolved() {
+        // Given
+        DatasetGraph dsg = prepareDataset();
+        TelicentExecutionContext context = new TelicentExecutionContext(dsg, "");
+        State state = new State(createURI("unknown"), IesFetchers.IS_STATE_OF, ENTITY);
+
+        // When
+        StateResolver.Resolved resolved = StateResolver.resolve(context, dsg, state);
+
+        // Then
+        Assert.assertNull(resolved.type());
+        Assert.assertEquals(resolved.period(), Node.ANY);
+        Assert.assertNull(resolved.start());
+        Assert.assertNull(resolved.end());
+        Assert.assertNull(resolved.value());
+    }
+
+    @Test
+    public void givenPrecomputedPeriod_whenResolving_thenPeriodIsNotLookedUpAgain() {
+        // Given
+        DatasetGraph dsg = prepareDataset();
+        TelicentExecutionContext context = new TelicentExecutionContext(dsg, "");
+        State state = new State(createURI("state"), IesFetchers.IS_STATE_OF, ENTITY);
+        state.setPeriod(createURI("endPeriod"));
+
+        // When
+        StateResolver.Resolved resolved = StateResolver.resolve(context, dsg, state);
+
+        // Then
+        Assert.assertEquals(resolved.period(), createURI("endPeriod"));
+        Assert.assertEquals(resolved.value(), "2024-12");
+        Assert.assertEquals(resolved.type(), createURI("type"));
+    }
+
+    @Test
+    public void givenResolvedState_whenResolvingAgain_thenCachedDetailsReturned() {
+        // Given
+        DatasetGraph dsg = prepareDataset();
+        TelicentExecutionContext context = new TelicentExecutionContext(dsg, "");
+        State state = new State(createURI("state"), IesFetchers.IS_STATE_OF, ENTITY);
+        StateResolver.Resolved first = StateResolver.resolve(context, dsg, state);
+
+        // When
+        dsg.clear();
+        StateResolver.Resolved second =
+                StateResolver.resolve(context, dsg, new State(createURI("state"), IesFetchers.IS_STATE_OF, ENTITY));
+
+        // Then
+        Assert.assertSame(second, first);
+    }
+
+    @Test
+    public void givenBatchOfStates_whenResolvingAll_thenEachStateIsCached() {
+        // Given
+        DatasetGraph dsg = prepareDataset();
+        TelicentExecutionContext context = new TelicentExecutionContext(dsg, "");
+        List<State> states = List.of(new State(createURI("state"), IesFetchers.IS_STATE_OF, ENTITY),
+                                     new State(createURI("birth"), IesFetchers.IS_START_OF, ENTITY));
+
+        // When
+        StateResolver.resolveAll(context, dsg, states);
+        dsg.clear();
+
+        // Then
+        Assert.assertTrue(states.stream().allMatch(State::hasPeriod));
+        Assert.assertEquals(StateResolver.resolve(context, dsg, states.get(0)).start(), "2024-01");
+        Assert.assertEquals(StateResolver.resolve(context, dsg, states.get(1)).start(), "1990-05-01");
+    }
+
+    @Test
+    public void givenSameStateViaDifferentPredicates_whenResolving_thenResolvedSeparately() {
+        // Given
+        DatasetGraph dsg = prepareDataset();
+        dsg.add(new Quad(GRAPH, createURI("birth"), IesFetchers.IS_END_OF, createURI("other")));
+        TelicentExecutionContext context = new TelicentExecutionContext(dsg, "");
+
+        // When
+        StateResolver.Resolved asStart =
+                StateResolver.resolve(context, dsg, new State(createURI("birth"), IesFetchers.IS_START_OF, ENTITY));
+        StateResolver.Resolved asEnd = StateResolver.resolve(context, dsg,
+                                                             new State(createURI("birth"), IesFetchers.IS_END_OF,
+                                                                       createURI("other")));
+
+        // Then
+        Assert.assertEquals(asStart.start(), "1990-05-01");
+        Assert.assertNull(asStart.end());
+        Assert.assertNull(asEnd.start());
+        Assert.assertEquals(asEnd.end(), "1990-05-01");
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.fetchers.telicent.graph;
+
+import io.telicent.jena.graphql.execution.telicent.graph.TelicentExecutionContext;
+import io.telicent.jena.graphql.schemas.telicent.graph.models.State;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.vocabulary.RDF;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.apache.jena.graph.NodeFactory.createURI;
+
+public class TestTypedNodes {
+
+    private static final Node GRAPH = createURI("graph");
+
+    private static DatasetGraph prepareDataset(int nodes) {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        for (int i = 0; i < nodes; i++) {
+            // Only even nodes are typed
+            if (i % 2 == 0) {
+                dsg.add(new Quad(GRAPH, createURI("node" + i), RDF.type.asNode(), createURI("type")));
+            }
+            dsg.add(new Quad(GRAPH, createURI("node" + i), IesFetchers.IS_STATE_OF, createURI("entity")));
+        }
+        return dsg;
+    }
+
+    @Test
+    public void givenCandidates_whenFilteringTyped_thenTypedCandidatesReturnedInOrder() {
+        // Given
+        DatasetGraph dsg = prepareDataset(6);
+        TypedNodes typed = TypedNodes.get(new TelicentExecutionContext(dsg, ""));
+
+        // When
+        List<Node> actual = typed.filterTyped(dsg, Stream.of(createURI("node4"), createURI("node1"),
+                                                             createURI("node0")), n -> n).toList();
+
+        // Then
+        Assert.assertEquals(actual, List.of(createURI("node4"), createURI("node0")));
+        Assert.assertEquals(typed.known(createURI("node1")), Boolean.FALSE);
+        Assert.assertEquals(typed.known(createURI("node0")), Boolean.TRUE);
+        Assert.assertNull(typed.known(createURI("node2")));
+    }
+
+    @Test
+    public void givenResolvedCandidates_whenFilteringTypedAgain_thenKnownStatusReused() {
+        // Given
+        DatasetGraph dsg = prepareDataset(4);
+        TypedNodes typed = TypedNodes.get(new TelicentExecutionContext(dsg, ""));
+        typed.filterTyped(dsg, Stream.of(createURI("node0"), createURI("node1")), n -> n).toList();
+
+        // When
+        dsg.clear();
+        List<Node> actual = typed.filterTyped(dsg, Stream.of(createURI("node0"), createURI("node2")), n -> n).toList();
+
+        // Then
+        Assert.assertEquals(actual, List.of(createURI("node0")));
+    }
+
+    @Test
+    public void givenSameContext_whenGettingTypedNodes_thenSameInstanceReturned() {
+        // Given
+        TelicentExecutionContext context = new TelicentExecutionContext(DatasetGraphFactory.create(), "");
+
+        // When and Then
+        Assert.assertSame(TypedNodes.get(context), TypedNodes.get(context));
+        Assert.assertNotSame(TypedNodes.get(context),
+                             TypedNodes.get(new TelicentExecutionContext(DatasetGraphFactory.create(), "")));
+    }
+
+    @Test
+    public void givenStreamLargerThanBatch_whenFilteringTyped_thenOnlyTypedItemsRetainedInOrder() {
+        // Given
+        int size = TypedNodes.BATCH_SIZE * 2 + 10;
+        DatasetGraph dsg = prepareDataset(size);
+        TypedNodes typed = TypedNodes.get(new TelicentExecutionContext(dsg, ""));
+
+        // When
+        List<Integer> actual = typed.filterTyped(dsg, IntStream.range(0, size).boxed(), i -> createURI("node" + i))
+                                    .toList();
+
+        // Then
+        Assert.assertEquals(actual, IntStream.range(0, size).filter(i -> i % 2 == 0).boxed().toList());
+    }
+
+    @Test
+    public void givenLargeStream_whenFilteringTypedWithLimit_thenOnlyFirstBatchConsumed() {
+        // Given
+        int size = TypedNodes.BATCH_SIZE * 4;
+        DatasetGraph dsg = prepareDataset(size);
+        TypedNodes typed = TypedNodes.get(new TelicentExecutionContext(dsg, ""));
+
+        // When
+        List<Integer> actual =
+                typed.filterTyped(dsg, IntStream.range(0, size).boxed(), i -> createURI("node" + i)).limit(5).toList();
+
+        // Then
+        Assert.assertEquals(actual, List.of(0, 2, 4, 6, 8));
+        Assert.assertNotNull(typed.known(createURI("node" + (TypedNodes.FIRST_BATCH_SIZE - 1))));
+        Assert.assertNull(typed.known(createURI("node" + TypedNodes.FIRST_BATCH_SIZE)));
+    }
+
+    @Test
+    public void givenLargeStream_whenFilteringTyped_thenBatchesGrowToMaximum() {
+        // Given
+        int size = TypedNodes.BATCH_SIZE * 4;
+        DatasetGraph dsg = prepareDataset(size);
+        TypedNodes typed = TypedNodes.get(new TelicentExecutionContext(dsg, ""));
+        int firstBatches = 0;
+        for (int batch = TypedNodes.FIRST_BATCH_SIZE; batch < TypedNodes.BATCH_SIZE; batch *= 2) {
+            firstBatches += batch;
+        }
+
+        // When
+        List<Integer> actual = typed.filterTyped(dsg, IntStream.range(0, size).boxed(), i -> createURI("node" + i))
+                                    .limit(firstBatches / 2 + 1)
+                                    .toList();
+
+        // Then
+        Assert.assertEquals(actual.size(), firstBatches / 2 + 1);
+        Assert.assertNotNull(typed.known(createURI("node" + (firstBatches + TypedNodes.BATCH_SIZE - 1))));
+        Assert.assertNull(typed.known(createURI("node" + (firstBatches + TypedNodes.BATCH_SIZE))));
+    }
+
+    @Test
+    public void givenEmptyStream_whenFilteringTyped_thenEmpty() {
+        // Given
+        DatasetGraph dsg = prepareDataset(0);
+        TypedNodes typed = TypedNodes.get(new TelicentExecutionContext(dsg, ""));
+
+        // When and Then
+        Assert.assertEquals(typed.filterTyped(dsg, Stream.<Node>empty(), n -> n).count(), 0L);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void givenStateKnownToBeUntyped_whenFetchingType_thenFailsWithoutLookup() throws Exception {
+        // Given
+        DatasetGraph dsg = prepareDataset(2);
+        TelicentExecutionContext context = new TelicentExecutionContext(dsg, "");
+        TypedNodes.get(context).record(createURI("node0"), false);
+
+        // When and Then
+        new StateTypeFetcher().get(AbstractFetcherTests.prepareFetchingEnvironment(context, new State(
+                createURI("node0"), IesFetchers.IS_STATE_OF, createURI("entity"))));
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) Telicent Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.telicent.jena.graphql.schemas.telicent.graph.models;
+
+import io.telicent.jena.graphql.utils.Hash128;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.MurmurHash3;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.vocabulary.XSD;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TestIdStrategy {
+
+    private static final Node SUBJECT = NodeFactory.createURI("https://example.org/subject");
+    private static final Node PREDICATE = NodeFactory.createURI("https://example.org/predicate");
+    private static final Node OBJECT = NodeFactory.createURI("https://example.org/object");
+
+    @DataProvider(name = "strings")
+    public Object[][] strings() {
+        Random random = new Random(42);
+        Object[][] data = new Object[40][];
+        for (int length = 0; length < data.length; length++) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                builder.append((char) random.nextInt(0xd800));
+            }
+            data[length] = new Object[] { builder.toString() };
+        }
+        return data;
+    }
+
+    @Test(dataProvider = "strings")
+    public void givenString_whenHashing_thenSameAsMurmurHash3OverUtf16(String value) {
+        // Given
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_16LE);
+
+        // When
+        long[] actual = new Hash128().putChars(value).finish();
+
+        // Then
+        Assert.assertEquals(actual, MurmurHash3.hash128x64(bytes, 0, bytes.length, 0));
+    }
+
+    @Test
+    public void givenSha1Strategy_whenComputingIds_thenSameAsPreviousScheme() {
+        // Given
+        Relationship relationship = new Relationship(SUBJECT, PREDICATE, OBJECT, null);
+
+        // When
+        String id = relationship.getId(IdStrategy.SHA1);
+
+        // Then
+        Assert.assertEquals(id, DigestUtils.sha1Hex(
+                "<https://example.org/subject> <https://example.org/predicate> <https://example.org/object>."));
+        Assert.assertEquals(relationship.getId(), id);
+        Assert.assertEquals(new TelicentGraphNode(SUBJECT, null).getUriHash(),
+                            DigestUtils.sha1Hex("https://example.org/subject"));
+    }
+
+    @Test
+    public void givenFastStrategy_whenComputingIds_thenStable128BitHex() {
+        // Given
+        Relationship relationship = new Relationship(SUBJECT, PREDICATE, OBJECT, null);
+
+        // When
+        String id = relationship.getId(IdStrategy.FAST);
+
+        // Then
+        Assert.assertEquals(id.length(), 32);
+        Assert.assertTrue(id.matches("[0-9a-f]{32}"));
+        Assert.assertEquals(new Relationship(SUBJECT, PREDICATE, OBJECT, null).getId(IdStrategy.FAST), id);
+        Assert.assertNotEquals(relationship.getId(IdStrategy.SHA1), id);
+        Assert.assertEquals(new TelicentGraphNode(SUBJECT, null).getUriHash(IdStrategy.FAST).length(), 32);
+    }
+
+    @Test
+    public void givenDistinctRelationships_whenComputingFastIds_thenDistinct() {
+        // Given
+        List<Node> nodes = List.of(NodeFactory.createURI("https://example.org/a"),
+                                   NodeFactory.createURI("https://example.org/ab"),
+                                   NodeFactory.createBlankNode("https://example.org/a"),
+                                   NodeFactory.createLiteralString("https://example.org/a"),
+                                   NodeFactory.createLiteralLang("https://example.org/a", "en"),
+                                   NodeFactory.createLiteralDT("https://example.org/a", XSD.anyURI.asNode()));
+        Set<String> ids = new HashSet<>();
+
+        // When
+        for (Node subject : nodes) {
+            for (Node object : nodes) {
+                ids.add(new Relationship(subject, PREDICATE, object, null).getId(IdStrategy.FAST));
+            }
+        }
+
+        // Then
+        Assert.assertEquals(ids.size(), nodes.size() * nodes.size());
+    }
+}
@@ -13,6 +13,9 @@
 package io.telicent.jena.graphql.schemas.telicent.graph.models;
 
 import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.riot.system.PrefixMap;
+import org.apache.jena.riot.system.PrefixMapFactory;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -31,4 +34,35 @@ public class TestRelationship {
         // then
         Assert.assertEquals(firstID, secondID);
     }
+
+    @Test
+    public void givenNodes_whenCreatingRelationship_thenSameAsCreatingFromWrappers() {
+        // given
+        PrefixMap prefixes = PrefixMapFactory.create();
+        prefixes.add("ex", "https://example.org/");
+        Node subject = NodeFactory.createURI("https://example.org/subject");
+        Node predicate = NodeFactory.createURI("https://example.org/predicate");
+        Node object = NodeFactory.createBlankNode("object");
+        Relationship expected = new Relationship(new TelicentGraphNode(subject, prefixes),
+                                                 new TelicentGraphNode(predicate, prefixes),
+                                                 new TelicentGraphNode(object, prefixes));
+
+        // when
+        Relationship actual = new Relationship(subject, predicate, object, prefixes);
+
+        // then
+        Assert.assertEquals(actual.getId(), expected.getId());
+        Assert.assertEquals(actual.getDomainId(), expected.getDomainId());
+        Assert.assertEquals(actual.getPredicate(), expected.getPredicate());
+        Assert.assertEquals(actual.getRangeId(), expected.getRangeId());
+        Assert.assertEquals(actual.getDomain().getShortUri(), "ex:subject");
+        Assert.assertEquals(actual.getRange().getUri(), expected.getRange().getUri());
+        Assert.assertSame(actual.getDomain(), actual.getDomain());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void givenNullNode_whenCreatingRelationship_thenNPE() {
+        // given, when and then
+        new Relationship(Node.ANY, null, Node.ANY, null);
+    }
 }
@@ -13,6 +13,7 @@
 package io.telicent.jena.graphql.schemas.telicent.graph.models;
 
 import io.telicent.jena.graphql.schemas.telicent.graph.TelicentGraphSchema;
+import io.telicent.jena.graphql.utils.PrefixAbbreviator;
 import org.apache.jena.graph.Node;
 import org.apache.jena.riot.system.PrefixMap;
 import org.apache.jena.riot.system.PrefixMapFactory;
@@ -96,4 +97,37 @@ public class TestTelicentGraphNode {
         Assert.assertNotNull(actual);
         Assert.assertNotEquals(actual, RANDOM_ID);
     }
+
+    @Test
+    public void test_derivedStrings_memoised() {
+        // given
+        PrefixMap prefixMap = PrefixMapFactory.create();
+        prefixMap.add(RANDOM_ID, "test/");
+        TelicentGraphNode node = new TelicentGraphNode(createURI("test/" + RANDOM_ID), prefixMap);
+        // when
+        String shortUri = node.getShortUri();
+        String hash = node.getUriHash(IdStrategy.FAST);
+        // then
+        Assert.assertSame(node.getUri(), node.getUri());
+        Assert.assertSame(node.getShortUri(), shortUri);
+        Assert.assertSame(node.getUriHash(IdStrategy.FAST), hash);
+        Assert.assertNotEquals(node.getUriHash(IdStrategy.SHA1), hash);
+        Assert.assertEquals(node.getUriHash(IdStrategy.FAST), hash);
+    }
+
+    @Test
+    public void test_getShortURI_abbreviator() {
+        // given
+        PrefixMap prefixMap = PrefixMapFactory.create();
+        prefixMap.add(RANDOM_ID, "test/");
+        TelicentGraphNode node = new TelicentGraphNode(createURI("test/" + RANDOM_ID), null);
+        PrefixAbbreviator abbreviator = PrefixAbbreviator.of(prefixMap);
+        // when
+        String shortUri = node.getShortUri(abbreviator);
+        // then
+        Assert.assertEquals(shortUri, RANDOM_ID + ":" + RANDOM_ID);
+        Assert.assertSame(node.getShortUri(abbreviator), shortUri);
+        Assert.assertEquals(node.getShortUri(PrefixAbbreviator.of(PrefixMapFactory.create())), "test/" + RANDOM_ID);
+        Assert.assertEquals(node.getShortUri(null), "test/" + RANDOM_ID);
+    }
 }